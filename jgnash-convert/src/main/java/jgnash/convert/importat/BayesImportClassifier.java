@@ -19,6 +19,7 @@ package jgnash.convert.importat;
 
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 import jgnash.bayes.BayesClassifier;
 import jgnash.engine.Account;
@@ -65,7 +66,7 @@ public class BayesImportClassifier {
         final BayesClassifier<Account> classifier = new BayesClassifier<>(baseAccount);
 
         for (final Transaction t : transactions) {
-            final Set<Account> accountSet = t.getAccounts();
+            final Set<Account> accountSet = new TreeSet<>(t.getAccounts());
 
             accountSet.remove(baseAccount);
 
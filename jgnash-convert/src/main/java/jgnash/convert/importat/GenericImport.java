@@ -17,7 +17,7 @@
  */
 package jgnash.convert.importat;
 
-import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.logging.Level;
@@ -32,7 +32,6 @@ import jgnash.engine.SecurityHistoryNode;
 import jgnash.engine.SecurityNode;
 import jgnash.engine.Transaction;
 import jgnash.engine.TransactionFactory;
-import jgnash.time.DateUtils;
 import jgnash.util.NotNull;
 
 /**
@@ -54,6 +53,8 @@ public class GenericImport {
         final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
         Objects.requireNonNull(engine);
 
+        final List<Transaction> batch = new ArrayList<>();
+
         for (final ImportTransaction tran : transactions) {
             Objects.requireNonNull(tran.getAccount());
 
@@ -86,9 +87,14 @@ public class GenericImport {
                 }
 
                 transaction.setFitid(tran.getFITID());
-                engine.addTransaction(transaction);
+                batch.add(transaction);
             }
         }
+
+        // add as a single batch to limit locking, persistence commits and UI refreshes
+        if (!batch.isEmpty()) {
+            engine.addTransactions(batch);
+        }
     }
 
     /**
@@ -100,52 +106,16 @@ public class GenericImport {
     public static void matchTransactions(final List<? extends ImportTransaction> list, @NotNull final Account baseAccount) {
         Objects.requireNonNull(baseAccount);
 
-        for (final ImportTransaction importTransaction : list) {
-
-            // amount must always match
-            for (final Transaction tran : baseAccount.getSortedTransactionList()) {
-
-                // amounts must be comparably the same, do not use an equality check
-                if (tran.getAmount(baseAccount).compareTo(importTransaction.getAmount()) == 0) {
-
-                    // check for date match
-                    final LocalDate startDate;
-                    final LocalDate endDate;
-
-                    // we have a user initiated date, use a smaller window
-                    if ((importTransaction.getDateUser() != null)) {
-                        startDate = importTransaction.getDateUser().minusDays(1);
-                        endDate = importTransaction.getDateUser().plusDays(1);
-                    } else { // use the posted date with a larger window
-                        startDate = importTransaction.getDatePosted().minusDays(3);
-                        endDate = importTransaction.getDatePosted().plusDays(3);
-                    }
-
-                    if (DateUtils.after(tran.getLocalDate(), startDate) && DateUtils.before(tran.getLocalDate(), endDate)) {
-                        importTransaction.setState(ImportState.EQUAL);
-                        break;
-                    }
-
-
-                    // check for matching check number
-                    final String checkNumber = importTransaction.getCheckNumber();
-                    if (checkNumber != null && !checkNumber.isEmpty()) {
-                        if (tran.getNumber().equals(checkNumber)) {
-                            importTransaction.setState(ImportState.EQUAL);
-                            break;
-                        }
-                    }
+        if (list.isEmpty()) {
+            return;
+        }
 
-                    // check for matching fitid number
-                    final String id = importTransaction.getFITID();
-                    if (id != null && !id.isEmpty()) {
-                        if (tran.getFitid() != null && tran.getFitid().equals(id)) {
-                            importTransaction.setState(ImportState.EQUAL);
-                            break;
-                        }
-                    }
+        // index the existing transactions once instead of searching them for every imported transaction
+        final TransactionMatchIndex matchIndex = new TransactionMatchIndex(baseAccount);
 
-                }
+        for (final ImportTransaction importTransaction : list) {
+            if (matchIndex.matches(importTransaction)) {
+                importTransaction.setState(ImportState.EQUAL);
             }
         }
     }
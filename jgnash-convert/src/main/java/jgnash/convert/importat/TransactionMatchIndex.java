@@ -0,0 +1,156 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.convert.importat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jgnash.engine.Account;
+import jgnash.engine.Transaction;
+
+/**
+ * Temporary index of an account's transactions used to detect previously imported transactions.
+ * <p>
+ * Transactions are grouped by amount and kept in date order so a date window is resolved with a binary search.
+ * Check numbers and FITIDs are indexed separately.  Each imported transaction is only compared against the
+ * handful of transactions with the same amount.
+ *
+ * @author Craig Cavanaugh
+ */
+class TransactionMatchIndex {
+
+    private final Account account;
+
+    /**
+     * Transactions grouped by amount, sorted by date.  Amounts are stripped of trailing zeros so that values with a
+     * different scale share a key.
+     */
+    private final Map<BigDecimal, List<Transaction>> amountMap = new HashMap<>();
+
+    private final Map<String, List<Transaction>> numberMap = new HashMap<>();
+
+    private final Map<String, List<Transaction>> fitidMap = new HashMap<>();
+
+    TransactionMatchIndex(final Account account) {
+        this.account = account;
+
+        // the sorted transaction list is ordered by date first
+        for (final Transaction transaction : account.getSortedTransactionList()) {
+            amountMap.computeIfAbsent(getKey(transaction.getAmount(account)), k -> new ArrayList<>()).add(transaction);
+
+            final String number = transaction.getNumber();
+
+            if (number != null && !number.isEmpty()) {
+                numberMap.computeIfAbsent(number, k -> new ArrayList<>()).add(transaction);
+            }
+
+            final String fitid = transaction.getFitid();
+
+            if (fitid != null && !fitid.isEmpty()) {
+                fitidMap.computeIfAbsent(fitid, k -> new ArrayList<>()).add(transaction);
+            }
+        }
+    }
+
+    /**
+     * Determines if an imported transaction matches an existing transaction.  The amount must always match and
+     * the transaction must fall within a date window or share a check number or FITID.
+     *
+     * @param importTransaction imported transaction to test
+     * @return {@code true} if a matching transaction exists
+     */
+    boolean matches(final ImportTransaction importTransaction) {
+        final BigDecimal amount = importTransaction.getAmount();
+
+        if (amount == null) {
+            return false;
+        }
+
+        final List<Transaction> candidates = amountMap.getOrDefault(getKey(amount), Collections.emptyList());
+
+        if (candidates.isEmpty()) {
+            return false;
+        }
+
+        // check for date match
+        final LocalDate startDate;
+        final LocalDate endDate;
+
+        // we have a user initiated date, use a smaller window
+        if ((importTransaction.getDateUser() != null)) {
+            startDate = importTransaction.getDateUser().minusDays(1);
+            endDate = importTransaction.getDateUser().plusDays(1);
+        } else { // use the posted date with a larger window
+            startDate = importTransaction.getDatePosted().minusDays(3);
+            endDate = importTransaction.getDatePosted().plusDays(3);
+        }
+
+        final int index = indexOf(candidates, startDate);
+
+        if (index < candidates.size() && !candidates.get(index).getLocalDate().isAfter(endDate)) {
+            return true;
+        }
+
+        // check for matching check number or fitid number
+        return matches(numberMap, importTransaction.getCheckNumber(), amount)
+                || matches(fitidMap, importTransaction.getFITID(), amount);
+    }
+
+    private boolean matches(final Map<String, List<Transaction>> map, final String key, final BigDecimal amount) {
+        if (key != null && !key.isEmpty()) {
+            for (final Transaction transaction : map.getOrDefault(key, Collections.emptyList())) {
+
+                // amounts must be comparably the same, do not use an equality check
+                if (transaction.getAmount(account).compareTo(amount) == 0) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static BigDecimal getKey(final BigDecimal amount) {
+        return amount.signum() == 0 ? BigDecimal.ZERO : amount.stripTrailingZeros();
+    }
+
+    /**
+     * Binary search for the first transaction with a date on or after the supplied date.
+     */
+    private static int indexOf(final List<Transaction> transactions, final LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (transactions.get(mid).getLocalDate().isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+}
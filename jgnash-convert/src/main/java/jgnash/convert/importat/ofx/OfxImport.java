@@ -59,6 +59,8 @@ public class OfxImport {
         final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
         Objects.requireNonNull(engine);
 
+        final List<Transaction> batch = new ArrayList<>();
+
         for (final ImportTransaction tran : ofxBank.getTransactions()) {
 
             // do not import matched transactions
@@ -101,10 +103,15 @@ public class OfxImport {
                 // add the new transaction
                 if (transaction != null) {
                     transaction.setFitid(tran.getFITID());
-                    engine.addTransaction(transaction);
+                    batch.add(transaction);
                 }
             }
         }
+
+        // add as a single batch to limit locking, persistence commits and UI refreshes
+        if (!batch.isEmpty()) {
+            engine.addTransactions(batch);
+        }
     }
 
     private static InvestmentTransaction importInvestmentTransaction(final OfxBank ofxBank, final ImportTransaction ofxTransaction,
@@ -0,0 +1,177 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.convert.importat;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.Transaction;
+import jgnash.engine.TransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests duplicate detection of imported transactions.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class MatchTransactionsTest {
+
+    private static final LocalDate START = LocalDate.of(2000, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void matchTransactions(final TemporaryFolder testFolder) throws IOException {
+        final Engine e = createEngine(testFolder);
+        final Account checking = createAccount(e, AccountType.CHECKING, "Checking");
+        final Account expense = createAccount(e, AccountType.EXPENSE, "Expense");
+
+        final Transaction transaction = TransactionFactory.generateDoubleEntryTransaction(expense, checking,
+                new BigDecimal("25.00"), START, "memo", "payee", "101");
+        transaction.setFitid("FITID-1");
+        assertTrue(e.addTransaction(transaction));
+
+        final List<ImportTransaction> list = new ArrayList<>();
+
+        // inside the posted date window, different scale
+        list.add(createImportTransaction(new BigDecimal("-25"), START.plusDays(3), null, null, null));
+
+        // outside the user date window
+        list.add(createImportTransaction(new BigDecimal("-25.00"), START.plusDays(10), START.plusDays(2), null,
+                null));
+
+        // outside the window but same check number
+        list.add(createImportTransaction(new BigDecimal("-25.00"), START.plusDays(30), null, "101", null));
+
+        // outside the window but same fitid
+        list.add(createImportTransaction(new BigDecimal("-25.00"), START.plusDays(30), null, null, "FITID-1"));
+
+        // same fitid but a different amount
+        list.add(createImportTransaction(new BigDecimal("-26.00"), START, null, "101", "FITID-1"));
+
+        GenericImport.matchTransactions(list, checking);
+
+        assertEquals(ImportState.EQUAL, list.get(0).getState());
+        assertEquals(ImportState.NEW, list.get(1).getState());
+        assertEquals(ImportState.EQUAL, list.get(2).getState());
+        assertEquals(ImportState.EQUAL, list.get(3).getState());
+        assertEquals(ImportState.NEW, list.get(4).getState());
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void matchTransactionsBenchmark(final TemporaryFolder testFolder) throws IOException {
+        final int historyCount = 100_000;
+        final int importCount = 5_000;
+
+        final Engine e = createEngine(testFolder);
+        final Account checking = createAccount(e, AccountType.CHECKING, "Checking");
+        final Account expense = createAccount(e, AccountType.EXPENSE, "Expense");
+
+        final List<Transaction> transactions = new ArrayList<>();
+
+        for (int i = 0; i < historyCount; i++) {
+            transactions.add(TransactionFactory.generateDoubleEntryTransaction(expense, checking,
+                    BigDecimal.valueOf(i % 5000 + 1, 2), START.plusDays(i / 10), "memo", "payee", ""));
+        }
+
+        assertTrue(e.addTransactions(transactions));
+
+        final List<ImportTransaction> list = new ArrayList<>();
+
+        for (int i = 0; i < importCount; i++) {
+            final int row = historyCount - importCount / 2 + i;   // half of the rows are duplicates
+
+            list.add(createImportTransaction(BigDecimal.valueOf(-(row % 5000 + 1), 2), START.plusDays(row / 10),
+                    null, null, null));
+        }
+
+        final long start = System.nanoTime();
+
+        GenericImport.matchTransactions(list, checking);
+
+        final long elapsed = System.nanoTime() - start;
+
+        final long matched = list.stream().filter(t -> t.getState() == ImportState.EQUAL).count();
+
+        assertEquals(importCount / 2, matched);
+
+        System.out.printf("Matched %d of %d imported transactions against %d transactions in %d ms%n", matched,
+                importCount, historyCount, elapsed / 1_000_000);
+    }
+
+    private static Engine createEngine(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("match-test.bxds").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.BINARY_XSTREAM);
+
+        assertNotNull(e);
+
+        return e;
+    }
+
+    private static Account createAccount(final Engine e, final AccountType type, final String name) {
+        final CurrencyNode node = e.getDefaultCurrency();
+
+        final Account account = new Account(type, node);
+        account.setName(name);
+        assertTrue(e.addAccount(e.getRootAccount(), account));
+
+        return account;
+    }
+
+    private static ImportTransaction createImportTransaction(final BigDecimal amount, final LocalDate datePosted,
+                                                             final LocalDate dateUser, final String checkNumber,
+                                                             final String fitid) {
+        final ImportTransaction importTransaction = new ImportTransaction();
+
+        importTransaction.setAmount(amount);
+        importTransaction.setDatePosted(datePosted);
+        importTransaction.setDateUser(dateUser);
+        importTransaction.setCheckNumber(checkNumber);
+        importTransaction.setFITID(fitid);
+
+        return importTransaction;
+    }
+}
@@ -158,8 +158,19 @@ public class Account extends StoredObject implements Comparable<Account> {
      * Cached list of sorted transactions that is not persisted. This prevents concurrency issues when using a JPA backend
      */
     @Transient
-    private transient List<Transaction> cachedSortedTransactionList;
+    private transient SortedTransactionList cachedSortedTransactionList;
 
+    /**
+     * Running balance index of the cached sorted transaction list.  This is not persisted.
+     */
+    @Transient
+    private transient RunningBalanceIndex runningBalanceIndex;
+
+    /**
+     * Per security index of the investment transactions.  This is not persisted.
+     */
+    @Transient
+    private transient SecurityTransactionIndex securityTransactionIndex;
 
     /**
      * Cached list of sorted accounts this is not persisted.  This prevents concurrency issues when using a JPA backend
@@ -294,11 +305,16 @@ public class Account extends StoredObject implements Comparable<Account> {
                 transactions.add(tran);
 
                 /* The cached list may already contain the transaction if it has not been initialized yet */
-                if (!getCachedSortedTransactionList().contains(tran)) {
-                    getCachedSortedTransactionList().add(tran);
-                    Collections.sort(getCachedSortedTransactionList());
+                final int index = getCachedSortedTransactionList().insert(tran);
+
+                // only the tail of the running balance needs to be recalculated
+                if (index >= 0) {
+                    getRunningBalanceIndex().invalidateFrom(index);
+                } else {
+                    getRunningBalanceIndex().invalidateFrom(getCachedSortedTransactionList().indexOf(tran));
                 }
 
+                getSecurityTransactionIndex().clear();
                 clearCachedBalances();
 
                 result = true;
@@ -327,8 +343,16 @@ public class Account extends StoredObject implements Comparable<Account> {
             boolean result = false;
 
             if (contains(tran)) {
+                final int index = getCachedSortedTransactionList().indexOf(tran);
+
                 transactions.remove(tran);
-                getCachedSortedTransactionList().remove(tran);
+
+                if (index >= 0) {
+                    getCachedSortedTransactionList().remove(index);
+                    getRunningBalanceIndex().invalidateFrom(index);
+                }
+
+                getSecurityTransactionIndex().clear();
                 clearCachedBalances();
 
                 result = true;
@@ -733,6 +757,15 @@ public class Account extends StoredObject implements Comparable<Account> {
         return amount.multiply(getCurrencyNode().getExchangeRate(node));
     }
 
+    private BigDecimal adjustForExchangeRate(final BigDecimal amount, final CurrencyNode node, final LocalDate date) {
+        if (node.equals(getCurrencyNode())) { // child has the same commodity type
+            return amount;
+        }
+
+        // the account has a different currency, use the exchange rate in effect on the date
+        return amount.multiply(getCurrencyNode().getExchangeRate(node, date));
+    }
+
     /**
      * Returns the date of the first unreconciled transaction.
      *
@@ -920,7 +953,8 @@ public class Account extends StoredObject implements Comparable<Account> {
 
     /**
      * Returns the account balance up to and inclusive of the supplied date. The
-     * returned balance is converted to the specified commodity.
+     * returned balance is converted to the specified commodity at the exchange
+     * rate in effect on the end date.
      *
      * @param startDate start date
      * @param endDate   end date
@@ -931,7 +965,7 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
-            return adjustForExchangeRate(getBalance(startDate, endDate), node);
+            return adjustForExchangeRate(getBalance(startDate, endDate), node, endDate);
         } finally {
             transactionLock.readLock().unlock();
         }
@@ -1002,9 +1036,29 @@ public class Account extends StoredObject implements Comparable<Account> {
         }
     }
 
+    /**
+     * Returns the account balances up to and inclusive of each of the supplied dates.  The transactions are
+     * only walked once, so this is preferred over repeated calls to {@link #getBalance(LocalDate)}.
+     *
+     * @param dates The inclusive ending dates in ascending order
+     * @return The ending balances in the order of the supplied dates
+     */
+    public BigDecimal[] getBalances(final List<LocalDate> dates) {
+        Objects.requireNonNull(dates);
+
+        transactionLock.readLock().lock();
+
+        try {
+            return getProxy().getBalances(dates);
+        } finally {
+            transactionLock.readLock().unlock();
+        }
+    }
+
     /**
      * Returns the account balance up to and inclusive of the supplied date. The
-     * returned balance is converted to the specified commodity.
+     * returned balance is converted to the specified commodity at the exchange
+     * rate in effect on the date.
      *
      * @param node The commodity to convert balance to
      * @param date The inclusive ending date
@@ -1014,7 +1068,7 @@ public class Account extends StoredObject implements Comparable<Account> {
         transactionLock.readLock().lock();
 
         try {
-            return adjustForExchangeRate(getBalance(date), node);
+            return adjustForExchangeRate(getBalance(date), node, date);
         } finally {
             transactionLock.readLock().unlock();
         }
@@ -1466,17 +1520,46 @@ public class Account extends StoredObject implements Comparable<Account> {
      * @return List of sorted transactions
      * @see #getSortedTransactionList
      */
-    private List<Transaction> getCachedSortedTransactionList() {
+    private SortedTransactionList getCachedSortedTransactionList() {
 
         // Lazy initialization
         if (cachedSortedTransactionList == null) {
-            cachedSortedTransactionList = new ArrayList<>(transactions);
-            Collections.sort(cachedSortedTransactionList);
+            cachedSortedTransactionList = new SortedTransactionList(transactions);
         }
 
         return cachedSortedTransactionList;
     }
 
+    /**
+     * Provides access to the running balance index of the sorted transaction list.
+     *
+     * @return the running balance index
+     */
+    RunningBalanceIndex getRunningBalanceIndex() {
+
+        // Lazy initialization
+        if (runningBalanceIndex == null) {
+            runningBalanceIndex = new RunningBalanceIndex(this);
+        }
+
+        return runningBalanceIndex;
+    }
+
+    /**
+     * Provides access to the per security index of the investment transactions.
+     *
+     * @return the security transaction index
+     */
+    SecurityTransactionIndex getSecurityTransactionIndex() {
+
+        // Lazy initialization
+        if (securityTransactionIndex == null) {
+            securityTransactionIndex = new SecurityTransactionIndex(this);
+        }
+
+        return securityTransactionIndex;
+    }
+
     /**
      * Required by XStream for proper initialization.
      *
@@ -22,8 +22,6 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 
-import jgnash.time.DateUtils;
-
 /**
  * Proxy class to locate account balance behaviors. Depending on account type, summation of transaction types are
  * handled differently.
@@ -48,13 +46,7 @@ class AccountProxy {
         l.lock();
 
         try {
-            BigDecimal balance = BigDecimal.ZERO;
-
-            for (Transaction transaction : account.getSortedTransactionList()) {
-                balance = balance.add(transaction.getAmount(account));
-            }
-
-            return balance;
+            return account.getRunningBalanceIndex().getBalance();
         } finally {
             l.unlock();
         }
@@ -71,14 +63,7 @@ class AccountProxy {
         l.lock();
 
         try {
-            BigDecimal balance = BigDecimal.ZERO;
-
-            List<Transaction> transactions = account.getSortedTransactionList();
-
-            for (int i = 0; i <= index; i++) {
-                balance = balance.add(transactions.get(i).getAmount(account));
-            }
-            return balance;
+            return account.getRunningBalanceIndex().getBalanceAt(index);
         } finally {
             l.unlock();
         }
@@ -96,17 +81,7 @@ class AccountProxy {
         l.lock();
 
         try {
-            BigDecimal balance = BigDecimal.ZERO;
-
-            for (final Transaction t : account.getSortedTransactionList()) {
-                final LocalDate d = t.getLocalDate();
-
-                if (DateUtils.after(d, start) && DateUtils.before(d, end)) {
-                    balance = balance.add(t.getAmount(account));
-                }
-            }
-
-            return balance;
+            return account.getRunningBalanceIndex().getBalance(start, end);
         } finally {
             l.unlock();
         }
@@ -123,13 +98,47 @@ class AccountProxy {
         l.lock();
 
         try {
+            return account.getRunningBalanceIndex().getBalance(date);
+        } finally {
+            l.unlock();
+        }
+    }
+
+    /**
+     * Returns the account balances up to and inclusive of each of the supplied dates.
+     * <p>
+     * The sorted transactions are walked once regardless of the number of dates.
+     *
+     * @param dates inclusive ending dates in ascending order
+     * @return the ending balances in the order of the supplied dates
+     */
+    public BigDecimal[] getBalances(final List<LocalDate> dates) {
+        final Lock l = account.getTransactionLock().readLock();
+        l.lock();
+
+        try {
+            final List<Transaction> transactions = account.getSortedTransactionList();
+            final BigDecimal[] balances = new BigDecimal[dates.size()];
+
             BigDecimal balance = BigDecimal.ZERO;
+            int index = 0;
+
+            for (int i = 0; i < balances.length; i++) {
+                final LocalDate date = dates.get(i);
+
+                if (i > 0 && date.isBefore(dates.get(i - 1))) {
+                    throw new IllegalArgumentException("Dates must be in ascending order");
+                }
 
-            if (!account.transactions.isEmpty()) {
-                balance = getBalance(account.getSortedTransactionList().get(0).getLocalDate(), date);
+                while (index < transactions.size() && !transactions.get(index).getLocalDate().isAfter(date)) {
+                    balance = balance.add(transactions.get(index).getAmount(account));
+                    index++;
+                }
+
+                balances[i] = balance;
             }
 
-            return balance;
+            return balances;
         } finally {
             l.unlock();
         }
@@ -190,17 +199,12 @@ class AccountProxy {
         try {
             final LocalDate date = account.getFirstUnreconciledTransactionDate();
 
-            final List<Transaction> transactions = account.getSortedTransactionList();
+            final int index = account.getRunningBalanceIndex().indexOf(date);
 
             BigDecimal balance = BigDecimal.ZERO;
 
-            for (int i = 0; i < transactions.size(); i++) {
-                if (transactions.get(i).getLocalDate().equals(date)) {
-                    if (i > 0) {
-                        balance = getBalanceAt(i - 1);
-                    }
-                    break;
-                }
+            if (index > 0 && index < account.getTransactionCount()) {
+                balance = getBalanceAt(index - 1);
             }
             return balance;
         } finally {
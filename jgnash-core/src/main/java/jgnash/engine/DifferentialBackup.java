@@ -0,0 +1,367 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import jgnash.engine.message.Message;
+import jgnash.engine.message.MessageListener;
+import jgnash.engine.message.MessageProperty;
+import jgnash.engine.xstream.XMLDataStore;
+import jgnash.util.FileUtils;
+import jgnash.util.NotNull;
+
+/**
+ * Writes differential backups of a file.
+ * <p>
+ * The uuids of {@code StoredObjects} referenced by message bus events are recorded as they are changed.  A backup
+ * only writes the objects changed since the previous backup to a small compressed archive of changes.  Changes are
+ * only recorded while listening, so the first backup is a full compressed XML backup.  Another full backup is
+ * written once the full backup interval of change archives have been written for it.
+ * <p>
+ * Backups are stamped to the second and a backup never replaces an existing one.  Change archives are named after
+ * the full backup they apply to: {@code <file>-<full backup time stamp>-changes-<time stamp>.zip}.  The file can be
+ * rebuilt at any point in time from the latest full backup made before it and the change archives written after
+ * the full backup.
+ *
+ * @author Craig Cavanaugh
+ * @see EngineFactory#exportCompressedXML(String, Engine)
+ */
+public class DifferentialBackup implements MessageListener {
+
+    private static final String CHANGES = "-changes";
+
+    private static final String CHANGES_ENTRY_EXT = ".journal";
+
+    private static final String ZIP_EXT = ".zip";
+
+    private static final String TIME_STAMP = "yyyyMMdd-HHmmss";
+
+    /**
+     * Time stamp of the full backups written by {@link EngineFactory#exportCompressedXML(String, Engine)}.
+     */
+    private static final String MINUTE_TIME_STAMP = "yyyyMMdd-HHmm";
+
+    /**
+     * Matches the time stamp of a full backup, to the minute or to the second.
+     */
+    private static final String FULL_TIME_STAMP_REGEX = "-\\d{8}-\\d{4}(?:\\d{2})?";
+
+    private static final String TIME_STAMP_REGEX = "-\\d{8}-\\d{6}";
+
+    private static final Logger logger = Logger.getLogger(DifferentialBackup.class.getName());
+
+    private final String fileName;
+
+    /**
+     * Uuids of the objects changed since the last backup.  Guarded by its own monitor.
+     */
+    private final Set<UUID> changed = new LinkedHashSet<>();
+
+    /**
+     * Full backup the change archives are written for, {@code null} until the first backup has been written.
+     */
+    private Path fullBackup;
+
+    /**
+     * Creates a differential backup for a file.
+     *
+     * @param fileName file being backed up, the backups are written next to it
+     */
+    public DifferentialBackup(@NotNull final String fileName) {
+        this.fileName = fileName;
+    }
+
+    /**
+     * Records the objects referenced by a message as changed.  Only the uuid of the objects is used, so the
+     * messages decoded by the message bus server may be used.
+     *
+     * @param message message to record
+     */
+    @Override
+    public void messagePosted(final Message message) {
+        synchronized (changed) {
+            for (final MessageProperty key : MessageProperty.values()) {
+                final StoredObject value = message.getObject(key);
+
+                if (value != null) {
+                    changed.add(value.getUuid());
+                }
+
+                for (final StoredObject object : message.getObjects(key)) {
+                    changed.add(object.getUuid());
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines if objects have changed since the last backup.
+     *
+     * @return {@code true} if there are changes to back up
+     */
+    public boolean isDirty() {
+        synchronized (changed) {
+            return !changed.isEmpty();
+        }
+    }
+
+    /**
+     * Writes a full backup if one is required, otherwise the changes since the last backup are written.  Nothing
+     * is written if a full backup exists and nothing has changed.
+     * <p>
+     * The changes are captured while changes by the engine are blocked, they are compressed and written after the
+     * engine has been released.
+     *
+     * @param engine engine to back up
+     */
+    public synchronized void backup(@NotNull final Engine engine) {
+        final Set<UUID> uuids;
+
+        synchronized (changed) {
+            uuids = new LinkedHashSet<>(changed);
+            changed.clear();
+        }
+
+        // a full backup written before changes were recorded, or removed since, can not be used
+        if (fullBackup == null || !Files.exists(fullBackup)
+                || getChangeArchives(fullBackup).size() >= EngineFactory.getFullBackupInterval()) {
+
+            final Path zipFile = EngineFactory.exportCompressedXML(
+                    getUnusedPath(FileUtils.stripFileExtension(fileName)), engine);
+
+            if (zipFile != null) {
+                fullBackup = zipFile;
+            } else {
+                requeue(uuids);
+            }
+            return;
+        }
+
+        if (uuids.isEmpty()) {
+            return;
+        }
+
+        final Path zipFile = getUnusedPath(getBaseName(fullBackup) + CHANGES);
+
+        final String entryName = getBaseName(zipFile.getFileName()) + CHANGES_ENTRY_EXT;
+
+        try {
+            final byte[] changes = engine.readConsistently(() -> {
+                final Map<UUID, StoredObject> upserts = new LinkedHashMap<>();
+                final Set<UUID> removed = new LinkedHashSet<>();
+
+                for (final UUID uuid : uuids) {
+                    final StoredObject object = engine.getStoredObjectByUuid(StoredObject.class, uuid);
+
+                    if (object == null || object.isMarkedForRemoval()) {
+                        removed.add(uuid);
+                    } else if (!(object instanceof TrashObject)) {
+                        upserts.put(uuid, object);
+                    }
+
+                    // the children of the parent change when an account is added, moved or removed
+                    if (object instanceof Account) {
+                        final Account parent = ((Account) object).getParent();
+
+                        if (parent != null && !parent.isMarkedForRemoval()) {
+                            upserts.putIfAbsent(parent.getUuid(), parent);
+                        }
+                    }
+                }
+
+                upserts.keySet().removeAll(removed);
+
+                return XMLDataStore.toChanges(upserts.values(), removed);
+            });
+
+            XMLDataStore.saveCompressedChanges(zipFile, entryName, changes, EngineFactory.getBackupCompressionLevel());
+        } catch (final IOException | RuntimeException e) {   // XStream exceptions are unchecked
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            logger.log(Level.WARNING, "Was not able to create the backup file: {0}", zipFile);
+
+            requeue(uuids);
+        }
+    }
+
+    /**
+     * Returns changes that could not be written to the pending changes.
+     */
+    private void requeue(final Collection<UUID> uuids) {
+        synchronized (changed) {
+            changed.addAll(uuids);
+        }
+    }
+
+    /**
+     * Rebuilds a file as it was at a point in time from the latest full backup made at or before that time and
+     * the change archives written after it, up to that time.
+     *
+     * @param fileName file the backups were made for
+     * @param dateTime point in time to restore
+     * @param target   XML file to write
+     * @return {@code false} if a full backup made before the point in time was not found
+     * @throws IOException if a backup could not be read or the file could not be written
+     */
+    public static boolean restore(@NotNull final String fileName, @NotNull final LocalDateTime dateTime,
+                                  @NotNull final Path target) throws IOException {
+
+        Path fullBackup = null;
+
+        for (final Path path : getFullBackups(fileName)) {
+            if (!getFullBackupTimeStamp(path).isAfter(dateTime)) {
+                fullBackup = path;
+            }
+        }
+
+        if (fullBackup == null) {
+            logger.log(Level.WARNING, "A full backup made before {0} was not found", dateTime);
+            return false;
+        }
+
+        final List<Path> changes = new ArrayList<>();
+
+        for (final Path path : getChangeArchives(fullBackup)) {
+            if (!getTimeStamp(path, TIME_STAMP).isAfter(dateTime)) {
+                changes.add(path);
+            }
+        }
+
+        XMLDataStore.restoreCompressed(fullBackup, changes, target);
+
+        return true;
+    }
+
+    /**
+     * Removes change archives that belong to a full backup that no longer exists.
+     *
+     * @param fileName file the backups were made for
+     */
+    public static void removeOrphanedChanges(@NotNull final String fileName) {
+        final Path path = Paths.get(fileName);
+
+        final Pattern pattern = Pattern.compile("(" + Pattern.quote(FileUtils.stripFileExtension(path.toString()))
+                + FULL_TIME_STAMP_REGEX + ")" + CHANGES + TIME_STAMP_REGEX + "\\" + ZIP_EXT);
+
+        for (final Path changes : FileUtils.getDirectoryListing(path.getParent(), pattern.pattern())) {
+            final Matcher matcher = pattern.matcher(changes.toString());
+
+            if (matcher.matches() && !Files.exists(Paths.get(matcher.group(1) + ZIP_EXT))) {
+                try {
+                    Files.delete(changes);
+                } catch (final IOException e) {
+                    logger.log(Level.WARNING, "Unable to delete the file: {0}", changes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the full backups of a file, oldest first.
+     *
+     * @param fileName file the backups were made for
+     * @return list of full backups
+     */
+    static List<Path> getFullBackups(final String fileName) {
+        final Path path = Paths.get(fileName);
+
+        return FileUtils.getDirectoryListing(path.getParent(),
+                Pattern.quote(FileUtils.stripFileExtension(path.toString())) + FULL_TIME_STAMP_REGEX + "\\" + ZIP_EXT);
+    }
+
+    /**
+     * Returns the change archives written for a full backup, oldest first.
+     *
+     * @param fullBackup full backup
+     * @return list of change archives
+     */
+    static List<Path> getChangeArchives(final Path fullBackup) {
+        return FileUtils.getDirectoryListing(fullBackup.getParent(),
+                Pattern.quote(getBaseName(fullBackup)) + CHANGES + TIME_STAMP_REGEX + "\\" + ZIP_EXT);
+    }
+
+    /**
+     * Returns a time stamped path that is not in use yet.  A backup made within the same second as an earlier one is
+     * stamped with the next free second so the earlier backup is not overwritten.
+     *
+     * @param prefix path without the time stamp
+     */
+    private static Path getUnusedPath(final String prefix) {
+        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(TIME_STAMP);
+
+        LocalDateTime dateTime = LocalDateTime.now();
+        Path path = Paths.get(prefix + "-" + formatter.format(dateTime) + ZIP_EXT);
+
+        while (Files.exists(path)) {
+            dateTime = dateTime.plusSeconds(1);
+            path = Paths.get(prefix + "-" + formatter.format(dateTime) + ZIP_EXT);
+        }
+
+        return path;
+    }
+
+    /**
+     * Returns the time of a full backup.  A backup stamped to the minute may have been made at any time within
+     * that minute, so the end of the minute is returned.
+     */
+    private static LocalDateTime getFullBackupTimeStamp(final Path path) {
+        final String name = getBaseName(path.getFileName());
+
+        if (name.matches(".*" + TIME_STAMP_REGEX)) {
+            return getTimeStamp(path, TIME_STAMP);
+        }
+
+        return getTimeStamp(path, MINUTE_TIME_STAMP).plusMinutes(1).minusNanos(1);
+    }
+
+    /**
+     * Parses the time stamp at the end of a backup file name.
+     */
+    private static LocalDateTime getTimeStamp(final Path path, final String pattern) {
+        final String name = getBaseName(path.getFileName());
+
+        return LocalDateTime.parse(name.substring(name.length() - pattern.length()),
+                DateTimeFormatter.ofPattern(pattern));
+    }
+
+    /**
+     * Returns the path of a backup without the zip extension.
+     */
+    private static String getBaseName(final Path path) {
+        final String name = path.toString();
+
+        return name.substring(0, name.length() - ZIP_EXT.length());
+    }
+}
@@ -27,10 +27,13 @@ import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.RandomAccess;
 import java.util.ResourceBundle;
 import java.util.Set;
 import java.util.UUID;
@@ -44,7 +47,9 @@ import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -71,10 +76,10 @@ import jgnash.engine.recurring.MonthlyReminder;
 import jgnash.engine.recurring.PendingReminder;
 import jgnash.engine.recurring.RecurringIterator;
 import jgnash.engine.recurring.Reminder;
+import jgnash.engine.recurring.ReminderScheduler;
 import jgnash.net.currency.CurrencyUpdateFactory;
 import jgnash.net.security.UpdateFactory;
 import jgnash.resource.util.ResourceUtils;
-import jgnash.time.DateUtils;
 import jgnash.util.DefaultDaemonThreadFactory;
 import jgnash.util.NotNull;
 import jgnash.util.Nullable;
@@ -98,9 +103,6 @@ public class Engine {
 
     public static final int CURRENT_MINOR_VERSION = 1;
 
-    // Lock name
-    private static final String BIG_LOCK = "bigLock";
-
     private static final Logger logger = Logger.getLogger(Engine.class.getName());
 
     private static final long MAXIMUM_TRASH_AGE = 2L * 60L * 1000L; // 2 minutes
@@ -131,9 +133,9 @@ public class Engine {
     private final ResourceBundle rb = ResourceUtils.getBundle();
 
     /**
-     * Primary lock for any operation that alters or reads data
+     * Locks for any operation that alters or reads data
      */
-    private final ReentrantReadWriteLock dataLock;
+    private final EngineLocks engineLocks;
 
     private final AtomicInteger backGroundCounter = new AtomicInteger();
     /**
@@ -150,6 +152,11 @@ public class Engine {
 
     private final AttachmentManager attachmentManager;
 
+    /**
+     * Due date queue for reminders, invalidated when a reminder changes.
+     */
+    private final ReminderScheduler reminderScheduler = new ReminderScheduler(this::getReminders);
+
     /**
      * Background executor service for trash management and currency / security updates
      */
@@ -163,7 +170,7 @@ public class Engine {
     /**
      * Cached for performance.
      */
-    private Config config;
+    private volatile Config config;
     
     /**
      * Cached for performance.
@@ -186,8 +193,8 @@ public class Engine {
         this.eDAO = eDAO;
         this.name = name;
 
-        // Generate lock
-        dataLock = lockManager.getLock(BIG_LOCK);
+        // Generate locks
+        engineLocks = new EngineLocks(lockManager);
 
         messageBus = MessageBus.getInstance(name);
 
@@ -238,6 +245,10 @@ public class Engine {
      * for the closest requested date.  {@code SecurityHistoryNode} history values will take precedent over
      * a transaction with the same closest or matching date.
      *
+     * <p>
+     * A {@code RandomAccess} {@code List} of transactions must be sorted by date, such as the list returned by
+     * {@link Account#getSortedTransactionList()}, and is binary searched.  Other collections are scanned in full.
+     *
      * @param transactions Collection of transactions utilizing the requested investment
      * @param node         {@code SecurityNode} we want a price for
      * @param baseCurrency {@code CurrencyNode} reporting currency
@@ -267,18 +278,43 @@ public class Engine {
         }
 
         // Compare against transactions
-        for (final Transaction t : transactions) {
-            if (t instanceof InvestmentTransaction && ((InvestmentTransaction) t).getSecurityNode() == node) {
+        if (transactions instanceof List && transactions instanceof RandomAccess) {
+            final List<Transaction> list = (List<Transaction>) transactions;
 
-                // The transaction date must be closer than the history node, but not newer than the request date
-                if ((t.getLocalDate().isAfter(priceDate) && t.getLocalDate().isBefore(localDate)) || t.getLocalDate().equals(localDate)) {
+            // Sorted by date, search backwards from the requested date until the history node is closer
+            for (int i = upperBound(list, localDate) - 1; i >= 0; i--) {
+                final Transaction t = list.get(i);
+
+                if (!t.getLocalDate().isAfter(priceDate)) {
+                    break;
+                }
+
+                if (t instanceof InvestmentTransaction && ((InvestmentTransaction) t).getSecurityNode() == node) {
 
                     // Check for a dividend, etc that may have returned a price of zero
                     final BigDecimal p = ((InvestmentTransaction) t).getPrice();
 
                     if (p != null && p.compareTo(BigDecimal.ZERO) > 0) {
                         price = p;
-                        priceDate = t.getLocalDate();
+                        break;
+                    }
+                }
+            }
+        } else {
+            for (final Transaction t : transactions) {
+                if (t instanceof InvestmentTransaction && ((InvestmentTransaction) t).getSecurityNode() == node) {
+
+                    // The transaction date must be closer than the history node, but not newer than the request date
+                    if ((t.getLocalDate().isAfter(priceDate) && t.getLocalDate().isBefore(localDate))
+                            || t.getLocalDate().equals(localDate)) {
+
+                        // Check for a dividend, etc that may have returned a price of zero
+                        final BigDecimal p = ((InvestmentTransaction) t).getPrice();
+
+                        if (p != null && p.compareTo(BigDecimal.ZERO) > 0) {
+                            price = p;
+                            priceDate = t.getLocalDate();
+                        }
                     }
                 }
             }
@@ -291,6 +327,71 @@ public class Engine {
         return price.multiply(rate);
     }
 
+    /**
+     * Returns the most current known market price for a requested date using the investment transactions of an
+     * account.  The same rules as {@link #getMarketPrice(Collection, SecurityNode, CurrencyNode, LocalDate)} apply,
+     * but the account's security transaction index is used instead of searching the transactions.
+     *
+     * @param account      {@code Account} containing transactions utilizing the requested investment
+     * @param node         {@code SecurityNode} we want a price for
+     * @param baseCurrency {@code CurrencyNode} reporting currency
+     * @param localDate    {@code LocalDate} we want a market price for
+     * @return The best market price or a value of 0 if no history or transactions exist
+     */
+    static BigDecimal getMarketPrice(final Account account, final SecurityNode node, final CurrencyNode baseCurrency,
+                                     final LocalDate localDate) {
+
+        // An exact history node match has precedence
+        if (node.getHistoryNode(localDate).isPresent()) {
+            return node.getMarketPrice(localDate, baseCurrency);
+        }
+
+        LocalDate priceDate = LocalDate.ofEpochDay(0);
+        BigDecimal price = BigDecimal.ZERO;
+
+        final Optional<SecurityHistoryNode> optional = node.getClosestHistoryNode(localDate);
+
+        if (optional.isPresent()) {    // Closest option so far
+            price = optional.get().getPrice();
+            priceDate = optional.get().getLocalDate();
+        }
+
+        // The transaction date must be closer than the history node
+        final Optional<InvestmentTransaction> transaction
+                = account.getSecurityTransactionIndex().getLastPricedTransaction(node, localDate);
+
+        if (transaction.isPresent() && transaction.get().getLocalDate().isAfter(priceDate)) {
+            price = transaction.get().getPrice();
+        }
+
+        // return the price and factor in the exchange rate
+        return price.multiply(node.getReportedCurrencyNode().getExchangeRate(baseCurrency));
+    }
+
+    /**
+     * Returns the index of the first transaction dated after the supplied date.
+     *
+     * @param transactions list of transactions sorted by date
+     * @param localDate    date to search for
+     * @return index of the first newer transaction, the size of the list if none are newer
+     */
+    private static int upperBound(final List<Transaction> transactions, final LocalDate localDate) {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (transactions.get(mid).getLocalDate().isAfter(localDate)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+
     static String buildExchangeRateId(final CurrencyNode baseCurrency, final CurrencyNode exchangeCurrency) {
 
         String rateId;
@@ -394,7 +495,7 @@ public class Engine {
      */
     private void initialize() {
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
 
@@ -439,7 +540,7 @@ public class Engine {
             }
 
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
 
         logInfo("Engine initialization is complete");
@@ -449,7 +550,7 @@ public class Engine {
      * Corrects minor issues with a database that may occur because of prior bugs or file format upgrades.
      */
     private void checkAndCorrect() {
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             // check and correct multiple root accounts from old files... there are still a few.
@@ -489,7 +590,7 @@ public class Engine {
                 getConfigDAO().update(localConfig);
             }
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -500,7 +601,7 @@ public class Engine {
     }
 
     private void removeExchangeRate(final ExchangeRate rate) {
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             for (final ExchangeRateHistoryNode node : rate.getHistory()) {
@@ -508,7 +609,7 @@ public class Engine {
             }
             moveObjectToTrash(rate);
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -567,7 +668,8 @@ public class Engine {
     private boolean moveObjectToTrash(final Object object) {
         boolean result = false;
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.sharedLock();
+        lock.lock();
 
         try {
             if (object instanceof StoredObject) {
@@ -580,7 +682,7 @@ public class Engine {
         } catch (final Exception ex) {
             logger.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
 
         return result;
@@ -596,7 +698,8 @@ public class Engine {
                     Engine.this));
         }
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.sharedLock();
+        lock.lock();
 
         try {
             logger.info("Checking for trash");
@@ -615,7 +718,7 @@ public class Engine {
             trash.stream().filter(o -> ChronoUnit.MILLIS.between(o.getDate(), LocalDateTime.now()) >= MAXIMUM_TRASH_AGE)
                     .forEach(o -> getTrashDAO().remove(o));
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
 
             if (backGroundCounter.decrementAndGet() == 0) {
                 messageBus.fireEvent(new Message(MessageChannel.SYSTEM, ChannelEvent.BACKGROUND_PROCESS_STOPPED,
@@ -656,6 +759,8 @@ public class Engine {
             result = getReminderDAO().addReminder(reminder);
         }
 
+        reminderScheduler.invalidate();
+
         Message message;
         if (result) {
             message = new Message(MessageChannel.REMINDER, ChannelEvent.REMINDER_ADD, this);
@@ -673,6 +778,7 @@ public class Engine {
         boolean result = false;
 
         if (moveObjectToTrash(reminder)) {
+            reminderScheduler.invalidate();
 
             if (reminder.getTransaction() != null) {
                 moveObjectToTrash(reminder.getTransaction());
@@ -703,34 +809,13 @@ public class Engine {
         return getReminderDAO().getReminderByUuid(uuid);
     }
 
+    /**
+     * Returns a {@code PendingReminder} for every reminder occurrence that is due.
+     *
+     * @return List of pending reminders
+     */
     public List<PendingReminder> getPendingReminders() {
-        final ArrayList<PendingReminder> pendingList = new ArrayList<>();
-        final List<Reminder> list = getReminders();
-        final LocalDate now = LocalDate.now(); // today's date
-
-        for (final Reminder r : list) {
-            if (r.isEnabled()) {
-                final RecurringIterator ri = r.getIterator();
-                LocalDate next = ri.next();
-
-                while (next != null) {
-                    LocalDate date = next;
-
-                    if (r.isAutoCreate()) {
-                        date = date.minusDays(r.getDaysAdvance());
-                    }
-
-                    if (DateUtils.before(date, now)) { // need to fire this reminder
-                        pendingList.add(new PendingReminder(r, next));
-                        next = ri.next();
-                    } else {
-                        next = null;
-                    }
-                }
-            }
-        }
-
-        return pendingList;
+        return reminderScheduler.getPendingReminders(LocalDate.now());
     }
 
     public static PendingReminder getPendingReminder(@NotNull Reminder reminder) {
@@ -776,7 +861,7 @@ public class Engine {
      * @see StoredObjectComparator
      */
     public Collection<StoredObject> getStoredObjects() {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
 
@@ -789,7 +874,40 @@ public class Engine {
 
             return objects;
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a function to the {@code StoredObjects} while changes by this engine are blocked.  The function
+     * sees a consistent set of objects; other readers are not blocked.  The function should capture what it needs
+     * and leave slow work, such as compression and file IO, until the lock has been released.
+     *
+     * @param function function of the stored objects
+     * @param <T>      the type of the result
+     * @return the result of the function
+     * @see #getStoredObjects()
+     */
+    <T> T readStoredObjects(final Function<Collection<StoredObject>, T> function) {
+        return readConsistently(() -> function.apply(getStoredObjects()));
+    }
+
+    /**
+     * Runs a task while changes by this engine are blocked so it sees a consistent set of objects.  Other readers
+     * are not blocked.
+     *
+     * @param supplier task to run
+     * @param <T>      the type of the result
+     * @return the result of the task
+     */
+    <T> T readConsistently(final Supplier<T> supplier) {
+        final Lock lock = engineLocks.snapshotLock();
+        lock.lock();
+
+        try {
+            return supplier.get();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -840,7 +958,7 @@ public class Engine {
      * @return {@code true} if the add it successful
      */
     public boolean addCurrency(final CurrencyNode node) {
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             boolean status = isCommodityNodeValid(node);
@@ -871,7 +989,7 @@ public class Engine {
 
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -894,7 +1012,7 @@ public class Engine {
      * @return {@code true} if the add it successful
      */
     public boolean addSecurity(final SecurityNode node) {
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             boolean status = isCommodityNodeValid(node);
@@ -923,7 +1041,7 @@ public class Engine {
 
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -936,7 +1054,8 @@ public class Engine {
      * @return <tt>true</tt> if successful
      */
     public boolean addSecurityHistory(@NotNull final SecurityNode node, @NotNull final SecurityHistoryNode hNode) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.commodityLock(node.getUuid().toString());
+        lock.lock();
 
         try {
             // Remove old history of the same date if it exists
@@ -967,7 +1086,7 @@ public class Engine {
 
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -980,7 +1099,8 @@ public class Engine {
      * @return <tt>true</tt> if successful
      */
     public boolean addSecurityHistoryEvent(@NotNull final SecurityNode node, @NotNull final SecurityHistoryEvent historyEvent) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.commodityLock(node.getUuid().toString());
+        lock.lock();
 
         try {
 
@@ -1009,7 +1129,7 @@ public class Engine {
 
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -1041,7 +1161,8 @@ public class Engine {
      */
     private void clearCachedAccountBalance(final Account account) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.accountLock(account);
+        lock.lock();
 
         try {
             account.clearCachedBalances();
@@ -1051,7 +1172,7 @@ public class Engine {
                 getAccountDAO().updateAccount(account);
             }
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
 
         if (account.getParent() != null && account.getParent().getAccountType() != AccountType.ROOT) {
@@ -1060,7 +1181,7 @@ public class Engine {
     }
 
     private CurrencyNode[] getBaseCurrencies(final String exchangeRateId) {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             final List<CurrencyNode> currencies = getCurrencies();
@@ -1077,7 +1198,7 @@ public class Engine {
             }
             return new CurrencyNode[0];
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1087,12 +1208,12 @@ public class Engine {
      * @return Set of CurrencyNodes
      */
     public Set<CurrencyNode> getActiveCurrencies() {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             return getCommodityDAO().getActiveCurrencies();
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1104,7 +1225,7 @@ public class Engine {
      * @return null if the CurrencyNode as not been defined
      */
     public CurrencyNode getCurrency(final String symbol) {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             CurrencyNode rNode = null;
@@ -1117,17 +1238,17 @@ public class Engine {
             }
             return rNode;
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
     public List<CurrencyNode> getCurrencies() {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             return getCommodityDAO().getCurrencies();
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1136,12 +1257,12 @@ public class Engine {
     }
 
     public ExchangeRate getExchangeRate(final CurrencyNode baseCurrency, final CurrencyNode exchangeCurrency) {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             return exchangeRateDAO.getExchangeRateNode(baseCurrency, exchangeCurrency);
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1151,12 +1272,12 @@ public class Engine {
 
     @NotNull
     public List<SecurityNode> getSecurities() {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             return getCommodityDAO().getSecurities();
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1167,7 +1288,7 @@ public class Engine {
      * @return null if not found
      */
     public SecurityNode getSecurity(final String symbol) {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             List<SecurityNode> list = getSecurities();
@@ -1182,7 +1303,7 @@ public class Engine {
             }
             return sNode;
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1191,7 +1312,7 @@ public class Engine {
     }
 
     private boolean isCommodityNodeUsed(final CommodityNode node) {
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             List<Account> list = getAccountList();
@@ -1219,7 +1340,7 @@ public class Engine {
             }
 
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
 
         return false;
@@ -1228,7 +1349,7 @@ public class Engine {
     public boolean removeCommodity(final CurrencyNode node) {
         boolean status = true;
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             if (isCommodityNodeUsed(node)) {
@@ -1250,14 +1371,14 @@ public class Engine {
             return status;
 
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
     public boolean removeSecurity(final SecurityNode node) {
         boolean status = true;
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             if (isCommodityNodeUsed(node)) {
@@ -1287,7 +1408,7 @@ public class Engine {
             return status;
 
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -1299,7 +1420,8 @@ public class Engine {
      * @return {@code true} if a {@code SecurityHistoryNode} was found and removed
      */
     public boolean removeSecurityHistory(@NotNull final SecurityNode node, @NotNull final LocalDate date) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.commodityLock(node.getUuid().toString());
+        lock.lock();
 
         boolean status = false;
 
@@ -1331,7 +1453,7 @@ public class Engine {
 
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -1343,7 +1465,8 @@ public class Engine {
      * @return {@code true} if the {@code SecurityHistoryEvent} was found and removed
      */
     public boolean removeSecurityHistoryEvent(@NotNull final SecurityNode node, @NotNull final SecurityHistoryEvent historyEvent) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.commodityLock(node.getUuid().toString());
+        lock.lock();
 
         boolean status;
 
@@ -1369,13 +1492,14 @@ public class Engine {
 
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     private Config getConfig() {
 
-        dataLock.readLock().lock();
+        final Lock lock = engineLocks.configReadLock();
+        lock.lock();
 
         try {
             if (config == null) {
@@ -1384,13 +1508,14 @@ public class Engine {
             return config;
 
         } finally {
-            dataLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
     public CurrencyNode getDefaultCurrency() {
 
-        dataLock.readLock().lock();
+        final Lock lock = engineLocks.configReadLock();
+        lock.lock();
 
         try {
             CurrencyNode node = getConfig().getDefaultCurrency();
@@ -1401,7 +1526,7 @@ public class Engine {
 
             return node;
         } finally {
-            dataLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -1412,7 +1537,7 @@ public class Engine {
             addCurrency(defaultCurrency);
         }
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             final Config currencyConfig = getConfig();
@@ -1435,7 +1560,7 @@ public class Engine {
             message.setObject(MessageProperty.ACCOUNT, root);
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -1469,7 +1594,8 @@ public class Engine {
             removeExchangeRateHistory(exchangeRate, exchangeRate.getHistory(localDate));
         }
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.commodityLock(exchangeRate.getRateId());
+        lock.lock();
 
         try {
             // create the new history node
@@ -1499,13 +1625,14 @@ public class Engine {
 
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     public void removeExchangeRateHistory(final ExchangeRate exchangeRate, final ExchangeRateHistoryNode history) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.commodityLock(exchangeRate.getRateId());
+        lock.lock();
 
         try {
             final Message message;
@@ -1528,7 +1655,7 @@ public class Engine {
             message.setObject(MessageProperty.EXCHANGE_RATE, exchangeRate);
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -1547,7 +1674,7 @@ public class Engine {
             throw new EngineException("node were the same");
         }
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             boolean status;
@@ -1598,13 +1725,15 @@ public class Engine {
             messageBus.fireEvent(message);
             return status;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
     private boolean updateReminder(final Reminder reminder) {
         final boolean result = getReminderDAO().updateReminder(reminder);
 
+        reminderScheduler.invalidate();
+
         final Message message;
 
         if (result) {
@@ -1622,7 +1751,8 @@ public class Engine {
 
     public String getAccountSeparator() {
 
-        dataLock.readLock().lock();
+        final Lock lock = engineLocks.configReadLock();
+        lock.lock();
 
         try {
             if (accountSeparator == null) {
@@ -1631,13 +1761,14 @@ public class Engine {
             return accountSeparator;
 
         } finally {
-            dataLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
     public void setAccountSeparator(final String separator) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.configWriteLock();
+        lock.lock();
 
         try {
             accountSeparator = separator;
@@ -1652,7 +1783,7 @@ public class Engine {
 
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -1726,6 +1857,10 @@ public class Engine {
 
     public void refresh(final StoredObject object) {
         eDAO.refresh(object);
+
+        if (object instanceof Reminder) {
+            reminderScheduler.invalidate();
+        }
     }
 
     /**
@@ -1743,7 +1878,7 @@ public class Engine {
             throw new IllegalArgumentException("Invalid Account");
         }
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             Message message;
@@ -1770,7 +1905,7 @@ public class Engine {
             }
             return result;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -1781,7 +1916,7 @@ public class Engine {
      */
     public RootAccount getRootAccount() {
 
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             if (rootAccount == null) {
@@ -1789,7 +1924,7 @@ public class Engine {
             }
             return rootAccount;
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -1804,7 +1939,7 @@ public class Engine {
         Objects.requireNonNull(account);
         Objects.requireNonNull(newParent);
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             // cannot invert the child/parent relationship of an account
@@ -1847,7 +1982,7 @@ public class Engine {
 
             return true;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -1890,7 +2025,7 @@ public class Engine {
         boolean result;
         Message message;
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             account.setName(template.getName());
@@ -1943,7 +2078,7 @@ public class Engine {
 
             return result;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -1970,7 +2105,8 @@ public class Engine {
      */
     public void setAccountNumber(final Account account, final String number) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.accountLock(account);
+        lock.lock();
 
         try {
             account.setAccountNumber(number);
@@ -1982,7 +2118,7 @@ public class Engine {
 
             logInfo(rb.getString(MESSAGE_ACCOUNT_MODIFY));
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2005,7 +2141,8 @@ public class Engine {
             return;
         }
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.accountLock(account);
+        lock.lock();
 
         try {
             account.setAttribute(key, value);
@@ -2017,7 +2154,7 @@ public class Engine {
 
             logInfo(rb.getString(MESSAGE_ACCOUNT_MODIFY));
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2041,7 +2178,7 @@ public class Engine {
      */
     public boolean removeAccount(final Account account) {
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             boolean result = false;
@@ -2079,7 +2216,7 @@ public class Engine {
 
             return result;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -2112,7 +2249,7 @@ public class Engine {
      */
     public boolean setAmortizeObject(final Account account, final AmortizeObject amortizeObject) {
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             if (account != null && amortizeObject != null && account.getAccountType() == AccountType.LIABILITY) {
@@ -2127,7 +2264,7 @@ public class Engine {
             }
             return false;
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -2138,7 +2275,8 @@ public class Engine {
      */
     public void toggleAccountVisibility(final Account account) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.accountLock(account);
+        lock.lock();
 
         try {
             Message message;
@@ -2155,7 +2293,7 @@ public class Engine {
                 messageBus.fireEvent(message);
             }
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2168,7 +2306,8 @@ public class Engine {
      */
     public boolean addAccountSecurity(final Account account, final SecurityNode node) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.accountLock(account);
+        lock.lock();
 
         try {
             Message message;
@@ -2192,7 +2331,7 @@ public class Engine {
             return result;
 
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2206,7 +2345,8 @@ public class Engine {
     private boolean removeAccountSecurity(final Account account, final SecurityNode node) {
         Objects.requireNonNull(node);
 
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.accountLock(account);
+        lock.lock();
 
         try {
             Message message;
@@ -2229,7 +2369,7 @@ public class Engine {
             return result;
 
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2246,7 +2386,8 @@ public class Engine {
         boolean result = true;
 
         if (acc.memberOf(AccountGroup.INVEST)) {
-            dataLock.writeLock().lock();
+            final Lock lock = engineLocks.accountLock(acc);
+            lock.lock();
 
             try {
                 final Collection<SecurityNode> oldList = acc.getSecurities();
@@ -2271,7 +2412,7 @@ public class Engine {
                     }
                 }
             } finally {
-                dataLock.writeLock().unlock();
+                lock.unlock();
             }
         }
 
@@ -2282,7 +2423,7 @@ public class Engine {
 
         boolean result;
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             Message message;
@@ -2301,7 +2442,7 @@ public class Engine {
             return result;
 
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -2309,7 +2450,7 @@ public class Engine {
 
         boolean result = false;
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             moveObjectToTrash(budget);
@@ -2323,14 +2464,14 @@ public class Engine {
         } catch (final Exception ex) {
             logger.log(Level.SEVERE, ex.getLocalizedMessage(), ex);
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
 
         return result;
     }
 
     public void updateBudgetGoals(final Budget budget, final Account account, final BudgetGoal newGoals) {
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             BudgetGoal oldGoals = budget.getBudgetGoal(account);
@@ -2341,12 +2482,12 @@ public class Engine {
 
             updateBudgetGoals(budget, account);
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
     private void updateBudgetGoals(final Budget budget, final Account account) {
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             Message message;
@@ -2366,7 +2507,7 @@ public class Engine {
 
             logger.log(Level.FINE, "Budget goal updated for {0}", account.getPathName());
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
@@ -2374,7 +2515,7 @@ public class Engine {
 
         boolean result;
 
-        dataLock.writeLock().lock();
+        engineLocks.writeLock().lock();
 
         try {
             Message message;
@@ -2395,18 +2536,18 @@ public class Engine {
             return result;
 
         } finally {
-            dataLock.writeLock().unlock();
+            engineLocks.writeLock().unlock();
         }
     }
 
     public List<Budget> getBudgetList() {
 
-        dataLock.readLock().lock();
+        engineLocks.readLock().lock();
 
         try {
             return getBudgetDAO().getBudgets();
         } finally {
-            dataLock.readLock().unlock();
+            engineLocks.readLock().unlock();
         }
     }
 
@@ -2501,9 +2642,42 @@ public class Engine {
         return eDAO.getObjectByUuid(StoredObject.class, object.getUuid()) != null;
     }
 
+    /**
+     * Returns the lock for adding or removing transactions.  Exchange rates may be set for multi-currency entries
+     * while the lock is held, so their locks are included.
+     *
+     * @param transactions transactions to be added or removed
+     * @return the lock
+     */
+    private Lock getTransactionLock(final Collection<Transaction> transactions) {
+        if (!engineLocks.isStriped()) {
+            return engineLocks.writeLock();
+        }
+
+        final Set<Account> accounts = new HashSet<>();
+        final Set<String> exchangeRateIds = new HashSet<>();
+
+        for (final Transaction transaction : transactions) {
+            for (final TransactionEntry entry : transaction.getTransactionEntries()) {
+                if (entry != null && entry.getCreditAccount() != null && entry.getDebitAccount() != null) {
+                    accounts.add(entry.getCreditAccount());
+                    accounts.add(entry.getDebitAccount());
+
+                    if (entry.isMultiCurrency()) {
+                        exchangeRateIds.add(buildExchangeRateId(entry.getCreditAccount().getCurrencyNode(),
+                                entry.getDebitAccount().getCurrencyNode()));
+                    }
+                }
+            }
+        }
+
+        return engineLocks.lock(accounts, exchangeRateIds);
+    }
+
     public boolean addTransaction(final Transaction transaction) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = getTransactionLock(Collections.singleton(transaction));
+        lock.lock();
 
         try {
             boolean result = isTransactionValid(transaction);
@@ -2519,21 +2693,7 @@ public class Engine {
 
                 /* If successful, extract and enter a default exchange rate for the transaction date if a rate has not been set */
                 if (result) {
-                    // no rate for the date has been set
-                    transaction.getTransactionEntries().stream()
-                            .filter(TransactionEntry::isMultiCurrency)
-                            .forEach(entry -> {
-                                final ExchangeRate rate = getExchangeRate(entry.getDebitAccount().getCurrencyNode(),
-                                        entry.getCreditAccount().getCurrencyNode());
-
-                                if (rate.getRate(transaction.getLocalDate()).equals(BigDecimal.ZERO)) { // no rate for the date has been set
-                                    final BigDecimal exchangeRate = entry.getDebitAmount().abs()
-                                            .divide(entry.getCreditAmount().abs(), MathConstants.mathContext);
-
-                                    setExchangeRate(entry.getCreditAccount().getCurrencyNode(), entry.getDebitAccount()
-                                            .getCurrencyNode(), exchangeRate, transaction.getLocalDate());
-                                }
-                            });
+                    extractExchangeRates(transaction);
                 }
             }
 
@@ -2541,13 +2701,88 @@ public class Engine {
 
             return result;
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
+    /**
+     * Adds a batch of transactions.  All transactions are validated before any are added, the write lock is
+     * acquired once, the transactions are persisted as a single batch, and one aggregated message is fired for each
+     * impacted account.
+     *
+     * @param transactions transactions to add
+     * @return {@code true} if all transactions were added, {@code false} if any transaction was invalid
+     */
+    public boolean addTransactions(final Collection<Transaction> transactions) {
+
+        final Lock lock = getTransactionLock(transactions);
+        lock.lock();
+
+        try {
+            boolean result = !transactions.isEmpty();
+
+            // validate everything up front, a duplicate within the batch is also invalid
+            final Set<Transaction> batch = new HashSet<>();
+
+            for (final Transaction transaction : transactions) {
+                if (!batch.add(transaction) || !isTransactionValid(transaction)) {
+                    result = false;
+                    break;
+                }
+            }
+
+            if (result) {
+                /* Add the transactions to each account */
+                for (final Transaction transaction : transactions) {
+                    transaction.getAccounts().stream()
+                            .filter(account -> !account.addTransaction(transaction))
+                            .forEach(account -> logSevere("Failed to add the Transaction"));
+                }
+
+                result = getTransactionDAO().addTransactions(transactions);
+
+                logInfo(rb.getString("Message.TransactionAdd"));
+
+                /* If successful, extract and enter a default exchange rate for the transaction date if a rate has not been set */
+                if (result) {
+                    transactions.forEach(this::extractExchangeRates);
+                }
+            }
+
+            postTransactionsAdd(transactions, result);
+
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Extracts and enters a default exchange rate for the transaction date if a rate has not been set.
+     *
+     * @param transaction transaction to extract exchange rates from
+     */
+    private void extractExchangeRates(final Transaction transaction) {
+        transaction.getTransactionEntries().stream()
+                .filter(TransactionEntry::isMultiCurrency)
+                .forEach(entry -> {
+                    final ExchangeRate rate = getExchangeRate(entry.getDebitAccount().getCurrencyNode(),
+                            entry.getCreditAccount().getCurrencyNode());
+
+                    if (rate.getRate(transaction.getLocalDate()).equals(BigDecimal.ZERO)) { // no rate for the date has been set
+                        final BigDecimal exchangeRate = entry.getDebitAmount().abs()
+                                .divide(entry.getCreditAmount().abs(), MathConstants.mathContext);
+
+                        setExchangeRate(entry.getCreditAccount().getCurrencyNode(), entry.getDebitAccount()
+                                .getCurrencyNode(), exchangeRate, transaction.getLocalDate());
+                    }
+                });
+    }
+
     public boolean removeTransaction(final Transaction transaction) {
 
-        dataLock.writeLock().lock();
+        final Lock lock = getTransactionLock(Collections.singleton(transaction));
+        lock.lock();
 
         try {
             for (final Account account : transaction.getAccounts()) {
@@ -2575,10 +2810,85 @@ public class Engine {
 
             return result;
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a batch of transactions.  All transactions are validated before any are removed, the write lock is
+     * acquired once, the transactions are persisted as a single batch, and one aggregated message is fired for each
+     * impacted account.
+     *
+     * @param transactions transactions to remove
+     * @return {@code true} if all transactions were removed, {@code false} if any transaction could not be removed
+     */
+    public boolean removeTransactions(final Collection<Transaction> transactions) {
+
+        final Lock lock = getTransactionLock(transactions);
+        lock.lock();
+
+        try {
+            boolean result = !transactions.isEmpty();
+
+            // validate everything up front, a duplicate within the batch is also invalid
+            final Set<Transaction> batch = new HashSet<>();
+
+            for (final Transaction transaction : transactions) {
+                if (!batch.add(transaction) || !isTransactionRemovable(transaction)) {
+                    result = false;
+                    break;
+                }
+            }
+
+            if (result) {
+                /* Remove the transactions from each account */
+                for (final Transaction transaction : transactions) {
+                    transaction.getAccounts().stream()
+                            .filter(account -> !account.removeTransaction(transaction))
+                            .forEach(account -> logSevere("Failed to remove the Transaction"));
+                }
+
+                logInfo(rb.getString("Message.TransactionRemove"));
+
+                result = getTransactionDAO().removeTransactions(transactions);
+
+                // move transactions into the trash
+                if (result) {
+                    transactions.forEach(this::moveObjectToTrash);
+                }
+            }
+
+            postTransactionsRemove(transactions, result);
+
+            return result;
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Determines if a transaction is held by the engine and may be removed.
+     *
+     * @param transaction transaction to check
+     * @return {@code true} if the transaction may be removed
+     */
+    private boolean isTransactionRemovable(final Transaction transaction) {
+        for (final Account account : transaction.getAccounts()) {
+            if (account.isLocked()) {
+                logWarning(rb.getString("Message.TransactionRemoveLocked"));
+                return false;
+            }
+        }
+
+        if (transaction.isMarkedForRemoval()
+                || eDAO.getObjectByUuid(Transaction.class, transaction.getUuid()) == null) {
+            logger.log(Level.WARNING, "Transaction is not held by the engine");
+            return false;
+        }
+
+        return true;
+    }
+
     /**
      * Changes the reconciled state of a transaction.
      *
@@ -2587,7 +2897,8 @@ public class Engine {
      * @param state       new reconciled state
      */
     public void setTransactionReconciled(final Transaction transaction, final Account account, final ReconciledState state) {
-        dataLock.writeLock().lock(); // hold a write lock to ensure nothing slips in between the remove and add
+        final Lock lock = getTransactionLock(Collections.singleton(transaction));
+        lock.lock(); // hold a write lock to ensure nothing slips in between the remove and add
 
         try {
             final Transaction newTransaction = (Transaction) transaction.clone();
@@ -2600,22 +2911,24 @@ public class Engine {
         } catch (final CloneNotSupportedException e) {
             logger.log(Level.SEVERE, "Failed to reconcile the Transaction", e);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     public List<String> getTransactionNumberList() {
-        dataLock.readLock().lock();
+        final Lock lock = engineLocks.configReadLock();
+        lock.lock();
 
         try {
             return getConfig().getTransactionNumberList();
         } finally {
-            dataLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
     public void setTransactionNumberList(final List<String> list) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.configWriteLock();
+        lock.lock();
 
         try {
             final Config transactionConfig = getConfig();
@@ -2628,7 +2941,7 @@ public class Engine {
 
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2688,6 +3001,41 @@ public class Engine {
         }
     }
 
+    private void postTransactionsAdd(final Collection<Transaction> transactions, final boolean result) {
+        postTransactionsMessage(transactions, result ? ChannelEvent.TRANSACTIONS_ADD
+                : ChannelEvent.TRANSACTIONS_ADD_FAILED);
+    }
+
+    private void postTransactionsRemove(final Collection<Transaction> transactions, final boolean result) {
+        postTransactionsMessage(transactions, result ? ChannelEvent.TRANSACTIONS_REMOVE
+                : ChannelEvent.TRANSACTIONS_REMOVE_FAILED);
+    }
+
+    /**
+     * Fires a single aggregated message for each account impacted by a batch of transactions.
+     *
+     * @param transactions batch of transactions
+     * @param event        event to fire
+     */
+    private void postTransactionsMessage(final Collection<Transaction> transactions, final ChannelEvent event) {
+        final Map<Account, List<Transaction>> accountMap = new HashMap<>();
+
+        for (final Transaction transaction : transactions) {
+            for (final Account account : transaction.getAccounts()) {
+                accountMap.computeIfAbsent(account, k -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        for (final Map.Entry<Account, List<Transaction>> entry : accountMap.entrySet()) {
+            final Message message = new Message(MessageChannel.TRANSACTION, event, this);
+
+            message.setObject(MessageProperty.ACCOUNT, entry.getKey());
+            message.setObjects(MessageProperty.TRANSACTION, entry.getValue());
+
+            messageBus.fireEvent(message);
+        }
+    }
+
     /**
      * Returns the unique identifier for this engine instance.
      *
@@ -2698,7 +3046,8 @@ public class Engine {
     }
 
     public void setPreference(@NotNull final String key, @Nullable final String value) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.configWriteLock();
+        lock.lock();
 
         try {
             getConfig().setPreference(key, value);
@@ -2710,18 +3059,19 @@ public class Engine {
             message.setObject(MessageProperty.CONFIG, getConfig());
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Nullable
     public String getPreference(@NotNull final String key) {
-        dataLock.readLock().lock();
+        final Lock lock = engineLocks.configReadLock();
+        lock.lock();
 
         try {
             return getConfig().getPreference(key);
         } finally {
-            dataLock.readLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2746,7 +3096,8 @@ public class Engine {
     }
 
     public void setCreateBackups(final boolean createBackups) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.configWriteLock();
+        lock.lock();
 
         try {
             final Config backupConfig = getConfig();
@@ -2760,7 +3111,7 @@ public class Engine {
             message.setObject(MessageProperty.CONFIG, backupConfig);
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2769,7 +3120,8 @@ public class Engine {
     }
 
     public void setRetainedBackupLimit(final int retainedBackupLimit) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.configWriteLock();
+        lock.lock();
 
         try {
             final Config backupConfig = getConfig();
@@ -2783,7 +3135,7 @@ public class Engine {
             message.setObject(MessageProperty.CONFIG, backupConfig);
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
@@ -2792,7 +3144,8 @@ public class Engine {
     }
 
     public void setRemoveOldBackups(final boolean removeOldBackups) {
-        dataLock.writeLock().lock();
+        final Lock lock = engineLocks.configWriteLock();
+        lock.lock();
 
         try {
             final Config backupConfig = getConfig();
@@ -2806,7 +3159,7 @@ public class Engine {
             message.setObject(MessageProperty.CONFIG, backupConfig);
             messageBus.fireEvent(message);
         } finally {
-            dataLock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
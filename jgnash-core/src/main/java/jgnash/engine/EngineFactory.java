@@ -36,6 +36,7 @@ import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
+import java.util.zip.Deflater;
 
 import jgnash.engine.jpa.JpaNetworkServer;
 import jgnash.engine.jpa.SqlUtils;
@@ -45,6 +46,7 @@ import jgnash.engine.message.MessageBus;
 import jgnash.engine.message.MessageChannel;
 import jgnash.engine.xstream.BinaryXStreamDataStore;
 import jgnash.engine.xstream.XMLDataStore;
+import jgnash.engine.xstream.XStreamJournal;
 import jgnash.resource.util.OS;
 import jgnash.resource.util.ResourceUtils;
 import jgnash.util.FileMagic;
@@ -79,6 +81,14 @@ public class EngineFactory {
 
     private static final String LAST_REMOTE = "LastRemote";
 
+    private static final String BACKUP_COMPRESSION_LEVEL = "BackupCompressionLevel";
+
+    private static final String DIFFERENTIAL_BACKUP = "DifferentialBackup";
+
+    private static final String FULL_BACKUP_INTERVAL = "FullBackupInterval";
+
+    private static final int DEFAULT_FULL_BACKUP_INTERVAL = 12;
+
     /**
      * Default directory for jGnash data. To be located in the default user
      * directory
@@ -91,6 +101,8 @@ public class EngineFactory {
 
     private static final Map<String, DataStore> dataStoreMap = new HashMap<>();
 
+    private static final Map<String, DifferentialBackup> differentialBackupMap = new HashMap<>();
+
     private EngineFactory() {
     }
 
@@ -114,6 +126,7 @@ public class EngineFactory {
 
     public static boolean deleteDatabase(final String database) {
         try {
+            XStreamJournal.deleteJournal(Paths.get(database));
             return Files.deleteIfExists(Paths.get(database));
         } catch (final IOException e) {
             logger.warning(e.getLocalizedMessage());
@@ -135,35 +148,70 @@ public class EngineFactory {
     private static void exportCompressedXML(final String engineName) {
         final Engine oldEngine = engineMap.get(engineName);
         final DataStore oldDataStore = dataStoreMap.get(engineName);
+        final DifferentialBackup differentialBackup = differentialBackupMap.get(engineName);
 
-        exportCompressedXML(oldDataStore.getFileName(), oldEngine.getStoredObjects());
+        if (differentialBackup != null) {
+            differentialBackup.backup(oldEngine);
+        } else {
+            exportCompressedXML(oldDataStore.getFileName(), oldEngine);
+        }
     }
 
-    public static void exportCompressedXML(final String fileName, final Collection<StoredObject> objects) {
-        final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmm");
-
-        final DataStore xmlDataStore = new XMLDataStore();
+    /**
+     * Writes a compressed XML backup of an engine's objects.  Changes by the engine are blocked while the objects
+     * are serialized and compressed in memory so the backup is consistent, reads are not blocked.  The file is
+     * written after the engine has been released.
+     *
+     * @param fileName base file name for the backup
+     * @param engine   engine to back up
+     * @return the backup file, {@code null} if it could not be written
+     */
+    @Nullable
+    public static Path exportCompressedXML(final String fileName, final Engine engine) {
+        return exportCompressedXML(getCompressedXMLPath(fileName), engine);
+    }
 
-        Path xmlFile = Paths.get(FileUtils.stripFileExtension(fileName) + "-" + dateTimeFormatter.format(LocalDateTime.now())
-                + xmlDataStore.getFileExt());
+    /**
+     * Writes a compressed XML backup of an engine's objects to a given zip file.
+     *
+     * @param zipFile zip file to write, it will be overwritten if it exists
+     * @param engine  engine to back up
+     * @return the backup file, {@code null} if it could not be written
+     * @see #exportCompressedXML(String, Engine)
+     */
+    @Nullable
+    static Path exportCompressedXML(final Path zipFile, final Engine engine) {
+        try {
+            final String entryName = getCompressedXMLEntryName(zipFile);
+            final int compressionLevel = getBackupCompressionLevel();
 
-        // push the intermediary file to the temporary directory
-        xmlFile = Paths.get(System.getProperty("java.io.tmpdir") + xmlFile.getFileSystem().getSeparator()
-                + xmlFile.getFileName().toString());
+            final byte[] zip = engine.readStoredObjects(objects ->
+                    XMLDataStore.toCompressedXML(objects, entryName, compressionLevel));
 
-        xmlDataStore.saveAs(xmlFile, objects, ignored -> { });
+            XMLDataStore.saveCompressed(zipFile, zip);
+            return zipFile;
+        } catch (final IOException | RuntimeException e) {   // XStream exceptions are unchecked
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            logger.log(Level.WARNING, "Was not able to create the backup file: {0}", zipFile);
+            return null;
+        }
+    }
 
-        Path zipFile = Paths.get(FileUtils.stripFileExtension(fileName) + "-" + dateTimeFormatter.format(LocalDateTime.now())
-                + ".zip");
+    /**
+     * Returns the time stamped path of a new compressed XML backup.
+     */
+    private static Path getCompressedXMLPath(final String fileName) {
+        final DateTimeFormatter dateTimeFormatter = DateTimeFormatter.ofPattern("yyyyMMdd-HHmm");
 
-        FileUtils.compressFile(xmlFile, zipFile);
+        return Paths.get(FileUtils.stripFileExtension(fileName) + "-"
+                + dateTimeFormatter.format(LocalDateTime.now()) + ".zip");
+    }
 
-        try {
-            Files.delete(xmlFile);
-        } catch (final IOException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-            logger.log(Level.WARNING, "Was not able to delete the temporary file: {0}", xmlFile);
-        }
+    /**
+     * Returns the name of the XML file within a compressed XML backup, the path is stripped.
+     */
+    private static String getCompressedXMLEntryName(final Path zipFile) {
+        return FileUtils.stripFileExtension(zipFile.getFileName().toString()) + XMLDataStore.FILE_EXT;
     }
 
     public static void removeOldCompressedXML(final String fileName, final int limit) {
@@ -176,8 +224,10 @@ public class EngineFactory {
             baseFile = baseFile.replace("\\","\\\\");
         }
 
-        // old files use the base file name plus a '-' and a 8 digit date plus a '-' and a 4 digit time stamp
-        final List<Path> fileList = FileUtils.getDirectoryListing(path.getParent(), baseFile + "-\\d{8}-\\d{4}.zip");
+        // old files use the base file name plus a '-' and a 8 digit date plus a '-' and a 4 digit time stamp,
+        // full differential backups use a 6 digit time stamp
+        final List<Path> fileList = FileUtils.getDirectoryListing(path.getParent(),
+                baseFile + "-\\d{8}-\\d{4}(\\d{2})?.zip");
 
         if (fileList.size() > limit) {
             for (int i = 0; i < fileList.size() - limit; i++) {
@@ -188,6 +238,9 @@ public class EngineFactory {
                 }
             }
         }
+
+        // differential changes are of no use without their full backup
+        DifferentialBackup.removeOrphanedChanges(fileName);
     }
 
     public static synchronized void closeEngine(final String engineName) {
@@ -203,6 +256,12 @@ public class EngineFactory {
             final Message message = new Message(MessageChannel.SYSTEM, ChannelEvent.FILE_CLOSING, oldEngine);
             MessageBus.getInstance(engineName).fireBlockingEvent(message);  // block until event has been completely processed
 
+            final DifferentialBackup differentialBackup = differentialBackupMap.get(engineName);
+
+            if (differentialBackup != null) {
+                MessageBus.getInstance(engineName).unregisterListener(differentialBackup, MessageChannel.values());
+            }
+
             // Dump an XML backup
             if (oldEngine.createBackups() && oldDataStore.isLocal()) {
                 exportCompressedXML(engineName);
@@ -222,6 +281,7 @@ public class EngineFactory {
 
             engineMap.remove(engineName);
             dataStoreMap.remove(engineName);
+            differentialBackupMap.remove(engineName);
         }
     }
 
@@ -278,6 +338,14 @@ public class EngineFactory {
             engineMap.put(engineName, engine);
             dataStoreMap.put(engineName, dataStore);
 
+            // record changes for differential backups
+            if (isDifferentialBackupEnabled()) {
+                final DifferentialBackup differentialBackup = new DifferentialBackup(fileName);
+
+                MessageBus.getInstance(engineName).registerListener(differentialBackup, MessageChannel.values());
+                differentialBackupMap.put(engineName, differentialBackup);
+            }
+
             Message message = new Message(MessageChannel.SYSTEM, ChannelEvent.FILE_LOAD_SUCCESS, engine);
             MessageBus.getInstance(engineName).fireEvent(message);
 
@@ -470,6 +538,80 @@ public class EngineFactory {
         return pref.getBoolean(LAST_REMOTE, false);
     }
 
+    /**
+     * Returns the compression level used for compressed XML backups.
+     *
+     * @return compression level, 0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    public static synchronized int getBackupCompressionLevel() {
+        final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
+
+        return pref.getInt(BACKUP_COMPRESSION_LEVEL, Deflater.BEST_COMPRESSION);
+    }
+
+    /**
+     * Sets the compression level used for compressed XML backups.  Lower levels are faster but create larger files.
+     *
+     * @param level compression level, 0-9 or {@link Deflater#DEFAULT_COMPRESSION}
+     * @throws IllegalArgumentException if the compression level is not valid
+     */
+    public static synchronized void setBackupCompressionLevel(final int level) {
+        if ((level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+                && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+
+        final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
+
+        pref.putInt(BACKUP_COMPRESSION_LEVEL, level);
+    }
+
+    /**
+     * Determines if differential backups are written.  Only the changes since the last backup are written, with a
+     * full backup written after every full backup interval of change archives.
+     *
+     * @return {@code true} if differential backups are enabled
+     * @see DifferentialBackup
+     */
+    public static synchronized boolean isDifferentialBackupEnabled() {
+        final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
+
+        return pref.getBoolean(DIFFERENTIAL_BACKUP, false);
+    }
+
+    /**
+     * Enables or disables differential backups.  Takes effect the next time a file is opened.
+     *
+     * @param enabled {@code true} to enable differential backups
+     */
+    public static synchronized void setDifferentialBackupEnabled(final boolean enabled) {
+        final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
+
+        pref.putBoolean(DIFFERENTIAL_BACKUP, enabled);
+    }
+
+    /**
+     * Returns the number of differential change archives written before a new full backup is written.
+     *
+     * @return full backup interval
+     */
+    public static synchronized int getFullBackupInterval() {
+        final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
+
+        return pref.getInt(FULL_BACKUP_INTERVAL, DEFAULT_FULL_BACKUP_INTERVAL);
+    }
+
+    /**
+     * Sets the number of differential change archives written before a new full backup is written.
+     *
+     * @param interval full backup interval, zero writes a full backup every time
+     */
+    public static synchronized void setFullBackupInterval(final int interval) {
+        final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
+
+        pref.putInt(FULL_BACKUP_INTERVAL, Math.max(interval, 0));
+    }
+
     public static synchronized boolean usedPassword() {
         final Preferences pref = Preferences.userNodeForPackage(EngineFactory.class);
 
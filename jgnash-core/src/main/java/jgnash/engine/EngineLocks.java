@@ -0,0 +1,353 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import jgnash.engine.concurrent.LockManager;
+import jgnash.util.NotNull;
+
+/**
+ * Provides the locks used by the {@code Engine}.
+ * <p>
+ * By default every operation is guarded by a single engine wide lock.  When striped locking is enabled, operations
+ * that only alter accounts, commodity history or the configuration hold the engine lock for reading and write locks
+ * on the stripes of the objects they change.  Operations that alter the structure of the data still hold the engine
+ * lock for writing and exclude everything else, so engines with and without striped locking may share a server.
+ * <p>
+ * Locks are always acquired in the same order to prevent deadlocks: the engine lock, commodity stripes and then
+ * account stripes, each in ascending order.  An operation holding a stripe must not call an operation that needs
+ * the engine write lock or a stripe earlier in the order that it does not already hold.  The config lock may be
+ * acquired at any point because nothing else is acquired while it is held for writing.
+ *
+ * @author Craig Cavanaugh
+ */
+final class EngineLocks {
+
+    /**
+     * System property that enables striped locking.
+     */
+    static final String STRIPED_LOCKS = "jgnash.engine.stripedLocks";
+
+    private static final String BIG_LOCK = "bigLock";
+
+    private static final String CONFIG_LOCK = "config";
+
+    private static final String ACCOUNT_LOCK = "account-";
+
+    private static final String COMMODITY_LOCK = "commodity-";
+
+    static final int ACCOUNT_STRIPES = 16;
+
+    static final int COMMODITY_STRIPES = 8;
+
+    /**
+     * Primary lock for any operation that alters or reads data.
+     */
+    private final ReentrantReadWriteLock dataLock;
+
+    private final ReentrantReadWriteLock configLock;
+
+    private final ReentrantReadWriteLock[] accountLocks;
+
+    private final ReentrantReadWriteLock[] commodityLocks;
+
+    private final boolean striped;
+
+    EngineLocks(final LockManager lockManager) {
+        this(lockManager, Boolean.getBoolean(STRIPED_LOCKS));
+    }
+
+    EngineLocks(final LockManager lockManager, final boolean striped) {
+        this.striped = striped;
+
+        dataLock = lockManager.getLock(BIG_LOCK);
+
+        if (striped) {
+            configLock = lockManager.getLock(CONFIG_LOCK);
+
+            accountLocks = new ReentrantReadWriteLock[ACCOUNT_STRIPES];
+
+            for (int i = 0; i < ACCOUNT_STRIPES; i++) {
+                accountLocks[i] = lockManager.getLock(ACCOUNT_LOCK + i);
+            }
+
+            commodityLocks = new ReentrantReadWriteLock[COMMODITY_STRIPES];
+
+            for (int i = 0; i < COMMODITY_STRIPES; i++) {
+                commodityLocks[i] = lockManager.getLock(COMMODITY_LOCK + i);
+            }
+        } else {
+            configLock = null;
+            accountLocks = null;
+            commodityLocks = null;
+        }
+    }
+
+    boolean isStriped() {
+        return striped;
+    }
+
+    /**
+     * Returns the lock for reading any data.
+     *
+     * @return engine read lock
+     */
+    Lock readLock() {
+        return dataLock.readLock();
+    }
+
+    /**
+     * Returns the lock for operations that alter the structure of the data.
+     *
+     * @return engine write lock
+     */
+    Lock writeLock() {
+        return dataLock.writeLock();
+    }
+
+    /**
+     * Returns the lock for operations that are safe to run concurrently with striped operations, such as moving
+     * objects to the trash.
+     *
+     * @return engine read lock if striped, engine write lock otherwise
+     */
+    Lock sharedLock() {
+        return striped ? dataLock.readLock() : dataLock.writeLock();
+    }
+
+    /**
+     * Returns the lock for reading a consistent view of all data.  Other readers are not blocked.
+     *
+     * @return engine read lock and all striped read locks if striped, engine read lock otherwise
+     */
+    Lock snapshotLock() {
+        if (!striped) {
+            return dataLock.readLock();
+        }
+
+        final List<Lock> locks = new ArrayList<>(COMMODITY_STRIPES + ACCOUNT_STRIPES + 2);
+
+        locks.add(dataLock.readLock());
+        locks.add(configLock.readLock());
+
+        for (final ReentrantReadWriteLock lock : commodityLocks) {
+            locks.add(lock.readLock());
+        }
+
+        for (final ReentrantReadWriteLock lock : accountLocks) {
+            locks.add(lock.readLock());
+        }
+
+        return new OrderedLock(locks.toArray(new Lock[0]));
+    }
+
+    /**
+     * Returns the lock for reading the configuration.
+     *
+     * @return config read lock if striped, engine read lock otherwise
+     */
+    Lock configReadLock() {
+        return striped ? new OrderedLock(dataLock.readLock(), configLock.readLock()) : dataLock.readLock();
+    }
+
+    /**
+     * Returns the lock for changing the configuration.
+     *
+     * @return config write lock if striped, engine write lock otherwise
+     */
+    Lock configWriteLock() {
+        return striped ? new OrderedLock(dataLock.readLock(), configLock.writeLock()) : dataLock.writeLock();
+    }
+
+    /**
+     * Returns the lock for changing an account.
+     *
+     * @param account account to change
+     * @return account write lock if striped, engine write lock otherwise
+     */
+    Lock accountLock(@NotNull final Account account) {
+        return lock(Collections.singleton(account), Collections.emptySet());
+    }
+
+    /**
+     * Returns the lock for changing the history of a commodity or exchange rate.
+     *
+     * @param id the uuid of the commodity or the id of the exchange rate
+     * @return commodity write lock if striped, engine write lock otherwise
+     */
+    Lock commodityLock(@NotNull final String id) {
+        return lock(Collections.emptySet(), Collections.singleton(id));
+    }
+
+    /**
+     * Returns the lock for changing several accounts and commodities at once.
+     *
+     * @param accounts     accounts to change
+     * @param commodityIds uuids of commodities and ids of exchange rates to change
+     * @return ordered write locks if striped, engine write lock otherwise
+     */
+    Lock lock(@NotNull final Collection<Account> accounts, @NotNull final Collection<String> commodityIds) {
+        if (!striped) {
+            return dataLock.writeLock();
+        }
+
+        final SortedSet<Integer> commodityStripes = new TreeSet<>();
+
+        for (final String id : commodityIds) {
+            commodityStripes.add(Math.floorMod(id.hashCode(), COMMODITY_STRIPES));
+        }
+
+        final SortedSet<Integer> accountStripes = new TreeSet<>();
+
+        for (final Account account : accounts) {
+            accountStripes.add(Math.floorMod(account.getUuid().hashCode(), ACCOUNT_STRIPES));
+        }
+
+        final List<Lock> locks = new ArrayList<>(commodityStripes.size() + accountStripes.size() + 1);
+
+        locks.add(dataLock.readLock());
+
+        for (final int stripe : commodityStripes) {
+            locks.add(commodityLocks[stripe].writeLock());
+        }
+
+        for (final int stripe : accountStripes) {
+            locks.add(accountLocks[stripe].writeLock());
+        }
+
+        return new OrderedLock(locks.toArray(new Lock[0]));
+    }
+
+    /**
+     * Acquires a group of locks in order and releases them in reverse order.  If a lock can not be acquired, the
+     * locks already acquired are released.  Conditions are not supported because a condition can not span several
+     * locks, the same as the read lock of a {@code ReentrantReadWriteLock}.
+     */
+    private static final class OrderedLock implements Lock {
+
+        private final Lock[] locks;
+
+        OrderedLock(final Lock... locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void lock() {
+            int acquired = 0;
+
+            try {
+                for (final Lock lock : locks) {
+                    lock.lock();
+                    acquired++;
+                }
+            } catch (final RuntimeException e) {
+                release(acquired);
+                throw e;
+            }
+        }
+
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            int acquired = 0;
+
+            try {
+                for (final Lock lock : locks) {
+                    lock.lockInterruptibly();
+                    acquired++;
+                }
+            } catch (final InterruptedException | RuntimeException e) {
+                release(acquired);
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean tryLock() {
+            int acquired = 0;
+
+            try {
+                for (final Lock lock : locks) {
+                    if (!lock.tryLock()) {
+                        release(acquired);
+                        return false;
+                    }
+                    acquired++;
+                }
+            } catch (final RuntimeException e) {
+                release(acquired);
+                throw e;
+            }
+
+            return true;
+        }
+
+        @Override
+        public boolean tryLock(final long time, @NotNull final TimeUnit unit) throws InterruptedException {
+            final long deadline = System.nanoTime() + unit.toNanos(time);
+
+            int acquired = 0;
+
+            try {
+                for (final Lock lock : locks) {
+                    if (!lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                        release(acquired);
+                        return false;
+                    }
+                    acquired++;
+                }
+            } catch (final InterruptedException | RuntimeException e) {
+                release(acquired);
+                throw e;
+            }
+
+            return true;
+        }
+
+        @Override
+        public void unlock() {
+            release(locks.length);
+        }
+
+        @Override
+        @NotNull
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported by a group of locks");
+        }
+
+        /**
+         * Releases the first locks of the group in reverse order.
+         *
+         * @param count number of locks to release
+         */
+        private void release(final int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+}
@@ -20,10 +20,12 @@ package jgnash.engine;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
@@ -54,7 +56,12 @@ public class ExchangeRate extends StoredObject {
     /**
      * Cache the last exchange rate.
      */
-    transient private BigDecimal lastRate;
+    transient private volatile BigDecimal lastRate;
+
+    /**
+     * History nodes indexed by date.  Lazily built from the persisted history nodes.
+     */
+    transient private volatile NavigableMap<LocalDate, ExchangeRateHistoryNode> historyIndex;
 
     /**
      * Identifier for the ExchangeRate object.
@@ -94,28 +101,49 @@ public class ExchangeRate extends StoredObject {
 
         lock.readLock().lock();
 
-        boolean result = false;
-
         try {
-            for (final ExchangeRateHistoryNode node : historyNodes) {
-                if (localDate.compareTo(node.getLocalDate()) == 0) {
-                    result = true;
-                    break;
-                }
-            }
+            return getHistoryIndex().containsKey(localDate);
         } finally {
             lock.readLock().unlock();
         }
-
-        return result;
     }
 
     public List<ExchangeRateHistoryNode> getHistory() {
-        // return a defensive copy
-        List<ExchangeRateHistoryNode> nodes = new ArrayList<>(historyNodes);
-        Collections.sort(nodes);
+        lock.readLock().lock();
 
-        return nodes;
+        try {
+            // return a defensive copy
+            return new ArrayList<>(getHistoryIndex().values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the date index of the history nodes.  The caller must hold the lock.
+     *
+     * @return history nodes indexed by date
+     */
+    private NavigableMap<LocalDate, ExchangeRateHistoryNode> getHistoryIndex() {
+        NavigableMap<LocalDate, ExchangeRateHistoryNode> index = historyIndex;
+
+        if (index == null) {
+            synchronized (this) {   // multiple readers may hold the read lock
+                index = historyIndex;
+
+                if (index == null) {
+                    index = new TreeMap<>();
+
+                    for (final ExchangeRateHistoryNode node : historyNodes) {
+                        index.put(node.getLocalDate(), node);
+                    }
+
+                    historyIndex = index;
+                }
+            }
+        }
+
+        return index;
     }
 
     boolean addHistoryNode(final ExchangeRateHistoryNode node) {
@@ -125,6 +153,7 @@ public class ExchangeRate extends StoredObject {
 
         try {
             historyNodes.add(node);
+            getHistoryIndex().put(node.getLocalDate(), node);
 
             lastRate = null; // force an update
 
@@ -140,22 +169,13 @@ public class ExchangeRate extends StoredObject {
 
     @Nullable
     ExchangeRateHistoryNode getHistory(final LocalDate localDate) {
-        ExchangeRateHistoryNode node = null;
-
         lock.readLock().lock();
 
         try {
-            for (final ExchangeRateHistoryNode historyNode : historyNodes) {
-                if (localDate.compareTo(historyNode.getLocalDate()) == 0) {
-                    node = historyNode;
-                    break;
-                }
-            }
+            return getHistoryIndex().get(localDate);
         } finally {
             lock.readLock().unlock();
         }
-
-        return node;
     }
 
     boolean removeHistoryNode(final ExchangeRateHistoryNode hNode) {
@@ -166,6 +186,7 @@ public class ExchangeRate extends StoredObject {
             final boolean result = historyNodes.remove(hNode);
 
             if (result) {
+                getHistoryIndex().remove(hNode.getLocalDate(), hNode);
                 lastRate = null; // force an update
             }
 
@@ -180,51 +201,64 @@ public class ExchangeRate extends StoredObject {
     }
 
     public BigDecimal getRate() {
-        lock.readLock().lock();
+        BigDecimal rate = lastRate;
 
-        try {
-            if (lastRate == null) {
-                if (!historyNodes.isEmpty()) {
+        if (rate == null) {
+            lock.readLock().lock();
 
-                    List<ExchangeRateHistoryNode> nodes = getHistory();
+            try {
+                final Map.Entry<LocalDate, ExchangeRateHistoryNode> entry = getHistoryIndex().lastEntry();
 
-                    lastRate = nodes.get(nodes.size() - 1).getRate();
-                } else {
-                    lastRate = BigDecimal.ONE;
-                }
+                rate = entry != null ? entry.getValue().getRate() : BigDecimal.ONE;
+                lastRate = rate;
+            } finally {
+                lock.readLock().unlock();
             }
-        } finally {
-            lock.readLock().unlock();
         }
 
-        return lastRate;
+        return rate;
     }
 
     /**
-     * Returns the exchange rate for a given {@code LocalDate}.
+     * Returns the exchange rate in effect for a given {@code LocalDate}.  This is the rate of the closest history
+     * node on or before the date.
      * <p>
-     * If a rate has not be set, {@code BigDecimal.ZERO} is returned
+     * If the date precedes all history, the oldest known rate is returned.  If a rate has never been set,
+     * {@code BigDecimal.ONE} is returned
      *
      * @param localDate {@code LocalDate} for exchange
-     * @return the exchange rate if known, otherwise {@code BigDecimal.ZERO}
+     * @return the exchange rate in effect
      */
-    BigDecimal getRate(final LocalDate localDate) {
+    public BigDecimal getRateInEffect(final LocalDate localDate) {
         lock.readLock().lock();
 
-        BigDecimal rate = BigDecimal.ZERO;
-
         try {
-            for (ExchangeRateHistoryNode historyNode : historyNodes) {
-                if (localDate.equals(historyNode.getLocalDate())) {
-                    rate = historyNode.getRate();
-                    break;
-                }
+            final NavigableMap<LocalDate, ExchangeRateHistoryNode> index = getHistoryIndex();
+
+            Map.Entry<LocalDate, ExchangeRateHistoryNode> entry = index.floorEntry(localDate);
+
+            if (entry == null) {
+                entry = index.firstEntry();
             }
+
+            return entry != null ? entry.getValue().getRate() : BigDecimal.ONE;
         } finally {
             lock.readLock().unlock();
         }
+    }
 
-        return rate;
+    /**
+     * Returns the exchange rate for a given {@code LocalDate}.
+     * <p>
+     * If a rate has not be set, {@code BigDecimal.ZERO} is returned
+     *
+     * @param localDate {@code LocalDate} for exchange
+     * @return the exchange rate if known, otherwise {@code BigDecimal.ZERO}
+     */
+    BigDecimal getRate(final LocalDate localDate) {
+        final ExchangeRateHistoryNode historyNode = getHistory(localDate);
+
+        return historyNode != null ? historyNode.getRate() : BigDecimal.ZERO;
     }
 
     @Override
@@ -250,5 +284,7 @@ public class ExchangeRate extends StoredObject {
     @PostLoad
     private void postLoad() {
         lock = new ReentrantReadWriteLock(true);
+        historyIndex = null;
+        lastRate = null;
     }
 }
@@ -17,6 +17,9 @@
  */
 package jgnash.engine;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import jgnash.engine.dao.CommodityDAO;
 
 /**
@@ -29,6 +32,11 @@ class ExchangeRateDAO {
 
     private final CommodityDAO commodityDAO;
 
+    /**
+     * Exchange rates by rate id.  Allows rates to be found without a lock or a query.
+     */
+    private final Map<String, ExchangeRate> exchangeRateMap = new ConcurrentHashMap<>();
+
     ExchangeRateDAO(final CommodityDAO commodityDAO) {
         this.commodityDAO = commodityDAO;
     }
@@ -40,13 +48,34 @@ class ExchangeRateDAO {
 
         final String rateId = Engine.buildExchangeRateId(baseCurrency, exchangeCurrency);
 
-        ExchangeRate node = commodityDAO.getExchangeNode(rateId);
+        final ExchangeRate node = exchangeRateMap.get(rateId);
+
+        if (node != null && !node.isMarkedForRemoval()) {
+            return node;
+        }
+
+        return loadExchangeRateNode(rateId);
+    }
+
+    /**
+     * Finds or creates an exchange rate.  Synchronized so only one instance is created for a rate id.
+     */
+    private synchronized ExchangeRate loadExchangeRateNode(final String rateId) {
+        ExchangeRate node = exchangeRateMap.get(rateId);
+
+        if (node != null && !node.isMarkedForRemoval()) {
+            return node;
+        }
+
+        node = commodityDAO.getExchangeNode(rateId);
 
         if (node == null) {
-            node = new ExchangeRate(Engine.buildExchangeRateId(baseCurrency, exchangeCurrency));
+            node = new ExchangeRate(rateId);
             commodityDAO.addExchangeRate(node);
         }
 
+        exchangeRateMap.put(rateId, node);
+
         return node;
     }
 }
@@ -21,6 +21,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.locks.Lock;
 
 /**
@@ -54,6 +55,17 @@ class InvestmentAccountProxy extends AccountProxy {
         return getCashBalance(date).add(getMarketValue(date));
     }
 
+    @Override
+    public BigDecimal[] getBalances(final List<LocalDate> dates) {
+        final BigDecimal[] balances = super.getBalances(dates);
+
+        for (int i = 0; i < balances.length; i++) {
+            balances[i] = balances[i].add(getMarketValue(dates.get(i)));
+        }
+
+        return balances;
+    }
+
     /**
      * Returns the cash balance of this account.  Cash balance may be referred to as the "sweep" account where
      * the money market fund (cash) does not have it's own account number and the user see's it as a cash balance
@@ -96,15 +108,7 @@ class InvestmentAccountProxy extends AccountProxy {
      * @return The ending cash balance
      */
     private BigDecimal getCashBalance(final LocalDate end) {
-        final Lock l = account.getTransactionLock().readLock();
-        l.lock();
-
-        try {
-            return !account.transactions.isEmpty()
-                    ? getCashBalance(account.getSortedTransactionList().get(0).getLocalDate(), end) : BigDecimal.ZERO;
-        } finally {
-            l.unlock();
-        }
+        return super.getBalance(end);
     }
 
     /**
@@ -120,7 +124,7 @@ class InvestmentAccountProxy extends AccountProxy {
         account.getTransactionLock().readLock().lock();
 
         try {
-            return Engine.getMarketPrice(account.getSortedTransactionList(), node, account.getCurrencyNode(), date);
+            return Engine.getMarketPrice(account, node, account.getCurrencyNode(), date);
         } finally {
             account.getTransactionLock().readLock().unlock();
         }
@@ -210,17 +214,12 @@ class InvestmentAccountProxy extends AccountProxy {
                 priceMap.put(node, getMarketPrice(node, end));
             }
 
-            BigDecimal balance = BigDecimal.ZERO;
+            final SecurityTransactionIndex index = account.getSecurityTransactionIndex();
 
-            // Get a defensive copy, JPA lazy updates can have side effects
-            List<Transaction> transactions = account.getSortedTransactionList();
+            BigDecimal balance = BigDecimal.ZERO;
 
-            for (final Transaction t : transactions) {
-                if (t.getLocalDate().compareTo(start) >= 0 && t.getLocalDate().compareTo(end) <= 0) {
-                    if (t instanceof InvestmentTransaction) {
-                        balance = balance.add(((InvestmentTransaction) t).getMarketValue(priceMap.get(((InvestmentTransaction) t).getSecurityNode())));
-                    }
-                }
+            for (final Map.Entry<SecurityNode, BigDecimal> entry : priceMap.entrySet()) {
+                balance = balance.add(index.getShares(entry.getKey(), start, end).multiply(entry.getValue()));
             }
 
             return round(balance);
@@ -249,14 +248,13 @@ class InvestmentAccountProxy extends AccountProxy {
                 priceMap.put(node, getMarketPrice(node, today));
             }
 
-            BigDecimal balance = BigDecimal.ZERO;
+            final SecurityTransactionIndex securityTransactionIndex = account.getSecurityTransactionIndex();
 
-            for (int i = 0; i <= index; i++) {
-                Transaction t = account.getTransactionAt(i);
+            BigDecimal balance = BigDecimal.ZERO;
 
-                if (t instanceof InvestmentTransaction) {
-                    balance = balance.add(((InvestmentTransaction) t).getMarketValue(priceMap.get(((InvestmentTransaction) t).getSecurityNode())));
-                }
+            for (final Map.Entry<SecurityNode, BigDecimal> entry : priceMap.entrySet()) {
+                balance = balance.add(securityTransactionIndex.getSharesAt(entry.getKey(), index)
+                        .multiply(entry.getValue()));
             }
 
             return round(balance);
@@ -318,17 +316,12 @@ class InvestmentAccountProxy extends AccountProxy {
         try {
             final LocalDate date = account.getFirstUnreconciledTransactionDate();
 
-            BigDecimal balance = BigDecimal.ZERO;
+            final int index = account.getRunningBalanceIndex().indexOf(date);
 
-            final List<Transaction> transactions = account.getSortedTransactionList();
+            BigDecimal balance = BigDecimal.ZERO;
 
-            for (int i = 0; i < transactions.size(); i++) {
-                if (transactions.get(i).getLocalDate().equals(date)) {
-                    if (i > 0) {
-                        balance = getCashBalanceAt(i - 1).add(getMarketValueAt(i - 1));
-                    }
-                    break;
-                }
+            if (index > 0 && index < account.getTransactionCount()) {
+                balance = getCashBalanceAt(index - 1).add(getMarketValueAt(index - 1));
             }
 
             return round(balance);
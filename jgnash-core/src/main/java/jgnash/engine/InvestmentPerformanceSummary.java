@@ -28,6 +28,8 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 
+import jgnash.util.ReportRunner;
+
 /**
  * Investment Performance Summary Class.
  * 
@@ -48,12 +50,24 @@ public class InvestmentPerformanceSummary {
     private CurrencyNode baseCurrency;
 
     public InvestmentPerformanceSummary(final Account account, final boolean recursive) {
-        this(account, null, null, recursive);
+        this(account, recursive, new ReportRunner());
+    }
+
+    /**
+     * Creates the summary and calculates the securities in parallel.
+     *
+     * @param account   investment account
+     * @param recursive {@code true} to include the securities of child accounts
+     * @param runner    runner used to calculate the securities
+     * @throws java.util.concurrent.CancellationException if the runner is cancelled
+     */
+    public InvestmentPerformanceSummary(final Account account, final boolean recursive, final ReportRunner runner) {
+        this(account, null, null, recursive, runner);
     }
 
     @SuppressWarnings("SameParameterValue")
     private InvestmentPerformanceSummary(final Account account, final LocalDate startDate, final LocalDate endDate,
-                                         final boolean recursive) {
+                                         final boolean recursive, final ReportRunner runner) {
         Objects.requireNonNull(account, "Account may not be null");
 
         if (!account.memberOf(AccountGroup.INVEST)) {
@@ -79,7 +93,7 @@ public class InvestmentPerformanceSummary {
 
         Collections.sort(transactions);
 
-        runCalculations(recursive);
+        runCalculations(recursive, runner);
     }
 
     private void collectSubAccountTransactions(final Account account, final List<Transaction> transactions) {
@@ -344,7 +358,7 @@ public class InvestmentPerformanceSummary {
         data.setInternalRateOfReturn(cashFlow.internalRateOfReturn());
     }
 
-    private void runCalculations(final boolean recursive) {
+    private void runCalculations(final boolean recursive, final ReportRunner runner) {
 
         Set<SecurityNode> nodes = account.getSecurities();
 
@@ -352,25 +366,30 @@ public class InvestmentPerformanceSummary {
             collectSubAccountSecurities(account, nodes);
         }
 
-        for (final SecurityNode node : nodes) {
-            SecurityPerformanceData data = new SecurityPerformanceData(node);
+        // securities are independent of each other and the transaction list is only read
+        for (final SecurityPerformanceData data : runner.run(new ArrayList<>(nodes), this::calculate)) {
+            performanceData.put(data.getNode(), data);
+        }
+
+        calculatePercentPortfolio();
+    }
+
+    private SecurityPerformanceData calculate(final SecurityNode node) {
+        SecurityPerformanceData data = new SecurityPerformanceData(node);
 
-            data.setPrice(getMarketPrice(node, getEndDate()));
+        data.setPrice(getMarketPrice(node, getEndDate()));
 
-            performanceData.put(node, data);
+        calculateShares(data, transactions);
+        calculateCostBasis(data, transactions);
 
-            calculateShares(data, transactions);
-            calculateCostBasis(data, transactions);
+        calculateRealizedGains(data, transactions);
+        calculateUnrealizedGains(data);
 
-            calculateRealizedGains(data, transactions);
-            calculateUnrealizedGains(data);
+        calculateTotalGains(data);
 
-            calculateTotalGains(data);
-            
-            calculateInternalRateOfReturn(data, transactions);
-        }
+        calculateInternalRateOfReturn(data, transactions);
 
-        calculatePercentPortfolio();
+        return data;
     }
 
     private BigDecimal getMarketPrice(final SecurityNode node, final LocalDate date) {
@@ -136,7 +136,7 @@ public class InvestmentTransaction extends Transaction {
      * @return the quantity of securities for this transaction
      * @see #getSignedQuantity()
      */
-    private BigDecimal getSignedQuantity() {
+    BigDecimal getSignedQuantity() {
         BigDecimal quantity = BigDecimal.ZERO;
 
         for (final TransactionEntry e : transactionEntries) {
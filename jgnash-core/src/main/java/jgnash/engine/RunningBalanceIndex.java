@@ -0,0 +1,212 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Running balance index for an {@code Account}.
+ * <p>
+ * Cumulative sums are kept by position within the account's sorted transaction list.  Sums are lazily
+ * calculated and only the tail following an insert or removal is invalidated.  Because the sorted transaction
+ * list is ordered by date first, date lookups are resolved with a binary search.
+ * <p>
+ * The caller is expected to hold the account's transaction lock.  Methods are synchronized because
+ * multiple readers may extend the calculated range concurrently.
+ *
+ * @author Craig Cavanaugh
+ */
+class RunningBalanceIndex {
+
+    private final Account account;
+
+    /**
+     * Cumulative sums by position.
+     */
+    private BigDecimal[] sums = new BigDecimal[0];
+
+    /**
+     * Number of valid cumulative sums starting at index 0.
+     */
+    private int validCount = 0;
+
+    RunningBalanceIndex(final Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Invalidates all cumulative sums at and after the specified position.
+     *
+     * @param index position of the first changed transaction
+     */
+    synchronized void invalidateFrom(final int index) {
+        validCount = Math.max(0, Math.min(validCount, index));
+    }
+
+    /**
+     * Invalidates all cumulative sums.
+     */
+    synchronized void clear() {
+        validCount = 0;
+    }
+
+    /**
+     * Returns the balance of all transactions.
+     *
+     * @return the balance
+     */
+    synchronized BigDecimal getBalance() {
+        final List<Transaction> transactions = account.getSortedTransactionList();
+
+        if (transactions.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        return getBalanceAt(transactions, transactions.size() - 1);
+    }
+
+    /**
+     * Returns the balance up to and inclusive of the specified position.
+     *
+     * @param index position in the sorted transaction list
+     * @return the balance at the specified position
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    synchronized BigDecimal getBalanceAt(final int index) {
+        return getBalanceAt(account.getSortedTransactionList(), index);
+    }
+
+    /**
+     * Returns the balance of the transactions inclusive of the start and end dates.
+     *
+     * @param start The inclusive start date
+     * @param end   The inclusive end date
+     * @return The balance
+     */
+    synchronized BigDecimal getBalance(final LocalDate start, final LocalDate end) {
+        final List<Transaction> transactions = account.getSortedTransactionList();
+
+        final int first = indexOf(transactions, start);
+        final int last = indexAfter(transactions, end) - 1;
+
+        if (last < first) {
+            return BigDecimal.ZERO;
+        }
+
+        final BigDecimal balance = getBalanceAt(transactions, last);
+
+        if (first == 0) {
+            return balance;
+        }
+
+        return balance.subtract(getBalanceAt(transactions, first - 1));
+    }
+
+    /**
+     * Returns the balance up to and inclusive of the supplied date.
+     *
+     * @param date The inclusive end date
+     * @return The balance
+     */
+    synchronized BigDecimal getBalance(final LocalDate date) {
+        final List<Transaction> transactions = account.getSortedTransactionList();
+
+        final int last = indexAfter(transactions, date) - 1;
+
+        if (last < 0) {
+            return BigDecimal.ZERO;
+        }
+
+        return getBalanceAt(transactions, last);
+    }
+
+    /**
+     * Returns the position of the first transaction occurring on or after the supplied date.
+     *
+     * @param date the date to search for
+     * @return position of the first transaction on or after the date, or the transaction count if none exist
+     */
+    int indexOf(final LocalDate date) {
+        return indexOf(account.getSortedTransactionList(), date);
+    }
+
+    private BigDecimal getBalanceAt(final List<Transaction> transactions, final int index) {
+        if (index < 0 || index >= transactions.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + transactions.size());
+        }
+
+        if (sums.length < transactions.size()) {
+            sums = Arrays.copyOf(sums, Math.max(transactions.size(), sums.length + (sums.length >> 1)));
+        }
+
+        // extend the valid range up to the requested index
+        BigDecimal balance = validCount > 0 ? sums[validCount - 1] : BigDecimal.ZERO;
+
+        for (int i = validCount; i <= index; i++) {
+            balance = balance.add(transactions.get(i).getAmount(account));
+            sums[i] = balance;
+        }
+
+        validCount = Math.max(validCount, index + 1);
+
+        return sums[index];
+    }
+
+    /**
+     * Binary search for the first transaction with a date on or after the supplied date.
+     */
+    private static int indexOf(final List<Transaction> transactions, final LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (transactions.get(mid).getLocalDate().isBefore(date)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Binary search for the first transaction with a date after the supplied date.
+     */
+    private static int indexAfter(final List<Transaction> transactions, final LocalDate date) {
+        int low = 0;
+        int high = transactions.size();
+
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+
+            if (transactions.get(mid).getLocalDate().isAfter(date)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+
+        return low;
+    }
+}
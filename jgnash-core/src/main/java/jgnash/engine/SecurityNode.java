@@ -77,6 +77,16 @@ public class SecurityNode extends CommodityNode {
 
     private transient List<SecurityHistoryNode> sortedHistoryNodeCache = new ArrayList<>();
 
+    /**
+     * Epoch days of the sorted history nodes.  Kept in step with {@code sortedHistoryNodeCache} for binary searches.
+     */
+    private transient long[] epochDays = new long[0];
+
+    /**
+     * {@code true} when the split adjustment multipliers of the history nodes are current.
+     */
+    private transient volatile boolean adjustmentsCurrent = false;
+
     public SecurityNode() {
         lock = new ReentrantReadWriteLock(true);
     }
@@ -166,10 +176,24 @@ public class SecurityNode extends CommodityNode {
         lock.writeLock().lock();
 
         try {
-            sortedHistoryNodeCache.add(node);
-            Collections.sort(sortedHistoryNodeCache);
+            final boolean result = historyNodes.add(node);
 
-            return historyNodes.add(node);
+            if (result) {
+                final long epochDay = node.getLocalDate().toEpochDay();
+                final int index = floorIndex(epochDay) + 1;
+
+                sortedHistoryNodeCache.add(index, node);
+
+                final long[] days = new long[epochDays.length + 1];
+                System.arraycopy(epochDays, 0, days, 0, index);
+                System.arraycopy(epochDays, index, days, index + 1, epochDays.length - index);
+                days[index] = epochDay;
+                epochDays = days;
+
+                adjustmentsCurrent = false;
+            }
+
+            return result;
         } finally {
             lock.writeLock().unlock();
         }
@@ -182,7 +206,16 @@ public class SecurityNode extends CommodityNode {
             final boolean result = historyNodes.removeIf(node -> node.getLocalDate().compareTo(date) == 0);
 
             if (result) {
-                sortedHistoryNodeCache.removeIf(node -> node.getLocalDate().compareTo(date) == 0);
+                final int index = exactIndex(date.toEpochDay());
+
+                if (index >= 0) {
+                    sortedHistoryNodeCache.remove(index);
+
+                    final long[] days = new long[epochDays.length - 1];
+                    System.arraycopy(epochDays, 0, days, 0, index);
+                    System.arraycopy(epochDays, index + 1, days, index, days.length - index);
+                    epochDays = days;
+                }
             }
 
             return result;
@@ -195,6 +228,8 @@ public class SecurityNode extends CommodityNode {
         lock.writeLock().lock();
 
         try {
+            adjustmentsCurrent = false;
+
             return securityHistoryEvents.add(securityHistoryEvent);
         } finally {
             lock.writeLock().unlock();
@@ -214,6 +249,8 @@ public class SecurityNode extends CommodityNode {
                     break;  // break to prevent concurrent modification error
                 }
             }
+
+            adjustmentsCurrent = false;
         } finally {
             lock.writeLock().unlock();
         }
@@ -229,22 +266,13 @@ public class SecurityNode extends CommodityNode {
      * @return <tt>true</tt> if this SecurityNode contains a SecurityHistoryNode with the specified date
      */
     public boolean contains(final LocalDate date) {
-        boolean result = false;
-
         lock.readLock().lock();
 
         try {
-            for (final SecurityHistoryNode node : historyNodes) {
-                if (node.getLocalDate().compareTo(date) == 0) {
-                    result = true;
-                    break;
-                }
-            }
+            return exactIndex(date.toEpochDay()) >= 0;
         } finally {
             lock.readLock().unlock();
         }
-
-        return result;
     }
 
     /**
@@ -255,15 +283,51 @@ public class SecurityNode extends CommodityNode {
      * @see SecurityHistoryNode#getAdjustedPrice()
      */
     public List<SecurityHistoryNode> getHistoryNodes() {
+        readLockAdjusted();
 
-        lock.readLock().lock();
+        try {
+            return Collections.unmodifiableList(sortedHistoryNodeCache);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Acquires the read lock with the split adjustment multipliers of the history nodes up to date.
+     */
+    private void readLockAdjusted() {
+        while (true) {
+            if (!adjustmentsCurrent) {
+                updateAdjustmentMultipliers();
+            }
+
+            lock.readLock().lock();
+
+            if (adjustmentsCurrent) {
+                return;
+            }
+
+            lock.readLock().unlock();   // changed before the read lock was acquired, try again
+        }
+    }
+
+    /**
+     * Sets the split adjustment multiplier of each history node.  The multipliers are only recomputed after history
+     * nodes or history events have changed.
+     */
+    private void updateAdjustmentMultipliers() {
+        lock.writeLock().lock();
 
         try {
+            if (adjustmentsCurrent) {
+                return;
+            }
+
             final List<SecurityHistoryEvent> splits = getSplitEvents();
 
-            if (!splits.isEmpty()) {
-                BigDecimal scalar = BigDecimal.ONE;
+            BigDecimal scalar = BigDecimal.ONE;
 
+            if (!splits.isEmpty()) {
                 final ListIterator<SecurityHistoryEvent> historyEventIterator = splits.listIterator(splits.size());
 
                 LocalDate eventDate = historyEventIterator.previous().getDate();
@@ -280,11 +344,15 @@ public class SecurityNode extends CommodityNode {
 
                     sortedHistoryNodeCache.get(i).setAdjustmentMultiplier(scalar);
                 }
+            } else {    // clear any adjustments left behind by a removed split
+                for (final SecurityHistoryNode node : sortedHistoryNodeCache) {
+                    node.setAdjustmentMultiplier(scalar);
+                }
             }
 
-            return Collections.unmodifiableList(sortedHistoryNodeCache);
+            adjustmentsCurrent = true;
         } finally {
-            lock.readLock().unlock();
+            lock.writeLock().unlock();
         }
     }
 
@@ -315,7 +383,7 @@ public class SecurityNode extends CommodityNode {
      * @return a List of Lists of SecurityHistoryNodes
      */
     public List<List<SecurityHistoryNode>> getHistoryNodeGroupsBySplits() {
-        lock.readLock().lock();
+        readLockAdjusted();
 
         try {
 
@@ -323,11 +391,11 @@ public class SecurityNode extends CommodityNode {
             final List<SecurityHistoryEvent> splitEvents = getSplitEvents();
 
             if (splitEvents.isEmpty()) {
-                groups.add(getHistoryNodes());
+                groups.add(Collections.unmodifiableList(sortedHistoryNodeCache));
             } else {    // count should be split events + 1 when complete
 
-                // Create a defensive copy that has the adjustment multiplier set
-                final List<SecurityHistoryNode> securityHistoryNodes = getHistoryNodes();
+                // The adjustment multipliers have been set by readLockAdjusted()
+                final List<SecurityHistoryNode> securityHistoryNodes = sortedHistoryNodeCache;
                 final ListIterator<SecurityHistoryEvent> historyEventIterator = splitEvents.listIterator();
 
                 LocalDate eventDate = historyEventIterator.next().getDate();
@@ -389,19 +457,9 @@ public class SecurityNode extends CommodityNode {
         lock.readLock().lock();
 
         try {
-            SecurityHistoryNode hNode = null;
-
-            // Work backwards through the list as the newest date is requested the most
-            for (int i = sortedHistoryNodeCache.size() - 1; i >= 0; i--) {
-                final SecurityHistoryNode node = sortedHistoryNodeCache.get(i);
-
-                if (date.compareTo(node.getLocalDate()) == 0) {
-                    hNode = node;
-                    break;
-                }
-            }
+            final int index = exactIndex(date.toEpochDay());
 
-            return Optional.ofNullable(hNode);
+            return index >= 0 ? Optional.of(sortedHistoryNodeCache.get(index)) : Optional.empty();
         } finally {
             lock.readLock().unlock();
         }
@@ -414,29 +472,53 @@ public class SecurityNode extends CommodityNode {
      * @return {@code Optional} containing a {@code SecurityHistoryNode} if a match is found
      */
     public Optional<SecurityHistoryNode> getClosestHistoryNode(final LocalDate date) {
-        final long epochDay = date.toEpochDay();
-
         lock.readLock().lock();
 
         try {
-            SecurityHistoryNode hNode = null;
-
-            // Work backwards through the list as the newest date is requested the most
-            for (int i = sortedHistoryNodeCache.size() - 1; i >= 0; i--) {
-                final SecurityHistoryNode node = sortedHistoryNodeCache.get(i);
-
-                if (node.getLocalDate().toEpochDay() <= epochDay) {
-                    hNode = node;
-                    break;
-                }
-            }
+            final int index = floorIndex(date.toEpochDay());
 
-            return Optional.ofNullable(hNode);
+            return index >= 0 ? Optional.of(sortedHistoryNodeCache.get(index)) : Optional.empty();
         } finally {
             lock.readLock().unlock();
         }
     }
 
+    /**
+     * Returns the index of the last history node dated on or before the supplied epoch day.
+     * The caller must hold a lock.
+     *
+     * @param epochDay epoch day to search for
+     * @return index of the history node, -1 if all history nodes are newer
+     */
+    private int floorIndex(final long epochDay) {
+        int low = 0;
+        int high = epochDays.length - 1;
+
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+
+            if (epochDays[mid] <= epochDay) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return high;
+    }
+
+    /**
+     * Returns the index of the history node dated on the supplied epoch day.  The caller must hold a lock.
+     *
+     * @param epochDay epoch day to search for
+     * @return index of the history node, -1 if not found
+     */
+    private int exactIndex(final long epochDay) {
+        final int index = floorIndex(epochDay);
+
+        return index >= 0 && epochDays[index] == epochDay ? index : -1;
+    }
+
     private BigDecimal getMarketPrice(final LocalDate date) {
         BigDecimal marketPrice = BigDecimal.ZERO;
 
@@ -450,14 +532,14 @@ public class SecurityNode extends CommodityNode {
     }
 
     /**
-     * Returns the latest market price exchanged to the specified currency.
+     * Returns the latest market price exchanged to the specified currency at the exchange rate in effect on the date.
      *
      * @param date date to find closest matching rate without exceeding
      * @param node currency to exchange to
      * @return latest market price
      */
     public BigDecimal getMarketPrice(final LocalDate date, final CurrencyNode node) {
-        return getMarketPrice(date).multiply(getReportedCurrencyNode().getExchangeRate(node));
+        return getMarketPrice(date).multiply(getReportedCurrencyNode().getExchangeRate(node, date));
     }
 
     /**
@@ -499,5 +581,13 @@ public class SecurityNode extends CommodityNode {
         // load the cache list
         sortedHistoryNodeCache = new ArrayList<>(historyNodes);
         Collections.sort(sortedHistoryNodeCache);   // JPA will be naturally sorted, but XML files will not
+
+        epochDays = new long[sortedHistoryNodeCache.size()];
+
+        for (int i = 0; i < epochDays.length; i++) {
+            epochDays[i] = sortedHistoryNodeCache.get(i).getLocalDate().toEpochDay();
+        }
+
+        adjustmentsCurrent = false;
     }
 }
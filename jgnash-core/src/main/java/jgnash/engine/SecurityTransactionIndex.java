@@ -0,0 +1,256 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Per security index of the {@code InvestmentTransactions} within an {@code Account}.
+ * <p>
+ * For each {@code SecurityNode}, the investment transactions are kept in the order of the account's sorted
+ * transaction list along with a running count of shares and the most recent transaction with a usable price.
+ * Shares held and the last traded price on a date are resolved with a binary search.
+ * <p>
+ * The index is rebuilt with a single pass over the sorted transaction list after any change.  The caller is
+ * expected to hold the account's transaction lock.  Methods are synchronized because multiple readers may
+ * rebuild the index concurrently.
+ *
+ * @author Craig Cavanaugh
+ */
+class SecurityTransactionIndex {
+
+    private final Account account;
+
+    /**
+     * Index entries by security, {@code null} if the index needs to be rebuilt.
+     */
+    private Map<SecurityNode, Entry> entries = null;
+
+    SecurityTransactionIndex(final Account account) {
+        this.account = account;
+    }
+
+    /**
+     * Invalidates the index.
+     */
+    synchronized void clear() {
+        entries = null;
+    }
+
+    /**
+     * Returns the number of shares held up to and inclusive of the supplied date.
+     *
+     * @param node security to search against
+     * @param date The inclusive end date
+     * @return shares held
+     */
+    synchronized BigDecimal getShares(final SecurityNode node, final LocalDate date) {
+        final Entry entry = getEntries().get(node);
+
+        if (entry == null) {
+            return BigDecimal.ZERO;
+        }
+
+        return entry.getSharesAt(entry.floorIndex(date.toEpochDay()));
+    }
+
+    /**
+     * Returns the change in the number of shares held inclusive of the start and end dates.
+     *
+     * @param node  security to search against
+     * @param start The inclusive start date
+     * @param end   The inclusive end date
+     * @return change in shares
+     */
+    synchronized BigDecimal getShares(final SecurityNode node, final LocalDate start, final LocalDate end) {
+        final Entry entry = getEntries().get(node);
+
+        if (entry == null || end.isBefore(start)) {
+            return BigDecimal.ZERO;
+        }
+
+        return entry.getSharesAt(entry.floorIndex(end.toEpochDay()))
+                .subtract(entry.getSharesAt(entry.floorIndex(start.toEpochDay() - 1)));
+    }
+
+    /**
+     * Returns the number of shares held up to and inclusive of a position in the sorted transaction list.
+     *
+     * @param node  security to search against
+     * @param index position in the account's sorted transaction list
+     * @return shares held
+     */
+    synchronized BigDecimal getSharesAt(final SecurityNode node, final int index) {
+        final Entry entry = getEntries().get(node);
+
+        if (entry == null) {
+            return BigDecimal.ZERO;
+        }
+
+        return entry.getSharesAt(entry.floorPosition(index));
+    }
+
+    /**
+     * Returns the most recent transaction on or before the supplied date with a price greater than zero.
+     *
+     * @param node security to search against
+     * @param date The inclusive end date
+     * @return {@code Optional} containing the transaction if found
+     */
+    synchronized Optional<InvestmentTransaction> getLastPricedTransaction(final SecurityNode node,
+                                                                          final LocalDate date) {
+        final Entry entry = getEntries().get(node);
+
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        final int index = entry.floorIndex(date.toEpochDay());
+
+        if (index < 0 || entry.lastPriced[index] < 0) {
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.transactions.get(entry.lastPriced[index]));
+    }
+
+    private Map<SecurityNode, Entry> getEntries() {
+        if (entries == null) {
+            final Map<SecurityNode, Entry> map = new HashMap<>();
+            final List<Transaction> transactions = account.getSortedTransactionList();
+
+            for (int i = 0; i < transactions.size(); i++) {
+                final Transaction transaction = transactions.get(i);
+
+                if (transaction instanceof InvestmentTransaction) {
+                    final SecurityNode node = ((InvestmentTransaction) transaction).getSecurityNode();
+
+                    if (node != null) {
+                        map.computeIfAbsent(node, k -> new Entry()).add((InvestmentTransaction) transaction, i);
+                    }
+                }
+            }
+
+            entries = map;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Sorted investment transactions of a single security.
+     */
+    private static class Entry {
+
+        private final List<InvestmentTransaction> transactions = new ArrayList<>();
+
+        private long[] epochDays = new long[8];
+
+        /**
+         * Positions of the transactions within the account's sorted transaction list.
+         */
+        private int[] positions = new int[8];
+
+        /**
+         * Running count of shares.
+         */
+        private BigDecimal[] shares = new BigDecimal[8];
+
+        /**
+         * Index of the most recent transaction with a price greater than zero, -1 if there is none.
+         */
+        private int[] lastPriced = new int[8];
+
+        void add(final InvestmentTransaction transaction, final int position) {
+            final int index = transactions.size();
+
+            if (index == epochDays.length) {
+                final int length = index + (index >> 1);
+
+                epochDays = Arrays.copyOf(epochDays, length);
+                positions = Arrays.copyOf(positions, length);
+                shares = Arrays.copyOf(shares, length);
+                lastPriced = Arrays.copyOf(lastPriced, length);
+            }
+
+            final BigDecimal price = transaction.getPrice();
+
+            transactions.add(transaction);
+            epochDays[index] = transaction.getLocalDate().toEpochDay();
+            positions[index] = position;
+            shares[index] = getSharesAt(index - 1).add(transaction.getSignedQuantity());
+
+            if (price != null && price.compareTo(BigDecimal.ZERO) > 0) {
+                lastPriced[index] = index;
+            } else {
+                lastPriced[index] = index > 0 ? lastPriced[index - 1] : -1;
+            }
+        }
+
+        BigDecimal getSharesAt(final int index) {
+            return index >= 0 ? shares[index] : BigDecimal.ZERO;
+        }
+
+        /**
+         * Returns the index of the last transaction dated on or before the supplied epoch day, -1 if none.
+         */
+        int floorIndex(final long epochDay) {
+            int low = 0;
+            int high = transactions.size() - 1;
+
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+
+                if (epochDays[mid] <= epochDay) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return high;
+        }
+
+        /**
+         * Returns the index of the last transaction at or before the supplied list position, -1 if none.
+         */
+        int floorPosition(final int position) {
+            int low = 0;
+            int high = transactions.size() - 1;
+
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+
+                if (positions[mid] <= position) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+
+            return high;
+        }
+    }
+}
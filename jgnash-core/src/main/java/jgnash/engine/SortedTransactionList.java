@@ -0,0 +1,141 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * List of transactions maintained in natural sort order.
+ * <p>
+ * Transactions are inserted at the position found with a binary search instead of resorting the entire list and
+ * a hash set backs membership checks.  The list is not thread safe; the owning {@code Account} guards access
+ * with its transaction lock.
+ *
+ * @author Craig Cavanaugh
+ */
+class SortedTransactionList extends AbstractList<Transaction> implements RandomAccess {
+
+    private final List<Transaction> list;
+
+    private final Set<Transaction> members;
+
+    SortedTransactionList(final Collection<Transaction> transactions) {
+        list = new ArrayList<>(transactions);
+        Collections.sort(list);
+
+        members = new HashSet<>(list);
+    }
+
+    @Override
+    public Transaction get(final int index) {
+        return list.get(index);
+    }
+
+    @Override
+    public int size() {
+        return list.size();
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return members.contains(o);
+    }
+
+    /**
+     * Inserts a transaction at its sorted position.
+     *
+     * @param transaction {@code Transaction} to add
+     * @return {@code true} if the transaction was added, {@code false} if it was already present
+     */
+    @Override
+    public boolean add(final Transaction transaction) {
+        return insert(transaction) >= 0;
+    }
+
+    /**
+     * Inserts a transaction at its sorted position.
+     *
+     * @param transaction {@code Transaction} to add
+     * @return the index the transaction was inserted at, -1 if it was already present
+     */
+    int insert(final Transaction transaction) {
+        if (!members.add(transaction)) {
+            return -1;
+        }
+
+        int index = Collections.binarySearch(list, transaction);
+
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        list.add(index, transaction);
+        modCount++;
+
+        return index;
+    }
+
+    @Override
+    public Transaction remove(final int index) {
+        final Transaction transaction = list.remove(index);
+        members.remove(transaction);
+        modCount++;
+
+        return transaction;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        final int index = indexOf(o);
+
+        if (index >= 0) {
+            remove(index);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int indexOf(final Object o) {
+        if (!members.contains(o)) {
+            return -1;
+        }
+
+        final int index = Collections.binarySearch(list, (Transaction) o);
+
+        if (index >= 0 && list.get(index).equals(o)) {
+            return index;
+        }
+
+        // sort order of the transaction has changed since it was added, fall back to a linear search
+        return list.indexOf(o);
+    }
+
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+}
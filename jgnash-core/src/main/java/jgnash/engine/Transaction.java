@@ -25,8 +25,11 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -39,6 +42,7 @@ import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.JoinTable;
 import javax.persistence.OneToMany;
+import javax.persistence.PostLoad;
 import javax.persistence.Table;
 
 import jgnash.util.NotNull;
@@ -112,6 +116,11 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
      */
     private transient LocalDateTime timeStampDate;
 
+    /**
+     * Cache the accounts and amounts of the transaction entries.  Cleared whenever the entries change.
+     */
+    private transient volatile EntrySummary entrySummary;
+
     /**
      * Transaction entries.
      */
@@ -128,21 +137,31 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
 
     /**
      * Returns a set of accounts this transaction effects.
-     * The returned set may be altered without creating side effects
+     * The returned set is sorted and may not be altered
      *
-     * @return set of accounts
+     * @return unmodifiable set of accounts
      * @see Account
      */
     @NotNull
     public Set<Account> getAccounts() {
-        final Set<Account> accounts = new TreeSet<>();
+        return getEntrySummary().accounts;
+    }
 
-        for (final TransactionEntry e : transactionEntries) {
-            accounts.add(e.getCreditAccount());
-            accounts.add(e.getDebitAccount());
+    /**
+     * Returns the cached accounts and amounts, the summary is created when first requested after the
+     * entries have changed.
+     *
+     * @return the entry summary
+     */
+    private EntrySummary getEntrySummary() {
+        EntrySummary summary = entrySummary;
+
+        if (summary == null) {
+            summary = new EntrySummary(transactionEntries);
+            entrySummary = summary;
         }
 
-        return accounts;
+        return summary;
     }
 
     /**
@@ -226,12 +245,14 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
         }
 
         transactionEntries.add(entry);
+        entrySummary = null;
     }
 
     public void removeTransactionEntry(@NotNull final TransactionEntry entry) {
         Objects.requireNonNull(entry);
 
         transactionEntries.remove(entry);
+        entrySummary = null;
     }
 
     /**
@@ -304,14 +325,13 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
     /**
      * Calculates the amount of the transaction relative to the supplied account.
      *
-     * This method is synchronized to protect against concurrency issues
+     * The amounts are calculated once and cached until the entries change
      *
      * @param account reference account
      * @return Amount of this transaction relative to the supplied account
      */
-    public synchronized BigDecimal getAmount(final Account account) {
-        return transactionEntries.stream().map(transactionEntry
-                -> transactionEntry.getAmount(account)).reduce(BigDecimal.ZERO, BigDecimal::add);
+    public BigDecimal getAmount(final Account account) {
+        return getEntrySummary().amounts.getOrDefault(account, BigDecimal.ZERO);
     }
 
     /**
@@ -430,6 +450,7 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
      */
     public void clearTransactionEntries() {
         transactionEntries.clear();
+        entrySummary = null;
     }
 
     public LocalDateTime getTimestamp() {
@@ -615,6 +636,7 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
 
         tran.timestamp = System.currentTimeMillis();    // force the clone to have a new timestamp
         tran.timeStampDate = null;                      // clear the cached value
+        tran.entrySummary = null;                       // clear the cached accounts and amounts
 
         // deep clone
         tran.transactionEntries = new HashSet<>(); // deep clone
@@ -645,4 +667,58 @@ public class Transaction extends StoredObject implements Comparable<Transaction>
 
         return b.toString();
     }
+
+    /**
+     * Required by XStream for proper initialization.
+     *
+     * @return Properly initialized Transaction
+     */
+    protected Object readResolve() {
+        postLoad();
+        return this;
+    }
+
+    @PostLoad
+    private void postLoad() {
+        entrySummary = null;    // entries may have been replaced
+    }
+
+    /**
+     * Immutable summary of the accounts and the amounts by account of a set of transaction entries.
+     */
+    private static final class EntrySummary {
+
+        final Set<Account> accounts;
+
+        final Map<Account, BigDecimal> amounts;
+
+        EntrySummary(final Set<TransactionEntry> transactionEntries) {
+            final Set<Account> accountSet = new TreeSet<>();
+
+            for (final TransactionEntry e : transactionEntries) {
+                if (e.getCreditAccount() != null) {
+                    accountSet.add(e.getCreditAccount());
+                }
+
+                if (e.getDebitAccount() != null) {
+                    accountSet.add(e.getDebitAccount());
+                }
+            }
+
+            amounts = new HashMap<>();
+
+            for (final Account account : accountSet) {
+                BigDecimal amount = BigDecimal.ZERO;
+
+                for (final TransactionEntry e : transactionEntries) {
+                    amount = amount.add(e.getAmount(account));
+                }
+
+                amounts.put(account, amount);
+            }
+
+            // hash lookups are stable if an account is renamed, iteration remains sorted
+            accounts = Collections.unmodifiableSet(new LinkedHashSet<>(accountSet));
+        }
+    }
 }
@@ -30,6 +30,7 @@ import io.netty.handler.codec.base64.Base64Decoder;
 import io.netty.handler.codec.base64.Base64Encoder;
 import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.CharsetUtil;
 
 import java.nio.file.Path;
@@ -45,10 +46,19 @@ import static jgnash.engine.attachment.NettyTransferHandler.*;
 
 /**
  * Client for sending and receiving files.
+ * <p>
+ * The binary transfer protocol is used unless disabled with the {@value #BINARY_TRANSFER} system property, which is
+ * only needed when connecting to a server that predates it.
  *
  * @author Craig Cavanaugh
  */
 class AttachmentTransferClient {
+
+    /**
+     * System property to enable or disable the binary transfer protocol.
+     */
+    static final String BINARY_TRANSFER = "jgnash.attachment.binaryTransfer";
+
     private static final Logger logger = Logger.getLogger(AttachmentTransferClient.class.getName());
 
     private final Path tempDirectory;
@@ -59,6 +69,8 @@ class AttachmentTransferClient {
 
     private NettyTransferHandler transferHandler;
 
+    private BinaryTransferHandler binaryTransferHandler;
+
     private EncryptionManager encryptionManager = null;
 
     AttachmentTransferClient(final Path tempPath) {
@@ -85,7 +97,11 @@ class AttachmentTransferClient {
 
         eventLoopGroup = new NioEventLoopGroup();
 
-        transferHandler = new NettyTransferHandler(tempDirectory, encryptionManager);
+        if (Boolean.parseBoolean(System.getProperty(BINARY_TRANSFER, Boolean.TRUE.toString()))) {
+            binaryTransferHandler = new BinaryTransferHandler(tempDirectory, encryptionManager != null, true);
+        } else {
+            transferHandler = new NettyTransferHandler(tempDirectory, encryptionManager);
+        }
 
         bootstrap.group(eventLoopGroup)
                 .channel(NioSocketChannel.class)
@@ -116,6 +132,11 @@ class AttachmentTransferClient {
     }
 
     void requestFile(final Path file) {
+        if (binaryTransferHandler != null) {
+            binaryTransferHandler.requestFile(channel, file.toString());
+            return;
+        }
+
         try {
             channel.writeAndFlush(encrypt(FILE_REQUEST + file) + EOL_DELIMITER).sync();
         } catch (final InterruptedException e) {
@@ -125,6 +146,11 @@ class AttachmentTransferClient {
     }
 
     void deleteFile(final String attachment) {
+        if (binaryTransferHandler != null) {
+            binaryTransferHandler.deleteFile(channel, attachment);
+            return;
+        }
+
         try {
             channel.writeAndFlush(encrypt(DELETE + Paths.get(attachment).getFileName()) + EOL_DELIMITER).sync();
         } catch (final InterruptedException e) {
@@ -134,6 +160,10 @@ class AttachmentTransferClient {
     }
 
     Future<Void> sendFile(final Path file) {
+        if (binaryTransferHandler != null) {
+            return binaryTransferHandler.sendFile(channel, file);
+        }
+
         if (transferHandler != null) {
             return transferHandler.sendFile(channel, file.toString());
         }
@@ -157,6 +187,8 @@ class AttachmentTransferClient {
 
         eventLoopGroup = null;
         channel = null;
+        transferHandler = null;
+        binaryTransferHandler = null;
 
         logger.info("Disconnected from the File Transfer Server");
     }
@@ -166,6 +198,14 @@ class AttachmentTransferClient {
         @Override
         public void initChannel(final SocketChannel ch) {
 
+            if (binaryTransferHandler != null) {
+                ch.pipeline().addLast(
+                        new BinaryTransferCodec(encryptionManager),
+                        new ChunkedWriteHandler(),
+                        binaryTransferHandler);
+                return;
+            }
+
             ch.pipeline().addLast(
                     new DelimiterBasedFrameDecoder(((TRANSFER_BUFFER_SIZE + 2) / 3) * 4 + PATH_MAX,
                             true, Delimiters.lineDelimiter()),
@@ -18,26 +18,32 @@
 package jgnash.engine.attachment;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
 import io.netty.handler.codec.DelimiterBasedFrameDecoder;
 import io.netty.handler.codec.Delimiters;
 import io.netty.handler.codec.base64.Base64Decoder;
 import io.netty.handler.codec.base64.Base64Encoder;
 import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
+import io.netty.handler.stream.ChunkedWriteHandler;
 import io.netty.util.CharsetUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
 import java.nio.file.Path;
+import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -48,6 +54,9 @@ import static jgnash.engine.attachment.NettyTransferHandler.TRANSFER_BUFFER_SIZE
 
 /**
  * File server for attachments.
+ * <p>
+ * Clients using the binary transfer protocol are detected by the preamble they send on connection.  All other
+ * clients use the original text protocol.
  *
  * @author Craig Cavanaugh
  */
@@ -88,18 +97,7 @@ public class AttachmentTransferServer {
 
                         @Override
                         public void initChannel(final SocketChannel ch) {
-
-                            ch.pipeline().addLast(
-                                    new DelimiterBasedFrameDecoder(((TRANSFER_BUFFER_SIZE + 2) / 3) * 4 + PATH_MAX,
-                                            true, Delimiters.lineDelimiter()),
-
-                                    new StringEncoder(CharsetUtil.UTF_8),
-                                    new StringDecoder(CharsetUtil.UTF_8),
-
-                                    new Base64Encoder(),
-                                    new Base64Decoder(),
-
-                                    new ServerTransferHandler());
+                            ch.pipeline().addLast(new ProtocolDetector());
                         }
                     });
 
@@ -132,17 +130,62 @@ public class AttachmentTransferServer {
         }
     }
 
-    private final class ServerTransferHandler extends NettyTransferHandler {
-
-        ServerTransferHandler() {
-            super(attachmentPath, encryptionManager);
-        }
+    /**
+     * Installs the handlers for the binary or text protocol once the first bytes have been received.
+     */
+    private final class ProtocolDetector extends ByteToMessageDecoder {
 
         @Override
-        public void channelActive(final ChannelHandlerContext ctx) {
+        public void channelActive(final ChannelHandlerContext ctx) throws Exception {
             channelGroup.add(ctx.channel()); // maintain channels
 
             logger.log(Level.INFO, "Remote connection from: {0}", ctx.channel().remoteAddress());
+
+            super.channelActive(ctx);
+        }
+
+        @Override
+        protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+            final byte[] preamble = BinaryTransferHandler.PREAMBLE;
+
+            if (in.readableBytes() < 1) {
+                return;
+            }
+
+            final ChannelPipeline pipeline = ctx.pipeline();
+
+            if (in.getByte(in.readerIndex()) == preamble[0]) {
+                if (in.readableBytes() < preamble.length) {
+                    return;
+                }
+
+                for (int i = 0; i < preamble.length; i++) {
+                    if (in.getByte(in.readerIndex() + i) != preamble[i]) {
+                        throw new CorruptedFrameException("Unsupported transfer protocol");
+                    }
+                }
+
+                in.skipBytes(preamble.length);
+
+                pipeline.addLast(
+                        new BinaryTransferCodec(encryptionManager),
+                        new ChunkedWriteHandler(),
+                        new BinaryTransferHandler(attachmentPath, encryptionManager != null, false));
+            } else {
+                pipeline.addLast(
+                        new DelimiterBasedFrameDecoder(((TRANSFER_BUFFER_SIZE + 2) / 3) * 4 + PATH_MAX,
+                                true, Delimiters.lineDelimiter()),
+
+                        new StringEncoder(CharsetUtil.UTF_8),
+                        new StringDecoder(CharsetUtil.UTF_8),
+
+                        new Base64Encoder(),
+                        new Base64Decoder(),
+
+                        new NettyTransferHandler(attachmentPath, encryptionManager));
+            }
+
+            pipeline.remove(this);  // remaining bytes are passed on to the installed handlers
         }
     }
 }
@@ -0,0 +1,181 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.attachment;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+import jgnash.util.EncryptionManager;
+import jgnash.util.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageCodec;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+
+/**
+ * Length prefixed framing for the binary attachment transfer protocol.
+ * <p>
+ * Each {@code TransferMessage} is written as a four byte length followed by the message.  If an
+ * {@code EncryptionManager} is supplied, the message is sealed with authenticated encryption.
+ * <p>
+ * Without encryption, file data is not framed.  A {@code DATA} message announces the number of raw bytes that
+ * follow, which allows the sender to write a {@code FileRegion} directly to the socket.  The raw bytes are passed
+ * on as {@code CHUNK} messages as they arrive.  Outbound objects other than {@code TransferMessage} are passed
+ * through unchanged.
+ *
+ * @author Craig Cavanaugh
+ */
+class BinaryTransferCodec extends ByteToMessageCodec<TransferMessage> {
+
+    /**
+     * Size of the file chunks sent when encryption is enabled.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final int MAX_FRAME_LENGTH = CHUNK_SIZE + NettyTransferHandler.PATH_MAX + 64
+            + EncryptionManager.AEAD_OVERHEAD;
+
+    private final EncryptionManager encryptionManager;
+
+    /**
+     * Name of the file receiving raw data.
+     */
+    private String rawFileName;
+
+    /**
+     * File position of the next raw byte.
+     */
+    private long rawPosition;
+
+    /**
+     * Number of raw bytes remaining.
+     */
+    private long rawRemaining = 0;
+
+    BinaryTransferCodec(@Nullable final EncryptionManager encryptionManager) {
+        super(TransferMessage.class);
+        this.encryptionManager = encryptionManager;
+    }
+
+    @Override
+    protected void encode(final ChannelHandlerContext ctx, final TransferMessage msg, final ByteBuf out) {
+        final int size = msg.getEncodedSize();
+
+        if (encryptionManager == null) {
+            out.writeInt(size);
+            msg.encode(out);
+            return;
+        }
+
+        final ByteBuf plain = ctx.alloc().heapBuffer(size);
+
+        try {
+            msg.encode(plain);
+
+            final int sealedSize = size + EncryptionManager.AEAD_OVERHEAD;
+
+            out.writeInt(sealedSize);
+            out.ensureWritable(sealedSize);
+
+            final ByteBuffer sealed = out.nioBuffer(out.writerIndex(), sealedSize);
+
+            encryptionManager.seal(plain.nioBuffer(), sealed);
+            out.writerIndex(out.writerIndex() + sealedSize);
+        } catch (final GeneralSecurityException e) {
+            throw new EncoderException(e);
+        } finally {
+            plain.release();
+        }
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+        if (rawRemaining > 0) {
+            final int count = (int) Math.min(in.readableBytes(), rawRemaining);
+
+            if (count > 0) {
+                out.add(TransferMessage.chunk(rawFileName, rawPosition, in.readRetainedSlice(count)));
+
+                rawPosition += count;
+                rawRemaining -= count;
+            }
+            return;
+        }
+
+        if (in.readableBytes() < Integer.BYTES) {
+            return;
+        }
+
+        final int length = in.getInt(in.readerIndex());
+
+        if (length <= 0 || length > MAX_FRAME_LENGTH) {
+            throw new CorruptedFrameException("Invalid frame length: " + length);
+        }
+
+        if (in.readableBytes() < Integer.BYTES + length) {
+            return;
+        }
+
+        in.skipBytes(Integer.BYTES);
+
+        final TransferMessage message = decodeFrame(ctx, in.readSlice(length));
+
+        if (message.getType() == TransferMessage.DATA) {
+            if (encryptionManager != null) {
+                message.release();
+                throw new CorruptedFrameException("Unencrypted file data is not allowed");
+            }
+
+            rawFileName = message.getFileName();
+            rawPosition = message.getPosition();
+            rawRemaining = message.getLength();
+
+            message.release();
+        } else {
+            out.add(message);
+        }
+    }
+
+    private TransferMessage decodeFrame(final ChannelHandlerContext ctx, final ByteBuf frame) {
+        if (encryptionManager == null) {
+            return TransferMessage.decode(frame);
+        }
+
+        if (frame.readableBytes() <= EncryptionManager.AEAD_OVERHEAD) {
+            throw new CorruptedFrameException("Invalid frame length: " + frame.readableBytes());
+        }
+
+        final int plainSize = frame.readableBytes() - EncryptionManager.AEAD_OVERHEAD;
+        final ByteBuf plain = ctx.alloc().heapBuffer(plainSize);
+
+        try {
+            encryptionManager.open(frame.nioBuffer(), plain.nioBuffer(0, plainSize));
+            plain.writerIndex(plainSize);
+
+            return TransferMessage.decode(plain);
+        } catch (final GeneralSecurityException e) {
+            throw new DecoderException("Invalid password or altered message", e);
+        } finally {
+            plain.release();    // chunk data retains a slice
+        }
+    }
+}
@@ -0,0 +1,423 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.attachment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jgnash.engine.AttachmentUtils;
+import jgnash.util.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.SimpleChannelInboundHandler;
+
+/**
+ * Handles the binary attachment transfer protocol for one channel.
+ * <p>
+ * A file is sent by offering it to the remote side, which replies with the offset to start from.  Partially
+ * received files are kept with a {@value #PART_SUFFIX} suffix when a connection is lost, and a later offer of
+ * the same file resumes the transfer.  The file is renamed once the complete file has been received.
+ * <p>
+ * Without encryption, file data is written as a {@code FileRegion} so the operating system may transfer it
+ * directly from the file system.  With encryption, it is written as sealed chunks.
+ *
+ * @author Craig Cavanaugh
+ */
+class BinaryTransferHandler extends SimpleChannelInboundHandler<TransferMessage> {
+
+    /**
+     * Preamble sent by a client to select the binary protocol.  A legacy client never sends a zero byte.
+     */
+    static final byte[] PREAMBLE = {0, 'J', 'G', 1};
+
+    static final String PART_SUFFIX = ".part";
+
+    private static final Logger logger = Logger.getLogger(BinaryTransferHandler.class.getName());
+
+    private final Path attachmentPath;
+
+    private final boolean encrypted;
+
+    private final boolean sendPreamble;
+
+    /**
+     * Files offered to the remote side that have not been sent.
+     */
+    private final Map<String, Outgoing> outgoingMap = new ConcurrentHashMap<>();
+
+    /**
+     * Files being received.  Only accessed from the event loop.
+     */
+    private final Map<String, Incoming> incomingMap = new ConcurrentHashMap<>();
+
+    /**
+     * Binary transfer handler.
+     *
+     * @param attachmentPath Path for attachments
+     * @param encrypted      {@code true} if the channel is encrypted, file regions cannot be used
+     * @param sendPreamble   {@code true} if the preamble should be sent when the channel is active
+     */
+    BinaryTransferHandler(final Path attachmentPath, final boolean encrypted, final boolean sendPreamble) {
+        Objects.requireNonNull(attachmentPath);
+
+        this.attachmentPath = attachmentPath;
+        this.encrypted = encrypted;
+        this.sendPreamble = sendPreamble;
+    }
+
+    @Override
+    public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+        if (sendPreamble) {
+            ctx.writeAndFlush(Unpooled.wrappedBuffer(PREAMBLE));  // passed through the codec without framing
+        }
+        super.channelActive(ctx);
+    }
+
+    /**
+     * Requests a file from the remote side.
+     *
+     * @param channel  Channel to send the request through
+     * @param fileName the file name
+     */
+    void requestFile(final Channel channel, final String fileName) {
+        channel.writeAndFlush(TransferMessage.request(getFileName(fileName)));
+    }
+
+    /**
+     * Requests the remote side to delete a file.
+     *
+     * @param channel  Channel to send the request through
+     * @param fileName the file name
+     */
+    void deleteFile(final Channel channel, final String fileName) {
+        channel.writeAndFlush(TransferMessage.delete(getFileName(fileName)));
+    }
+
+    /**
+     * Sends a file across the channel.
+     *
+     * @param channel Channel to send file through
+     * @param path    the file to send
+     * @return a future that completes once the file has been written, {@code null} if the path is not a file
+     */
+    @Nullable
+    Future<Void> sendFile(final Channel channel, final Path path) {
+        if (!Files.isRegularFile(path)) {
+            logger.log(Level.WARNING, "Not a file: {0}", path);
+            return null;
+        }
+
+        final String fileName = path.getFileName().toString();
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        try {
+            final long size = Files.size(path);
+            final long lastModified = Files.getLastModifiedTime(path).toMillis();
+
+            final Outgoing outgoing = new Outgoing(path, size, future);
+            final Outgoing previous = outgoingMap.put(fileName, outgoing);
+
+            if (previous != null) {
+                previous.future.cancel(false);
+            }
+
+            channel.writeAndFlush(TransferMessage.offer(fileName, size, lastModified)).addListener(f -> {
+                if (!f.isSuccess()) {
+                    outgoingMap.remove(fileName, outgoing);
+                    future.completeExceptionally(f.cause());
+                }
+            });
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    @Override
+    protected void channelRead0(final ChannelHandlerContext ctx, final TransferMessage msg) throws Exception {
+        final String fileName = getFileName(msg.getFileName());
+
+        switch (msg.getType()) {
+            case TransferMessage.REQUEST:
+                final Path path = attachmentPath.resolve(fileName);
+
+                if (sendFile(ctx.channel(), path) == null) {
+                    ctx.writeAndFlush(TransferMessage.error(fileName));
+                }
+                break;
+            case TransferMessage.OFFER:
+                openIncoming(ctx, fileName, msg.getLength(), msg.getPosition());
+                break;
+            case TransferMessage.ACCEPT:
+                writeOutgoing(ctx, fileName, msg.getPosition());
+                break;
+            case TransferMessage.CHUNK:
+                writeIncoming(ctx, fileName, msg);
+                break;
+            case TransferMessage.END:
+                closeIncoming(fileName, msg.getLength());
+                break;
+            case TransferMessage.DELETE:
+                Files.deleteIfExists(attachmentPath.resolve(fileName));
+                break;
+            case TransferMessage.ERROR:
+                logger.log(Level.WARNING, "Remote transfer error: {0}", fileName);
+
+                final Outgoing outgoing = outgoingMap.remove(fileName);
+
+                if (outgoing != null) {
+                    outgoing.future.completeExceptionally(new IOException("Remote transfer error: " + fileName));
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void openIncoming(final ChannelHandlerContext ctx, final String fileName, final long size,
+                              final long lastModified) throws IOException {
+
+        // Lazy creation of the attachment path if needed
+        if (!AttachmentUtils.createAttachmentDirectory(attachmentPath)) {
+            logger.severe("Unable to find or create the attachment directory");
+            ctx.writeAndFlush(TransferMessage.error(fileName));
+            return;
+        }
+
+        final Incoming previous = incomingMap.remove(fileName);
+
+        if (previous != null) {
+            previous.channel.close();
+        }
+
+        final Path part = attachmentPath.resolve(fileName + PART_SUFFIX);
+
+        long offset = 0;
+
+        // resume only if the partial file was left by an interrupted transfer of the same file
+        if (Files.exists(part) && Files.getLastModifiedTime(part).toMillis() == lastModified
+                && Files.size(part) <= size) {
+            offset = Files.size(part);
+        }
+
+        final FileChannel fileChannel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        fileChannel.truncate(offset);
+        fileChannel.position(offset);
+
+        incomingMap.put(fileName, new Incoming(attachmentPath.resolve(fileName), part, fileChannel, size,
+                lastModified));
+
+        if (offset > 0) {
+            logger.log(Level.INFO, "Resuming transfer of {0} at {1}", new Object[]{fileName, offset});
+        }
+
+        ctx.writeAndFlush(TransferMessage.accept(fileName, offset));
+    }
+
+    private void writeIncoming(final ChannelHandlerContext ctx, final String fileName, final TransferMessage msg)
+            throws IOException {
+
+        final Incoming incoming = incomingMap.get(fileName);
+
+        if (incoming == null) {
+            return;
+        }
+
+        if (msg.getPosition() != incoming.channel.position()) {
+            logger.log(Level.SEVERE, "Out of order data for {0}", fileName);
+            abortIncoming(fileName);
+            ctx.writeAndFlush(TransferMessage.error(fileName));
+            return;
+        }
+
+        final ByteBuf data = msg.getData();
+
+        for (final ByteBuffer buffer : data.nioBuffers()) {
+            while (buffer.hasRemaining()) {
+                incoming.channel.write(buffer);
+            }
+        }
+    }
+
+    private void closeIncoming(final String fileName, final long size) throws IOException {
+        final Incoming incoming = incomingMap.remove(fileName);
+
+        if (incoming == null) {
+            return;
+        }
+
+        final long length = incoming.channel.position();
+
+        incoming.channel.close();
+
+        if (length != size || length != incoming.size) {
+            logger.severe("Invalid file length");
+            Files.deleteIfExists(incoming.part);
+            return;
+        }
+
+        try {
+            Files.move(incoming.part, incoming.path, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(incoming.part, incoming.path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void abortIncoming(final String fileName) throws IOException {
+        final Incoming incoming = incomingMap.remove(fileName);
+
+        if (incoming != null) {
+            incoming.channel.close();
+            Files.deleteIfExists(incoming.part);
+        }
+    }
+
+    private void writeOutgoing(final ChannelHandlerContext ctx, final String fileName, final long offset)
+            throws IOException {
+
+        final Outgoing outgoing = outgoingMap.remove(fileName);
+
+        if (outgoing == null) {
+            return;
+        }
+
+        final long count = outgoing.size - offset;
+
+        if (count < 0) {
+            outgoing.future.completeExceptionally(new IOException("Invalid offset for " + fileName));
+            ctx.writeAndFlush(TransferMessage.error(fileName));
+            return;
+        }
+
+        if (count > 0) {
+            if (encrypted) {
+                ctx.write(new FileChunkInput(outgoing.path, fileName, offset, count));
+            } else {
+                ctx.write(TransferMessage.data(fileName, offset, count));
+                ctx.write(new DefaultFileRegion(outgoing.path.toFile(), offset, count));
+            }
+        }
+
+        final ChannelFuture future = ctx.writeAndFlush(TransferMessage.end(fileName, outgoing.size));
+
+        future.addListener((ChannelFutureListener) f -> {
+            if (f.isSuccess()) {
+                outgoing.future.complete(null);
+            } else {
+                outgoing.future.completeExceptionally(f.cause());
+            }
+        });
+    }
+
+    @Override
+    public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
+
+        // keep partial files so the transfer may be resumed
+        for (final Incoming incoming : incomingMap.values()) {
+            try {
+                incoming.channel.close();
+                Files.setLastModifiedTime(incoming.part, FileTime.fromMillis(incoming.lastModified));
+            } catch (final IOException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+            }
+        }
+        incomingMap.clear();
+
+        for (final Outgoing outgoing : outgoingMap.values()) {
+            outgoing.future.completeExceptionally(new IOException("Connection closed"));
+        }
+        outgoingMap.clear();
+
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable cause) {
+        logger.log(Level.WARNING, "Unexpected exception from downstream.", cause);
+        ctx.close();
+    }
+
+    /**
+     * Strips any path from a file name so files cannot be read or written outside of the attachment path.
+     */
+    private static String getFileName(final String fileName) {
+        final Path path = Paths.get(fileName).getFileName();
+
+        return path != null ? path.toString() : "";
+    }
+
+    private static class Outgoing {
+        final Path path;
+
+        final long size;
+
+        final CompletableFuture<Void> future;
+
+        Outgoing(final Path path, final long size, final CompletableFuture<Void> future) {
+            this.path = path;
+            this.size = size;
+            this.future = future;
+        }
+    }
+
+    private static class Incoming {
+        final Path path;
+
+        final Path part;
+
+        final FileChannel channel;
+
+        final long size;
+
+        final long lastModified;
+
+        Incoming(final Path path, final Path part, final FileChannel channel, final long size,
+                 final long lastModified) {
+            this.path = path;
+            this.part = part;
+            this.channel = channel;
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.attachment;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.stream.ChunkedFile;
+import io.netty.handler.stream.ChunkedInput;
+
+/**
+ * Reads a file as a sequence of {@code CHUNK} messages for use with a {@code ChunkedWriteHandler}.  Chunks are
+ * only read as fast as the channel can write them.
+ *
+ * @author Craig Cavanaugh
+ */
+class FileChunkInput implements ChunkedInput<TransferMessage> {
+
+    private final ChunkedFile chunkedFile;
+
+    private final String fileName;
+
+    FileChunkInput(final Path path, final String fileName, final long offset, final long length) throws IOException {
+        this.fileName = fileName;
+        this.chunkedFile = new ChunkedFile(new RandomAccessFile(path.toFile(), "r"), offset, length,
+                BinaryTransferCodec.CHUNK_SIZE);
+    }
+
+    @Override
+    public boolean isEndOfInput() throws Exception {
+        return chunkedFile.isEndOfInput();
+    }
+
+    @Override
+    public void close() throws Exception {
+        chunkedFile.close();
+    }
+
+    @Deprecated
+    @Override
+    public TransferMessage readChunk(final ChannelHandlerContext ctx) throws Exception {
+        return readChunk(ctx.alloc());
+    }
+
+    @Override
+    public TransferMessage readChunk(final ByteBufAllocator allocator) throws Exception {
+        final long position = chunkedFile.currentOffset();
+        final ByteBuf data = chunkedFile.readChunk(allocator);
+
+        if (data == null) {
+            return null;
+        }
+
+        return TransferMessage.chunk(fileName, position, data);
+    }
+
+    @Override
+    public long length() {
+        return chunkedFile.length();
+    }
+
+    @Override
+    public long progress() {
+        return chunkedFile.progress();
+    }
+}
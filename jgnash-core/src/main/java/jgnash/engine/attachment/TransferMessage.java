@@ -0,0 +1,217 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.attachment;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.util.AbstractReferenceCounted;
+import io.netty.util.ReferenceCounted;
+
+/**
+ * Message of the binary attachment transfer protocol.
+ * <p>
+ * A message is encoded as a type, a file name, a position, a length and, for chunks only, file data.  The meaning
+ * of the position and length depend on the type.  A message holding file data must be released once consumed.
+ *
+ * @author Craig Cavanaugh
+ */
+final class TransferMessage extends AbstractReferenceCounted {
+
+    /**
+     * Requests a file from the remote side.
+     */
+    static final byte REQUEST = 1;
+
+    /**
+     * Offers a file.  The length is the size of the file and the position is its last modified time.
+     */
+    static final byte OFFER = 2;
+
+    /**
+     * Accepts an offered file.  The position is the offset to resume the transfer from.
+     */
+    static final byte ACCEPT = 3;
+
+    /**
+     * Announces that the length bytes following this message are raw file data starting at position.
+     */
+    static final byte DATA = 4;
+
+    /**
+     * File data starting at position.
+     */
+    static final byte CHUNK = 5;
+
+    /**
+     * End of a file.  The length is the size of the file.
+     */
+    static final byte END = 6;
+
+    static final byte DELETE = 7;
+
+    static final byte ERROR = 8;
+
+    private final byte type;
+
+    private final String fileName;
+
+    private final byte[] encodedFileName;
+
+    private final long position;
+
+    private final long length;
+
+    private final ByteBuf data;
+
+    private TransferMessage(final byte type, final String fileName, final long position, final long length,
+                            final ByteBuf data) {
+        this.type = type;
+        this.fileName = fileName;
+        this.encodedFileName = fileName.getBytes(StandardCharsets.UTF_8);
+        this.position = position;
+        this.length = length;
+        this.data = data;
+    }
+
+    static TransferMessage request(final String fileName) {
+        return new TransferMessage(REQUEST, fileName, 0, 0, null);
+    }
+
+    static TransferMessage offer(final String fileName, final long size, final long lastModified) {
+        return new TransferMessage(OFFER, fileName, lastModified, size, null);
+    }
+
+    static TransferMessage accept(final String fileName, final long offset) {
+        return new TransferMessage(ACCEPT, fileName, offset, 0, null);
+    }
+
+    static TransferMessage data(final String fileName, final long position, final long length) {
+        return new TransferMessage(DATA, fileName, position, length, null);
+    }
+
+    static TransferMessage chunk(final String fileName, final long position, final ByteBuf data) {
+        return new TransferMessage(CHUNK, fileName, position, data.readableBytes(), data);
+    }
+
+    static TransferMessage end(final String fileName, final long size) {
+        return new TransferMessage(END, fileName, 0, size, null);
+    }
+
+    static TransferMessage delete(final String fileName) {
+        return new TransferMessage(DELETE, fileName, 0, 0, null);
+    }
+
+    static TransferMessage error(final String fileName) {
+        return new TransferMessage(ERROR, fileName, 0, 0, null);
+    }
+
+    byte getType() {
+        return type;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    long getPosition() {
+        return position;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    ByteBuf getData() {
+        return data;
+    }
+
+    /**
+     * Returns the encoded size of this message.
+     *
+     * @return encoded size in bytes
+     */
+    int getEncodedSize() {
+        return Byte.BYTES + Short.BYTES + encodedFileName.length + Long.BYTES * 2
+                + (data != null ? data.readableBytes() : 0);
+    }
+
+    /**
+     * Writes this message to a buffer.
+     *
+     * @param out buffer to write to
+     */
+    void encode(final ByteBuf out) {
+        out.writeByte(type);
+        out.writeShort(encodedFileName.length);
+        out.writeBytes(encodedFileName);
+        out.writeLong(position);
+        out.writeLong(length);
+
+        if (data != null) {
+            out.writeBytes(data, data.readerIndex(), data.readableBytes());
+        }
+    }
+
+    /**
+     * Reads a message from a buffer.  The remaining bytes of a chunk are retained as the chunk data.
+     *
+     * @param in buffer to read
+     * @return the message
+     */
+    static TransferMessage decode(final ByteBuf in) {
+        final byte type = in.readByte();
+
+        if (type < REQUEST || type > ERROR) {
+            throw new CorruptedFrameException("Unknown message type: " + type);
+        }
+
+        final String fileName = in.readCharSequence(in.readUnsignedShort(), StandardCharsets.UTF_8).toString();
+        final long position = in.readLong();
+        final long length = in.readLong();
+
+        if (type == CHUNK) {
+            return new TransferMessage(type, fileName, position, in.readableBytes(),
+                    in.readRetainedSlice(in.readableBytes()));
+        }
+
+        return new TransferMessage(type, fileName, position, length, null);
+    }
+
+    @Override
+    protected void deallocate() {
+        if (data != null) {
+            data.release();
+        }
+    }
+
+    @Override
+    public ReferenceCounted touch(final Object hint) {
+        if (data != null) {
+            data.touch(hint);
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "TransferMessage{type=" + type + ", fileName=" + fileName + ", position=" + position + ", length="
+                + length + '}';
+    }
+}
@@ -30,10 +30,12 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.OrderColumn;
+import javax.persistence.PostLoad;
 import javax.persistence.SequenceGenerator;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -42,6 +44,10 @@ import java.util.Objects;
  * Budget Goal Object
  * <p>
  * 366 days per year are assumed and static for goals. The 366th day will not be used if not a leap year
+ * <p>
+ * Goals are set a period at a time, so the daily values form a few runs of equal values.  The runs are indexed
+ * with prefix sums to answer range queries without summing the days.  Equal neighbouring values share a single
+ * {@code BigDecimal} instance once the goals are set or loaded.  The persisted list of daily values is unchanged.
  *
  * @author Craig Cavanaugh
  */
@@ -71,6 +77,11 @@ public class BudgetGoal implements Cloneable, Serializable {
     @Column(name = "BUDGETPERIOD")
     private Period budgetPeriod = Period.MONTHLY;
 
+    /**
+     * Run length index of the goals, built when first needed after loading or changing the goals.
+     */
+    private transient volatile Runs runs;
+
     public BudgetGoal() {
         budgetGoals = new ArrayList<>(Collections.nCopies(PERIODS, BigDecimal.ZERO));
     }
@@ -95,6 +106,10 @@ public class BudgetGoal implements Cloneable, Serializable {
         for (int i = 0; i < goals.length; i++) {
             budgetGoals.set(i, goals[i]);
         }
+
+        shareEqualGoals();
+
+        runs = null;
     }
 
     /**
@@ -138,35 +153,69 @@ public class BudgetGoal implements Cloneable, Serializable {
                 budgetGoals.set(i, portion);
             }
         }
+
+        runs = null;
     }
 
     public BigDecimal getGoal(final int startPeriod, final int endPeriod, final boolean leapYear) {
-        BigDecimal amount = BigDecimal.ZERO;
-
+        final Runs index = getRuns();
 
         if (startPeriod <= endPeriod) {
             // clip to the max number of periods... some locale calendars behave differently
-            for (int i = startPeriod; i <= endPeriod && i < BudgetGoal.PERIODS; i++) {
-                amount = amount.add(budgetGoals.get(i));
-            }
-        } else {    // wrap around the array, need to handle a leap year
-            //int days = 0;
+            return index.sum(startPeriod, Math.min(endPeriod + 1, BudgetGoal.PERIODS));
+        }
 
-            for (int i = startPeriod; i < BudgetGoal.PERIODS - (leapYear ? 0 : 1); i++) {
-                //days++;
-                amount = amount.add(budgetGoals.get(i));
-            }
+        // wrap around the array, need to handle a leap year
+        return index.sum(startPeriod, BudgetGoal.PERIODS - (leapYear ? 0 : 1))
+                .add(index.sum(0, Math.min(endPeriod + 1, BudgetGoal.PERIODS)));
+    }
 
-            for (int i = 0; i <= endPeriod && i < BudgetGoal.PERIODS; i++) {
-                //days++;
-                amount = amount.add(budgetGoals.get(i));
+    private Runs getRuns() {
+        Runs index = runs;
+
+        if (index == null) {
+            synchronized (this) {
+                index = runs;
+
+                if (index == null) {
+                    index = new Runs(budgetGoals);
+                    runs = index;
+                }
             }
+        }
 
-            //System.out.println("days: " + days+ ", start: " + startPeriod + ", end: " + endPeriod + ", leapYear: " + leapYear);
+        return index;
+    }
 
+    /**
+     * Replaces equal neighbouring goals with a single instance.  Goals are set a period at a time, so the days
+     * share a few instances instead of holding one each.
+     */
+    private void shareEqualGoals() {
+        for (int i = 1; i < budgetGoals.size(); i++) {
+            final BigDecimal previous = budgetGoals.get(i - 1);
+            final BigDecimal value = budgetGoals.get(i);
+
+            if (value != previous && value != null && value.equals(previous)) {
+                budgetGoals.set(i, previous);
+            }
         }
+    }
+
+    /**
+     * Required by XStream for proper initialization.
+     *
+     * @return Properly initialized BudgetGoal
+     */
+    protected Object readResolve() {
+        postLoad();
+        return this;
+    }
 
-        return amount;
+    @PostLoad
+    private void postLoad() {
+        shareEqualGoals();  // the loaded values are equal, so nothing is written back
+        runs = null;
     }
 
     /**
@@ -222,4 +271,92 @@ public class BudgetGoal implements Cloneable, Serializable {
 
         return budgetPeriod == other.budgetPeriod && budgetGoals.equals(other.budgetGoals);
     }
+
+    /**
+     * Runs of equal daily goals with the sum of the days before each run.
+     */
+    private static final class Runs {
+
+        /**
+         * First day of each run.
+         */
+        private final int[] starts;
+
+        private final BigDecimal[] values;
+
+        /**
+         * Sum of all days before each run.
+         */
+        private final BigDecimal[] sums;
+
+        /**
+         * Builds the index, the list of goals is not modified.
+         *
+         * @param goals daily goals
+         */
+        Runs(final List<BigDecimal> goals) {
+            final int[] runStarts = new int[goals.size()];
+            final BigDecimal[] runValues = new BigDecimal[goals.size()];
+
+            int count = 0;
+
+            for (int i = 0; i < goals.size(); i++) {
+                final BigDecimal value = goals.get(i);
+
+                if (count == 0 || !value.equals(runValues[count - 1])) {
+                    runStarts[count] = i;
+                    runValues[count] = value;
+                    count++;
+                }
+            }
+
+            starts = Arrays.copyOf(runStarts, count);
+            values = Arrays.copyOf(runValues, count);
+            sums = new BigDecimal[count];
+
+            BigDecimal sum = BigDecimal.ZERO;
+
+            for (int i = 0; i < count; i++) {
+                sums[i] = sum;
+
+                final int end = i + 1 < count ? starts[i + 1] : goals.size();
+                sum = sum.add(values[i].multiply(BigDecimal.valueOf(end - starts[i])));
+            }
+        }
+
+        /**
+         * Returns the sum of the days before a day.
+         *
+         * @param day exclusive end day
+         * @return the sum
+         */
+        private BigDecimal sumBefore(final int day) {
+            if (day <= 0) {
+                return BigDecimal.ZERO;
+            }
+
+            int run = Arrays.binarySearch(starts, day - 1);
+
+            if (run < 0) {
+                run = -run - 2; // the run containing the day
+            }
+
+            return sums[run].add(values[run].multiply(BigDecimal.valueOf(day - starts[run])));
+        }
+
+        /**
+         * Returns the sum of a range of days.
+         *
+         * @param start inclusive start day
+         * @param end   exclusive end day
+         * @return the sum
+         */
+        BigDecimal sum(final int start, final int end) {
+            if (start >= end) {
+                return BigDecimal.ZERO;
+            }
+
+            return sumBefore(end).subtract(sumBefore(start));
+        }
+    }
 }
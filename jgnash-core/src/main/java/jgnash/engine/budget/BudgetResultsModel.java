@@ -18,17 +18,20 @@
 package jgnash.engine.budget;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.EnumMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import jgnash.engine.Account;
@@ -49,6 +52,11 @@ import jgnash.engine.message.MessageProxy;
 
 /**
  * Model for budget results.
+ * <p>
+ * Results are cached and may be calculated concurrently.  Period results of child accounts are cached separately
+ * from running totals so parent accounts reuse them.  A transaction only clears the results of the periods that
+ * contain its date, or the periods from that date on for running totals, for its accounts and their ancestors
+ * and the totals of their account groups.
  *
  * @author Craig Cavanaugh
  */
@@ -66,7 +74,11 @@ public class BudgetResultsModel implements MessageListener {
 
     private final ReentrantReadWriteLock accountLock = new ReentrantReadWriteLock();
 
-    private final ReentrantLock cacheLock = new ReentrantLock();
+    /**
+     * Incremented when cached results are cleared.  Results built while the count changes are not cached because
+     * they may have used cleared results.
+     */
+    private final AtomicLong cacheVersion = new AtomicLong();
 
     private final Map<Account, BudgetPeriodResults> accountResultsCache;
 
@@ -74,6 +86,11 @@ public class BudgetResultsModel implements MessageListener {
 
     private final Map<BudgetPeriodDescriptor, Map<Account, BudgetPeriodResults>> descriptorAccountResultsCache;
 
+    /**
+     * Results of a single period without running totals, summed into the parent account results.
+     */
+    private final Map<BudgetPeriodDescriptor, Map<Account, BudgetPeriodResults>> descriptorPeriodResultsCache;
+
     private final Map<BudgetPeriodDescriptor, Map<AccountGroup, BudgetPeriodResults>> descriptorAccountGroupResultsCache;
 
     private final boolean useRunningTotals;
@@ -90,10 +107,11 @@ public class BudgetResultsModel implements MessageListener {
         this.baseCurrency = baseCurrency;
         this.useRunningTotals = useRunningTotals;
 
-        accountResultsCache = new HashMap<>();
-        accountGroupResultsCache = new EnumMap<>(AccountGroup.class);
-        descriptorAccountResultsCache = new HashMap<>();
-        descriptorAccountGroupResultsCache = new HashMap<>();
+        accountResultsCache = new ConcurrentHashMap<>();
+        accountGroupResultsCache = new ConcurrentHashMap<>();
+        descriptorAccountResultsCache = new ConcurrentHashMap<>();
+        descriptorPeriodResultsCache = new ConcurrentHashMap<>();
+        descriptorAccountGroupResultsCache = new ConcurrentHashMap<>();
 
         loadAccounts();
         loadAccountGroups();
@@ -268,69 +286,96 @@ public class BudgetResultsModel implements MessageListener {
         }
     }
 
-    private void clear(final BudgetPeriodDescriptor descriptor, final Account account) {
-        cacheLock.lock();
-
-        try {
-            final Map<Account, BudgetPeriodResults> resultsMap = descriptorAccountResultsCache.get(descriptor);
+    private void clearCached() {
+        cacheVersion.incrementAndGet();
 
-            if (resultsMap != null) {
-                resultsMap.remove(account);
-            }
-        } finally {
-            cacheLock.unlock();
-        }
+        accountResultsCache.clear();
+        accountGroupResultsCache.clear();
+        descriptorAccountResultsCache.clear();
+        descriptorPeriodResultsCache.clear();
+        descriptorAccountGroupResultsCache.clear();
     }
 
-    private void clear(final BudgetPeriodDescriptor descriptor, final AccountGroup group) {
-        cacheLock.lock();
+    /**
+     * Clears the cached results that depend on the accounts for the supplied descriptors.
+     *
+     * @param changedAccounts accounts that have changed, their ancestors are cleared as well
+     * @param descriptors     descriptors to clear
+     */
+    private void clearCached(final Collection<Account> changedAccounts,
+                             final Collection<BudgetPeriodDescriptor> descriptors) {
+        final Set<Account> affectedAccounts = new HashSet<>();
+
+        for (final Account account : changedAccounts) {
+            affectedAccounts.addAll(account.getAncestors());
+        }
 
-        try {
-            final Map<AccountGroup, BudgetPeriodResults> resultsMap = descriptorAccountGroupResultsCache.get(descriptor);
+        // could be mixed group tree
+        final Set<AccountGroup> affectedGroups = EnumSet.noneOf(AccountGroup.class);
 
-            if (resultsMap != null) {
-                resultsMap.remove(group);
-            }
-        } finally {
-            cacheLock.unlock();
+        for (final Account account : affectedAccounts) {
+            affectedGroups.add(account.getAccountType().getAccountGroup());
         }
-    }
 
-    private void clear(final Account account) {
-        cacheLock.lock();
+        cacheVersion.incrementAndGet();
 
-        try {
-            accountResultsCache.remove(account);
-        } finally {
-            cacheLock.unlock();
+        for (final BudgetPeriodDescriptor descriptor : descriptors) {
+            clear(descriptorAccountResultsCache.get(descriptor), affectedAccounts);
+            clear(descriptorPeriodResultsCache.get(descriptor), affectedAccounts);
+            clear(descriptorAccountGroupResultsCache.get(descriptor), affectedGroups);
         }
-    }
 
-    private void clear(final AccountGroup accountGroup) {
-        cacheLock.lock();
+        clear(accountResultsCache, affectedAccounts);
+        clear(accountGroupResultsCache, affectedGroups);
+    }
 
-        try {
-            final BudgetPeriodResults results = accountGroupResultsCache.get(accountGroup);
+    private static <K> void clear(final Map<K, BudgetPeriodResults> resultsMap, final Set<K> keys) {
+        if (resultsMap != null) {
+            resultsMap.keySet().removeAll(keys);
+        }
+    }
 
-            if (results != null) {
-                accountGroupResultsCache.remove(accountGroup);
+    /**
+     * Returns the descriptors whose results depend on a date.
+     *
+     * @param date date of a change
+     * @return the descriptors containing the date, and all following descriptors if running totals are used
+     */
+    private List<BudgetPeriodDescriptor> getDescriptors(final LocalDate date) {
+        for (int i = 0; i < descriptorList.size(); i++) {
+            if (descriptorList.get(i).isBetween(date)) {
+                return descriptorList.subList(i, useRunningTotals ? descriptorList.size() : i + 1);
             }
-        } finally {
-            cacheLock.unlock();
         }
+
+        return Collections.emptyList();
     }
 
-    private void clearCached() {
-        cacheLock.lock();
+    /**
+     * Returns cached results or builds and caches them.  Results may be built concurrently and builders may
+     * request other results, so a builder is not run while holding a lock.
+     */
+    private <K> BudgetPeriodResults getResults(final Map<K, BudgetPeriodResults> resultsMap, final K key,
+                                               final Supplier<BudgetPeriodResults> builder) {
+        BudgetPeriodResults results = resultsMap.get(key);
 
-        try {
-            accountResultsCache.clear();
-            accountGroupResultsCache.clear();
-            descriptorAccountResultsCache.clear();
-            descriptorAccountGroupResultsCache.clear();
-        } finally {
-            cacheLock.unlock();
+        if (results == null) {
+            final long version = cacheVersion.get();
+
+            results = builder.get();
+
+            if (cacheVersion.get() == version) {
+                final BudgetPeriodResults previous = resultsMap.putIfAbsent(key, results);
+
+                if (previous != null) {
+                    results = previous;
+                } else if (cacheVersion.get() != version) {
+                    resultsMap.remove(key, results);    // cleared while being cached
+                }
+            }
         }
+
+        return results;
     }
 
     /**
@@ -341,16 +386,24 @@ public class BudgetResultsModel implements MessageListener {
      * @return cached or newly created BudgetPeriodResults
      */
     public BudgetPeriodResults getResults(final BudgetPeriodDescriptor descriptor, final Account account) {
-        cacheLock.lock();
+        if (!useRunningTotals) {
+            return getPeriodResults(descriptor, account);
+        }
 
-        try {
-            final Map<Account, BudgetPeriodResults> resultsMap
-                    = descriptorAccountResultsCache.computeIfAbsent(descriptor, k -> new HashMap<>());
+        return getResults(descriptorAccountResultsCache.computeIfAbsent(descriptor, k -> new ConcurrentHashMap<>()),
+                account, () -> buildAccountResults(descriptor, account, true));
+    }
 
-            return resultsMap.computeIfAbsent(account, k -> buildAccountResults(descriptor, account, true));
-        } finally {
-            cacheLock.unlock();
-        }
+    /**
+     * Gets the results of a single period without running totals.
+     *
+     * @param descriptor BudgetPeriodDescriptor descriptor
+     * @param account    Account
+     * @return cached or newly created BudgetPeriodResults
+     */
+    private BudgetPeriodResults getPeriodResults(final BudgetPeriodDescriptor descriptor, final Account account) {
+        return getResults(descriptorPeriodResultsCache.computeIfAbsent(descriptor, k -> new ConcurrentHashMap<>()),
+                account, () -> buildAccountResults(descriptor, account, false));
     }
 
     /**
@@ -362,16 +415,8 @@ public class BudgetResultsModel implements MessageListener {
      * @return summary results
      */
     public BudgetPeriodResults getResults(final BudgetPeriodDescriptor descriptor, final AccountGroup group) {
-        cacheLock.lock();
-
-        try {
-            final Map<AccountGroup, BudgetPeriodResults> resultsMap = descriptorAccountGroupResultsCache
-                    .computeIfAbsent(descriptor, k -> new EnumMap<>(AccountGroup.class));
-
-            return resultsMap.computeIfAbsent(group, k -> buildResults(descriptor, group));
-        } finally {
-            cacheLock.unlock();
-        }
+        return getResults(descriptorAccountGroupResultsCache.computeIfAbsent(descriptor,
+                k -> new ConcurrentHashMap<>()), group, () -> buildResults(descriptor, group));
     }
 
     /**
@@ -381,13 +426,7 @@ public class BudgetResultsModel implements MessageListener {
      * @return summary results
      */
     public BudgetPeriodResults getResults(final Account account) {
-        cacheLock.lock();
-
-        try {
-            return accountResultsCache.computeIfAbsent(account, k -> buildResults(account));
-        } finally {
-            cacheLock.unlock();
-        }
+        return getResults(accountResultsCache, account, () -> buildResults(account));
     }
 
     /**
@@ -397,15 +436,38 @@ public class BudgetResultsModel implements MessageListener {
      * @return summary results
      */
     public BudgetPeriodResults getResults(final AccountGroup accountGroup) {
-        cacheLock.lock();
+        return getResults(accountGroupResultsCache, accountGroup, () -> buildResults(accountGroup));
+    }
 
-        try {
-            return accountGroupResultsCache.computeIfAbsent(accountGroup, k -> buildResults(accountGroup));
-        } finally {
-            cacheLock.unlock();
+    /**
+     * Calculates the results for every account and account group.  Accounts are calculated in parallel.
+     */
+    public void calculateResults() {
+        getAccounts().parallelStream().forEach(account -> {
+            for (final BudgetPeriodDescriptor descriptor : descriptorList) {
+                getResults(descriptor, account);
+            }
+
+            getResults(account);
+        });
+
+        for (final AccountGroup group : getAccountGroupList()) {
+            for (final BudgetPeriodDescriptor descriptor : descriptorList) {
+                getResults(descriptor, group);
+            }
+
+            getResults(group);
         }
     }
 
+    /**
+     * Returns the goals for an account.  The budget creates missing goals, so access is serialized.
+     */
+    private BudgetGoal getBudgetGoal(final Account account) {
+        synchronized (budget) {
+            return budget.getBudgetGoal(account);
+        }
+    }
 
     private BudgetPeriodResults buildAccountResults(final BudgetPeriodDescriptor descriptor, final Account account,
                                                     final boolean includeBaseAccountResults) {
@@ -416,7 +478,7 @@ public class BudgetResultsModel implements MessageListener {
         try {
             // calculate this account's results
             if (accounts.contains(account)) {
-                final BudgetGoal goal = budget.getBudgetGoal(account);
+                final BudgetGoal goal = getBudgetGoal(account);
 
                 results.setBudgeted(goal.getGoal(descriptor.getStartPeriod(), descriptor.getEndPeriod(),
                         descriptor.getStartDate().isLeapYear()));
@@ -443,9 +505,9 @@ public class BudgetResultsModel implements MessageListener {
                 }
             }
 
-            // recursive decent to add child account results and handle exchange rates
-            for (final Account child : account.getChildren(Comparators.getAccountByCode())) {
-                final BudgetPeriodResults childResults = buildAccountResults(descriptor, child, false);
+            // add the cached child account results and handle exchange rates
+            for (final Account child : account.getChildren()) {
+                final BudgetPeriodResults childResults = getPeriodResults(descriptor, child);
 
                 final BigDecimal exchangeRate = child.getCurrencyNode().getExchangeRate(account.getCurrencyNode());
 
@@ -597,28 +659,7 @@ public class BudgetResultsModel implements MessageListener {
     }
 
     private void clearCached(final Account account) {
-        accountLock.readLock().lock();
-
-        try {
-            cacheLock.lock();
-
-            try {
-                // clear cached results
-                // could be mixed group tree
-                account.getAncestors().stream().filter(accounts::contains).forEach(ancestor -> {
-                    for (BudgetPeriodDescriptor descriptor : descriptorList) {
-                        clear(ancestor);
-                        clear(descriptor, ancestor);
-                        clear(ancestor.getAccountType().getAccountGroup()); // could be mixed group tree
-                        clear(descriptor, ancestor.getAccountType().getAccountGroup());
-                    }
-                });
-            } finally {
-                cacheLock.unlock();
-            }
-        } finally {
-            accountLock.readLock().unlock();
-        }
+        clearCached(Collections.singleton(account), descriptorList);
     }
 
     private void processAccountEvent(final Message message) {
@@ -626,11 +667,11 @@ public class BudgetResultsModel implements MessageListener {
 
         switch (message.getEvent()) {
             case ACCOUNT_ADD:
-                accounts.add(account);
+                setIncluded(account, true);
                 clearCached(account);
                 break;
             case ACCOUNT_REMOVE:
-                accounts.remove(account);
+                setIncluded(account, false);
                 clearCached(account);
                 break;
             case ACCOUNT_MODIFY:
@@ -644,6 +685,20 @@ public class BudgetResultsModel implements MessageListener {
         loadAccountGroups();    // force reload of account groups after accounts have changed
     }
 
+    private void setIncluded(final Account account, final boolean included) {
+        accountLock.writeLock().lock();
+
+        try {
+            if (included) {
+                accounts.add(account);
+            } else {
+                accounts.remove(account);
+            }
+        } finally {
+            accountLock.writeLock().unlock();
+        }
+    }
+
     private void processBudgetEvent(final Message message) {
         Budget messageBudget = message.getObject(MessageProperty.BUDGET);
 
@@ -666,18 +721,21 @@ public class BudgetResultsModel implements MessageListener {
     }
 
     private void processTransactionEvent(final Message message) {
-        final Transaction transaction = message.getObject(MessageProperty.TRANSACTION);
+        processTransaction(message.getObject(MessageProperty.TRANSACTION));
+    }
 
-        descriptorList.stream().filter(descriptor -> descriptor.isBetween(transaction.getLocalDate()))
-                .forEach(descriptor -> {
-                    final Set<Account> accountSet = new HashSet<>();
+    private void processTransactionsEvent(final Message message) {
+        for (final Transaction transaction : message.<Transaction>getObjects(MessageProperty.TRANSACTION)) {
+            processTransaction(transaction);
+        }
+    }
 
-                    for (Account account : transaction.getAccounts()) {
-                        accountSet.addAll(account.getAncestors());
-                    }
+    private void processTransaction(final Transaction transaction) {
+        final List<BudgetPeriodDescriptor> descriptors = getDescriptors(transaction.getLocalDate());
 
-                    accountSet.forEach(this::clearCached);
-                });
+        if (!descriptors.isEmpty()) {
+            clearCached(transaction.getAccounts(), descriptors);
+        }
     }
 
     @Override
@@ -697,6 +755,10 @@ public class BudgetResultsModel implements MessageListener {
             case TRANSACTION_REMOVE:
                 processTransactionEvent(message);
                 break;
+            case TRANSACTIONS_ADD:
+            case TRANSACTIONS_REMOVE:
+                processTransactionsEvent(message);
+                break;
             case FILE_CLOSING:
                 unregisterListeners();
                 clearCached();
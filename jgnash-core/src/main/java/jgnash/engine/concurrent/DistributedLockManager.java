@@ -141,6 +141,13 @@ public class DistributedLockManager implements LockManager {
 
             channel.writeAndFlush(encrypt(UUID_PREFIX + uuid) + EOL_DELIMITER).sync();   // send this channels uuid
 
+            // renew the lease on held locks until the connection is closed
+            final Channel heartbeatChannel = channel;
+            final String heartbeat = encrypt(DistributedLockServer.HEARTBEAT) + EOL_DELIMITER;
+
+            heartbeatChannel.eventLoop().scheduleAtFixedRate(() -> heartbeatChannel.writeAndFlush(heartbeat), 0,
+                    DistributedLockServer.HEARTBEAT_PERIOD, TimeUnit.SECONDS);
+
             result = true;
             logger.info("Connection made with Distributed Lock Server");
         } catch (final InterruptedException e) {
@@ -18,6 +18,7 @@
 package jgnash.engine.concurrent;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -38,20 +39,35 @@ import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.Objects;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutorService;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import jgnash.util.DefaultDaemonThreadFactory;
 import jgnash.util.EncodeDecode;
 import jgnash.util.EncryptionManager;
 
 /**
  * Distributed Lock Server.
+ * <p>
+ * Lock requests are queued and granted in arrival order by a single lock scheduler thread.  A request that
+ * cannot be granted waits in the queue of its lock and the acknowledgment is sent when it is granted, so
+ * the Netty event loop never blocks and unlock requests are always processed promptly.
+ * <p>
+ * Locks held by a client are released when its connection closes.  Clients that send heartbeats hold their
+ * locks under a lease, which expires if the heartbeats stop without the connection being closed.
  *
  * @author Craig Cavanaugh
  */
@@ -59,8 +75,11 @@ public class DistributedLockServer {
 
     private static final Logger logger = Logger.getLogger(DistributedLockServer.class.getName());
 
-    // this needs to be to 2 threads to ensure order of operations and allow for unlocking without blocking
-    private final ExecutorService executorService = Executors.newFixedThreadPool(2);
+    /**
+     * All lock state is owned by this thread so lock requests never block.
+     */
+    private final ScheduledExecutorService lockScheduler
+            = Executors.newSingleThreadScheduledExecutor(new DefaultDaemonThreadFactory());
 
     private final ChannelGroup channelGroup = new DefaultChannelGroup("lock-server", GlobalEventExecutor.INSTANCE);
 
@@ -68,9 +87,15 @@ public class DistributedLockServer {
 
     private final int port;
 
+    /**
+     * Only accessed from the lock scheduler.
+     */
     private final Map<String, ReadWriteLock> lockMap = new HashMap<>();
 
-    private final Map<ChannelHandlerContext, String> handlerContextMap = new HashMap<>();
+    /**
+     * Time of the last message from each client that sends heartbeats.  Only accessed from the lock scheduler.
+     */
+    private final Map<Channel, Long> leaseMap = new HashMap<>();
 
     static final String LOCK = "lock";
 
@@ -80,6 +105,21 @@ public class DistributedLockServer {
 
     static final String LOCK_TYPE_WRITE = "WRITE";
 
+    /**
+     * Message sent periodically by clients to renew the lease on their locks.
+     */
+    static final String HEARTBEAT = "heartbeat";
+
+    /**
+     * Period between heartbeats in seconds.
+     */
+    static final long HEARTBEAT_PERIOD = 10;
+
+    /**
+     * Lease duration in seconds.
+     */
+    private static final long LEASE_TIMEOUT = HEARTBEAT_PERIOD * 6;
+
     private static final String EOL_DELIMITER = "\r\n";
 
     private EncryptionManager encryptionManager = null;
@@ -95,6 +135,15 @@ public class DistributedLockServer {
         return message;
     }
 
+    /**
+     * Returns the acknowledgment of a lock state change to the client.
+     */
+    private void acknowledge(final ChannelHandlerContext ctx, final String message) {
+        if (ctx.channel().isOpen()) {
+            ctx.writeAndFlush(encrypt(message) + EOL_DELIMITER);
+        }
+    }
+
     private void processMessage(final ChannelHandlerContext ctx, final String msg) {
 
         final String message;
@@ -105,9 +154,16 @@ public class DistributedLockServer {
             message = msg;
         }
 
-        // Look for a uuid announcement for a channel
+        // any message renews the lease
+        if (message.equals(HEARTBEAT)) {
+            leaseMap.put(ctx.channel(), System.nanoTime());
+            return;
+        }
+
+        leaseMap.computeIfPresent(ctx.channel(), (channel, time) -> System.nanoTime());
+
+        // Locks are tracked by channel, the uuid announcement is not needed
         if (message.startsWith(DistributedLockManager.UUID_PREFIX)) {
-            handlerContextMap.put(ctx, message.substring(DistributedLockManager.UUID_PREFIX.length()));
             return;
         }
 
@@ -123,49 +179,94 @@ public class DistributedLockServer {
         final String remoteThread = strings[2];
         final String lockType = strings[3];
 
+        if (lockId == null || remoteThread == null || lockType == null) {
+            logger.log(Level.SEVERE, "Invalid lock message: {0}", message);
+            return;
+        }
+
         final ReadWriteLock lock = getLock(lockId);
+        final LockRequest request = new LockRequest(ctx, message, remoteThread, LOCK_TYPE_WRITE.equals(lockType));
+
+        switch (action) {
+            case LOCK:
+                lock.lock(request);     // acknowledged once granted
+                break;
+            case UNLOCK:
+                lock.unlock(request);
+                break;
+            default:
+                acknowledge(ctx, message);
+                break;
+        }
+    }
 
-        try {
+    private ReadWriteLock getLock(final String lockId) {
+        return lockMap.computeIfAbsent(lockId, ReadWriteLock::new);
+    }
 
-            // request a lock or unlock.  This may block
-            switch (action) {
-                case LOCK:
-                    switch (lockType) {
-                        case LOCK_TYPE_READ:
-                            lock.lockForRead(remoteThread);
-                            break;
-                        case LOCK_TYPE_WRITE:
-                            lock.lockForWrite(remoteThread);
-                            break;
-                        default:
-                            break;
-                    }
-                    break;
-                case UNLOCK:
-                    switch (lockType) {
-                        case LOCK_TYPE_READ:
-                            lock.unlockRead(remoteThread);
-                            break;
-                        case LOCK_TYPE_WRITE:
-                            lock.unlockWrite(remoteThread);
-                            break;
-                        default:
-                            break;
-                    }
-                    break;
-            }
+    /**
+     * Releases all locks held or requested by a client.
+     *
+     * @param channel channel of the client
+     */
+    private void releaseLocks(final Channel channel) {
+        leaseMap.remove(channel);
 
-            // return the message as an acknowledgment lock state has changed
-            if (ctx.channel().isOpen()) {
-                ctx.writeAndFlush(encrypt(message) + EOL_DELIMITER).sync();
+        for (final ReadWriteLock lock : lockMap.values()) {
+            lock.release(channel);
+        }
+    }
+
+    /**
+     * Releases the locks of clients that have stopped sending heartbeats.
+     */
+    private void expireLeases() {
+        final long now = System.nanoTime();
+
+        final Iterator<Map.Entry<Channel, Long>> iterator = leaseMap.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+            final Map.Entry<Channel, Long> entry = iterator.next();
+
+            if (now - entry.getValue() > TimeUnit.SECONDS.toNanos(LEASE_TIMEOUT)) {
+                final Channel channel = entry.getKey();
+
+                iterator.remove();
+
+                logger.log(Level.WARNING, "Lease expired for: {0}", channel.remoteAddress());
+
+                for (final ReadWriteLock lock : lockMap.values()) {
+                    lock.release(channel);
+                }
+
+                channel.close();
             }
-        } catch (final Exception e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
         }
     }
 
-    private ReadWriteLock getLock(final String lockId) {
-        return lockMap.computeIfAbsent(lockId, k -> new ReadWriteLock(lockId));
+    /**
+     * Returns the wait time metrics for each lock.
+     *
+     * @return map of lock id to metrics, empty if the server is not running
+     */
+    public Map<String, LockMetrics> getLockMetrics() {
+        try {
+            return lockScheduler.submit(() -> {
+                final Map<String, LockMetrics> metrics = new TreeMap<>();
+
+                for (final ReadWriteLock lock : lockMap.values()) {
+                    metrics.put(lock.id, lock.getMetrics());
+                }
+
+                return Collections.unmodifiableMap(metrics);
+            }).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException | RejectedExecutionException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        return Collections.emptyMap();
     }
 
     public boolean startServer(final char[] password) {
@@ -190,6 +291,9 @@ public class DistributedLockServer {
             future.sync();
 
             if (future.isDone() && future.isSuccess()) {
+                lockScheduler.scheduleWithFixedDelay(this::expireLeases, HEARTBEAT_PERIOD, HEARTBEAT_PERIOD,
+                        TimeUnit.SECONDS);
+
                 logger.info("Distributed Lock Server started successfully");
                 result = true;
             } else {
@@ -206,7 +310,12 @@ public class DistributedLockServer {
     public void stopServer() {
         try {
             channelGroup.close().sync();
-            executorService.shutdown();
+
+            for (final LockMetrics metrics : getLockMetrics().values()) {
+                logger.log(Level.INFO, metrics.toString());
+            }
+
+            lockScheduler.shutdown();
             eventLoopGroup.shutdownGracefully();
 
             eventLoopGroup = null;
@@ -217,7 +326,6 @@ public class DistributedLockServer {
         }
     }
 
-
     @ChannelHandler.Sharable
     private class ServerHandler extends ChannelInboundHandlerAdapter {
 
@@ -232,34 +340,32 @@ public class DistributedLockServer {
         public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
             logger.log(Level.INFO, "Remote connection {0} closed", ctx.channel().remoteAddress().toString());
 
-            final String uuid = handlerContextMap.get(ctx);
-
-            // Search through the lock map and remove any stale locks
-            if (uuid != null) {
-                for (ReadWriteLock readWriteLock : lockMap.values()) {  // look at every lock
-
-                    // if the remoteThread starts with the uuid, request a cleanup
-                    // cleanup a stale lock
-                    readWriteLock.readingThreads.keySet().stream().filter(remoteThread ->
-                            remoteThread.startsWith(uuid)).forEach(readWriteLock::cleanupStaleThread);
-
-                    if (readWriteLock.hasWriteThread(uuid)) {
-                        readWriteLock.cleanupStaleWriteThread();
-                    }
-                }
+            // remove any stale locks
+            try {
+                lockScheduler.execute(() -> releaseLocks(ctx.channel()));
+            } catch (final RejectedExecutionException e) {
+                logger.fine("Server is stopping");
             }
 
-            handlerContextMap.remove(ctx);
             channelGroup.remove(ctx.channel());
             super.channelInactive(ctx);
         }
 
         @Override
         public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-            executorService.submit(() -> {
-                processMessage(ctx, msg.toString());
+            try {
+                lockScheduler.execute(() -> {
+                    try {
+                        processMessage(ctx, msg.toString());
+                    } catch (final RuntimeException e) {
+                        logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+                    }
+                });
+            } catch (final RejectedExecutionException e) {
+                logger.fine("Server is stopping");
+            } finally {
                 ReferenceCountUtil.release(msg);
-            });
+            }
         }
 
         @Override
@@ -288,159 +394,251 @@ public class DistributedLockServer {
     }
 
     /**
-     * Reentrant Read Write lock.
-     * <p>
-     * A unique integer must be supplied to identify the thread instead of the current thread.
+     * Wait time metrics for a lock.
      */
-    private static class ReadWriteLock {
+    public static final class LockMetrics {
 
-        private final String id;
+        private final String lockId;
 
-        /**
-         * The key is the uuid of the manager plus the remote thread id.
-         * <p>
-         * uuid-integer
-         */
-        private final Map<String, Integer> readingThreads = new ConcurrentHashMap<>();
+        private final long grantCount;
 
-        private int writeAccesses = 0;
-        private int writeRequests = 0;
-        private String writingThread = null;
+        private final long totalWaitNanos;
 
-        private ReadWriteLock(final String id) {
-            this.id = id;
+        private final long maxWaitNanos;
+
+        private final int waitingCount;
+
+        private LockMetrics(final String lockId, final long grantCount, final long totalWaitNanos,
+                            final long maxWaitNanos, final int waitingCount) {
+            this.lockId = lockId;
+            this.grantCount = grantCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+            this.waitingCount = waitingCount;
         }
 
-        synchronized boolean hasWriteThread(final String id) {
-            boolean result = false;
+        public String getLockId() {
+            return lockId;
+        }
 
-            if (writingThread != null) {
-                result = writingThread.startsWith(id);
-            }
+        /**
+         * Returns the number of times the lock has been granted.
+         *
+         * @return grant count
+         */
+        public long getGrantCount() {
+            return grantCount;
+        }
 
-            return result;
+        public Duration getTotalWaitTime() {
+            return Duration.ofNanos(totalWaitNanos);
         }
 
-        synchronized void cleanupStaleThread(final String remoteThread) {
-            if (readingThreads.containsKey(remoteThread)) {
-                unlockRead(remoteThread);
-                logger.log(Level.WARNING, "Removed a stale read lock for: {0}", id);
-            }
+        public Duration getAverageWaitTime() {
+            return grantCount > 0 ? Duration.ofNanos(totalWaitNanos / grantCount) : Duration.ZERO;
+        }
 
-            if (writingThread != null && writingThread.equals(remoteThread)) {
-                unlockWrite(remoteThread);
-                logger.log(Level.WARNING, "Removed a stale write lock for: {0}", id);
-            }
+        public Duration getMaxWaitTime() {
+            return Duration.ofNanos(maxWaitNanos);
         }
 
-        synchronized void cleanupStaleWriteThread() {
-            if (readingThreads.containsKey(writingThread)) {
-                unlockRead( writingThread);
-                logger.log(Level.WARNING, "Removed a stale read lock for: {0}", id);
-            }
+        /**
+         * Returns the number of requests waiting for the lock.
+         *
+         * @return waiting request count
+         */
+        public int getWaitingCount() {
+            return waitingCount;
+        }
 
-            if (writingThread != null) {
-                unlockWrite( writingThread);
-                logger.log(Level.WARNING, "Removed a stale write lock for: {0}", id);
-            }
+        @Override
+        public String toString() {
+            return String.format("Lock %s: %d grants, average wait %.3f ms, max wait %.3f ms, %d waiting", lockId,
+                    grantCount, totalWaitNanos / 1e6 / Math.max(grantCount, 1), maxWaitNanos / 1e6, waitingCount);
         }
+    }
 
-        synchronized void lockForRead(final String remoteThread) throws InterruptedException {
+    /**
+     * A lock or unlock request from a client.
+     */
+    private static final class LockRequest {
 
-            while (!canGrantReadAccess(remoteThread)) {
-                wait();
-            }
+        final ChannelHandlerContext ctx;
 
-            readingThreads.put(remoteThread, (getReadHoldCount(remoteThread) + 1));
+        /**
+         * The plain request, returned as the acknowledgment.
+         */
+        final String message;
+
+        /**
+         * The uuid of the manager plus the remote thread id.
+         */
+        final String remoteThread;
+
+        final boolean write;
+
+        final long requestTime = System.nanoTime();
+
+        LockRequest(final ChannelHandlerContext ctx, final String message, final String remoteThread,
+                    final boolean write) {
+            this.ctx = ctx;
+            this.message = message;
+            this.remoteThread = remoteThread;
+            this.write = write;
         }
+    }
+
+    /**
+     * Number of holds of a lock by a remote thread.
+     */
+    private static final class Hold {
 
-        synchronized void lockForWrite(final String remoteThread) throws InterruptedException {
-            writeRequests++;
+        final Channel channel;
 
-            while (!canGrantWriteAccess(remoteThread)) {
-                wait();
-            }
+        int count;
 
-            writeRequests--;
-            writeAccesses++;   // bump, if greater than 1, then the lock is reentrant
-            writingThread = remoteThread;
+        Hold(final Channel channel) {
+            this.channel = channel;
         }
+    }
 
-        synchronized void unlockRead(final String remoteThread) {
+    /**
+     * Reentrant Read Write lock with fair, first in first out ordering.
+     * <p>
+     * A unique string must be supplied to identify the thread instead of the current thread.  A thread already
+     * holding the lock is granted another hold without waiting, and a thread holding the write lock may also
+     * acquire the read lock.  Only accessed from the lock scheduler.
+     */
+    private final class ReadWriteLock {
 
-            if (!isReadLockedByCurrentThread(remoteThread)) {
-                throw new IllegalMonitorStateException("Remote Thread: " + remoteThread + " does not hold a read lock for: " + id);
-            }
+        private final String id;
 
-            int holdCount = getReadHoldCount(remoteThread);
+        /**
+         * The key is the uuid of the manager plus the remote thread id.
+         * <p>
+         * uuid-integer
+         */
+        private final Map<String, Hold> readingThreads = new HashMap<>();
 
-            if (holdCount == 1) {
-                readingThreads.remove(remoteThread);
-            } else {
-                readingThreads.put(remoteThread, (holdCount - 1));
-            }
+        private String writingThread = null;
 
-            notifyAll();
-        }
+        private Hold writeHold = null;
 
-        synchronized void unlockWrite(final String remoteThread) {
+        private final Deque<LockRequest> waitingRequests = new ArrayDeque<>();
+
+        private long grantCount = 0;
+
+        private long totalWaitNanos = 0;
+
+        private long maxWaitNanos = 0;
+
+        private ReadWriteLock(final String id) {
+            this.id = id;
+        }
 
-            if (!isWriteLockedByCurrentThread(remoteThread)) {
-                throw new IllegalMonitorStateException("Remote Thread: " + remoteThread + " does not hold the write lock for: " + id);
+        void lock(final LockRequest request) {
+            if (isReentrant(request)) {
+                grant(request);
+            } else {
+                waitingRequests.add(request);
+                grantWaitingRequests();
             }
+        }
 
-            writeAccesses--;
+        void unlock(final LockRequest request) {
+            if (request.write) {
+                if (!request.remoteThread.equals(writingThread)) {
+                    logger.log(Level.SEVERE, "Remote Thread: {0} does not hold the write lock for: {1}",
+                            new Object[]{request.remoteThread, id});
+                } else if (--writeHold.count == 0) {
+                    writingThread = null;
+                    writeHold = null;
+                }
+            } else {
+                final Hold hold = readingThreads.get(request.remoteThread);
 
-            if (writeAccesses == 0) {
-                writingThread = null;
+                if (hold == null) {
+                    logger.log(Level.SEVERE, "Remote Thread: {0} does not hold a read lock for: {1}",
+                            new Object[]{request.remoteThread, id});
+                } else if (--hold.count == 0) {
+                    readingThreads.remove(request.remoteThread);
+                }
             }
 
-            notifyAll();
+            // return the message as an acknowledgment lock state has changed
+            acknowledge(request.ctx, request.message);
+
+            grantWaitingRequests();
         }
 
-        private synchronized boolean canGrantReadAccess(final String remoteThread) {
+        /**
+         * Removes all holds and waiting requests of a closed or expired client.
+         *
+         * @param channel channel of the client
+         */
+        void release(final Channel channel) {
+            waitingRequests.removeIf(request -> request.ctx.channel() == channel);
 
-            if (isWriteLockedByCurrentThread(remoteThread)) { // lock down grade is allowed
-                return true;
+            if (readingThreads.values().removeIf(hold -> hold.channel == channel)) {
+                logger.log(Level.WARNING, "Removed a stale read lock for: {0}", id);
             }
 
-            if (writingThread != null) {
-                return false;
-            }
-            if (isReadLockedByCurrentThread(remoteThread)) {
-                return true;
+            if (writeHold != null && writeHold.channel == channel) {
+                writingThread = null;
+                writeHold = null;
+                logger.log(Level.WARNING, "Removed a stale write lock for: {0}", id);
             }
 
-            return writeRequests <= 0;
+            grantWaitingRequests();
         }
 
-        private synchronized boolean canGrantWriteAccess(final String remoteThread) {
+        LockMetrics getMetrics() {
+            return new LockMetrics(id, grantCount, totalWaitNanos, maxWaitNanos, waitingRequests.size());
+        }
 
-            if (!readingThreads.isEmpty()) {
-                return false;
-            }
-            if (writingThread == null) {
+        private boolean isReentrant(final LockRequest request) {
+            if (request.remoteThread.equals(writingThread)) {   // reentrant write or lock down grade
                 return true;
             }
-            return isWriteLockedByCurrentThread(remoteThread); // reentrant write
-        }
 
-        private synchronized int getReadHoldCount(final String remoteThread) {
-            final Integer accessCount = readingThreads.get(remoteThread);
+            return !request.write && readingThreads.containsKey(request.remoteThread);   // reentrant read
+        }
 
-            return Objects.requireNonNullElse(accessCount, 0);
+        /**
+         * Grants waiting requests in order until one cannot be granted.  Consecutive read requests are granted
+         * together.
+         */
+        private void grantWaitingRequests() {
+            while (!waitingRequests.isEmpty()) {
+                final LockRequest request = waitingRequests.peek();
 
-        }
+                if (writingThread != null || (request.write && !readingThreads.isEmpty())) {
+                    break;
+                }
 
-        private synchronized boolean isReadLockedByCurrentThread(final String remoteThread) {
-            return readingThreads.get(remoteThread) != null;
+                waitingRequests.poll();
+                grant(request);
+            }
         }
 
-        private synchronized boolean isWriteLockedByCurrentThread(final String remoteThread) {
-            if (writingThread != null) {
-                return writingThread.equals(remoteThread);
+        private void grant(final LockRequest request) {
+            if (request.write) {
+                if (writeHold == null) {
+                    writingThread = request.remoteThread;
+                    writeHold = new Hold(request.ctx.channel());
+                }
+                writeHold.count++;  // if greater than 1, then the lock is reentrant
+            } else {
+                readingThreads.computeIfAbsent(request.remoteThread, k -> new Hold(request.ctx.channel())).count++;
             }
-            return false;
+
+            final long waitNanos = System.nanoTime() - request.requestTime;
+
+            grantCount++;
+            totalWaitNanos += waitNanos;
+            maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+
+            acknowledge(request.ctx, request.message);
         }
     }
 }
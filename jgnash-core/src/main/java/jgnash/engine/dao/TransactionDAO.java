@@ -17,6 +17,7 @@
  */
 package jgnash.engine.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -38,10 +39,26 @@ public interface TransactionDAO {
 
     boolean addTransaction(Transaction transaction);
 
+    /**
+     * Adds a batch of transactions within a single persistence transaction.
+     *
+     * @param transactions transactions to add
+     * @return {@code true} if successful
+     */
+    boolean addTransactions(Collection<Transaction> transactions);
+
     Transaction getTransactionByUuid(final UUID uuid);
 
     boolean removeTransaction(Transaction transaction);
 
+    /**
+     * Removes a batch of transactions within a single persistence transaction.
+     *
+     * @param transactions transactions to remove
+     * @return {@code true} if successful
+     */
+    boolean removeTransactions(Collection<Transaction> transactions);
+
     /**
      * Returns a list of transactions with external links.
      *
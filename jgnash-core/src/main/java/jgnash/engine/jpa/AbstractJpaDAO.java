@@ -17,6 +17,9 @@
  */
 package jgnash.engine.jpa;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
@@ -56,6 +59,17 @@ abstract class AbstractJpaDAO extends AbstractDAO implements DAO {
      */
     static PriorityThreadPoolExecutor executorService = new PriorityThreadPoolExecutor(new DefaultDaemonThreadFactory());
 
+    /**
+     * Pool of {@link EntityManager}s for concurrent read-only queries, {@code null} if concurrent reads are not
+     * enabled.
+     */
+    private static volatile ReadEntityManagerPool readPool;
+
+    /**
+     * Maximum number of uuids bound to a single {@code IN} clause.
+     */
+    private static final int IN_CLAUSE_LIMIT = 1000;
+
     /**
      * Entity manager reference.
      */
@@ -94,6 +108,76 @@ abstract class AbstractJpaDAO extends AbstractDAO implements DAO {
         }
     }
 
+    /**
+     * Sets the pool of {@link EntityManager}s used for concurrent read-only queries.
+     *
+     * @param pool the pool, {@code null} to run all queries with the shared {@link EntityManager}
+     */
+    static void setReadPool(final ReadEntityManagerPool pool) {
+        readPool = pool;
+    }
+
+    /**
+     * Determines if read-only queries may run concurrently.
+     *
+     * @return {@code true} if concurrent reads are enabled
+     */
+    static boolean isConcurrentReadEnabled() {
+        return readPool != null;
+    }
+
+    /**
+     * Runs a read-only query that selects uuids on a pooled {@link EntityManager} and returns the matching managed
+     * instances.  The query runs concurrently with other reads; the managed instances are then fetched from the shared
+     * {@link EntityManager} with one {@code IN} query per {@link #IN_CLAUSE_LIMIT} uuids, so callers continue to work
+     * with the same object instances.
+     *
+     * @param tClass    the type of the entities
+     * @param uuidQuery JPQL query that selects the uuids of the entities
+     * @param <T>       the type of the entities
+     * @return list of managed entities
+     */
+    <T extends StoredObject> List<T> queryConcurrently(final Class<T> tClass, final String uuidQuery) {
+        try {
+            final List<UUID> uuids = readPool.query(readEm -> readEm.createQuery(uuidQuery, UUID.class)
+                    .getResultList());
+
+            if (uuids.isEmpty()) {  // an empty IN clause is not valid JPQL
+                return new ArrayList<>();
+            }
+
+            final Future<List<T>> future = executorService.submit(() -> {
+                emLock.lock();
+
+                try {
+                    final String query = "SELECT o FROM " + em.getMetamodel().entity(tClass).getName()
+                            + " o WHERE o.uuid IN :uuids";
+
+                    final List<T> list = new ArrayList<>(uuids.size());
+
+                    for (int i = 0; i < uuids.size(); i += IN_CLAUSE_LIMIT) {
+                        list.addAll(em.createQuery(query, tClass)
+                                .setParameter("uuids", uuids.subList(i, Math.min(i + IN_CLAUSE_LIMIT, uuids.size())))
+                                .getResultList());
+                    }
+
+                    return list;
+                } finally {
+                    emLock.unlock();
+                }
+            });
+
+            return future.get();    // block and return
+        } catch (final InterruptedException e) {
+            logSevere(AbstractJpaDAO.class, e);
+            Thread.currentThread().interrupt();
+        } catch (final ExecutionException | PersistenceException e) {
+            logSevere(AbstractJpaDAO.class, e);
+        }
+
+        return Collections.emptyList();
+    }
+
     /**
      * Merge / Update the object in place.
      *
@@ -64,6 +64,8 @@ abstract class AbstractJpaDataStore implements DataStore {
 
     private EntityManagerFactory factory;
 
+    private ReadEntityManagerPool readPool;
+
     private DistributedLockManager distributedLockManager;
 
     private DistributedAttachmentManager distributedAttachmentManager;
@@ -88,6 +90,12 @@ abstract class AbstractJpaDataStore implements DataStore {
     public void closeEngine() {
         logger.info("Closing");
 
+        if (readPool != null) {
+            AbstractJpaDAO.setReadPool(null);
+            readPool.close();
+            readPool = null;
+        }
+
         if (em != null && factory != null) {
             em.close();
             factory.close();
@@ -128,6 +136,8 @@ abstract class AbstractJpaDataStore implements DataStore {
                     boolean attachmentManagerResult = distributedAttachmentManager.connectToServer(password);
 
                     if (attachmentManagerResult && lockManagerResult) {
+                        createReadPool();
+
                         engine = new Engine(new JpaEngineDAO(em, true), distributedLockManager,
                                 distributedAttachmentManager, EngineFactory.DEFAULT);
 
@@ -175,6 +185,8 @@ abstract class AbstractJpaDataStore implements DataStore {
                     factory = Persistence.createEntityManagerFactory(JpaConfiguration.UNIT_NAME, properties);
                     em = factory.createEntityManager();
 
+                    createReadPool();
+
                     logger.info("Created local JPA container and engine");
                     engine = new Engine(new JpaEngineDAO(em, false), new LocalLockManager(),
                             new LocalAttachmentManager(), engineName);
@@ -195,6 +207,15 @@ abstract class AbstractJpaDataStore implements DataStore {
     }
 
 
+    private void createReadPool() {
+        if (JpaConfiguration.isConcurrentReadEnabled()) {
+            readPool = new ReadEntityManagerPool(factory, JpaConfiguration.getReadPoolSize());
+            AbstractJpaDAO.setReadPool(readPool);
+
+            logger.log(Level.INFO, "Concurrent reads enabled with {0} entity managers", readPool.size());
+        }
+    }
+
     @Override
     public String getFileName() {
         return fileName;
@@ -99,6 +99,10 @@ class JpaAccountDAO extends AbstractJpaDAO implements AccountDAO {
      */
     @Override
     public List<Account> getAccountList() {
+        if (isConcurrentReadEnabled()) {
+            return queryConcurrently(Account.class, "SELECT a.uuid FROM Account a WHERE a.markedForRemoval = false");
+        }
+
         List<Account> accountList = Collections.emptyList();
 
         try {
@@ -102,6 +102,11 @@ class JpaCommodityDAO extends AbstractJpaDAO implements CommodityDAO {
      */
     @Override
     public List<CurrencyNode> getCurrencies() {
+        if (isConcurrentReadEnabled()) {
+            return queryConcurrently(CurrencyNode.class,
+                    "SELECT c.uuid FROM CurrencyNode c WHERE c.markedForRemoval = false");
+        }
+
         List<CurrencyNode> currencyNodeList = Collections.emptyList();
 
         try {
@@ -192,6 +197,11 @@ class JpaCommodityDAO extends AbstractJpaDAO implements CommodityDAO {
      */
     @Override
     @NotNull public List<SecurityNode> getSecurities() {
+        if (isConcurrentReadEnabled()) {
+            return queryConcurrently(SecurityNode.class,
+                    "SELECT s.uuid FROM SecurityNode s WHERE s.markedForRemoval = false");
+        }
+
         List<SecurityNode> securityNodeList = Collections.emptyList();
 
         try {
@@ -222,6 +232,11 @@ class JpaCommodityDAO extends AbstractJpaDAO implements CommodityDAO {
 
     @Override
     public List<ExchangeRate> getExchangeRates() {
+        if (isConcurrentReadEnabled()) {
+            return queryConcurrently(ExchangeRate.class,
+                    "SELECT r.uuid FROM ExchangeRate r WHERE r.markedForRemoval = false");
+        }
+
         List<ExchangeRate> exchangeRateList = Collections.emptyList();
 
         try {
@@ -48,6 +48,27 @@ class JpaConfiguration {
 
     private static final String UNKNOWN_DATABASE_TYPE = "Unknown database type";
 
+    /**
+     * System property that enables concurrent read-only queries on pooled {@code EntityManagers}.
+     */
+    static final String CONCURRENT_READS = "jgnash.jpa.concurrentReads";
+
+    /**
+     * System property for the number of pooled {@code EntityManagers} used for read-only queries.  The size must
+     * leave a connection free in the connection pool for the shared {@code EntityManager}.
+     */
+    static final String READ_POOL_SIZE = "jgnash.jpa.readPoolSize";
+
+    private static final int DEFAULT_READ_POOL_SIZE = 4;
+
+    static boolean isConcurrentReadEnabled() {
+        return Boolean.getBoolean(CONCURRENT_READS);
+    }
+
+    static int getReadPoolSize() {
+        return Math.max(1, Integer.getInteger(READ_POOL_SIZE, DEFAULT_READ_POOL_SIZE));
+    }
+
     private static Properties getBaseProperties(final DataStoreType database) {
         Properties properties = System.getProperties();
 
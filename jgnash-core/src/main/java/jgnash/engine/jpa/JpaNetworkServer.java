@@ -37,10 +37,10 @@ import javax.persistence.Persistence;
 
 import jgnash.engine.AttachmentUtils;
 import jgnash.engine.DataStoreType;
+import jgnash.engine.DifferentialBackup;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineException;
 import jgnash.engine.EngineFactory;
-import jgnash.engine.StoredObject;
 import jgnash.engine.attachment.AttachmentTransferServer;
 import jgnash.engine.attachment.DistributedAttachmentManager;
 import jgnash.engine.concurrent.DistributedLockManager;
@@ -50,6 +50,7 @@ import jgnash.engine.message.MessageBusServer;
 import jgnash.util.DefaultDaemonThreadFactory;
 import jgnash.util.FileMagic;
 import jgnash.util.FileUtils;
+import jgnash.util.Nullable;
 
 /**
  * JPA network server.
@@ -151,6 +152,14 @@ public class JpaNetworkServer {
                 result = messageBusServer.startServer(dataStoreType, fileName, password);
 
                 if (result) { // don't continue if the server is not started successfully
+                    // record the changed objects for differential backups
+                    final DifferentialBackup differentialBackup = EngineFactory.isDifferentialBackupEnabled()
+                            ? new DifferentialBackup(fileName) : null;
+
+                    if (differentialBackup != null) {
+                        messageBusServer.addMessageListener(differentialBackup);
+                    }
+
                     // Start the backup thread that ensures an XML backup is created at set intervals
                     final ScheduledExecutorService backupExecutor
                             = Executors.newSingleThreadScheduledExecutor(new DefaultDaemonThreadFactory());
@@ -158,7 +167,7 @@ public class JpaNetworkServer {
                     // run commit every backup period after startup
                     backupExecutor.scheduleWithFixedDelay(() -> {
                         if (dirty) {
-                            exportXML(engine, fileName);
+                            exportXML(engine, fileName, differentialBackup);
                             EngineFactory.removeOldCompressedXML(fileName, engine.getRetainedBackupLimit());
                             dirty = false;
                         }
@@ -194,9 +203,13 @@ public class JpaNetworkServer {
 
                     messageBusServer.removeLocalListener(listener);
 
+                    if (differentialBackup != null) {
+                        messageBusServer.removeMessageListener(differentialBackup);
+                    }
+
                     backupExecutor.shutdown();
 
-                    exportXML(engine, fileName);
+                    exportXML(engine, fileName, differentialBackup);
 
                     messageBusServer.stopServer();
 
@@ -325,9 +338,12 @@ public class JpaNetworkServer {
         return engine;
     }
 
-    private static void exportXML(final Engine engine, final String fileName) {
-        ArrayList<StoredObject> list = new ArrayList<>(engine.getStoredObjects());
-
-        EngineFactory.exportCompressedXML(fileName, list);
+    private static void exportXML(final Engine engine, final String fileName,
+                                  @Nullable final DifferentialBackup differentialBackup) {
+        if (differentialBackup != null) {
+            differentialBackup.backup(engine);
+        } else {
+            EngineFactory.exportCompressedXML(fileName, engine);
+        }
     }
 }
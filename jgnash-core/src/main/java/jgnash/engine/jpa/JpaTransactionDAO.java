@@ -18,8 +18,11 @@
 package jgnash.engine.jpa;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -29,6 +32,7 @@ import java.util.logging.Logger;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 
+import jgnash.engine.Account;
 import jgnash.engine.Transaction;
 import jgnash.engine.dao.TransactionDAO;
 
@@ -51,6 +55,11 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
      */
     @Override
     public List<Transaction> getTransactions() {
+        if (isConcurrentReadEnabled()) {
+            return queryConcurrently(Transaction.class,
+                    "SELECT t.uuid FROM Transaction t WHERE t.markedForRemoval = false");
+        }
+
         List<Transaction> transactionList = Collections.emptyList();
 
         try {
@@ -109,6 +118,46 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
         return result;
     }
 
+    /*
+     * @see jgnash.engine.TransactionDAO#addTransactions(java.util.Collection)
+     */
+    @Override
+    public synchronized boolean addTransactions(final Collection<Transaction> transactions) {
+        boolean result = false;
+
+        try {
+            final Future<Boolean> future = executorService.submit(() -> {
+                emLock.lock();
+
+                try {
+                    em.getTransaction().begin();
+
+                    final Set<Account> accounts = new HashSet<>();
+
+                    for (final Transaction transaction : transactions) {
+                        em.persist(transaction);
+                        accounts.addAll(transaction.getAccounts());
+                    }
+
+                    // each impacted account is only persisted once
+                    accounts.forEach(em::persist);
+
+                    em.getTransaction().commit();
+
+                    return true;
+                } finally {
+                    emLock.unlock();
+                }
+            });
+
+            result = future.get();  // block and return
+        } catch (final InterruptedException | ExecutionException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        return result;
+    }
+
     @Override
     public Transaction getTransactionByUuid(final UUID uuid) {
         return getObjectByUuid(Transaction.class, uuid);
@@ -148,8 +197,53 @@ class JpaTransactionDAO extends AbstractJpaDAO implements TransactionDAO {
         return result;
     }
 
+    /*
+     * @see jgnash.engine.TransactionDAO#removeTransactions(java.util.Collection)
+     */
+    @Override
+    public synchronized boolean removeTransactions(final Collection<Transaction> transactions) {
+        boolean result = false;
+
+        try {
+            final Future<Boolean> future = executorService.submit(() -> {
+                emLock.lock();
+
+                try {
+                    em.getTransaction().begin();
+
+                    final Set<Account> accounts = new HashSet<>();
+
+                    for (final Transaction transaction : transactions) {
+                        accounts.addAll(transaction.getAccounts());
+                    }
+
+                    // look at accounts the transactions impacted and update the accounts
+                    accounts.forEach(em::persist);
+
+                    transactions.forEach(em::persist);    // saved, removed with the trash
+                    em.getTransaction().commit();
+
+                    return true;
+                } finally {
+                    emLock.unlock();
+                }
+            });
+
+            result = future.get();  // block and return
+        } catch (final InterruptedException | ExecutionException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        return result;
+    }
+
     @Override
     public List<Transaction> getTransactionsWithAttachments() {
+        if (isConcurrentReadEnabled()) {
+            return queryConcurrently(Transaction.class,
+                    "SELECT t.uuid FROM Transaction t WHERE t.markedForRemoval = false AND t.attachment is not null");
+        }
+
         List<Transaction> transactionList = Collections.emptyList();
 
         try {
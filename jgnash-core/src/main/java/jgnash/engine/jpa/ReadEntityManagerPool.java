@@ -0,0 +1,106 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.jpa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceException;
+
+/**
+ * Pool of {@link EntityManager}s used to run read-only queries concurrently.
+ * <p>
+ * An {@code EntityManager} is borrowed for the duration of a query and cleared before it is returned so that
+ * entities are not retained between queries.  The connections behind the {@code EntityManagers} are supplied by
+ * the connection pool configured for the persistence unit.
+ *
+ * @author Craig Cavanaugh
+ */
+class ReadEntityManagerPool {
+
+    private static final Logger logger = Logger.getLogger(ReadEntityManagerPool.class.getName());
+
+    private final BlockingQueue<EntityManager> pool;
+
+    private final List<EntityManager> entityManagers = new ArrayList<>();
+
+    ReadEntityManagerPool(final EntityManagerFactory factory, final int size) {
+        pool = new ArrayBlockingQueue<>(size);
+
+        for (int i = 0; i < size; i++) {
+            final EntityManager entityManager = factory.createEntityManager();
+
+            entityManagers.add(entityManager);
+            pool.add(entityManager);
+        }
+    }
+
+    /**
+     * Runs a query on a pooled {@code EntityManager}.  Blocks until an {@code EntityManager} is available.
+     *
+     * @param query the query to run
+     * @param <T>   the type of the result
+     * @return the query result
+     * @throws InterruptedException thrown if interrupted while waiting for an {@code EntityManager}
+     */
+    <T> T query(final Function<EntityManager, T> query) throws InterruptedException {
+        final EntityManager entityManager = pool.take();
+
+        try {
+            return query.apply(entityManager);
+        } finally {
+            try {
+                entityManager.clear();
+            } catch (final PersistenceException | IllegalStateException e) {
+                logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            }
+            pool.add(entityManager);
+        }
+    }
+
+    /**
+     * Returns the number of pooled {@code EntityManagers}.
+     *
+     * @return pool size
+     */
+    int size() {
+        return entityManagers.size();
+    }
+
+    /**
+     * Closes all pooled {@code EntityManagers}.  Must be called before the factory is closed.
+     */
+    void close() {
+        for (final EntityManager entityManager : entityManagers) {
+            try {
+                if (entityManager.isOpen()) {
+                    entityManager.close();
+                }
+            } catch (final IllegalStateException e) {
+                logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.message;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+import jgnash.engine.Account;
+import jgnash.engine.Config;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.ExchangeRate;
+import jgnash.engine.InvestmentTransaction;
+import jgnash.engine.RootAccount;
+import jgnash.engine.SecurityNode;
+import jgnash.engine.StoredObject;
+import jgnash.engine.Transaction;
+import jgnash.engine.budget.Budget;
+import jgnash.engine.recurring.DailyReminder;
+import jgnash.engine.recurring.MonthlyReminder;
+import jgnash.engine.recurring.OneTimeReminder;
+import jgnash.engine.recurring.WeeklyReminder;
+import jgnash.engine.recurring.YearlyReminder;
+import jgnash.util.EncryptionManager;
+import jgnash.util.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+
+/**
+ * Compact binary form of a {@code Message} used by the message bus.
+ * <p>
+ * Only the event, channel, source and the class and uuid of each referenced {@code StoredObject} are sent; the
+ * receiver resolves the references against its own engine.  A frame is a zero marker byte, which never starts a
+ * line of the text protocol, followed by a four byte length and the payload.  The payload is sealed with
+ * authenticated encryption if a password is in use.
+ * <p>
+ * Enums are written by ordinal, so {@link #VERSION} must be increased if the constants of {@code ChannelEvent},
+ * {@code MessageChannel} or {@code MessageProperty} are reordered, or the class table is changed.
+ *
+ * @author Craig Cavanaugh
+ */
+final class BinaryMessage {
+
+    /**
+     * Version of the binary protocol.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Marker byte that starts a binary frame.
+     */
+    static final byte FRAME_MARKER = 0;
+
+    /**
+     * Frame header size, the marker and length.
+     */
+    static final int HEADER_LENGTH = Byte.BYTES + Integer.BYTES;
+
+    /**
+     * Maximum payload length of a frame.
+     */
+    static final int MAX_FRAME_LENGTH = 16 * 1024 * 1024;
+
+    /**
+     * Class code used when the class is not in the class table and the name follows.
+     */
+    private static final byte CLASS_NAME = -1;
+
+    /**
+     * Common {@code StoredObject} classes sent by their index in this table.  Append only.
+     */
+    private static final List<Class<? extends StoredObject>> CLASS_TABLE = Collections.unmodifiableList(
+            Arrays.asList(Account.class, RootAccount.class, Budget.class, Config.class, CurrencyNode.class,
+                    SecurityNode.class, ExchangeRate.class, Transaction.class, InvestmentTransaction.class,
+                    DailyReminder.class, MonthlyReminder.class, OneTimeReminder.class, WeeklyReminder.class,
+                    YearlyReminder.class));
+
+    private static final Map<String, Integer> CLASS_CODES = new HashMap<>();
+
+    private static final ChannelEvent[] EVENTS = ChannelEvent.values();
+
+    private static final MessageChannel[] CHANNELS = MessageChannel.values();
+
+    private static final MessageProperty[] PROPERTIES = MessageProperty.values();
+
+    static {
+        for (int i = 0; i < CLASS_TABLE.size(); i++) {
+            CLASS_CODES.put(CLASS_TABLE.get(i).getName(), i);
+        }
+    }
+
+    private final MessageChannel channel;
+
+    private final ChannelEvent event;
+
+    private final String source;
+
+    private final Map<MessageProperty, Reference> properties = new EnumMap<>(MessageProperty.class);
+
+    private final Map<MessageProperty, List<Reference>> collections = new EnumMap<>(MessageProperty.class);
+
+    private BinaryMessage(final MessageChannel channel, final ChannelEvent event, final String source) {
+        this.channel = Objects.requireNonNull(channel);
+        this.event = Objects.requireNonNull(event);
+        this.source = Objects.requireNonNull(source);
+    }
+
+    /**
+     * Creates the binary form of a message.
+     *
+     * @param message message to convert
+     * @return binary form of the message
+     */
+    static BinaryMessage of(final Message message) {
+        final BinaryMessage binaryMessage = new BinaryMessage(message.getChannel(), message.getEvent(),
+                message.getSource());
+
+        for (final MessageProperty key : PROPERTIES) {
+            final StoredObject value = message.getObject(key);
+
+            if (value != null) {
+                binaryMessage.properties.put(key, new Reference(value.getClass(), value.getUuid()));
+            }
+
+            final List<StoredObject> values = message.getObjects(key);
+
+            if (!values.isEmpty()) {
+                final List<Reference> references = new ArrayList<>(values.size());
+
+                for (final StoredObject object : values) {
+                    references.add(new Reference(object.getClass(), object.getUuid()));
+                }
+
+                binaryMessage.collections.put(key, references);
+            }
+        }
+
+        return binaryMessage;
+    }
+
+    /**
+     * Creates a {@code Message} by resolving the references.  References that cannot be resolved are omitted.
+     *
+     * @param resolver function to resolve a reference to a {@code StoredObject}
+     * @return the message
+     */
+    Message toMessage(final Function<Reference, StoredObject> resolver) {
+        final Message message = new Message(channel, event, source);
+
+        for (final Map.Entry<MessageProperty, Reference> entry : properties.entrySet()) {
+            final StoredObject value = resolver.apply(entry.getValue());
+
+            if (value != null) {
+                message.setObject(entry.getKey(), value);
+            }
+        }
+
+        for (final Map.Entry<MessageProperty, List<Reference>> entry : collections.entrySet()) {
+            final List<StoredObject> values = new ArrayList<>(entry.getValue().size());
+
+            for (final Reference reference : entry.getValue()) {
+                final StoredObject value = resolver.apply(reference);
+
+                if (value != null) {
+                    values.add(value);
+                }
+            }
+
+            message.setObjects(entry.getKey(), values);
+        }
+
+        return message;
+    }
+
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Encodes this message as a frame.
+     *
+     * @param allocator         allocator for the frame
+     * @param encryptionManager {@code EncryptionManager} if the payload is to be sealed
+     * @return the frame
+     */
+    ByteBuf encode(final ByteBufAllocator allocator, @Nullable final EncryptionManager encryptionManager) {
+        final ByteBuf payload = allocator.heapBuffer(getPayloadSizeEstimate());
+
+        try {
+            writePayload(payload);
+
+            final int length = encryptionManager != null
+                    ? payload.readableBytes() + EncryptionManager.AEAD_OVERHEAD : payload.readableBytes();
+
+            final ByteBuf frame = allocator.buffer(HEADER_LENGTH + length);
+
+            frame.writeByte(FRAME_MARKER);
+            frame.writeInt(length);
+
+            if (encryptionManager != null) {
+                final ByteBuffer sealed = frame.nioBuffer(frame.writerIndex(), length);
+
+                try {
+                    encryptionManager.seal(payload.nioBuffer(), sealed);
+                } catch (final GeneralSecurityException e) {
+                    frame.release();
+                    throw new EncoderException(e);
+                }
+
+                frame.writerIndex(frame.writerIndex() + length);
+            } else {
+                frame.writeBytes(payload);
+            }
+
+            return frame;
+        } finally {
+            payload.release();
+        }
+    }
+
+    /**
+     * Decodes the payload of a frame.
+     *
+     * @param allocator         allocator for temporary buffers
+     * @param frame             payload of the frame without the header
+     * @param encryptionManager {@code EncryptionManager} if the payload is sealed
+     * @return the message
+     */
+    static BinaryMessage decode(final ByteBufAllocator allocator, final ByteBuf frame,
+                                @Nullable final EncryptionManager encryptionManager) {
+        if (encryptionManager == null) {
+            return readPayload(frame);
+        }
+
+        final int length = frame.readableBytes() - EncryptionManager.AEAD_OVERHEAD;
+
+        if (length <= 0) {
+            throw new CorruptedFrameException("Invalid frame length: " + frame.readableBytes());
+        }
+
+        final ByteBuf payload = allocator.heapBuffer(length);
+
+        try {
+            encryptionManager.open(frame.nioBuffer(), payload.nioBuffer(0, length));
+            payload.writerIndex(length);
+
+            return readPayload(payload);
+        } catch (final GeneralSecurityException e) {
+            throw new DecoderException("Invalid password or altered message", e);
+        } finally {
+            payload.release();
+        }
+    }
+
+    private int getPayloadSizeEstimate() {
+        int count = properties.size();
+
+        for (final List<Reference> references : collections.values()) {
+            count += references.size();
+        }
+
+        return 32 + count * 20;
+    }
+
+    private void writePayload(final ByteBuf out) {
+        out.writeByte(channel.ordinal());
+        out.writeShort(event.ordinal());
+        writeUuid(out, UUID.fromString(source));
+
+        out.writeByte(properties.size());
+
+        for (final Map.Entry<MessageProperty, Reference> entry : properties.entrySet()) {
+            out.writeByte(entry.getKey().ordinal());
+            entry.getValue().write(out);
+        }
+
+        out.writeByte(collections.size());
+
+        for (final Map.Entry<MessageProperty, List<Reference>> entry : collections.entrySet()) {
+            out.writeByte(entry.getKey().ordinal());
+            out.writeInt(entry.getValue().size());
+
+            for (final Reference reference : entry.getValue()) {
+                reference.write(out);
+            }
+        }
+    }
+
+    private static BinaryMessage readPayload(final ByteBuf in) {
+        try {
+            final MessageChannel channel = CHANNELS[in.readUnsignedByte()];
+            final ChannelEvent event = EVENTS[in.readUnsignedShort()];
+
+            final BinaryMessage message = new BinaryMessage(channel, event, readUuid(in).toString());
+
+            final int propertyCount = in.readUnsignedByte();
+
+            for (int i = 0; i < propertyCount; i++) {
+                final MessageProperty key = PROPERTIES[in.readUnsignedByte()];
+                message.properties.put(key, Reference.read(in));
+            }
+
+            final int collectionCount = in.readUnsignedByte();
+
+            for (int i = 0; i < collectionCount; i++) {
+                final MessageProperty key = PROPERTIES[in.readUnsignedByte()];
+                final int count = in.readInt();
+
+                // each reference is at least 17 bytes, guards against a corrupt count
+                if (count < 0 || count > in.readableBytes() / 17) {
+                    throw new CorruptedFrameException("Invalid reference count: " + count);
+                }
+
+                final List<Reference> references = new ArrayList<>(count);
+
+                for (int j = 0; j < count; j++) {
+                    references.add(Reference.read(in));
+                }
+
+                message.collections.put(key, references);
+            }
+
+            return message;
+        } catch (final IndexOutOfBoundsException e) {   // includes an unknown ordinal
+            throw new CorruptedFrameException("Invalid message", e);
+        }
+    }
+
+    private static void writeUuid(final ByteBuf out, final UUID uuid) {
+        out.writeLong(uuid.getMostSignificantBits());
+        out.writeLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID readUuid(final ByteBuf in) {
+        return new UUID(in.readLong(), in.readLong());
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Message [event=%s, channel=%s, source=%s]", event, channel, source);
+    }
+
+    /**
+     * Class and uuid of a {@code StoredObject}.
+     */
+    static final class Reference {
+
+        private final String className;
+
+        private final UUID uuid;
+
+        private Reference(final Class<?> clazz, final UUID uuid) {
+            this(clazz.getName(), uuid);
+        }
+
+        private Reference(final String className, final UUID uuid) {
+            this.className = className;
+            this.uuid = uuid;
+        }
+
+        UUID getUuid() {
+            return uuid;
+        }
+
+        /**
+         * Returns the class of the referenced object.
+         *
+         * @return the class
+         * @throws ClassNotFoundException if the class is not known
+         * @throws ClassCastException if the class is not a {@code StoredObject}
+         */
+        Class<? extends StoredObject> getType() throws ClassNotFoundException {
+            final Integer code = CLASS_CODES.get(className);
+
+            if (code != null) {
+                return CLASS_TABLE.get(code);
+            }
+
+            return Class.forName(className).asSubclass(StoredObject.class);
+        }
+
+        private void write(final ByteBuf out) {
+            final int code = CLASS_CODES.getOrDefault(className, (int) CLASS_NAME);
+
+            out.writeByte(code);
+
+            if (code == CLASS_NAME) {
+                final byte[] name = className.getBytes(StandardCharsets.UTF_8);
+
+                out.writeShort(name.length);
+                out.writeBytes(name);
+            }
+
+            writeUuid(out, uuid);
+        }
+
+        private static Reference read(final ByteBuf in) {
+            final byte code = in.readByte();
+
+            final String className;
+
+            if (code == CLASS_NAME) {
+                className = in.readCharSequence(in.readUnsignedShort(), StandardCharsets.UTF_8).toString();
+            } else {
+                className = CLASS_TABLE.get(code).getName();
+            }
+
+            return new Reference(className, readUuid(in));
+        }
+    }
+}
@@ -80,6 +80,10 @@ public enum ChannelEvent {
     TRANSACTION_ADD_FAILED,
     TRANSACTION_REMOVE,
     TRANSACTION_REMOVE_FAILED,
+    TRANSACTIONS_ADD,
+    TRANSACTIONS_ADD_FAILED,
+    TRANSACTIONS_REMOVE,
+    TRANSACTIONS_REMOVE_FAILED,
     FILE_CLOSING,
     FILE_NOT_FOUND,
     FILE_IO_ERROR,
@@ -26,9 +26,16 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.function.BiFunction;
+
+import com.thoughtworks.xstream.XStream;
 
 /**
  * Message object.
@@ -37,6 +44,12 @@ import java.util.UUID;
  */
 public class Message implements Serializable, Cloneable {
 
+    /**
+     * Resolves referenced objects while a message is read, the default engine is used if not set.
+     */
+    private static final ThreadLocal<BiFunction<Class<? extends StoredObject>, UUID, StoredObject>> resolver
+            = new ThreadLocal<>();
+
     private ChannelEvent event;
 
     private MessageChannel channel;
@@ -45,6 +58,8 @@ public class Message implements Serializable, Cloneable {
 
     private transient EnumMap<MessageProperty, StoredObject> properties = new EnumMap<>(MessageProperty.class);
 
+    private transient EnumMap<MessageProperty, List<StoredObject>> collections = new EnumMap<>(MessageProperty.class);
+
     /**
      * Used to flag message sent remotely.
      */
@@ -64,7 +79,7 @@ public class Message implements Serializable, Cloneable {
         this(channel, event, source.getUuid());
     }
 
-    private Message(final MessageChannel channel, final ChannelEvent event, final String source) {
+    Message(final MessageChannel channel, final ChannelEvent event, final String source) {
         this.source = Objects.requireNonNull(source);
         this.event = Objects.requireNonNull(event);
         this.channel = Objects.requireNonNull(channel);
@@ -100,6 +115,35 @@ public class Message implements Serializable, Cloneable {
         return (T) properties.get(key);
     }
 
+    /**
+     * Sets a message property holding a collection of values.  Used by batch events to aggregate many objects into a
+     * single message. The values must be reachable by the engine or and exception will be thrown.
+     *
+     * @param key    property key
+     * @param values message values
+     */
+    public void setObjects(@NotNull final MessageProperty key, @NotNull final Collection<? extends StoredObject> values) {
+        collections.put(Objects.requireNonNull(key), new ArrayList<>(Objects.requireNonNull(values)));
+    }
+
+    /**
+     * Returns a collection of {@code StoredObject} given a property key.
+     *
+     * @param key {@code MessageProperty} to search for
+     * @param <T> instance of {@code StoredObject}
+     * @return an unmodifiable list of values, empty if the property is not found
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends StoredObject> List<T> getObjects(final MessageProperty key) {
+        final List<StoredObject> values = collections.get(key);
+
+        if (values == null) {
+            return Collections.emptyList();
+        }
+
+        return (List<T>) Collections.unmodifiableList(values);
+    }
+
     public String getSource() {
         return source;
     }
@@ -118,7 +162,8 @@ public class Message implements Serializable, Cloneable {
      * @param s stream
      * @throws IOException io exception
      * @serialData Write serializable fields, if any exist. Write out the integer count of properties. Write out key and
-     * value of each property
+     * value of each property.  Write out the integer count of collection properties.  Write out the key, integer count
+     * and values of each collection property
      */
     @SuppressWarnings("unused")
     private void writeObject(final ObjectOutputStream s) throws IOException {
@@ -135,6 +180,21 @@ public class Message implements Serializable, Cloneable {
             s.writeUTF(values[i].getClass().getName());
             s.writeUTF(values[i].getUuid().toString());
         }
+
+        // write the collection property count
+        s.writeInt(collections.size());
+
+        for (final MessageProperty key : collections.keySet()) {
+            final List<StoredObject> list = collections.get(key);
+
+            s.writeObject(key);
+            s.writeInt(list.size());
+
+            for (final StoredObject value : list) {
+                s.writeUTF(value.getClass().getName());
+                s.writeUTF(value.getUuid().toString());
+            }
+        }
     }
 
     /**
@@ -144,7 +204,8 @@ public class Message implements Serializable, Cloneable {
      * @throws java.io.IOException    io exception
      * @throws ClassNotFoundException thrown is class is not found
      * @serialData Read serializable fields, if any exist. Read the integer count of properties. Read the key and value
-     * of each property
+     * of each property.  Read the integer count of collection properties.  Read the key, integer count and values of
+     * each collection property
      */
     @SuppressWarnings({"unchecked", "unused"})
     private void readObject(final ObjectInputStream s) throws IOException, ClassNotFoundException {
@@ -154,21 +215,65 @@ public class Message implements Serializable, Cloneable {
 
         final int size = s.readInt();
 
-        final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
-        Objects.requireNonNull(engine);
+        BiFunction<Class<? extends StoredObject>, UUID, StoredObject> function = resolver.get();
+
+        if (function == null) {
+            final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
+            Objects.requireNonNull(engine);
+
+            function = engine::getStoredObjectByUuid;
+        }
 
         for (int i = 0; i < size; i++) {
             MessageProperty key = (MessageProperty) s.readObject();
             Class<? extends StoredObject> clazz = (Class<? extends StoredObject>) Class.forName(s.readUTF());
-            StoredObject value = engine.getStoredObjectByUuid(clazz, UUID.fromString(s.readUTF()));
+            StoredObject value = function.apply(clazz, UUID.fromString(s.readUTF()));
             properties.put(key, value);
         }
+
+        collections = new EnumMap<>(MessageProperty.class);
+
+        final int collectionSize = s.readInt();
+
+        for (int i = 0; i < collectionSize; i++) {
+            final MessageProperty key = (MessageProperty) s.readObject();
+            final int count = s.readInt();
+
+            final List<StoredObject> list = new ArrayList<>(count);
+
+            for (int j = 0; j < count; j++) {
+                Class<? extends StoredObject> clazz = (Class<? extends StoredObject>) Class.forName(s.readUTF());
+                list.add(function.apply(clazz, UUID.fromString(s.readUTF())));
+            }
+
+            collections.put(key, list);
+        }
+    }
+
+    /**
+     * Reads a message from its XML form without an engine.
+     *
+     * @param xstream  XStream instance used by the message bus
+     * @param xml      XML form of the message
+     * @param function resolves the class and uuid of each referenced object
+     * @return the message
+     */
+    static Message fromXML(final XStream xstream, final String xml,
+                           final BiFunction<Class<? extends StoredObject>, UUID, StoredObject> function) {
+        resolver.set(function);
+
+        try {
+            return (Message) xstream.fromXML(xml);
+        } finally {
+            resolver.remove();
+        }
     }
 
     @Override
     public Message clone() throws CloneNotSupportedException {
         final Message m = (Message) super.clone();
         m.properties = properties.clone();
+        m.collections = collections.clone();
 
         return m;
     }
@@ -28,14 +28,13 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
 
 import java.io.CharArrayWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -50,6 +49,7 @@ import jgnash.engine.DataStoreType;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
 import jgnash.engine.ExchangeRate;
+import jgnash.engine.StoredObject;
 import jgnash.engine.Transaction;
 import jgnash.engine.budget.Budget;
 import jgnash.engine.jpa.JpaNetworkServer;
@@ -63,10 +63,20 @@ import jgnash.util.LogUtil;
 
 /**
  * Message bus client for remote connections.
+ * <p>
+ * The binary protocol is requested from the server unless disabled with the {@value #BINARY_PROTOCOL} system
+ * property.  Messages are sent as text until the server has accepted the request, so older servers are still
+ * supported.
  *
  * @author Craig Cavanaugh
  */
 class MessageBusClient {
+
+    /**
+     * System property to enable or disable the binary protocol.
+     */
+    static final String BINARY_PROTOCOL = "jgnash.message.binaryProtocol";
+
     private String host;
 
     private int port;
@@ -89,6 +99,11 @@ class MessageBusClient {
 
     private final ReentrantLock channelLock = new ReentrantLock();
 
+    /**
+     * {@code true} once the server has accepted the binary protocol.
+     */
+    private volatile boolean binaryProtocol = false;
+
     static {
         logger.setLevel(Level.INFO);
     }
@@ -155,9 +170,8 @@ class MessageBusClient {
         public void initChannel(final SocketChannel ch) {
             ChannelPipeline pipeline = ch.pipeline();
 
-            // Add the text line codec combination first,
-            pipeline.addLast("framer", new DelimiterBasedFrameDecoder(8192, true, Delimiters.lineDelimiter()));
-            pipeline.addLast("decoder", new StringDecoder(CharsetUtil.UTF_8));
+            // Add the line and binary frame decoder first,
+            pipeline.addLast("framer", new MessageFrameDecoder(encryptionManager));
             pipeline.addLast("encoder", new StringEncoder(CharsetUtil.UTF_8));
 
             // and then business logic.
@@ -185,9 +199,36 @@ class MessageBusClient {
             return plainMessage;
         }
 
+        @Override
+        public void channelActive(final ChannelHandlerContext ctx) throws Exception {
+            if (Boolean.parseBoolean(System.getProperty(BINARY_PROTOCOL, Boolean.TRUE.toString()))) {
+                final String request = MessageBusServer.PROTOCOL_PREFIX + BinaryMessage.VERSION;
+
+                ctx.writeAndFlush((encryptionManager != null ? encryptionManager.encrypt(request) : request)
+                        + MessageBusServer.EOL_DELIMITER);
+            }
+
+            super.channelActive(ctx);
+        }
+
         @Override
         public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
 
+            if (msg instanceof BinaryMessage) {
+                final BinaryMessage binaryMessage = (BinaryMessage) msg;
+
+                executorService.submit(() -> {
+                    final Engine engine = EngineFactory.getEngine(name);
+                    Objects.requireNonNull(engine);
+
+                    // ignore our own messages
+                    if (!engine.getUuid().equals(binaryMessage.getSource())) {
+                        processRemoteMessage(binaryMessage.toMessage(reference -> resolve(engine, reference)));
+                    }
+                });
+                return;
+            }
+
             try {
                 final String plainMessage = decrypt(msg);
 
@@ -211,6 +252,9 @@ class MessageBusClient {
                 } else if (plainMessage.startsWith(MessageBusServer.DATA_STORE_TYPE_PREFIX)) {
                     dataBaseType = DataStoreType.valueOf(plainMessage.substring(MessageBusServer.DATA_STORE_TYPE_PREFIX.length()));
                     logger.log(Level.FINE, "Remote dataBaseType type is: {0}", dataBaseType.name());
+                } else if (plainMessage.equals(MessageBusServer.PROTOCOL_PREFIX + BinaryMessage.VERSION)) {
+                    binaryProtocol = true;
+                    logger.info("Using the binary message protocol");
                 } else if (plainMessage.startsWith(EncryptionManager.DECRYPTION_ERROR_TAG)) {    // decryption has failed, shut down the engine
                     logger.log(Level.SEVERE, "Unable to decrypt the remote message");
                 } else if (plainMessage.startsWith(JpaNetworkServer.STOP_SERVER_MESSAGE)) {
@@ -250,9 +294,15 @@ class MessageBusClient {
 
         channel = null;
         eventLoopGroup = null;
+        binaryProtocol = false;
     }
 
     synchronized void sendRemoteMessage(final Message message) {
+        if (binaryProtocol) {
+            sendRemoteMessage(BinaryMessage.of(message));
+            return;
+        }
+
         CharArrayWriter writer = new CharArrayWriter();
         xstream.marshal(message, new CompactWriter(writer));
 
@@ -261,6 +311,22 @@ class MessageBusClient {
         logger.log(Level.FINE, "sent: {0}", writer);
     }
 
+    private void sendRemoteMessage(final BinaryMessage message) {
+        channelLock.lock();
+
+        try {
+            channel.writeAndFlush(message.encode(channel.alloc(), encryptionManager)).sync();
+
+            logger.log(Level.FINE, "sent: {0}", message);
+        } catch (final InterruptedException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        } catch (final NullPointerException e) {
+            logger.log(Level.INFO, "Tried to send message: {0} through a null channel", message);
+        } finally {
+            channelLock.unlock();
+        }
+    }
+
     void sendRemoteShutdownRequest() {
         sendRemoteMessage(JpaNetworkServer.STOP_SERVER_MESSAGE);
     }
@@ -287,6 +353,22 @@ class MessageBusClient {
         }
     }
 
+    /**
+     * Resolves a reference from a binary message against the engine.
+     *
+     * @param engine    engine to search
+     * @param reference reference to resolve
+     * @return the referenced object, {@code null} if not found
+     */
+    private static StoredObject resolve(final Engine engine, final BinaryMessage.Reference reference) {
+        try {
+            return engine.getStoredObjectByUuid(reference.getType(), reference.getUuid());
+        } catch (final ClassNotFoundException | ClassCastException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            return null;
+        }
+    }
+
     /**
      * Takes a remote message and forces remote updates before sending the message to the MessageBus to notify UI
      * components of changes.
@@ -394,6 +476,20 @@ class MessageBusClient {
                     engine.refresh(account);
                     message.setObject(MessageProperty.ACCOUNT, engine.getAccountByUuid(account.getUuid()));
                     break;
+                case TRANSACTIONS_ADD:
+                case TRANSACTIONS_REMOVE:
+                    final List<Transaction> transactions = new ArrayList<>();
+
+                    for (final Transaction t : message.<Transaction>getObjects(MessageProperty.TRANSACTION)) {
+                        engine.refresh(t);
+                        transactions.add(engine.getTransactionByUuid(t.getUuid()));
+                    }
+                    message.setObjects(MessageProperty.TRANSACTION, transactions);
+
+                    final Account batchAccount = message.getObject(MessageProperty.ACCOUNT);
+                    engine.refresh(batchAccount);
+                    message.setObject(MessageProperty.ACCOUNT, engine.getAccountByUuid(batchAccount.getUuid()));
+                    break;
                 default:
                     break;
             }
@@ -18,6 +18,8 @@
 package jgnash.engine.message;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
@@ -25,33 +27,49 @@ import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.group.ChannelGroup;
+import io.netty.channel.group.ChannelMatcher;
+import io.netty.channel.group.ChannelMatchers;
 import io.netty.channel.group.DefaultChannelGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.DelimiterBasedFrameDecoder;
-import io.netty.handler.codec.Delimiters;
-import io.netty.handler.codec.string.StringDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import io.netty.util.CharsetUtil;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.GlobalEventExecutor;
 
+import java.io.CharArrayWriter;
+import java.lang.reflect.Field;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import jgnash.engine.DataStoreType;
+import jgnash.engine.StoredObject;
 import jgnash.util.EncryptionManager;
 
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.io.xml.CompactWriter;
+
 /**
  * Message bus server for remote connections.
+ * <p>
+ * Clients announce support for the binary protocol with a {@value #PROTOCOL_PREFIX} line and are then sent
+ * {@code BinaryMessage} frames.  All other clients use the original text protocol, and binary messages are
+ * translated for them.  Messages are written to the clients without blocking.  If a client is not reading fast
+ * enough, reading from the clients posting messages is suspended until it has caught up.
  *
  * @author Craig Cavanaugh
  */
@@ -63,8 +81,19 @@ public class MessageBusServer {
 
     static final String DATA_STORE_TYPE_PREFIX = "<TYPE>";
 
+    static final String PROTOCOL_PREFIX = "<PROTOCOL>";
+
     static final String EOL_DELIMITER = "\r\n";
 
+    private static final int LOW_WATER_MARK = 32 * 1024;
+
+    private static final int HIGH_WATER_MARK = 64 * 1024;
+
+    /**
+     * Clients with more than this many bytes waiting to be written are disconnected.
+     */
+    private static final long MAX_PENDING_BYTES = 16 * 1024 * 1024;
+
     private int port;
 
     private String dataBasePath = "";
@@ -77,18 +106,40 @@ public class MessageBusServer {
 
     private final Set<LocalServerListener> listeners = new HashSet<>();
 
+    /**
+     * Local listeners of decoded messages.  Guarded by {@code rwl}.
+     */
+    private final Set<MessageListener> messageListeners = new HashSet<>();
+
     private final ChannelGroup channelGroup = new DefaultChannelGroup("all-connected", GlobalEventExecutor.INSTANCE);
 
+    /**
+     * Clients using the binary protocol.
+     */
+    private final ChannelGroup binaryChannelGroup = new DefaultChannelGroup("binary-connected",
+            GlobalEventExecutor.INSTANCE);
+
+    /**
+     * Clients that are not being read from until all clients are writable.
+     */
+    private final Set<Channel> pausedChannels = ConcurrentHashMap.newKeySet();
+
     private EncryptionManager encryptionManager;
 
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
 
+    private final XStream xstream;
+
+    private final ReflectionProvider reflectionProvider = new PureJavaReflectionProvider();
+
     static {
         logger.setLevel(Level.INFO);
     }
 
     public MessageBusServer(final int port) {
         this.port = port;
+
+        xstream = XStreamFactory.getInstance();
     }
 
     public boolean startServer(final DataStoreType dataStoreType, final String dataBasePath, final char[] password) {
@@ -112,7 +163,9 @@ public class MessageBusServer {
             bootstrap.group(eventLoopGroup)
                     .channel(NioServerSocketChannel.class)
                     .childHandler(new MessageBusRemoteInitializer())
-                    .childOption(ChannelOption.SO_KEEPALIVE, true);
+                    .childOption(ChannelOption.SO_KEEPALIVE, true)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK,
+                            new WriteBufferWaterMark(LOW_WATER_MARK, HIGH_WATER_MARK));
 
             final ChannelFuture future = bootstrap.bind(port);
             future.sync();
@@ -172,6 +225,32 @@ public class MessageBusServer {
         }
     }
 
+    /**
+     * Registers a local listener for decoded messages.  The {@code StoredObjects} referenced by the messages are
+     * placeholders that only hold the uuid; they are not resolved against an engine.
+     *
+     * @param listener listener to add
+     */
+    public void addMessageListener(final MessageListener listener) {
+        rwl.writeLock().lock();
+
+        try {
+            messageListeners.add(listener);
+        } finally {
+            rwl.writeLock().unlock();
+        }
+    }
+
+    public void removeMessageListener(final MessageListener listener) {
+        rwl.writeLock().lock();
+
+        try {
+            messageListeners.remove(listener);
+        } finally {
+            rwl.writeLock().unlock();
+        }
+    }
+
     /**
      * Utility method to encrypt a message.
      *
@@ -197,17 +276,54 @@ public class MessageBusServer {
         return plainMessage;
     }
 
+    /**
+     * Translates a binary message to the text protocol.  The text protocol only sends the class and uuid of
+     * referenced objects, so placeholders are sufficient.
+     *
+     * @param message message to translate
+     * @return XML form of the message
+     */
+    private String toXML(final BinaryMessage message) {
+        final CharArrayWriter writer = new CharArrayWriter();
+        xstream.marshal(message.toMessage(this::createPlaceholder), new CompactWriter(writer));
+
+        return writer.toString();
+    }
+
+    private StoredObject createPlaceholder(final BinaryMessage.Reference reference) {
+        try {
+            return createPlaceholder(reference.getType(), reference.getUuid());
+        } catch (final ClassNotFoundException | ClassCastException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            return null;
+        }
+    }
+
+    private StoredObject createPlaceholder(final Class<? extends StoredObject> type, final UUID uuid) {
+        try {
+            final StoredObject placeholder = (StoredObject) reflectionProvider.newInstance(type);
+
+            final Field field = StoredObject.class.getDeclaredField("uuid");
+            field.setAccessible(true);
+            field.set(placeholder, uuid);
+
+            return placeholder;
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            return null;
+        }
+    }
+
     private class MessageBusRemoteInitializer extends ChannelInitializer<SocketChannel> {
 
         @Override
         public void initChannel(final SocketChannel ch) {
             ChannelPipeline pipeline = ch.pipeline();
 
-            // Add the text line codec combination first,
-            pipeline.addLast("framer", new DelimiterBasedFrameDecoder(8192, true, Delimiters.lineDelimiter()));
+            // Add the line and binary frame decoder first,
+            pipeline.addLast("framer", new MessageFrameDecoder(encryptionManager));
 
-            // the encoder and decoder are static as these are sharable
-            pipeline.addLast("decoder", new StringDecoder(CharsetUtil.UTF_8));
+            // binary frames are written as a ByteBuf
             pipeline.addLast("encoder", new StringEncoder(CharsetUtil.UTF_8));
 
             // and then business logic.
@@ -232,36 +348,168 @@ public class MessageBusServer {
         @Override
         public void channelInactive(final ChannelHandlerContext ctx) throws Exception {
             channelGroup.remove(ctx.channel());
+            binaryChannelGroup.remove(ctx.channel());
+            pausedChannels.remove(ctx.channel());
+
+            resumeReading();    // the closed channel may have been the slow one
+
             super.channelInactive(ctx);
         }
 
         @Override
-        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
-            executorService.submit(() -> {
-                processMessage(msg.toString());
+        public void channelWritabilityChanged(final ChannelHandlerContext ctx) throws Exception {
+            if (ctx.channel().isWritable()) {
+                resumeReading();
+            }
+
+            super.channelWritabilityChanged(ctx);
+        }
 
+        @Override
+        public void channelRead(final ChannelHandlerContext ctx, final Object msg) {
+            try {
+                if (msg instanceof BinaryMessage) {
+                    processMessage(ctx, (BinaryMessage) msg);
+                } else {
+                    processMessage(ctx, decrypt(msg.toString()));
+                }
+            } finally {
                 ReferenceCountUtil.release(msg);
+            }
+        }
+
+        private void processMessage(final ChannelHandlerContext ctx, final String plainMessage) {
+            if (plainMessage.startsWith(PROTOCOL_PREFIX)) {
+                selectProtocol(ctx, plainMessage.substring(PROTOCOL_PREFIX.length()));
+                return;
+            }
+
+            broadcast(ctx.channel(), encrypt(plainMessage) + EOL_DELIMITER, ChannelMatchers.all());
+
+            notifyListeners(plainMessage, () -> Message.fromXML(xstream, plainMessage,
+                    MessageBusServer.this::createPlaceholder));
+
+            logger.log(Level.FINE, "Broadcast: {0}", plainMessage);
+        }
+
+        private void processMessage(final ChannelHandlerContext ctx, final BinaryMessage message) {
+
+            // encoded once and shared by all binary clients
+            final ByteBuf frame = message.encode(ctx.alloc(), encryptionManager);
+
+            broadcast(ctx.channel(), frame, binaryChannelGroup::contains);
+
+            if (binaryChannelGroup.size() < channelGroup.size()) {
+                final ChannelMatcher textMatcher = channel -> !binaryChannelGroup.contains(channel);
+
+                broadcast(ctx.channel(), encrypt(toXML(message)) + EOL_DELIMITER, textMatcher);
+            }
+
+            notifyListeners(message.toString(), () -> message.toMessage(MessageBusServer.this::createPlaceholder));
+
+            logger.log(Level.FINE, "Broadcast: {0}", message);
+        }
+
+        private void selectProtocol(final ChannelHandlerContext ctx, final String version) {
+            if (Integer.toString(BinaryMessage.VERSION).equals(version)) {
+
+                // acknowledge before any binary message can be written to the channel
+                ctx.writeAndFlush(encrypt(PROTOCOL_PREFIX + BinaryMessage.VERSION) + EOL_DELIMITER);
+                binaryChannelGroup.add(ctx.channel());
+
+                logger.log(Level.INFO, "Binary protocol selected by: {0}", ctx.channel().remoteAddress());
+            } else {
+                logger.log(Level.INFO, "Unsupported binary protocol version: {0}", version);
+            }
+        }
+
+        /**
+         * Writes a message to the matching clients without waiting for the write to complete.
+         *
+         * @param source  client the message was received from
+         * @param message message to write, released once written
+         * @param matcher selects the clients to write to
+         */
+        private void broadcast(final Channel source, final Object message, final ChannelMatcher matcher) {
+            channelGroup.writeAndFlush(message, matcher).addListener(future -> {
+                if (!future.isSuccess()) {
+                    logger.log(Level.WARNING, "Failed to write a message", future.cause());
+                }
             });
+
+            for (final Channel channel : channelGroup) {
+                if (channel.isActive() && !channel.isWritable()) {
+                    if (channel.bytesBeforeWritable() > MAX_PENDING_BYTES) {
+                        logger.log(Level.WARNING, "Closing unresponsive connection: {0}", channel.remoteAddress());
+                        channel.close();
+                    } else if (pausedChannels.add(source)) {
+                        source.config().setAutoRead(false);
+                    }
+                }
+            }
+
+            resumeReading();    // a client may have caught up while checking
         }
 
-        private void processMessage(final String message) {
-            final String plainMessage = decrypt(message);
+        /**
+         * Resumes reading from the paused clients if all clients are writable.
+         */
+        private void resumeReading() {
+            if (pausedChannels.isEmpty()) {
+                return;
+            }
 
-            rwl.readLock().lock();
+            for (final Channel channel : channelGroup) {
+                if (channel.isActive() && !channel.isWritable()) {
+                    return;
+                }
+            }
 
-            try {
-                channelGroup.writeAndFlush(encrypt(plainMessage) + EOL_DELIMITER).sync();
+            for (final Channel channel : pausedChannels) {
+                if (pausedChannels.remove(channel)) {
+                    channel.config().setAutoRead(true);
+                }
+            }
+        }
 
-                // Local listeners do not receive encrypted messages
-                for (LocalServerListener listener : listeners) {
-                    listener.messagePosted(plainMessage);
+        /**
+         * Local listeners are notified from a separate thread so they may block.  The message is only decoded if
+         * there are listeners for decoded messages.
+         *
+         * @param message the message
+         * @param decoder decodes the message
+         */
+        private void notifyListeners(final String message, final Supplier<Message> decoder) {
+            executorService.submit(() -> {
+                rwl.readLock().lock();
+
+                try {
+                    // Local listeners do not receive encrypted messages
+                    for (final LocalServerListener listener : listeners) {
+                        listener.messagePosted(message);
+                    }
+
+                    if (!messageListeners.isEmpty()) {
+                        final Message decoded = decode(decoder);
+
+                        if (decoded != null) {
+                            for (final MessageListener listener : messageListeners) {
+                                listener.messagePosted(decoded);
+                            }
+                        }
+                    }
+                } finally {
+                    rwl.readLock().unlock();
                 }
+            });
+        }
 
-                logger.log(Level.FINE, "Broadcast: {0}", plainMessage);
-            } catch (InterruptedException e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-            } finally {
-                rwl.readLock().unlock();
+        private Message decode(final Supplier<Message> decoder) {
+            try {
+                return decoder.get();
+            } catch (final RuntimeException e) {   // XStream exceptions are unchecked
+                logger.log(Level.WARNING, "Unable to decode a message", e);
+                return null;
             }
         }
 
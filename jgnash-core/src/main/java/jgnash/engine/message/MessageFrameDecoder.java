@@ -0,0 +1,103 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.message;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import jgnash.util.EncryptionManager;
+import jgnash.util.Nullable;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.TooLongFrameException;
+
+/**
+ * Decodes both protocols of the message bus.
+ * <p>
+ * Frames starting with {@link BinaryMessage#FRAME_MARKER} are decoded to a {@code BinaryMessage}.  Anything else
+ * is a line of the text protocol and is decoded to a {@code String} without the line delimiter.
+ *
+ * @author Craig Cavanaugh
+ */
+class MessageFrameDecoder extends ByteToMessageDecoder {
+
+    /**
+     * Maximum length of a line of the text protocol.  Older clients and servers are limited to 8192.
+     */
+    static final int MAX_LINE_LENGTH = 1024 * 1024;
+
+    private final EncryptionManager encryptionManager;
+
+    MessageFrameDecoder(@Nullable final EncryptionManager encryptionManager) {
+        this.encryptionManager = encryptionManager;
+    }
+
+    @Override
+    protected void decode(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+        if (in.getByte(in.readerIndex()) == BinaryMessage.FRAME_MARKER) {
+            decodeFrame(ctx, in, out);
+        } else {
+            decodeLine(in, out);
+        }
+    }
+
+    private void decodeFrame(final ChannelHandlerContext ctx, final ByteBuf in, final List<Object> out) {
+        if (in.readableBytes() < BinaryMessage.HEADER_LENGTH) {
+            return;
+        }
+
+        final int length = in.getInt(in.readerIndex() + Byte.BYTES);
+
+        if (length <= 0 || length > BinaryMessage.MAX_FRAME_LENGTH) {
+            throw new CorruptedFrameException("Invalid frame length: " + length);
+        }
+
+        if (in.readableBytes() < BinaryMessage.HEADER_LENGTH + length) {
+            return;
+        }
+
+        in.skipBytes(BinaryMessage.HEADER_LENGTH);
+
+        out.add(BinaryMessage.decode(ctx.alloc(), in.readSlice(length), encryptionManager));
+    }
+
+    private static void decodeLine(final ByteBuf in, final List<Object> out) {
+        final int eol = in.indexOf(in.readerIndex(), in.writerIndex(), (byte) '\n');
+
+        if (eol < 0) {
+            if (in.readableBytes() > MAX_LINE_LENGTH) {
+                in.skipBytes(in.readableBytes());
+                throw new TooLongFrameException("Line length exceeds " + MAX_LINE_LENGTH);
+            }
+            return;
+        }
+
+        int length = eol - in.readerIndex();
+
+        if (length > 0 && in.getByte(eol - 1) == '\r') {
+            length--;
+        }
+
+        out.add(in.toString(in.readerIndex(), length, StandardCharsets.UTF_8));
+
+        in.readerIndex(eol + 1);
+    }
+}
@@ -18,6 +18,7 @@
 package jgnash.engine.recurring;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 import javax.persistence.Entity;
 
@@ -66,5 +67,17 @@ public class DailyReminder extends Reminder {
             }
             return null;
         }
+
+        @Override
+        public LocalDate nextOnOrAfter(final LocalDate date) {
+            final long days = ChronoUnit.DAYS.between(base, date);
+
+            // skip the whole increments that end before the date
+            if (days > 0 && getIncrement() > 0) {
+                base = base.plusDays((days - 1) / getIncrement() * getIncrement());
+            }
+
+            return RecurringIterator.super.nextOnOrAfter(date);
+        }
     }
 }
\ No newline at end of file
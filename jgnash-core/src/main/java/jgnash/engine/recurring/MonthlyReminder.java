@@ -19,6 +19,7 @@ package jgnash.engine.recurring;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalField;
 import java.time.temporal.WeekFields;
 import java.util.Locale;
@@ -141,5 +142,22 @@ public class MonthlyReminder extends Reminder {
             }
             return null;
         }
+
+        /**
+         * Increments by day of the month are skipped directly.  Increments by the day of the week and days past the
+         * 28th, which plusMonths may shorten along the way, are stepped through.
+         */
+        @Override
+        public LocalDate nextOnOrAfter(final LocalDate date) {
+            if (type == DATE && getIncrement() > 0 && base.getDayOfMonth() <= 28) {
+                final long skip = ChronoUnit.MONTHS.between(base, date) / getIncrement() - 1;
+
+                if (skip > 0) {
+                    base = base.plusMonths(skip * getIncrement());
+                }
+            }
+
+            return RecurringIterator.super.nextOnOrAfter(date);
+        }
     }
 }
\ No newline at end of file
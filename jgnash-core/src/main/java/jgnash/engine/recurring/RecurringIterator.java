@@ -32,4 +32,23 @@ public interface RecurringIterator {
      * @return The next date in the sequence or null if the sequence is no longer valid.
      */
     LocalDate next();
+
+    /**
+     * Advances to the first date the event should occur on or after the supplied date.
+     * <p>
+     * The default implementation steps through the sequence with {@link #next()}.  Implementations should position
+     * the iterator directly when the sequence allows it.
+     *
+     * @param date the earliest date to return
+     * @return The first date in the sequence on or after {@code date} or null if the sequence is no longer valid.
+     */
+    default LocalDate nextOnOrAfter(final LocalDate date) {
+        LocalDate next = next();
+
+        while (next != null && next.isBefore(date)) {
+            next = next();
+        }
+
+        return next;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.recurring;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Supplier;
+
+import jgnash.time.DateUtils;
+import jgnash.util.NotNull;
+
+/**
+ * Keeps enabled {@code Reminders} in a priority queue ordered by the date they are next due.
+ * <p>
+ * Only the reminders at the head of the queue that are due are examined when pending reminders are requested.
+ * The due dates of each reminder are cached and extended from the last date covered when the day changes, so
+ * an overdue reminder is not stepped through from its last fired date on every request.
+ * <p>
+ * The queue must be invalidated whenever a {@code Reminder} is added, removed or updated.
+ *
+ * @author Craig Cavanaugh
+ */
+public class ReminderScheduler {
+
+    private final Supplier<List<Reminder>> reminderSupplier;
+
+    private final PriorityQueue<ScheduledReminder> queue = new PriorityQueue<>();
+
+    private boolean valid = false;
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param reminderSupplier supplies the current {@code Reminders} when the queue is rebuilt
+     */
+    public ReminderScheduler(@NotNull final Supplier<List<Reminder>> reminderSupplier) {
+        this.reminderSupplier = Objects.requireNonNull(reminderSupplier);
+    }
+
+    /**
+     * Discards the queue.  It will be rebuilt on the next request.
+     */
+    public synchronized void invalidate() {
+        valid = false;
+        queue.clear();
+    }
+
+    /**
+     * Returns a {@code PendingReminder} for every occurrence that is due on or before the supplied date.
+     *
+     * @param today the current date
+     * @return new pending reminders ordered by due date
+     */
+    public synchronized List<PendingReminder> getPendingReminders(@NotNull final LocalDate today) {
+        if (!valid) {
+            for (final Reminder reminder : reminderSupplier.get()) {
+                if (reminder.isEnabled()) {
+                    final LocalDate next = reminder.getIterator().next();
+
+                    if (next != null) {
+                        queue.add(new ScheduledReminder(reminder, next));
+                    }
+                }
+            }
+
+            valid = true;
+        }
+
+        final List<ScheduledReminder> dueList = new ArrayList<>();
+
+        while (!queue.isEmpty() && DateUtils.before(queue.peek().dueDate, today)) {
+            dueList.add(queue.poll());
+        }
+
+        final List<PendingReminder> pendingList = new ArrayList<>();
+
+        for (final ScheduledReminder scheduledReminder : dueList) {
+            scheduledReminder.update(today);
+
+            for (final LocalDate date : scheduledReminder.dates) {
+                pendingList.add(new PendingReminder(scheduledReminder.reminder, date));
+            }
+        }
+
+        // reminders remain due until they are processed and the queue is invalidated
+        queue.addAll(dueList);
+
+        return pendingList;
+    }
+
+    /**
+     * Queue entry for a single {@code Reminder}.
+     */
+    private static class ScheduledReminder implements Comparable<ScheduledReminder> {
+
+        final Reminder reminder;
+
+        /**
+         * Number of days in advance an occurrence is due.
+         */
+        final int daysAdvance;
+
+        /**
+         * Date the first occurrence becomes due.
+         */
+        final LocalDate dueDate;
+
+        /**
+         * Occurrences due on or before {@code coveredDate}.
+         */
+        final List<LocalDate> dates = new ArrayList<>();
+
+        LocalDate coveredDate;
+
+        ScheduledReminder(final Reminder reminder, final LocalDate firstDate) {
+            this.reminder = reminder;
+
+            daysAdvance = reminder.isAutoCreate() ? reminder.getDaysAdvance() : 0;
+            dueDate = firstDate.minusDays(daysAdvance);
+        }
+
+        void update(final LocalDate today) {
+            final LocalDate limit = today.plusDays(daysAdvance);
+
+            if (coveredDate == null || limit.isAfter(coveredDate)) {
+                final RecurringIterator iterator = reminder.getIterator();
+
+                // jump past the occurrences already listed
+                LocalDate next = coveredDate == null ? iterator.next()
+                        : iterator.nextOnOrAfter(coveredDate.plusDays(1));
+
+                while (next != null && DateUtils.before(next, limit)) {
+                    dates.add(next);
+                    next = iterator.next();
+                }
+            } else {
+                dates.removeIf(date -> date.isAfter(limit));    // the clock has been set back
+            }
+
+            coveredDate = limit;
+        }
+
+        @Override
+        public int compareTo(@NotNull final ScheduledReminder other) {
+            final int result = dueDate.compareTo(other.dueDate);
+
+            if (result != 0) {
+                return result;
+            }
+
+            return reminder.compareTo(other.reminder);
+        }
+    }
+}
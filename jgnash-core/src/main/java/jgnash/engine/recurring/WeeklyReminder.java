@@ -19,6 +19,7 @@ package jgnash.engine.recurring;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 
 import javax.persistence.Entity;
 
@@ -76,6 +77,20 @@ public class WeeklyReminder extends Reminder {
             }
             return null;
         }
+
+        @Override
+        public LocalDate nextOnOrAfter(final LocalDate date) {
+            if (getIncrement() > 0) {
+                // the day of week adjustment stays within the week, so leave one increment of slack
+                final long skip = ChronoUnit.WEEKS.between(base, date) / getIncrement() - 1;
+
+                if (skip > 0) {
+                    base = base.plusWeeks(skip * getIncrement());
+                }
+            }
+
+            return RecurringIterator.super.nextOnOrAfter(date);
+        }
     }
 
 }
\ No newline at end of file
@@ -81,5 +81,19 @@ public class YearlyReminder extends Reminder {
             }
             return null;
         }
+
+        @Override
+        public LocalDate nextOnOrAfter(final LocalDate date) {
+            if (getIncrement() > 0) {
+                // next() forces the day of the year, so only the year needs to be skipped
+                final int skip = (date.getYear() - base.getYear()) / getIncrement() - 1;
+
+                if (skip > 0) {
+                    base = base.plusYears((long) skip * getIncrement());
+                }
+            }
+
+            return RecurringIterator.super.nextOnOrAfter(date);
+        }
     }
 }
\ No newline at end of file
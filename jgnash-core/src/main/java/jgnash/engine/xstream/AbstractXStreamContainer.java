@@ -22,13 +22,25 @@ import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -57,6 +69,7 @@ import jgnash.engine.TransactionEntryReinvestDivX;
 import jgnash.engine.TransactionEntryRemoveX;
 import jgnash.engine.TransactionEntrySellX;
 import jgnash.engine.TransactionEntrySplitX;
+import jgnash.engine.TrashObject;
 import jgnash.engine.budget.Budget;
 import jgnash.engine.budget.BudgetGoal;
 import jgnash.time.Period;
@@ -65,6 +78,7 @@ import jgnash.util.FileUtils;
 import jgnash.util.NotNull;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
 import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
 import com.thoughtworks.xstream.hibernate.converter.HibernatePersistentCollectionConverter;
 import com.thoughtworks.xstream.hibernate.converter.HibernatePersistentMapConverter;
@@ -90,8 +104,49 @@ abstract class AbstractXStreamContainer {
     final ReadWriteLock readWriteLock = new ReentrantReadWriteLock(true);
     final Path path;
 
+    /**
+     * UUID index of the stored objects.  Reads do not require the container lock.
+     */
+    private final Map<UUID, StoredObject> uuidIndex = new ConcurrentHashMap<>();
+
+    /**
+     * Stored objects bucketed by concrete class.  Guarded by the container lock.
+     */
+    private final Map<Class<?>, List<StoredObject>> classIndex = new HashMap<>();
+
     private final FileLocker fileLocker = new FileLocker();
 
+    /**
+     * Journal of changes since the last snapshot, {@code null} if journaling is not enabled.
+     */
+    private volatile XStreamJournal journal;
+
+    /**
+     * Objects added or changed since the last journal append.  Guarded by its own monitor.
+     */
+    private final Set<StoredObject> changed = new LinkedHashSet<>();
+
+    /**
+     * Uuids of objects deleted since the last journal append.  Guarded by the monitor of {@code changed}.
+     */
+    private final Set<UUID> deleted = new LinkedHashSet<>();
+
+    /**
+     * Members added to or removed from an object since the last journal append.  Guarded by the monitor of
+     * {@code changed}.
+     */
+    private final List<XStreamJournal.MemberChange> members = new ArrayList<>();
+
+    /**
+     * Orders the collection and append of pending changes against the truncation of the journal after a snapshot,
+     * so a group drained before a snapshot cannot be appended after the journal has been truncated.
+     */
+    private final Lock journalLock = new ReentrantLock();
+
+    private final AtomicBoolean compactionPending = new AtomicBoolean();
+
+    private ExecutorService compactionExecutor;
+
     AbstractXStreamContainer(final Path path) {
         this.path = path;
     }
@@ -237,8 +292,241 @@ abstract class AbstractXStreamContainer {
         fileLocker.release();
     }
 
+    /**
+     * Writes a full snapshot of the container to the file.
+     */
     abstract void commit();
 
+    /**
+     * Writes a full snapshot of the supplied objects to a file.  The caller must hold the read lock.
+     *
+     * @param target file to write
+     */
+    abstract void writeSnapshot(Path target);
+
+    /**
+     * Replays any journaled changes left from the last session and starts journaling changes if enabled.  Must be
+     * called after the snapshot has been read.
+     */
+    void openJournal() {
+        final XStreamJournal xStreamJournal = new XStreamJournal(this);
+
+        boolean replayed;
+
+        readWriteLock.writeLock().lock();
+
+        try {
+            replayed = xStreamJournal.replay();
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+
+        if (XStreamJournal.isEnabled()) {
+            try {
+                xStreamJournal.open();
+
+                compactionExecutor = Executors.newSingleThreadExecutor(r -> {
+                    final Thread thread = new Thread(r, "XStream journal compaction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+                journal = xStreamJournal;
+                return;
+            } catch (final IOException e) {
+                Logger.getLogger(AbstractXStreamContainer.class.getName()).log(Level.SEVERE,
+                        "Could not open the journal, full snapshots will be written", e);
+            }
+        }
+
+        // journaling is not used, fold any recovered changes into the snapshot
+        if (replayed) {
+            commit();
+        }
+        xStreamJournal.close();
+        xStreamJournal.delete();
+    }
+
+    /**
+     * Determines if changes are being journaled.
+     *
+     * @return {@code true} if changes are journaled instead of written as a full snapshot
+     */
+    boolean isJournaling() {
+        return journal != null;
+    }
+
+    /**
+     * Appends the supplied objects, and any objects added or deleted since the last call, to the journal.  Objects
+     * marked for removal are journaled as deletions.
+     *
+     * @param objects objects that have been changed
+     */
+    void journal(final Collection<? extends StoredObject> objects) {
+        final XStreamJournal xStreamJournal = journal;
+
+        if (xStreamJournal == null) {
+            return;
+        }
+
+        final List<StoredObject> upserts = new ArrayList<>();
+        final List<XStreamJournal.MemberChange> memberChanges;
+        final Set<UUID> deletes = new LinkedHashSet<>();
+
+        boolean failed = false;
+
+        journalLock.lock();
+
+        try {
+            synchronized (changed) {
+                changed.addAll(objects);
+
+                for (final StoredObject object : changed) {
+                    if (object instanceof TrashObject) {    // trash is not persisted
+                        continue;
+                    }
+
+                    if (object.isMarkedForRemoval()) {
+                        deletes.add(object.getUuid());
+                    } else {
+                        upserts.add(object);
+                    }
+                }
+
+                deletes.addAll(deleted);
+                memberChanges = new ArrayList<>(members);
+
+                changed.clear();
+                deleted.clear();
+                members.clear();
+            }
+
+            xStreamJournal.append(upserts, memberChanges, deletes);
+        } catch (final IOException | XStreamException e) {
+            Logger.getLogger(AbstractXStreamContainer.class.getName()).log(Level.SEVERE,
+                    "Could not append to the journal, writing a full snapshot", e);
+            failed = true;
+        } finally {
+            journalLock.unlock();
+        }
+
+        if (failed) {   // the snapshot truncates the journal, the journal lock must not be held
+            commit();
+            return;
+        }
+
+        if (xStreamJournal.size() > XStreamJournal.getCompactionThreshold()
+                && compactionPending.compareAndSet(false, true)) {
+            compactionExecutor.execute(this::compact);
+        }
+    }
+
+    /**
+     * Appends the addition or removal of a member of an object's collection, and any objects changed since the last
+     * call, to the journal.  The object holding the collection is not rewritten.
+     *
+     * @param parent object holding the collection
+     * @param member member that was added or removed
+     * @param added  {@code true} if the member was added
+     */
+    void journal(final StoredObject parent, final Object member, final boolean added) {
+        if (journal == null) {
+            return;
+        }
+
+        synchronized (changed) {
+            members.add(new XStreamJournal.MemberChange(parent, member, added));
+        }
+
+        journal(Collections.emptyList());
+    }
+
+    /**
+     * Compacts the journal into a new snapshot.  The journal is rotated first so changes made while the snapshot
+     * is written are kept, and the snapshot is written to a temporary file and moved over the original.
+     */
+    private synchronized void compact() {
+        compactionPending.set(false);
+
+        final XStreamJournal xStreamJournal = journal;
+
+        if (xStreamJournal == null) {
+            return;
+        }
+
+        final Logger logger = Logger.getLogger(AbstractXStreamContainer.class.getName());
+        final Path temp = Paths.get(path.toString() + ".compact");
+
+        logger.info("Compacting the journal");
+
+        readWriteLock.readLock().lock();
+
+        try {
+            releaseFileLock();
+
+            xStreamJournal.rotate();
+            writeSnapshot(temp);
+
+            if (!Files.exists(temp)) {
+                throw new IOException("The snapshot was not written");
+            }
+
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            xStreamJournal.deleteRotated();
+        } catch (final IOException | XStreamException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        } finally {
+            if (!acquireFileLock()) {
+                logger.severe("Could not acquire the file lock");
+            }
+            readWriteLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Called after a full snapshot has been written so the journal can be discarded.
+     */
+    void snapshotWritten() {
+        final XStreamJournal xStreamJournal = journal;
+
+        if (xStreamJournal != null) {
+            journalLock.lock();
+
+            try {
+                synchronized (changed) {
+                    changed.clear();
+                    deleted.clear();
+                    members.clear();
+                }
+
+                xStreamJournal.clear();
+            } catch (final IOException e) {
+                Logger.getLogger(AbstractXStreamContainer.class.getName()).log(Level.SEVERE,
+                        e.getLocalizedMessage(), e);
+            } finally {
+                journalLock.unlock();
+            }
+        }
+    }
+
+    private void markChanged(final StoredObject object) {
+        if (journal != null) {
+            synchronized (changed) {
+                changed.add(object);
+            }
+        }
+    }
+
+    private void markDeleted(final StoredObject object) {
+        if (journal != null) {
+            synchronized (changed) {
+                changed.remove(object);
+                deleted.add(object.getUuid());
+            }
+        }
+    }
+
     boolean set(final StoredObject object) {
 
         boolean result = false;
@@ -246,9 +534,11 @@ abstract class AbstractXStreamContainer {
         readWriteLock.writeLock().lock();
 
         try {
-            if (get(object.getUuid()) == null) { // make sure the UUID is unique before adding
+            if (uuidIndex.putIfAbsent(object.getUuid(), object) == null) { // make sure the UUID is unique before adding
                 objects.add(object);
+                classIndex.computeIfAbsent(object.getClass(), k -> new ArrayList<>()).add(object);
             }
+            markChanged(object);
             result = true;
         } catch (final Exception ex) {
             Logger.getLogger(AbstractXStreamContainer.class.getName()).log(Level.SEVERE, null, ex);
@@ -263,42 +553,87 @@ abstract class AbstractXStreamContainer {
         readWriteLock.writeLock().lock();
 
         try {
-            objects.remove(object);
+            if (objects.remove(object)) {
+                uuidIndex.remove(object.getUuid(), object);
+
+                final List<StoredObject> bucket = classIndex.get(object.getClass());
+
+                if (bucket != null) {
+                    bucket.remove(object);
+                }
+
+                markDeleted(object);
+            }
         } finally {
             readWriteLock.writeLock().unlock();
         }
     }
 
     StoredObject get(final UUID uuid) {
-        StoredObject result = null;
+        return uuid != null ? uuidIndex.get(uuid) : null;
+    }
 
-        Lock l = readWriteLock.readLock();
-        l.lock();
+    @SuppressWarnings("unchecked")
+    <T extends StoredObject> List<T> query(final Class<T> clazz) {
+        readWriteLock.readLock().lock();
 
         try {
-            for (StoredObject o : objects) {
-                if (o.getUuid().equals(uuid)) {
-                    result = o;
+            final List<T> list = new ArrayList<>();
+
+            for (final Map.Entry<Class<?>, List<StoredObject>> entry : classIndex.entrySet()) {
+                if (clazz.isAssignableFrom(entry.getKey())) {
+                    list.addAll((List<T>) entry.getValue());
                 }
             }
+
+            return list;
         } finally {
-            l.unlock();
+            readWriteLock.readLock().unlock();
         }
-
-        return result;
     }
 
-    <T extends StoredObject> List<T> query(final Class<T> clazz) {
-        readWriteLock.readLock().lock();
+    /**
+     * Adds an object as it is instantiated while reading a file.  The uuid has not been assigned yet, so the object is
+     * only bucketed by class.  The caller must hold the write lock.
+     *
+     * @param object {@code StoredObject} being loaded
+     * @see StoredObjectReflectionProvider
+     * @see #indexLoadedObjects()
+     */
+    void addLoadedObject(final StoredObject object) {
+        objects.add(object);
+        classIndex.computeIfAbsent(object.getClass(), k -> new ArrayList<>()).add(object);
+    }
 
-        try {
-            return query(objects, clazz);
-        } finally {
-            readWriteLock.readLock().unlock();
+    /**
+     * Indexes the uuids of loaded objects once the file has been read.  The caller must hold the write lock.
+     */
+    void indexLoadedObjects() {
+        for (final StoredObject object : objects) {
+            if (object.getUuid() != null) {
+                uuidIndex.put(object.getUuid(), object);
+            }
         }
     }
 
     void close() {
+        final XStreamJournal xStreamJournal = journal;
+
+        if (xStreamJournal != null) {
+            compactionExecutor.shutdown();
+
+            try {
+                compactionExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            journal = null;
+
+            xStreamJournal.close();
+            xStreamJournal.delete();
+        }
+
         releaseFileLock();
     }
 
@@ -17,6 +17,8 @@
  */
 package jgnash.engine.xstream;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -69,12 +71,40 @@ abstract class AbstractXStreamDAO extends AbstractDAO implements DAO {
         return null;
     }
 
-    final void commit() {
-        if (commitCount.getAndIncrement() >= MAX_COMMIT_COUNT) {
+    /**
+     * Commits changes.  The changed objects are appended to the journal if one is in use, otherwise a full
+     * snapshot is written once enough changes have accumulated.
+     *
+     * @param changed objects that have been added, changed or removed
+     */
+    final void commit(final StoredObject... changed) {
+        commit(Arrays.asList(changed));
+    }
+
+    final void commit(final Collection<? extends StoredObject> changed) {
+        if (container.isJournaling()) {
+            container.journal(changed);
+        } else if (commitCount.getAndIncrement() >= MAX_COMMIT_COUNT) {
             commitAndReset();
         }
     }
 
+    /**
+     * Commits the addition or removal of a member of an object's collection.  Only the member is appended to the
+     * journal if one is in use.
+     *
+     * @param parent object holding the collection
+     * @param member member that was added or removed
+     * @param added  {@code true} if the member was added
+     */
+    final void commitMember(final StoredObject parent, final Object member, final boolean added) {
+        if (container.isJournaling()) {
+            container.journal(parent, member, added);
+        } else {
+            commit(parent);
+        }
+    }
+
     final void commitAndReset() {
         commitLock.lock();
 
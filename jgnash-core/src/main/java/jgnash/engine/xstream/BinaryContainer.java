@@ -65,12 +65,18 @@ class BinaryContainer extends AbstractXStreamContainer {
         writeBinary();
     }
 
+    @Override
+    void writeSnapshot(final Path target) {
+        writeBinary(objects, target, ignored -> { });
+    }
+
     private synchronized void writeBinary() {
         readWriteLock.readLock().lock();
 
         try {
             releaseFileLock();
             writeBinary(objects, path, ignored -> { });
+            snapshotWritten();
         } finally {
             if (!acquireFileLock()) { // lock the file on open
                 Logger.getLogger(BinaryContainer.class.getName()).severe("Could not acquire the file lock");
@@ -152,13 +158,15 @@ class BinaryContainer extends AbstractXStreamContainer {
         try (final InputStream fis = new BufferedInputStream(Files.newInputStream(path, StandardOpenOption.READ))) {
             readWriteLock.writeLock().lock();
 
-            final XStream xstream = configureXStream(new XStreamJVM9(new StoredObjectReflectionProvider(objects),
+            final XStream xstream = configureXStream(new XStreamJVM9(new StoredObjectReflectionProvider(this::addLoadedObject),
                     new BinaryStreamDriver()));
 
             try (final ObjectInputStream in = xstream.createObjectInputStream(fis)) {
                 in.readObject();
             }
 
+            indexLoadedObjects();
+
         } catch (final IOException | ClassNotFoundException e) {
             Logger.getLogger(BinaryContainer.class.getName()).log(Level.SEVERE, null, e);
         } finally {
@@ -77,6 +77,8 @@ public class BinaryXStreamDataStore implements DataStore {
             container.readBinary();
         }
 
+        container.openJournal();
+
         Engine engine = new Engine(new XStreamEngineDAO(container), new LocalLockManager(),
                 new LocalAttachmentManager(), engineName);
 
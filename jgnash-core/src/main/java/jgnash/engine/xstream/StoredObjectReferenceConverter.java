@@ -0,0 +1,238 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import jgnash.engine.StoredObject;
+
+import com.thoughtworks.xstream.converters.ConversionException;
+import com.thoughtworks.xstream.converters.Converter;
+import com.thoughtworks.xstream.converters.MarshallingContext;
+import com.thoughtworks.xstream.converters.UnmarshallingContext;
+import com.thoughtworks.xstream.converters.reflection.ReflectionConverter;
+import com.thoughtworks.xstream.converters.reflection.ReflectionProvider;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import com.thoughtworks.xstream.mapper.Mapper;
+
+/**
+ * XStream converter used by the journal to write a single {@code StoredObject} at a time.
+ * <p>
+ * The root object is written in full.  Nested {@code StoredObjects} accepted by the reference predicate, normally
+ * those held by the container, are written as a uuid reference only and are resolved against the container, or a
+ * placeholder, when read back.  Other nested objects are written in full.
+ * <p>
+ * {@code readResolve} is not called on unmarshalled {@code StoredObjects}; the journal calls it once the
+ * fields have been applied to the live instances.
+ *
+ * @author Craig Cavanaugh
+ */
+class StoredObjectReferenceConverter implements Converter {
+
+    private static final String REFERENCE = "uuid-ref";
+
+    private final Function<UUID, StoredObject> lookup;
+
+    /**
+     * Tests the root object being written and a nested object to determine if the nested object is referenced.
+     */
+    private final BiPredicate<StoredObject, StoredObject> referenced;
+
+    private final ReflectionProvider reflectionProvider;
+
+    private final NonResolvingReflectionConverter delegate;
+
+    /**
+     * Placeholders for referenced objects that have not been read yet.
+     */
+    private final Map<UUID, StoredObject> placeholders = new HashMap<>();
+
+    /**
+     * {@code StoredObjects} that have been unmarshalled in full since the last call to {@link #drainCreated()}.
+     */
+    private final List<StoredObject> created = new ArrayList<>();
+
+    /**
+     * Depth of the object graph being marshalled.  Zero when the root object is being written.
+     */
+    private int depth = 0;
+
+    private StoredObject root;
+
+    /**
+     * Creates a converter that references the nested objects held by a container.
+     *
+     * @param container          container the objects are held by
+     * @param mapper             XStream mapper
+     * @param reflectionProvider XStream reflection provider
+     */
+    StoredObjectReferenceConverter(final AbstractXStreamContainer container, final Mapper mapper,
+                                   final ReflectionProvider reflectionProvider) {
+        this(container::get, (root, object) -> container.get(object.getUuid()) == object, mapper,
+                reflectionProvider);
+    }
+
+    /**
+     * Creates a converter.
+     *
+     * @param lookup             returns the live instance for a uuid, {@code null} if not known
+     * @param referenced         tests the root object and a nested object to determine if the nested object is
+     *                           written as a reference
+     * @param mapper             XStream mapper
+     * @param reflectionProvider XStream reflection provider
+     */
+    StoredObjectReferenceConverter(final Function<UUID, StoredObject> lookup,
+                                   final BiPredicate<StoredObject, StoredObject> referenced, final Mapper mapper,
+                                   final ReflectionProvider reflectionProvider) {
+        this.lookup = lookup;
+        this.referenced = referenced;
+        this.reflectionProvider = reflectionProvider;
+        this.delegate = new NonResolvingReflectionConverter(mapper, reflectionProvider);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override
+    public boolean canConvert(final Class type) {
+        return type != null && StoredObject.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void marshal(final Object source, final HierarchicalStreamWriter writer, final MarshallingContext context) {
+        final StoredObject object = (StoredObject) source;
+
+        if (depth > 0 && referenced.test(root, object)) {
+            writer.addAttribute(REFERENCE, object.getUuid().toString());
+            return;
+        }
+
+        if (depth == 0) {
+            root = object;
+        }
+
+        depth++;
+
+        try {
+            delegate.marshal(source, writer, context);
+        } finally {
+            depth--;
+
+            if (depth == 0) {
+                root = null;
+            }
+        }
+    }
+
+    @Override
+    public Object unmarshal(final HierarchicalStreamReader reader, final UnmarshallingContext context) {
+        final String reference = reader.getAttribute(REFERENCE);
+
+        if (reference != null) {
+            return resolve(UUID.fromString(reference), context.getRequiredType());
+        }
+
+        final StoredObject object = (StoredObject) delegate.unmarshal(reader, context);
+        created.add(object);
+
+        return object;
+    }
+
+    /**
+     * Returns the live instance for a uuid, creating a placeholder if it is not known yet.
+     *
+     * @param uuid uuid of the referenced object
+     * @param type expected type
+     * @return the live instance or a placeholder
+     */
+    private StoredObject resolve(final UUID uuid, final Class<?> type) {
+        final StoredObject object = lookup.apply(uuid);
+
+        if (object != null) {
+            return object;
+        }
+
+        return placeholders.computeIfAbsent(uuid, k -> {
+            final StoredObject placeholder = (StoredObject) reflectionProvider.newInstance(type);
+            setUuid(placeholder, k);
+            return placeholder;
+        });
+    }
+
+    /**
+     * Removes and returns the placeholder for a uuid.
+     *
+     * @param uuid uuid to look for
+     * @return the placeholder, {@code null} if one was not created
+     */
+    StoredObject removePlaceholder(final UUID uuid) {
+        return placeholders.remove(uuid);
+    }
+
+    /**
+     * Returns the number of placeholders that have not been read.
+     *
+     * @return unresolved placeholder count
+     */
+    int getPlaceholderCount() {
+        return placeholders.size();
+    }
+
+    /**
+     * Returns and clears the {@code StoredObjects} unmarshalled in full.
+     *
+     * @return list of unmarshalled objects
+     */
+    List<StoredObject> drainCreated() {
+        final List<StoredObject> list = new ArrayList<>(created);
+        created.clear();
+
+        return list;
+    }
+
+    private static void setUuid(final StoredObject object, final UUID uuid) {
+        try {
+            final Field field = StoredObject.class.getDeclaredField("uuid");
+            field.setAccessible(true);
+            field.set(object, uuid);
+        } catch (final NoSuchFieldException | IllegalAccessException e) {
+            throw new ConversionException("Unable to assign the uuid of a placeholder", e);
+        }
+    }
+
+    /**
+     * Reflection converter that does not call {@code readResolve}.
+     */
+    private static class NonResolvingReflectionConverter extends ReflectionConverter {
+
+        NonResolvingReflectionConverter(final Mapper mapper, final ReflectionProvider reflectionProvider) {
+            super(mapper, reflectionProvider);
+        }
+
+        @Override
+        public Object unmarshal(final HierarchicalStreamReader reader, final UnmarshallingContext context) {
+            return doUnmarshal(instantiateNewInstance(reader, context), reader, context);
+        }
+    }
+}
@@ -19,25 +19,26 @@ package jgnash.engine.xstream;
 
 import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
 
-import java.util.List;
+import java.util.function.Consumer;
 
 import jgnash.engine.StoredObject;
 
 /**
  * Expanded XStream reflection provider.
  *
- * This will load all objects that extend {@code StoredObject} into a supplied list as they are created
+ * This will pass all objects that extend {@code StoredObject} to a supplied consumer as they are created.  Fields,
+ * including the uuid, have not been populated when the consumer is called
  *
  * @author Craig Cavanaugh
  */
 final class StoredObjectReflectionProvider extends PureJavaReflectionProvider {
 
     /**
-     * Reference to the supplied list to load objects into.
+     * Reference to the supplied consumer to load objects into.
      */
-    private final List<StoredObject> objects;
+    private final Consumer<StoredObject> objects;
 
-    StoredObjectReflectionProvider(final List<StoredObject> objects) {
+    StoredObjectReflectionProvider(final Consumer<StoredObject> objects) {
         this.objects = objects;
     }
 
@@ -47,7 +48,7 @@ final class StoredObjectReflectionProvider extends PureJavaReflectionProvider {
         Object o = super.newInstance(type);
 
         if (o instanceof StoredObject) {
-            objects.add((StoredObject) o);
+            objects.accept((StoredObject) o);
         }
         return o;
     }
@@ -17,20 +17,34 @@
  */
 package jgnash.engine.xstream;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.DoubleConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
 
 import jgnash.engine.CommodityNode;
 import jgnash.engine.Config;
@@ -39,6 +53,7 @@ import jgnash.engine.ExchangeRate;
 import jgnash.engine.RootAccount;
 import jgnash.engine.StoredObject;
 import jgnash.engine.StoredObjectComparator;
+import jgnash.engine.Transaction;
 import jgnash.engine.budget.Budget;
 import jgnash.engine.recurring.Reminder;
 
@@ -72,20 +87,245 @@ class XMLContainer extends AbstractXStreamContainer {
 
         Logger logger = Logger.getLogger(XMLContainer.class.getName());
 
-        if (!Files.exists(path.getParent())) {
+        createDirectories(path);
+
+        percentCompleteConsumer.accept(0);
+
+        createBackup(path);
+
+        final List<StoredObject> list = getWritableObjects(objects);
+
+        percentCompleteConsumer.accept(0.5);
+
+        logger.info("Writing XML file");
+
+        try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeXML(list, writer);
+        } catch (final Exception e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        logger.info("Writing XML file complete");
+
+        percentCompleteConsumer.accept(1);
+    }
+
+    /**
+     * Writes a collection of StoredObjects as a single XML entry within an in-memory zip file.  The XML is
+     * compressed as it is written, so only the compressed document is held in memory.  TrashObjects and objects
+     * marked for removal are not written.
+     *
+     * @param objects          Collection of StoredObjects to write
+     * @param entryName        name of the XML entry within the zip file
+     * @param compressionLevel compression level, 0-9 or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @return contents of the zip file
+     * @see #writeCompressedXML(byte[], Path)
+     */
+    static byte[] toCompressedXML(@NotNull final Collection<StoredObject> objects, @NotNull final String entryName,
+                                  final int compressionLevel) {
+
+        final List<StoredObject> list = getWritableObjects(objects);
+
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        try (final ZipOutputStream zipOut = new ZipOutputStream(buffer)) {
+            zipOut.setLevel(compressionLevel);
+            zipOut.putNextEntry(new ZipEntry(entryName));
+
+            // closing the writer finishes the entry and the zip file
+            writeXML(list, new BufferedWriter(new OutputStreamWriter(zipOut, StandardCharsets.UTF_8)));
+        } catch (final IOException e) {   // not expected when writing to memory
+            throw new UncheckedIOException(e);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Writes a compressed XML document to a file.  If the zip file already exists, it will be overwritten.
+     *
+     * @param zip     contents of the zip file
+     * @param zipFile zip file to write
+     * @throws IOException if the zip file could not be written, a partially written file is removed
+     * @see #toCompressedXML(Collection, String, int)
+     */
+    static void writeCompressedXML(@NotNull final byte[] zip, @NotNull final Path zipFile) throws IOException {
+        createDirectories(zipFile);
+
+        Logger.getLogger(XMLContainer.class.getName()).info("Writing compressed XML file");
+
+        try {
+            Files.write(zipFile, zip);
+        } catch (final IOException e) {
+            Files.deleteIfExists(zipFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Serializes a group of changes to a single journal entry in memory.  The entry can be compressed and written
+     * later with {@link #writeCompressedDelta(byte[], Path, String, int)} after the objects may change again.
+     * <p>
+     * Nested {@code StoredObjects} are written as references because changes to them are recorded separately.  The
+     * exception is the transaction held by a reminder, which is not recorded elsewhere and is written in full.
+     *
+     * @param changed objects that have been added or changed
+     * @param removed uuids of objects that have been removed
+     * @return journal entry
+     */
+    static byte[] toDelta(@NotNull final Collection<StoredObject> changed, @NotNull final Collection<UUID> removed) {
+        Logger.getLogger(XMLContainer.class.getName()).log(Level.INFO,
+                "Serializing {0} changed and {1} removed objects", new Object[]{changed.size(), removed.size()});
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try {
+            XStreamJournal.write(out, changed, removed,
+                    (root, object) -> !(root instanceof Reminder && object instanceof Transaction));
+        } catch (final IOException e) {   // not expected when writing to memory
+            throw new UncheckedIOException(e);
+        }
+
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes a serialized journal entry compressed into a new zip file.  If the zip file already exists, it will
+     * be overwritten.
+     *
+     * @param delta            journal entry
+     * @param zipFile          zip file to write
+     * @param entryName        name of the journal entry within the zip file
+     * @param compressionLevel compression level, 0-9 or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @throws IOException if the zip file could not be written, a partially written file is removed
+     * @see #toDelta(Collection, Collection)
+     * @see #restore(Path, List, Path)
+     */
+    static void writeCompressedDelta(@NotNull final byte[] delta, @NotNull final Path zipFile,
+                                     @NotNull final String entryName, final int compressionLevel) throws IOException {
+
+        createDirectories(zipFile);
+
+        writeZipEntry(zipFile, entryName, compressionLevel, out -> out.write(delta));
+    }
+
+    private static void writeZipEntry(final Path zipFile, final String entryName, final int compressionLevel,
+                                      final EntryWriter entryWriter) throws IOException {
+
+        try (final ZipOutputStream zipOut
+                     = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(zipFile)))) {
+            zipOut.setLevel(compressionLevel);
+            zipOut.putNextEntry(new ZipEntry(entryName));
+
+            entryWriter.write(zipOut);
+        } catch (final IOException e) {
+            Files.deleteIfExists(zipFile);
+            throw e;
+        } catch (final RuntimeException e) {   // XStream exceptions are unchecked
+            Files.deleteIfExists(zipFile);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Rebuilds an XML file from a compressed backup and the compressed changes written after it.  The changes are
+     * applied in the order supplied.  If the XML file already exists, it will be overwritten.
+     *
+     * @param backup  compressed XML backup
+     * @param deltas  compressed changes to apply
+     * @param target  XML file to write
+     * @throws IOException if a file could not be read or written, or the changes are incomplete
+     * @see #writeCompressedDelta(byte[], Path, String, int)
+     */
+    static void restore(@NotNull final Path backup, @NotNull final List<Path> deltas, @NotNull final Path target)
+            throws IOException {
+
+        final Logger logger = Logger.getLogger(XMLContainer.class.getName());
+
+        final XMLContainer container = new XMLContainer(target);
+
+        logger.log(Level.INFO, "Restoring backup: {0}", backup);
+
+        try (final ZipFile zipFile = new ZipFile(backup.toFile())) {
+            final ZipEntry entry = getEntry(zipFile, backup);
+
+            try (final Reader reader = new BufferedReader(new InputStreamReader(zipFile.getInputStream(entry),
+                    StandardCharsets.UTF_8))) {
+                container.readXML(reader);
+            } catch (final ClassNotFoundException | RuntimeException e) {    // XStream exceptions are unchecked
+                throw new IOException(e);
+            }
+        }
+
+        final XStreamJournal journal = new XStreamJournal(container);
+
+        container.readWriteLock.writeLock().lock();
+
+        try {
+            for (final Path delta : deltas) {
+                logger.log(Level.INFO, "Applying changes: {0}", delta);
+
+                try (final ZipFile zipFile = new ZipFile(delta.toFile())) {
+                    final ZipEntry entry = getEntry(zipFile, delta);
+
+                    try (final InputStream in = zipFile.getInputStream(entry)) {
+                        if (journal.replay(in) != entry.getSize()) {
+                            throw new IOException("The changes are incomplete: " + delta);
+                        }
+                    }
+                }
+            }
+        } finally {
+            container.readWriteLock.writeLock().unlock();
+        }
+
+        if (journal.getUnresolvedCount() > 0) {
+            logger.log(Level.WARNING, "{0} references could not be resolved while restoring",
+                    journal.getUnresolvedCount());
+        }
+
+        createDirectories(target);
+
+        try (final Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writeXML(getWritableObjects(container.objects), writer);
+        } catch (final IOException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        } catch (final RuntimeException e) {   // XStream exceptions are unchecked
+            Files.deleteIfExists(target);
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Returns the first, and only, entry of a backup.
+     */
+    private static ZipEntry getEntry(final ZipFile zipFile, final Path path) throws IOException {
+        final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+
+        if (!entries.hasMoreElements()) {
+            throw new IOException("The backup is empty: " + path);
+        }
+
+        return entries.nextElement();
+    }
+
+    private static void createDirectories(final Path path) {
+        if (path.getParent() != null && !Files.exists(path.getParent())) {
             try {
                 Files.createDirectories(path.getParent());
-                logger.info("Created missing directories");
+                Logger.getLogger(XMLContainer.class.getName()).info("Created missing directories");
             } catch (final IOException e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+                Logger.getLogger(XMLContainer.class.getName()).log(Level.SEVERE, e.getLocalizedMessage(), e);
             }
         }
+    }
 
-        percentCompleteConsumer.accept(0);
-
-        createBackup(path);
-
-        List<StoredObject> list = new ArrayList<>();
+    /**
+     * Returns the top level objects to write in a stable order.  All other objects are reachable from them.
+     */
+    private static List<StoredObject> getWritableObjects(final Collection<StoredObject> objects) {
+        final List<StoredObject> list = new ArrayList<>();
 
         list.addAll(query(objects, Budget.class));
         list.addAll(query(objects, Config.class));
@@ -94,37 +334,28 @@ class XMLContainer extends AbstractXStreamContainer {
         list.addAll(query(objects, RootAccount.class));
         list.addAll(query(objects, Reminder.class));
 
-        percentCompleteConsumer.accept(0.25);
-
         // remove any objects marked for removal
         list.removeIf(StoredObject::isMarkedForRemoval);
 
         // sort the list
         list.sort(new StoredObjectComparator());
 
-        percentCompleteConsumer.accept(0.5);
-
-        logger.info("Writing XML file");
+        return list;
+    }
 
-        try (final Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
-            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
-            writer.write("<?fileFormat " + Engine.CURRENT_MAJOR_VERSION + "." + Engine.CURRENT_MINOR_VERSION + "?>\n");
+    /**
+     * Writes the XML document and closes the writer.
+     */
+    private static void writeXML(final List<StoredObject> list, final Writer writer) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<?fileFormat " + Engine.CURRENT_MAJOR_VERSION + "." + Engine.CURRENT_MINOR_VERSION + "?>\n");
 
-            final XStream xstream = configureXStream(new XStreamOut(new PureJavaReflectionProvider(), new StaxDriver()));
+        final XStream xstream = configureXStream(new XStreamOut(new PureJavaReflectionProvider(), new StaxDriver()));
 
-            try (final ObjectOutputStream out = xstream.createObjectOutputStream(new PrettyPrintWriter(writer))) {
-                out.writeObject(list);
-                out.flush();     // forcibly flush before letting go of the resources to help older windows systems write correctly
-            } catch (final Exception e) {
-                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
-            }
-        } catch (final IOException e) {
-            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        try (final ObjectOutputStream out = xstream.createObjectOutputStream(new PrettyPrintWriter(writer))) {
+            out.writeObject(list);
+            out.flush();     // forcibly flush before letting go of the resources to help older windows systems write correctly
         }
-
-        logger.info("Writing XML file complete");
-
-        percentCompleteConsumer.accept(1);
     }
 
     @Override
@@ -132,12 +363,18 @@ class XMLContainer extends AbstractXStreamContainer {
         writeXML();
     }
 
+    @Override
+    void writeSnapshot(final Path target) {
+        writeXML(objects, target, ignored -> { });
+    }
+
     private synchronized void writeXML() {
         readWriteLock.readLock().lock();
 
         try {
             releaseFileLock();
             writeXML(objects, path, ignored -> { });
+            snapshotWritten();
         } finally {
             if (!acquireFileLock()) { // lock the file on open
                 Logger.getLogger(XMLContainer.class.getName()).severe("Could not acquire the file lock");
@@ -150,22 +387,38 @@ class XMLContainer extends AbstractXStreamContainer {
 
         // A file lock will be held on Windows OS when reading
         try (final Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            readWriteLock.writeLock().lock();
+            readXML(reader);
+        } catch (final IOException | ClassNotFoundException e) {
+            Logger.getLogger(XMLContainer.class.getName()).log(Level.SEVERE, null, e);
+        } finally {
+            if (!acquireFileLock()) { // lock the file on open
+                Logger.getLogger(XMLContainer.class.getName()).severe("Could not acquire the file lock");
+            }
+        }
+    }
+
+    private void readXML(final Reader reader) throws IOException, ClassNotFoundException {
+        readWriteLock.writeLock().lock();
 
-            final XStream xstream = configureXStream(new XStreamJVM9(new StoredObjectReflectionProvider(objects),
+        try {
+            final XStream xstream = configureXStream(new XStreamJVM9(new StoredObjectReflectionProvider(this::addLoadedObject),
                     new StaxDriver()));
 
             try (final ObjectInputStream in = xstream.createObjectInputStream(reader)) {
                 in.readObject();
             }
 
-        } catch (final IOException | ClassNotFoundException e) {
-            Logger.getLogger(XMLContainer.class.getName()).log(Level.SEVERE, null, e);
+            indexLoadedObjects();
         } finally {
-            if (!acquireFileLock()) { // lock the file on open
-                Logger.getLogger(XMLContainer.class.getName()).severe("Could not acquire the file lock");
-            }
             readWriteLock.writeLock().unlock();
         }
     }
+
+    /**
+     * Writes the content of a zip entry.
+     */
+    @FunctionalInterface
+    private interface EntryWriter {
+        void write(OutputStream out) throws IOException;
+    }
 }
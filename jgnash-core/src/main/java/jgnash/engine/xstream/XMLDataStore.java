@@ -17,11 +17,13 @@
  */
 package jgnash.engine.xstream;
 
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 import java.util.function.DoubleConsumer;
 import java.util.logging.Logger;
 
@@ -77,6 +79,8 @@ public class XMLDataStore implements DataStore {
             container.readXML();
         }
 
+        container.openJournal();
+
         Engine engine = new Engine(new XStreamEngineDAO(container), new LocalLockManager(),
                 new LocalAttachmentManager(), engineName);
 
@@ -149,6 +153,80 @@ public class XMLDataStore implements DataStore {
         XMLContainer.writeXML(objects, path, percentComplete);
     }
 
+    /**
+     * Writes the objects as an XML file compressed into an in-memory zip file.  Only the compressed data is held in
+     * memory, an intermediate XML file is not created.
+     *
+     * @param objects          objects to write
+     * @param entryName        name of the XML file within the zip file
+     * @param compressionLevel compression level, 0-9 or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @return contents of the zip file
+     * @see #saveCompressed(Path, byte[])
+     */
+    @NotNull
+    public static byte[] toCompressedXML(@NotNull final Collection<StoredObject> objects,
+                                         @NotNull final String entryName, final int compressionLevel) {
+        return XMLContainer.toCompressedXML(objects, entryName, compressionLevel);
+    }
+
+    /**
+     * Writes a compressed XML document to a zip file.
+     *
+     * @param zipFile zip file to write
+     * @param zip     contents of the zip file
+     * @throws IOException if the zip file could not be written
+     * @see #toCompressedXML(Collection, String, int)
+     */
+    public static void saveCompressed(@NotNull final Path zipFile, @NotNull final byte[] zip) throws IOException {
+        XMLContainer.writeCompressedXML(zip, zipFile);
+    }
+
+    /**
+     * Serializes a group of changes in memory so they can be compressed later.
+     *
+     * @param changed objects that have been added or changed
+     * @param removed uuids of objects that have been removed
+     * @return serialized changes
+     * @see #saveCompressedChanges(Path, String, byte[], int)
+     */
+    @NotNull
+    public static byte[] toChanges(@NotNull final Collection<StoredObject> changed,
+                                   @NotNull final Collection<UUID> removed) {
+        return XMLContainer.toDelta(changed, removed);
+    }
+
+    /**
+     * Writes a group of serialized changes compressed into a new zip file.  The changes can be applied to a
+     * compressed XML backup with {@link #restoreCompressed(Path, List, Path)}.
+     *
+     * @param zipFile          zip file to write
+     * @param entryName        name of the changes within the zip file
+     * @param changes          serialized changes
+     * @param compressionLevel compression level, 0-9 or {@link java.util.zip.Deflater#DEFAULT_COMPRESSION}
+     * @throws IOException if the zip file could not be written
+     * @see #toChanges(Collection, Collection)
+     */
+    public static void saveCompressedChanges(@NotNull final Path zipFile, @NotNull final String entryName,
+                                             @NotNull final byte[] changes, final int compressionLevel)
+            throws IOException {
+        XMLContainer.writeCompressedDelta(changes, zipFile, entryName, compressionLevel);
+    }
+
+    /**
+     * Rebuilds an XML file from a compressed XML backup and the compressed changes written after it.
+     *
+     * @param zipFile compressed XML backup
+     * @param changes compressed changes to apply in order
+     * @param path    XML file to write
+     * @throws IOException if a file could not be read or written, or the changes are incomplete
+     * @see #toCompressedXML(Collection, String, int)
+     * @see #saveCompressedChanges(Path, String, byte[], int)
+     */
+    public static void restoreCompressed(@NotNull final Path zipFile, @NotNull final List<Path> changes,
+                                         @NotNull final Path path) throws IOException {
+        XMLContainer.restore(zipFile, changes, path);
+    }
+
     /**
      * Opens the file in readonly mode and reads the version of the file format.
      *
@@ -72,7 +72,7 @@ class XStreamAccountDAO extends AbstractXStreamDAO implements AccountDAO {
     @Override
     public boolean addAccount(final Account parent, final Account child) {
         container.set(child);
-        commit();
+        commit(parent, child);
 
         return true;
     }
@@ -80,7 +80,7 @@ class XStreamAccountDAO extends AbstractXStreamDAO implements AccountDAO {
     @Override
     public boolean addRootAccount(final RootAccount account) {
         container.set(account);
-        commit();
+        commit(account);
 
         return true;
     }
@@ -88,7 +88,7 @@ class XStreamAccountDAO extends AbstractXStreamDAO implements AccountDAO {
     @Override
     public boolean addAccountSecurity(final Account account, final SecurityNode node) {
         container.set(node);
-        commit();
+        commit(account, node);
 
         return true;
     }
@@ -115,13 +115,13 @@ class XStreamAccountDAO extends AbstractXStreamDAO implements AccountDAO {
 
     @Override
     public boolean updateAccount(final Account account) {
-        commit();
+        commit(account);
         return true;
     }
 
     @Override
     public boolean toggleAccountVisibility(final Account account) {
-        commit();
+        commit(account);
         return true;
     }
 
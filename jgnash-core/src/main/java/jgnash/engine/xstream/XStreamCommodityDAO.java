@@ -47,25 +47,25 @@ class XStreamCommodityDAO extends AbstractXStreamDAO implements CommodityDAO {
     @Override
     public boolean addCommodity(final CommodityNode node) {
         boolean result = container.set(node);
-        commit();
+        commit(node);
         return result;
     }
 
     @Override
     public boolean addExchangeRateHistory(final ExchangeRate rate) {
-        commit();
+        commit(rate);
         return true;
     }
 
     @Override
     public boolean addSecurityHistory(final SecurityNode node, final SecurityHistoryNode historyNode) {
-        commit();
+        commitMember(node, historyNode, true);
         return true;
     }
 
     @Override
     public boolean addSecurityHistoryEvent(final SecurityNode node, final SecurityHistoryEvent historyEvent) {
-        commit();
+        commitMember(node, historyEvent, true);
         return true;
     }
 
@@ -134,31 +134,31 @@ class XStreamCommodityDAO extends AbstractXStreamDAO implements CommodityDAO {
 
     @Override
     public boolean removeExchangeRateHistory(final ExchangeRate rate) {
-        commit();
+        commit(rate);
         return true;
     }
 
     @Override
     public boolean removeSecurityHistory(final SecurityNode node, final SecurityHistoryNode historyNode) {
-        commit();
+        commitMember(node, historyNode, false);
         return true;
     }
 
     @Override
     public boolean removeSecurityHistoryEvent(final SecurityNode node, final SecurityHistoryEvent historyEvent) {
-        commit();
+        commitMember(node, historyEvent, false);
         return true;
     }
 
     @Override
     public void addExchangeRate(final ExchangeRate eRate) {
         container.set(eRate);
-        commit();
+        commit(eRate);
     }
 
     @Override
     public boolean updateCommodityNode(final CommodityNode node) {
-        commit();
+        commit(node);
         return true;
     }
 }
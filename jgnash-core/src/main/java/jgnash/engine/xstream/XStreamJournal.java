@@ -0,0 +1,751 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.xstream;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiPredicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+import java.util.zip.CRC32;
+
+import jgnash.engine.Account;
+import jgnash.engine.SecurityHistoryEvent;
+import jgnash.engine.SecurityHistoryNode;
+import jgnash.engine.StoredObject;
+import jgnash.engine.Transaction;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.converters.reflection.PureJavaReflectionProvider;
+import com.thoughtworks.xstream.io.xml.CompactWriter;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+
+/**
+ * Append-only journal of changes made to an XStream container.
+ * <p>
+ * Each change is appended as a record holding the XML of the changed object, or the uuid of a removed object.  A
+ * group of records is terminated by a commit record and forced to disk.
+ * <p>
+ * Aggregates are not rewritten for a change to one of their members.  The transactions of an account are not
+ * journaled with the account; the account membership is rebuilt from the journaled transactions when they are
+ * replayed.  Security history is journaled as member records holding the uuid of the security and the XML of the
+ * added or removed history node or event.  When the file is opened, the snapshot is
+ * read first and then complete groups of journal records are replayed; a partially written group left behind by a
+ * crash is discarded.
+ * <p>
+ * Record layout: type (1 byte), payload length (4 bytes), CRC32 of the type and payload (4 bytes), payload.
+ * <p>
+ * The journal is compacted into a new snapshot in the background once it grows past the compaction threshold.
+ *
+ * @author Craig Cavanaugh
+ */
+public final class XStreamJournal {
+
+    static final String JOURNAL_EXT = ".journal";
+
+    static final String ROTATED_EXT = ".journal.old";
+
+    private static final String ENABLED = "journalEnabled";
+
+    private static final String COMPACTION_THRESHOLD = "journalCompactionThreshold";
+
+    private static final long DEFAULT_COMPACTION_THRESHOLD = 8L * 1024L * 1024L;   // 8 MB
+
+    private static final byte UPSERT = 'U';
+
+    private static final byte DELETE = 'D';
+
+    private static final byte COMMIT = 'C';
+
+    private static final byte MEMBER_ADD = 'A';
+
+    private static final byte MEMBER_REMOVE = 'R';
+
+    private static final int UUID_LENGTH = 36;
+
+    private static final int HEADER_SIZE = 9;
+
+    private static final Logger logger = Logger.getLogger(XStreamJournal.class.getName());
+
+    private final AbstractXStreamContainer container;
+
+    private final Path journalPath;
+
+    private final Path rotatedPath;
+
+    private final XStream xstream;
+
+    private final StoredObjectReferenceConverter converter;
+
+    private FileChannel channel;
+
+    XStreamJournal(final AbstractXStreamContainer container) {
+        this.container = container;
+
+        journalPath = getJournalPath(container.path);
+        rotatedPath = Paths.get(container.path.toString() + ROTATED_EXT);
+
+        xstream = createXStream();
+
+        converter = new StoredObjectReferenceConverter(container, xstream.getMapper(), xstream.getReflectionProvider());
+        xstream.registerConverter(converter, XStream.PRIORITY_VERY_HIGH);
+    }
+
+    private static XStream createXStream() {
+        final XStream xstream = AbstractXStreamContainer.configureXStream(new AbstractXStreamContainer.XStreamOut(
+                new PureJavaReflectionProvider(), new StaxDriver()));
+
+        // references between stored objects are handled by the converter
+        xstream.setMode(XStream.NO_REFERENCES);
+
+        // account membership is rebuilt from the journaled transactions
+        xstream.omitField(Account.class, "transactions");
+
+        return xstream;
+    }
+
+    /**
+     * Determines if changes to XML and binary files are journaled instead of rewriting the entire file.  Journaling
+     * is disabled unless it has been enabled with {@link #setEnabled(boolean)}.
+     *
+     * @return {@code true} if journaling is enabled
+     */
+    public static boolean isEnabled() {
+        return Preferences.userNodeForPackage(XStreamJournal.class).getBoolean(ENABLED, false);
+    }
+
+    /**
+     * Enables or disables journaling.  Takes effect the next time a file is opened.
+     *
+     * @param enabled {@code true} to enable journaling
+     */
+    public static void setEnabled(final boolean enabled) {
+        Preferences.userNodeForPackage(XStreamJournal.class).putBoolean(ENABLED, enabled);
+    }
+
+    /**
+     * Returns the size in bytes the journal may grow to before it is compacted into a new snapshot.
+     *
+     * @return compaction threshold in bytes
+     */
+    public static long getCompactionThreshold() {
+        return Preferences.userNodeForPackage(XStreamJournal.class).getLong(COMPACTION_THRESHOLD,
+                DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Sets the size in bytes the journal may grow to before it is compacted into a new snapshot.
+     *
+     * @param threshold compaction threshold in bytes
+     */
+    public static void setCompactionThreshold(final long threshold) {
+        Preferences.userNodeForPackage(XStreamJournal.class).putLong(COMPACTION_THRESHOLD,
+                Math.max(threshold, 0));
+    }
+
+    /**
+     * Returns the path of the journal for a data file.
+     *
+     * @param path data file
+     * @return journal path
+     */
+    public static Path getJournalPath(final Path path) {
+        return Paths.get(path.toString() + JOURNAL_EXT);
+    }
+
+    /**
+     * Deletes any journal files belonging to a data file.
+     *
+     * @param path data file
+     * @throws IOException thrown if a journal file could not be deleted
+     */
+    public static void deleteJournal(final Path path) throws IOException {
+        Files.deleteIfExists(getJournalPath(path));
+        Files.deleteIfExists(Paths.get(path.toString() + ROTATED_EXT));
+    }
+
+    /**
+     * Opens the journal for appending.
+     *
+     * @throws IOException thrown if the journal could not be opened
+     */
+    synchronized void open() throws IOException {
+        channel = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+    }
+
+    synchronized void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (final IOException e) {
+                logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Returns the current size of the journal in bytes.
+     *
+     * @return journal size
+     */
+    synchronized long size() {
+        try {
+            return channel != null ? channel.size() : 0;
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+            return 0;
+        }
+    }
+
+    /**
+     * Appends a group of changes and forces them to disk.
+     *
+     * @param changed objects that have been added or changed
+     * @param members members that have been added to or removed from an object
+     * @param removed uuids of objects that have been removed
+     * @throws IOException thrown if the journal could not be written
+     */
+    synchronized void append(final Collection<StoredObject> changed, final Collection<MemberChange> members,
+                             final Collection<UUID> removed) throws IOException {
+
+        if (changed.isEmpty() && members.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+
+        for (final ByteBuffer record : encode(xstream, changed, members, removed)) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+        }
+
+        channel.force(false);
+    }
+
+    /**
+     * Writes a single group of changes to a stream using the journal record format.  The stream is not closed.
+     *
+     * @param out        stream to write to
+     * @param changed    objects that have been added or changed
+     * @param removed    uuids of objects that have been removed
+     * @param referenced tests the root object being written and a nested object to determine if the nested object
+     *                   is written as a reference
+     * @throws IOException thrown if the stream could not be written
+     */
+    static void write(final OutputStream out, final Collection<StoredObject> changed, final Collection<UUID> removed,
+                      final BiPredicate<StoredObject, StoredObject> referenced) throws IOException {
+
+        final XStream xstream = createXStream();
+
+        xstream.registerConverter(new StoredObjectReferenceConverter(uuid -> null, referenced,
+                xstream.getMapper(), xstream.getReflectionProvider()), XStream.PRIORITY_VERY_HIGH);
+
+        for (final ByteBuffer record : encode(xstream, changed, Collections.emptyList(), removed)) {
+            out.write(record.array(), record.position(), record.remaining());
+        }
+    }
+
+    private static List<ByteBuffer> encode(final XStream xstream, final Collection<StoredObject> changed,
+                                           final Collection<MemberChange> members, final Collection<UUID> removed) {
+        final List<ByteBuffer> records = new ArrayList<>();
+
+        for (final StoredObject object : changed) {
+            records.add(encode(UPSERT, toXML(xstream, object).getBytes(StandardCharsets.UTF_8)));
+        }
+
+        for (final MemberChange member : members) {
+            records.add(encode(member.added ? MEMBER_ADD : MEMBER_REMOVE,
+                    (member.parent.getUuid().toString() + toXML(xstream, member.member))
+                            .getBytes(StandardCharsets.UTF_8)));
+        }
+
+        for (final UUID uuid : removed) {
+            records.add(encode(DELETE, uuid.toString().getBytes(StandardCharsets.UTF_8)));
+        }
+
+        records.add(encode(COMMIT, new byte[0]));
+
+        return records;
+    }
+
+    private static String toXML(final XStream xstream, final Object object) {
+        final StringWriter writer = new StringWriter();
+
+        xstream.marshal(object, new CompactWriter(writer));
+
+        return writer.toString();
+    }
+
+    /**
+     * Moves the current journal aside and starts a new one.  Used before a new snapshot is written so that changes
+     * made while the snapshot is being written are not lost.
+     *
+     * @throws IOException thrown if the journal could not be rotated
+     */
+    synchronized void rotate() throws IOException {
+        close();
+
+        if (Files.exists(rotatedPath)) {    // a previous compaction did not finish, keep both sets of changes
+            try (final FileChannel rotated = FileChannel.open(rotatedPath, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                try (final FileChannel current = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+                    long position = 0;
+                    final long size = current.size();
+
+                    while (position < size) {
+                        position += current.transferTo(position, size - position, rotated);
+                    }
+                }
+                rotated.force(false);
+            }
+            Files.delete(journalPath);
+        } else {
+            Files.move(journalPath, rotatedPath, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        open();
+    }
+
+    /**
+     * Removes the rotated journal once its changes are held by a snapshot.
+     */
+    void deleteRotated() {
+        try {
+            Files.deleteIfExists(rotatedPath);
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Discards all journaled changes once a full snapshot has been written.
+     *
+     * @throws IOException thrown if the journal could not be truncated
+     */
+    synchronized void clear() throws IOException {
+        deleteRotated();
+
+        if (channel != null) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Removes the journal files.  Must be called after {@link #close()}.
+     */
+    void delete() {
+        try {
+            deleteJournal(container.path);
+        } catch (final IOException e) {
+            logger.log(Level.WARNING, e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Replays the rotated journal and then the current journal into the container.  The caller must hold the
+     * container write lock.
+     *
+     * @return {@code true} if any changes were replayed
+     */
+    boolean replay() {
+        boolean result = replay(rotatedPath);
+        result |= replay(journalPath);
+
+        if (getUnresolvedCount() > 0) {
+            logger.log(Level.WARNING, "{0} references could not be resolved while replaying the journal",
+                    getUnresolvedCount());
+        }
+
+        return result;
+    }
+
+    private boolean replay(final Path path) {
+        if (!Files.exists(path)) {
+            return false;
+        }
+
+        logger.log(Level.INFO, "Replaying journal: {0}", path);
+
+        long committed = 0;     // position after the last complete group of records
+
+        try (final InputStream in = Files.newInputStream(path)) {
+            committed = replay(in);
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        // discard a partially written group of records
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            if (channel.size() > committed) {
+                logger.log(Level.WARNING, "Discarding {0} bytes of incomplete journal records",
+                        channel.size() - committed);
+                channel.truncate(committed);
+                channel.force(true);
+            }
+        } catch (final IOException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        return committed > 0;
+    }
+
+    /**
+     * Replays complete groups of records read from a stream into the container.  Reading stops at the end of the
+     * stream or at the first damaged record.  The stream is not closed.  The caller must hold the container write
+     * lock.
+     *
+     * @param inputStream stream to read
+     * @return number of bytes read up to the end of the last complete group of records
+     */
+    long replay(final InputStream inputStream) {
+        long committed = 0;     // position after the last complete group of records
+        int groups = 0;
+
+        final List<byte[]> upserts = new ArrayList<>();
+        final List<byte[]> members = new ArrayList<>();
+        final List<UUID> deletes = new ArrayList<>();
+
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(inputStream));
+            long position = 0;
+
+            while (true) {
+                final byte type = in.readByte();
+                final int length = in.readInt();
+                final int crc = in.readInt();
+
+                if (length < 0) {
+                    break;
+                }
+
+                final byte[] payload = new byte[length];
+                in.readFully(payload);
+
+                if (checksum(type, payload) != crc) {
+                    logger.warning("Journal record failed the checksum");
+                    break;
+                }
+
+                position += HEADER_SIZE + length;
+
+                if (type == UPSERT) {
+                    upserts.add(payload);
+                } else if (type == MEMBER_ADD || type == MEMBER_REMOVE) {
+                    members.add(prepend(type, payload));
+                } else if (type == DELETE) {
+                    deletes.add(UUID.fromString(new String(payload, StandardCharsets.UTF_8)));
+                } else if (type == COMMIT) {
+                    apply(upserts, members, deletes);
+                    upserts.clear();
+                    members.clear();
+                    deletes.clear();
+
+                    committed = position;
+                    groups++;
+                } else {
+                    logger.warning("Unknown journal record type");
+                    break;
+                }
+            }
+        } catch (final EOFException e) {
+            // end of the journal, or a partially written record
+        } catch (final IOException | XStreamException | IllegalArgumentException e) {
+            logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+        }
+
+        logger.log(Level.INFO, "Replayed {0} journal commits", groups);
+
+        return committed;
+    }
+
+    /**
+     * Returns the number of references that could not be resolved by the changes replayed so far.
+     *
+     * @return unresolved reference count
+     */
+    int getUnresolvedCount() {
+        return converter.getPlaceholderCount();
+    }
+
+    private void apply(final List<byte[]> upserts, final List<byte[]> members, final List<UUID> deletes) {
+
+        // unmarshalled instances that were copied onto an existing instance or placeholder
+        final Map<StoredObject, StoredObject> targets = new IdentityHashMap<>();
+
+        // transactions that are added to their accounts once the group has been read
+        final List<Transaction> transactions = new ArrayList<>();
+
+        for (final byte[] payload : upserts) {
+            final StoredObject object = (StoredObject) xstream.fromXML(new String(payload, StandardCharsets.UTF_8));
+
+            StoredObject target = container.get(object.getUuid());
+
+            // the accounts of a changed transaction are sorted by its current fields
+            if (target instanceof Transaction) {
+                unlink((Transaction) target);
+            }
+
+            if (target == null) {
+                target = converter.removePlaceholder(object.getUuid());
+            }
+
+            if (target != null && target.getClass() == object.getClass()) {
+                copyFields(object, target);
+                targets.put(object, target);
+            } else {
+                if (target != null) {
+                    container.delete(target);
+                }
+                target = object;
+            }
+
+            container.set(target);
+
+            if (target instanceof Transaction) {
+                transactions.add((Transaction) target);
+            }
+        }
+
+        // rebuild the transient caches once every reference in the group has been read
+        for (final StoredObject object : converter.drainCreated()) {
+            if (!targets.containsKey(object)) {
+                callReadResolve(object);
+            }
+        }
+
+        // the copied fields bypass the setters, rebuild the caches of the live instances such as the history index
+        // of an ExchangeRate and the epoch days of a SecurityNode
+        for (final StoredObject target : targets.values()) {
+            callReadResolve(target);
+        }
+
+        for (final Transaction transaction : transactions) {
+            link(transaction);
+        }
+
+        for (final byte[] record : members) {
+            applyMember(record[0], Arrays.copyOfRange(record, 1, record.length));
+        }
+
+        for (final UUID uuid : deletes) {
+            final StoredObject object = container.get(uuid);
+
+            if (object != null) {
+                if (object instanceof Transaction) {
+                    unlink((Transaction) object);
+                }
+
+                container.delete(object);
+            }
+        }
+    }
+
+    /**
+     * Adds a transaction to the accounts held by the container that do not contain it yet.
+     */
+    private void link(final Transaction transaction) {
+        for (final Account account : transaction.getAccounts()) {
+            if (container.get(account.getUuid()) == account && !account.contains(transaction)) {
+                invoke(account, "addTransaction", transaction);
+            }
+        }
+    }
+
+    /**
+     * Removes a transaction from the accounts that contain it.
+     */
+    private static void unlink(final Transaction transaction) {
+        for (final Account account : transaction.getAccounts()) {
+            if (account.contains(transaction)) {
+                invoke(account, "removeTransaction", transaction);
+            }
+        }
+    }
+
+    /**
+     * Adds or removes a history node or event of a security.  An existing member for the same date is replaced so
+     * replaying a change that is already held by the snapshot has no effect.
+     */
+    private void applyMember(final byte type, final byte[] payload) {
+        final UUID uuid = UUID.fromString(new String(payload, 0, UUID_LENGTH, StandardCharsets.UTF_8));
+        final Object member = xstream.fromXML(new String(payload, UUID_LENGTH, payload.length - UUID_LENGTH,
+                StandardCharsets.UTF_8));
+
+        final StoredObject parent = container.get(uuid);
+
+        if (parent == null) {
+            logger.log(Level.WARNING, "The owner of a journaled {0} was not found", member.getClass().getSimpleName());
+            return;
+        }
+
+        if (member instanceof SecurityHistoryNode) {
+            invoke(parent, "removeHistoryNode", ((SecurityHistoryNode) member).getLocalDate());
+
+            if (type == MEMBER_ADD) {
+                invoke(parent, "addHistoryNode", member);
+            }
+        } else if (member instanceof SecurityHistoryEvent) {
+            invoke(parent, "removeSecurityHistoryEvent", member);
+
+            if (type == MEMBER_ADD) {
+                invoke(parent, "addSecurityHistoryEvent", member);
+            }
+        } else {
+            logger.log(Level.WARNING, "Unknown journaled member: {0}", member.getClass().getName());
+        }
+    }
+
+    /**
+     * Calls a single argument method of a stored object.  Membership is changed through the engine's package
+     * private methods so the caches of the object are maintained.
+     */
+    private static void invoke(final Object target, final String name, final Object argument) {
+        for (Class<?> type = target.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (final Method method : type.getDeclaredMethods()) {
+                if (method.getName().equals(name) && method.getParameterCount() == 1
+                        && method.getParameterTypes()[0].isInstance(argument)) {
+                    try {
+                        method.setAccessible(true);
+                        method.invoke(target, argument);
+                    } catch (final IllegalAccessException | InvocationTargetException e) {
+                        logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+                    }
+                    return;
+                }
+            }
+        }
+
+        logger.log(Level.SEVERE, "Unable to find {0} for {1}", new Object[]{name, target.getClass().getName()});
+    }
+
+    /**
+     * Copies the persisted fields of a freshly read object onto the live instance.
+     */
+    private void copyFields(final StoredObject source, final StoredObject target) {
+        for (Class<?> type = source.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            for (final Field field : type.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers)
+                        || !xstream.getMapper().shouldSerializeMember(type, field.getName())) {
+                    continue;
+                }
+
+                try {
+                    field.setAccessible(true);
+                    field.set(target, field.get(source));
+                } catch (final IllegalAccessException e) {
+                    logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+                }
+            }
+        }
+    }
+
+    private static void callReadResolve(final StoredObject object) {
+        for (Class<?> type = object.getClass(); type != null && type != Object.class; type = type.getSuperclass()) {
+            try {
+                final Method method = type.getDeclaredMethod("readResolve");
+                method.setAccessible(true);
+                method.invoke(object);
+                return;
+            } catch (final NoSuchMethodException e) {
+                // keep looking
+            } catch (final IllegalAccessException | InvocationTargetException e) {
+                logger.log(Level.SEVERE, e.getLocalizedMessage(), e);
+                return;
+            }
+        }
+    }
+
+    private static byte[] prepend(final byte type, final byte[] payload) {
+        final byte[] record = new byte[payload.length + 1];
+
+        record[0] = type;
+        System.arraycopy(payload, 0, record, 1, payload.length);
+
+        return record;
+    }
+
+    private static ByteBuffer encode(final byte type, final byte[] payload) {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+
+        buffer.put(type);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(type, payload));
+        buffer.put(payload);
+        buffer.flip();
+
+        return buffer;
+    }
+
+    private static int checksum(final byte type, final byte[] payload) {
+        final CRC32 crc32 = new CRC32();
+
+        crc32.update(type);
+        crc32.update(payload);
+
+        return (int) crc32.getValue();
+    }
+
+    /**
+     * A member added to or removed from a collection held by a stored object.  Only the member is journaled.
+     */
+    static final class MemberChange {
+
+        final StoredObject parent;
+
+        final Object member;
+
+        final boolean added;
+
+        MemberChange(final StoredObject parent, final Object member, final boolean added) {
+            this.parent = parent;
+            this.member = member;
+            this.added = added;
+        }
+    }
+}
@@ -44,7 +44,7 @@ class XStreamTrashDAO extends AbstractXStreamDAO implements TrashDAO {
     @Override
     public void add(final TrashObject trashObject) {
         container.set(trashObject);
-        commit();
+        commit(trashObject.getObject());
     }
 
     @Override
@@ -27,6 +27,8 @@ import java.time.LocalDate;
 import java.time.format.TextStyle;
 import java.time.temporal.TemporalAdjusters;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
@@ -102,7 +104,17 @@ public class BalanceByMonthCSVReport {
 
         final LocalDate[] dates = getLastDays(startDate, endDate);
 
-        buildLists(engine.getRootAccount(), dates);
+        // only the ending balances are reported, the periods are the months leading up to each date
+        final List<LocalDate> startDates = new ArrayList<>(dates.length);
+
+        for (final LocalDate date : dates) {
+            startDates.add(date.withDayOfMonth(1));
+        }
+
+        final PeriodBalanceAggregator aggregator = new PeriodBalanceAggregator(
+                Collections.singleton(engine.getRootAccount()), startDates, Arrays.asList(dates));
+
+        buildLists(engine.getRootAccount(), aggregator, dates.length);
 
         try {
             logger.info("Writing file");
@@ -132,23 +144,24 @@ public class BalanceByMonthCSVReport {
 
     }
 
-    private void buildLists(final Account account, final LocalDate[] dates) {
+    private void buildLists(final Account account, final PeriodBalanceAggregator aggregator, final int count) {
         for (final Account child : account.getChildren(Comparators.getAccountByCode())) {
             if (child.getTransactionCount() > 0) {
                 accountList.add(child); // add the account
-                final BigDecimal[] bigDecimals = new BigDecimal[dates.length];
-                for (int i = 0; i < dates.length; i++) {
+                final BigDecimal[] bigDecimals = new BigDecimal[count];
+                for (int i = 0; i < count; i++) {
                     if (baseCommodity != null) {
-                        bigDecimals[i] = balanceConverter.apply(child.getAccountType(), child.getBalance(dates[i],
-                                baseCommodity));
+                        bigDecimals[i] = balanceConverter.apply(child.getAccountType(),
+                                aggregator.getEndingBalance(child, i, baseCommodity));
                     } else {
-                        bigDecimals[i] = balanceConverter.apply(child.getAccountType(), child.getBalance(dates[i]));
+                        bigDecimals[i] = balanceConverter.apply(child.getAccountType(),
+                                aggregator.getEndingBalance(child, i));
                     }
                 }
                 balanceList.add(bigDecimals);
             }
             if (child.isParent()) {
-                buildLists(child, dates);
+                buildLists(child, aggregator, count);
             }
         }
     }
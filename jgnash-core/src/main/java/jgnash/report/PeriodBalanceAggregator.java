@@ -0,0 +1,360 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+import jgnash.engine.Account;
+import jgnash.engine.AccountGroup;
+import jgnash.engine.CurrencyNode;
+import jgnash.util.NotNull;
+import jgnash.util.ReportRunner;
+
+/**
+ * Calculates account balances for a list of report periods.
+ * <p>
+ * The transactions of each account are walked once for all periods instead of once per period and account as
+ * {@link Account#getBalance(LocalDate, LocalDate)} would.  Tree balances are rolled up from the child balances and
+ * cached by commodity.  Exchange rates are applied the same way the {@code Account} balance methods apply them.
+ * <p>
+ * Balances are captured when the aggregator is created and are not updated if transactions are changed afterwards.
+ *
+ * @author Craig Cavanaugh
+ */
+public class PeriodBalanceAggregator {
+
+    private final List<LocalDate> startDates;
+
+    private final List<LocalDate> endDates;
+
+    /**
+     * Balances of each account in the account's own commodity.
+     */
+    private final Map<Account, Balances> balanceMap = new HashMap<>();
+
+    /**
+     * Rolled up tree balances by commodity.
+     */
+    private final Map<CurrencyNode, Map<Account, Balances>> treeBalanceMap = new HashMap<>();
+
+    /**
+     * Creates an aggregator for the supplied report periods.
+     *
+     * @param accounts    accounts to aggregate, child accounts are included automatically
+     * @param descriptors report periods
+     */
+    public PeriodBalanceAggregator(@NotNull final Collection<Account> accounts,
+                                   @NotNull final List<ReportPeriodUtils.Descriptor> descriptors) {
+        this(accounts, descriptors, new ReportRunner());
+    }
+
+    /**
+     * Creates an aggregator for the supplied report periods.
+     *
+     * @param accounts    accounts to aggregate, child accounts are included automatically
+     * @param descriptors report periods
+     * @param runner      runner used to aggregate the accounts in parallel
+     * @throws java.util.concurrent.CancellationException if the runner is cancelled
+     */
+    public PeriodBalanceAggregator(@NotNull final Collection<Account> accounts,
+                                   @NotNull final List<ReportPeriodUtils.Descriptor> descriptors,
+                                   @NotNull final ReportRunner runner) {
+        this(accounts, getStartDates(descriptors), getEndDates(descriptors), runner);
+    }
+
+    /**
+     * Creates an aggregator for the supplied report periods.
+     *
+     * @param accounts   accounts to aggregate, child accounts are included automatically
+     * @param startDates inclusive start dates of the periods
+     * @param endDates   inclusive end dates of the periods
+     */
+    public PeriodBalanceAggregator(@NotNull final Collection<Account> accounts,
+                                   @NotNull final List<LocalDate> startDates,
+                                   @NotNull final List<LocalDate> endDates) {
+        this(accounts, startDates, endDates, new ReportRunner());
+    }
+
+    /**
+     * Creates an aggregator for the supplied report periods.
+     *
+     * @param accounts   accounts to aggregate, child accounts are included automatically
+     * @param startDates inclusive start dates of the periods
+     * @param endDates   inclusive end dates of the periods
+     * @param runner     runner used to aggregate the accounts in parallel
+     * @throws java.util.concurrent.CancellationException if the runner is cancelled
+     */
+    public PeriodBalanceAggregator(@NotNull final Collection<Account> accounts,
+                                   @NotNull final List<LocalDate> startDates,
+                                   @NotNull final List<LocalDate> endDates,
+                                   @NotNull final ReportRunner runner) {
+        Objects.requireNonNull(accounts);
+
+        if (startDates.size() != endDates.size()) {
+            throw new IllegalArgumentException("The number of start and end dates must match");
+        }
+
+        this.startDates = new ArrayList<>(startDates);
+        this.endDates = new ArrayList<>(endDates);
+
+        final Set<Account> accountSet = new LinkedHashSet<>();
+
+        for (final Account account : accounts) {
+            collectAccounts(account, accountSet);
+        }
+
+        final List<Account> accountList = new ArrayList<>(accountSet);
+
+        // accounts are independent of each other
+        final List<Balances> balances = runner.run(accountList, this::aggregate);
+
+        for (int i = 0; i < accountList.size(); i++) {
+            balanceMap.put(accountList.get(i), balances.get(i));
+        }
+    }
+
+    private static List<LocalDate> getStartDates(final List<ReportPeriodUtils.Descriptor> descriptors) {
+        final List<LocalDate> dates = new ArrayList<>(descriptors.size());
+
+        for (final ReportPeriodUtils.Descriptor descriptor : descriptors) {
+            dates.add(descriptor.getStartDate());
+        }
+
+        return dates;
+    }
+
+    private static List<LocalDate> getEndDates(final List<ReportPeriodUtils.Descriptor> descriptors) {
+        final List<LocalDate> dates = new ArrayList<>(descriptors.size());
+
+        for (final ReportPeriodUtils.Descriptor descriptor : descriptors) {
+            dates.add(descriptor.getEndDate());
+        }
+
+        return dates;
+    }
+
+    private static void collectAccounts(final Account account, final Set<Account> accountSet) {
+        if (accountSet.add(account)) {
+            for (final Account child : account.getChildren()) {
+                collectAccounts(child, accountSet);
+            }
+        }
+    }
+
+    private Balances aggregate(final Account account) {
+        final int count = startDates.size();
+
+        // every balance needed is an ending balance; the day before a period starts or the end of a period
+        final TreeSet<LocalDate> dateSet = new TreeSet<>();
+
+        for (int i = 0; i < count; i++) {
+            dateSet.add(startDates.get(i).minusDays(1));
+            dateSet.add(endDates.get(i));
+        }
+
+        final List<LocalDate> dates = new ArrayList<>(dateSet);
+        final BigDecimal[] balances = account.getBalances(dates);
+
+        // market value of an investment account over a period is not the difference of the ending balances
+        final boolean investment = account.getAccountType().getAccountGroup() == AccountGroup.INVEST;
+
+        final Balances result = new Balances(count);
+
+        for (int i = 0; i < count; i++) {
+            final BigDecimal ending = balances[Collections.binarySearch(dates, endDates.get(i))];
+
+            result.ending[i] = ending;
+
+            if (investment) {
+                result.period[i] = account.getBalance(startDates.get(i), endDates.get(i));
+            } else {
+                result.period[i] = ending.subtract(balances[Collections.binarySearch(dates,
+                        startDates.get(i).minusDays(1))]);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of report periods.
+     *
+     * @return the number of periods
+     */
+    public int getPeriodCount() {
+        return startDates.size();
+    }
+
+    /**
+     * Returns the balance of the account's transactions within a period.
+     *
+     * @param account account
+     * @param period  index of the period
+     * @return the balance in the account's commodity
+     * @see Account#getBalance(LocalDate, LocalDate)
+     */
+    public BigDecimal getBalance(@NotNull final Account account, final int period) {
+        return getBalances(account).period[period];
+    }
+
+    /**
+     * Returns the balance of the account's transactions within a period.
+     *
+     * @param account account
+     * @param period  index of the period
+     * @param node    The commodity to convert balance to
+     * @return the converted balance
+     * @see Account#getBalance(LocalDate, LocalDate, CurrencyNode)
+     */
+    public BigDecimal getBalance(@NotNull final Account account, final int period, @NotNull final CurrencyNode node) {
+        return adjustForExchangeRate(account, getBalance(account, period), node, period);
+    }
+
+    /**
+     * Returns the account balance up to and inclusive of the end of a period.
+     *
+     * @param account account
+     * @param period  index of the period
+     * @return the ending balance in the account's commodity
+     * @see Account#getBalance(LocalDate)
+     */
+    public BigDecimal getEndingBalance(@NotNull final Account account, final int period) {
+        return getBalances(account).ending[period];
+    }
+
+    /**
+     * Returns the account balance up to and inclusive of the end of a period.
+     *
+     * @param account account
+     * @param period  index of the period
+     * @param node    The commodity to convert balance to
+     * @return the converted ending balance
+     * @see Account#getBalance(LocalDate, CurrencyNode)
+     */
+    public BigDecimal getEndingBalance(@NotNull final Account account, final int period,
+                                       @NotNull final CurrencyNode node) {
+        return adjustForExchangeRate(account, getEndingBalance(account, period), node, period);
+    }
+
+    /**
+     * Returns the balance of the account and its children within a period.
+     *
+     * @param account account
+     * @param period  index of the period
+     * @param node    The commodity to convert balance to
+     * @return the converted balance
+     * @see Account#getTreeBalance(LocalDate, LocalDate, CurrencyNode)
+     */
+    public BigDecimal getTreeBalance(@NotNull final Account account, final int period,
+                                     @NotNull final CurrencyNode node) {
+        return getTreeBalances(account, node).period[period];
+    }
+
+    /**
+     * Returns the balance of the account and its children up to and inclusive of the end of a period.
+     *
+     * @param account account
+     * @param period  index of the period
+     * @param node    The commodity to convert balance to
+     * @return the converted ending balance
+     * @see Account#getTreeBalance(LocalDate, CurrencyNode)
+     */
+    public BigDecimal getTreeEndingBalance(@NotNull final Account account, final int period,
+                                           @NotNull final CurrencyNode node) {
+        return getTreeBalances(account, node).ending[period];
+    }
+
+    private Balances getBalances(final Account account) {
+        final Balances balances = balanceMap.get(account);
+
+        if (balances == null) {
+            throw new IllegalArgumentException("Balances were not aggregated for " + account.getName());
+        }
+
+        return balances;
+    }
+
+    private synchronized Balances getTreeBalances(final Account account, final CurrencyNode node) {
+        final Map<Account, Balances> map = treeBalanceMap.computeIfAbsent(node, k -> new HashMap<>());
+
+        Balances balances = map.get(account);
+
+        // children are rolled up first; computeIfAbsent may not be used recursively
+        if (balances == null) {
+            final Balances own = getBalances(account);
+
+            balances = new Balances(own.period.length);
+
+            for (int i = 0; i < own.period.length; i++) {
+                balances.period[i] = adjustForExchangeRate(account, own.period[i], node, i);
+                balances.ending[i] = adjustForExchangeRate(account, own.ending[i], node, i);
+            }
+
+            for (final Account child : account.getChildren()) {
+                balances.add(getTreeBalances(child, node));
+            }
+
+            map.put(account, balances);
+        }
+
+        return balances;
+    }
+
+    private BigDecimal adjustForExchangeRate(final Account account, final BigDecimal amount, final CurrencyNode node,
+                                             final int period) {
+        if (node.equals(account.getCurrencyNode())) {
+            return amount;
+        }
+
+        // the account has a different currency, use the exchange rate in effect at the end of the period
+        return amount.multiply(account.getCurrencyNode().getExchangeRate(node, endDates.get(period)));
+    }
+
+    /**
+     * Period and ending balances by period index.
+     */
+    private static class Balances {
+
+        final BigDecimal[] period;
+
+        final BigDecimal[] ending;
+
+        Balances(final int count) {
+            period = new BigDecimal[count];
+            ending = new BigDecimal[count];
+        }
+
+        void add(final Balances balances) {
+            for (int i = 0; i < period.length; i++) {
+                period[i] = period[i].add(balances.period[i]);
+                ending[i] = ending[i].add(balances.ending[i]);
+            }
+        }
+    }
+}
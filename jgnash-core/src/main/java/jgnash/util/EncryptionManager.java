@@ -18,19 +18,19 @@
 
 package jgnash.util;
 
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.security.InvalidKeyException;
+import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.util.Base64;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.NoSuchPaddingException;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 /**
@@ -42,16 +42,49 @@ public class EncryptionManager {
 
     private final Key key;
 
+    /**
+     * Key used for authenticated encryption.  Derived separately so the same key is not used with two cipher modes.
+     */
+    private final Key aeadKey;
+
     //public static final String ENCRYPTION_FLAG = "encrypt";
 
     private static final String ENCRYPTION_ALGORITHM = "AES";
 
+    private static final String AEAD_TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final String AEAD_KEY_CONTEXT = "jgnash-aead";
+
+    private static final int AEAD_NONCE_LENGTH = 12;
+
+    private static final int AEAD_TAG_LENGTH = 16;
+
+    /**
+     * Number of bytes added to a message by {@link #seal(ByteBuffer, ByteBuffer)}.
+     */
+    public static final int AEAD_OVERHEAD = AEAD_NONCE_LENGTH + AEAD_TAG_LENGTH;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    /**
+     * Authenticated mode ciphers are initialized with the key for each message and may be shared by instances.
+     */
+    private static final ThreadLocal<Cipher> aeadCipher = new ThreadLocal<>();
+
+    /**
+     * Legacy mode ciphers stay initialized with this instance's key.
+     */
+    private final ThreadLocal<Cipher> encryptCipher = new ThreadLocal<>();
+
+    private final ThreadLocal<Cipher> decryptCipher = new ThreadLocal<>();
+
     public static final String DECRYPTION_ERROR_TAG = "<DecryptError>";
 
     private static final Logger logger = Logger.getLogger(EncryptionManager.class.getName());
 
     public EncryptionManager(final char[] password) {
         byte[] encryptionKey = "fake".getBytes(StandardCharsets.UTF_8);
+        byte[] aeadEncryptionKey = encryptionKey;
 
         try {
             final MessageDigest md = MessageDigest.getInstance("SHA-256");
@@ -62,11 +95,47 @@ public class EncryptionManager {
             encryptionKey = md.digest(builder.toString().getBytes(StandardCharsets.UTF_8));
 
             builder.delete(0, builder.length() - 1);
+
+            md.reset();
+            md.update(AEAD_KEY_CONTEXT.getBytes(StandardCharsets.UTF_8));
+            aeadEncryptionKey = md.digest(encryptionKey);
         } catch (final NoSuchAlgorithmException e) {
             LogUtil.logSevere(EncryptionManager.class, e);
         }
 
         key = new SecretKeySpec(encryptionKey, ENCRYPTION_ALGORITHM);
+        aeadKey = new SecretKeySpec(aeadEncryptionKey, ENCRYPTION_ALGORITHM);
+    }
+
+    /**
+     * Returns the calling thread's legacy mode cipher.  Ciphers are not thread safe, so each thread initializes its
+     * own once and reuses it; {@code doFinal} returns the cipher to its initialized state.
+     */
+    private Cipher getCipher(final ThreadLocal<Cipher> threadCipher, final int mode) throws GeneralSecurityException {
+        Cipher cipher = threadCipher.get();
+
+        if (cipher == null) {
+            cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
+            cipher.init(mode, key);
+            threadCipher.set(cipher);
+        }
+
+        return cipher;
+    }
+
+    /**
+     * Returns the calling thread's authenticated mode cipher.  A fresh nonce is required for every message, so the
+     * cipher must be initialized by the caller.
+     */
+    private static Cipher getAeadCipher() throws GeneralSecurityException {
+        Cipher cipher = aeadCipher.get();
+
+        if (cipher == null) {
+            cipher = Cipher.getInstance(AEAD_TRANSFORMATION);
+            aeadCipher.set(cipher);
+        }
+
+        return cipher;
     }
 
     /**
@@ -78,14 +147,10 @@ public class EncryptionManager {
     public String encrypt(final String plain) {
 
         try {
-            final Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-
-            cipher.init(Cipher.ENCRYPT_MODE, key);
-
-            return Base64.getEncoder().encodeToString(cipher.doFinal(plain.getBytes(StandardCharsets.UTF_8)));
-
-        } catch (final InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | BadPaddingException
-                | IllegalBlockSizeException e) {
+            return Base64.getEncoder().encodeToString(getCipher(encryptCipher, Cipher.ENCRYPT_MODE)
+                    .doFinal(plain.getBytes(StandardCharsets.UTF_8)));
+        } catch (final GeneralSecurityException e) {
+            encryptCipher.remove();  // the cipher state is undefined after a failure
             LogUtil.logSevere(EncryptionManager.class, e);
         }
 
@@ -102,15 +167,49 @@ public class EncryptionManager {
     public String decrypt(final String encrypted) {
 
         try {
-            final Cipher cipher = Cipher.getInstance(ENCRYPTION_ALGORITHM);
-
-            cipher.init(Cipher.DECRYPT_MODE, key);
-
-            return new String(cipher.doFinal(Base64.getDecoder().decode(encrypted)), StandardCharsets.UTF_8);
-        } catch (final InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | BadPaddingException
-                | IllegalBlockSizeException e) {
+            return new String(getCipher(decryptCipher, Cipher.DECRYPT_MODE)
+                    .doFinal(Base64.getDecoder().decode(encrypted)), StandardCharsets.UTF_8);
+        } catch (final GeneralSecurityException e) {
+            decryptCipher.remove();  // the cipher state is undefined after a failure
             logger.log(Level.SEVERE, "Invalid password");
             return DECRYPTION_ERROR_TAG;
         }
     }
+
+    /**
+     * Encrypts and authenticates the remaining bytes of a buffer.  A random nonce followed by the cipher text and
+     * authentication tag are written to the output buffer.
+     *
+     * @param plain  buffer to encrypt
+     * @param sealed buffer to write to, must have {@code plain.remaining() + AEAD_OVERHEAD} bytes remaining
+     * @throws GeneralSecurityException thrown if the buffer could not be encrypted
+     * @see #AEAD_OVERHEAD
+     */
+    public void seal(final ByteBuffer plain, final ByteBuffer sealed) throws GeneralSecurityException {
+        final byte[] nonce = new byte[AEAD_NONCE_LENGTH];
+        random.nextBytes(nonce);
+
+        final Cipher cipher = getAeadCipher();
+        cipher.init(Cipher.ENCRYPT_MODE, aeadKey, new GCMParameterSpec(AEAD_TAG_LENGTH * Byte.SIZE, nonce));
+
+        sealed.put(nonce);
+        cipher.doFinal(plain, sealed);
+    }
+
+    /**
+     * Authenticates and decrypts the remaining bytes of a buffer written by {@link #seal(ByteBuffer, ByteBuffer)}.
+     *
+     * @param sealed buffer to decrypt
+     * @param plain  buffer to write to, must have {@code sealed.remaining() - AEAD_OVERHEAD} bytes remaining
+     * @throws GeneralSecurityException thrown if the password is incorrect or the buffer has been altered
+     */
+    public void open(final ByteBuffer sealed, final ByteBuffer plain) throws GeneralSecurityException {
+        final byte[] nonce = new byte[AEAD_NONCE_LENGTH];
+        sealed.get(nonce);
+
+        final Cipher cipher = getAeadCipher();
+        cipher.init(Cipher.DECRYPT_MODE, aeadKey, new GCMParameterSpec(AEAD_TAG_LENGTH * Byte.SIZE, nonce));
+
+        cipher.doFinal(sealed, plain);
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Spreads independent per-row report calculations over a {@code ForkJoinPool}.
+ * <p>
+ * Results are returned in the order of the supplied items regardless of the order they are calculated in, so
+ * report output is deterministic.  Calculations may be cancelled from another thread and progress is reported
+ * as rows complete.  A runner may be used for several calculations; progress accumulates across them.
+ *
+ * @author Craig Cavanaugh
+ */
+public class ReportRunner {
+
+    /**
+     * Number of work units each worker thread should receive.  More than one balances uneven row costs.
+     */
+    private static final int SPLITS_PER_THREAD = 4;
+
+    private final ForkJoinPool pool;
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private volatile boolean cancelled;
+
+    private volatile ProgressListener progressListener;
+
+    /**
+     * Creates a runner that uses the common {@code ForkJoinPool}.
+     */
+    public ReportRunner() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a runner that uses the supplied {@code ForkJoinPool}.
+     *
+     * @param pool pool to run calculations in
+     */
+    public ReportRunner(@NotNull final ForkJoinPool pool) {
+        this.pool = Objects.requireNonNull(pool);
+    }
+
+    /**
+     * Sets the listener notified as rows complete.  The listener is called from the worker threads.
+     *
+     * @param progressListener progress listener, may be {@code null}
+     */
+    public void setProgressListener(@Nullable final ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Cancels any running and future calculations of this runner.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Applies the function to every item and blocks until all results are available.
+     *
+     * @param items    items to calculate, typically accounts
+     * @param function calculation for a single item, must be safe to call concurrently
+     * @param <T>      item type
+     * @param <R>      result type
+     * @return the results in the order of the supplied items
+     * @throws CancellationException if the runner was cancelled
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> List<R> run(@NotNull final List<T> items, @NotNull final Function<? super T, ? extends R> function) {
+        Objects.requireNonNull(function);
+
+        checkCancelled();
+
+        final Object[] results = new Object[items.size()];
+
+        if (!items.isEmpty()) {
+            total.addAndGet(items.size());
+
+            final int threshold = Math.max(1, items.size() / (pool.getParallelism() * SPLITS_PER_THREAD));
+
+            pool.invoke(new RowAction<>(items, function, results, 0, items.size(), threshold));
+        }
+
+        checkCancelled();
+
+        final List<R> list = new ArrayList<>(results.length);
+
+        for (final Object result : results) {
+            list.add((R) result);
+        }
+
+        return list;
+    }
+
+    private void checkCancelled() {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+    }
+
+    private void rowCompleted() {
+        final long done = completed.incrementAndGet();
+        final ProgressListener listener = progressListener;
+
+        if (listener != null) {
+            listener.progress(done, total.get());
+        }
+    }
+
+    /**
+     * Listener for calculation progress.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        /**
+         * Called when a row has been calculated.
+         *
+         * @param completed number of rows completed
+         * @param total     number of rows submitted
+         */
+        void progress(long completed, long total);
+    }
+
+    /**
+     * Splits the item range in half until it is below the threshold.
+     */
+    private class RowAction<T, R> extends RecursiveAction {
+
+        private final List<T> items;
+
+        private final Function<? super T, ? extends R> function;
+
+        private final Object[] results;
+
+        private final int start;
+
+        private final int end;
+
+        private final int threshold;
+
+        RowAction(final List<T> items, final Function<? super T, ? extends R> function, final Object[] results,
+                  final int start, final int end, final int threshold) {
+            this.items = items;
+            this.function = function;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= threshold) {
+                for (int i = start; i < end && !cancelled; i++) {
+                    results[i] = function.apply(items.get(i));
+                    rowCompleted();
+                }
+            } else {
+                final int middle = (start + end) >>> 1;
+
+                invokeAll(new RowAction<>(items, function, results, start, middle, threshold),
+                        new RowAction<>(items, function, results, middle, end, threshold));
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.message.MessageBus;
+import jgnash.engine.message.MessageChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static jgnash.engine.EngineTestUtils.bootXMLEngine;
+import static jgnash.engine.EngineTestUtils.createXMLDatabase;
+import static jgnash.engine.EngineTestUtils.flushMessages;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Restores a file from a full backup and a change archive and compares it with the engine.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class DifferentialBackupTest {
+
+    private static final String RESTORED = "restored";
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(RESTORED);
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void testRestore(final TemporaryFolder testFolder) throws IOException {
+        final String database = createXMLDatabase(testFolder, "differential-test.xml");
+
+        final Engine e = bootXMLEngine(database, EngineFactory.DEFAULT);
+
+        final DifferentialBackup differentialBackup = new DifferentialBackup(database);
+        MessageBus.getInstance().registerListener(differentialBackup, MessageChannel.values());
+
+        final Account bank = new Account(AccountType.BANK, e.getDefaultCurrency());
+        bank.setName("Bank");
+        e.addAccount(e.getRootAccount(), bank);
+
+        final Account expense = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        expense.setName("Expense");
+        e.addAccount(e.getRootAccount(), expense);
+
+        final Account removed = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        removed.setName("Removed");
+        e.addAccount(expense, removed);
+
+        final Transaction first = TransactionFactory.generateDoubleEntryTransaction(expense, bank,
+                new BigDecimal("10.00"), LocalDate.now(), "memo", "payee", "");
+        e.addTransaction(first);
+
+        // the first backup is always a full backup
+        flushMessages(e);
+        differentialBackup.backup(e);
+
+        final List<Path> fullBackups = DifferentialBackup.getFullBackups(database);
+
+        assertEquals(1, fullBackups.size());
+        assertFalse(differentialBackup.isDirty());
+
+        // changes after the full backup
+        final Account savings = new Account(AccountType.BANK, e.getDefaultCurrency());
+        savings.setName("Savings");
+        e.addAccount(bank, savings);
+
+        e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(expense, savings,
+                new BigDecimal("25.50"), LocalDate.now(), "memo", "payee", ""));
+        e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(savings, bank,
+                new BigDecimal("100.00"), LocalDate.now(), "memo", "payee", ""));
+
+        e.removeTransaction(first);
+        e.removeAccount(removed);
+
+        flushMessages(e);
+        assertTrue(differentialBackup.isDirty());
+
+        differentialBackup.backup(e);
+
+        final List<Path> changeArchives = DifferentialBackup.getChangeArchives(fullBackups.get(0));
+
+        assertEquals(1, changeArchives.size());
+        assertEquals(1, DifferentialBackup.getFullBackups(database).size());
+
+        final Path restored = Paths.get(database).resolveSibling("differential-restored.xml");
+
+        assertTrue(DifferentialBackup.restore(database, LocalDateTime.now(), restored));
+
+        final Engine restoredEngine = bootXMLEngine(restored.toString(), RESTORED);
+        assertEquals(e.getAccountList().size(), restoredEngine.getAccountList().size());
+        assertEquals(e.getTransactions().size(), restoredEngine.getTransactions().size());
+        assertNull(restoredEngine.getAccountByName("Removed"));
+
+        for (final Account account : e.getAccountList()) {
+            final Account restoredAccount = restoredEngine.getAccountByName(account.getName());
+
+            assertNotNull(restoredAccount);
+            assertEquals(account.getParent().getName(), restoredAccount.getParent().getName());
+            assertEquals(account.getTransactionCount(), restoredAccount.getTransactionCount());
+            assertEquals(0, account.getBalance().compareTo(restoredAccount.getBalance()));
+        }
+
+        MessageBus.getInstance().unregisterListener(differentialBackup, MessageChannel.values());
+
+        // change archives are removed with their full backup
+        Files.delete(fullBackups.get(0));
+        DifferentialBackup.removeOrphanedChanges(database);
+
+        assertFalse(Files.exists(changeArchives.get(0)));
+    }
+
+    @Test
+    void testNewSessionStartsWithFullBackup(final TemporaryFolder testFolder) throws IOException {
+        final String database = createXMLDatabase(testFolder, "differential-session-test.xml");
+
+        final Engine e = bootXMLEngine(database, EngineFactory.DEFAULT);
+
+        // an earlier session
+        new DifferentialBackup(database).backup(e);
+
+        final DifferentialBackup differentialBackup = new DifferentialBackup(database);
+        MessageBus.getInstance().registerListener(differentialBackup, MessageChannel.values());
+
+        final Account bank = new Account(AccountType.BANK, e.getDefaultCurrency());
+        bank.setName("Bank");
+        e.addAccount(e.getRootAccount(), bank);
+
+        flushMessages(e);
+        assertTrue(differentialBackup.isDirty());
+
+        // the changes before the first backup were not recorded, so the earlier full backup is not used
+        differentialBackup.backup(e);
+
+        final List<Path> fullBackups = DifferentialBackup.getFullBackups(database);
+
+        // full backups made within the same second are not overwritten
+        assertEquals(2, fullBackups.size());
+
+        for (final Path fullBackup : fullBackups) {
+            assertTrue(DifferentialBackup.getChangeArchives(fullBackup).isEmpty());
+        }
+
+        final Path restored = Paths.get(database).resolveSibling("differential-session-restored.xml");
+
+        assertTrue(DifferentialBackup.restore(database, LocalDateTime.now().plusSeconds(2), restored));
+
+        final Engine restoredEngine = bootXMLEngine(restored.toString(), RESTORED);
+
+        assertNotNull(restoredEngine.getAccountByName("Bank"));
+
+        MessageBus.getInstance().unregisterListener(differentialBackup, MessageChannel.values());
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import jgnash.engine.concurrent.DistributedLockManager;
+import jgnash.engine.concurrent.DistributedLockServer;
+
+import io.netty.util.ResourceLeakDetector;
+import jgnash.util.LogUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Contends for the same locks from several lock managers to validate exclusion and wait time metrics of the
+ * Distributed lock server.
+ *
+ * @author Craig Cavanaugh
+ */
+class DistributedLockContentionTest {
+
+    private static final int PORT = 5003;
+
+    private static final int CLIENTS = 4;
+
+    private static final int THREADS_PER_CLIENT = 4;
+
+    private static final int ITERATIONS = 50;
+
+    private static final String LOCK_ID = "contention";
+
+    private DistributedLockServer server;
+
+    private final List<DistributedLockManager> managers = new ArrayList<>();
+
+    /**
+     * Guarded by the distributed write lock, not thread safe on purpose.
+     */
+    private int counter;
+
+    @BeforeAll
+    static void beforeAll() {
+        ResourceLeakDetector.setLevel(ResourceLeakDetector.Level.PARANOID);
+
+        LogUtil.configureLogging();
+    }
+
+    @BeforeEach
+    void setUp() {
+        server = new DistributedLockServer(PORT);
+        assertTrue(server.startServer(EngineFactory.EMPTY_PASSWORD));
+
+        for (int i = 0; i < CLIENTS; i++) {
+            final DistributedLockManager manager = new DistributedLockManager(EngineFactory.LOCALHOST, PORT);
+            assertTrue(manager.connectToServer(EngineFactory.EMPTY_PASSWORD));
+
+            managers.add(manager);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (final DistributedLockManager manager : managers) {
+            manager.disconnectFromServer();
+        }
+
+        server.stopServer();
+    }
+
+    @Test
+    void testContention() throws Exception {
+        final ExecutorService executorService = Executors.newFixedThreadPool(CLIENTS * THREADS_PER_CLIENT);
+
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+
+        for (final DistributedLockManager manager : managers) {
+            for (int i = 0; i < THREADS_PER_CLIENT; i++) {
+                tasks.add(() -> {
+                    final ReentrantReadWriteLock lock = manager.getLock(LOCK_ID);
+
+                    int reads = 0;
+
+                    for (int j = 0; j < ITERATIONS; j++) {
+                        lock.writeLock().lock();
+
+                        try {
+                            final int value = counter;
+                            Thread.yield();
+                            counter = value + 1;
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+
+                        lock.readLock().lock();
+
+                        try {
+                            if (counter > 0) {
+                                reads++;
+                            }
+                        } finally {
+                            lock.readLock().unlock();
+                        }
+                    }
+
+                    return reads;
+                });
+            }
+        }
+
+        final long start = System.nanoTime();
+
+        int reads = 0;
+
+        for (final Future<Integer> future : executorService.invokeAll(tasks)) {
+            reads += future.get();
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        executorService.shutdown();
+        assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(tasks.size() * ITERATIONS, counter);
+        assertEquals(tasks.size() * ITERATIONS, reads);
+
+        final Map<String, DistributedLockServer.LockMetrics> metrics = server.getLockMetrics();
+
+        final DistributedLockServer.LockMetrics lockMetrics = metrics.get(LOCK_ID);
+        assertNotNull(lockMetrics);
+
+        assertEquals(tasks.size() * ITERATIONS * 2, lockMetrics.getGrantCount());
+        assertEquals(0, lockMetrics.getWaitingCount());
+
+        System.out.printf("%d lock operations in %.2f s%n", lockMetrics.getGrantCount() * 2, seconds);
+        System.out.println(lockMetrics);
+    }
+}
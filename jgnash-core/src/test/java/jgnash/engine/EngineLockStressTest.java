@@ -0,0 +1,246 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.concurrent.LocalLockManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a mixed workload of transaction, security price and read operations against the engine to validate
+ * striped locking and compare its throughput with the single engine lock.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class EngineLockStressTest {
+
+    private static final int WRITERS = 4;
+
+    private static final int ITERATIONS = 250;
+
+    /**
+     * Every nth transaction also touches the shared savings account.
+     */
+    private static final int SHARED_INTERVAL = 5;
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        System.clearProperty(EngineLocks.STRIPED_LOCKS);
+    }
+
+    @Test
+    void testStripedLocks(final TemporaryFolder testFolder) throws Exception {
+        run(testFolder, true);
+    }
+
+    @Test
+    void testOrderedTryLock() throws Exception {
+        final LocalLockManager lockManager = new LocalLockManager();
+        final EngineLocks engineLocks = new EngineLocks(lockManager, true);
+
+        final CountDownLatch held = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        // another thread holds the commodity stripe
+        final Thread holder = new Thread(() -> {
+            final Lock lock = engineLocks.commodityLock("GOOG");
+
+            lock.lock();
+
+            try {
+                held.countDown();
+                release.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+
+        holder.start();
+        held.await();
+
+        final Lock lock = engineLocks.commodityLock("GOOG");
+
+        // the engine read lock acquired first is released when the stripe is not available
+        assertFalse(lock.tryLock());
+        assertEquals(0, lockManager.getLock("bigLock").getReadHoldCount());
+
+        assertFalse(lock.tryLock(10, TimeUnit.MILLISECONDS));
+        assertEquals(0, lockManager.getLock("bigLock").getReadHoldCount());
+
+        release.countDown();
+        holder.join();
+
+        assertTrue(lock.tryLock(1, TimeUnit.SECONDS));
+        lock.unlock();
+
+        assertEquals(0, lockManager.getLock("bigLock").getReadHoldCount());
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testMixedWorkloadThroughput(final TemporaryFolder testFolder) throws Exception {
+        final double single = run(testFolder, false);
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        final double striped = run(testFolder, true);
+
+        System.out.printf("mixed workload: engine lock %.0f ops/s, striped locks %.0f ops/s%n", single, striped);
+    }
+
+    private static double run(final TemporaryFolder testFolder, final boolean striped) throws Exception {
+        System.setProperty(EngineLocks.STRIPED_LOCKS, Boolean.toString(striped));
+
+        final Engine e = createEngine(testFolder, striped ? "striped-lock-test.xml" : "engine-lock-test.xml");
+        final CurrencyNode currency = e.getDefaultCurrency();
+
+        final Account savings = addAccount(e, AccountType.BANK, "Savings");
+
+        final SecurityNode securityNode = new SecurityNode(currency);
+        securityNode.setSymbol("GOOG");
+        securityNode.setScale((byte) 2);
+        assertTrue(e.addSecurity(securityNode));
+
+        final List<Account> checkingAccounts = new ArrayList<>();
+        final List<Callable<Integer>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < WRITERS; i++) {
+            final Account checking = addAccount(e, AccountType.CHECKING, "Checking " + i);
+            final Account expense = addAccount(e, AccountType.EXPENSE, "Expense " + i);
+
+            checkingAccounts.add(checking);
+
+            tasks.add(() -> {
+                final LocalDate start = LocalDate.now().minusDays(ITERATIONS);
+
+                for (int j = 0; j < ITERATIONS; j++) {
+                    final Transaction transaction;
+
+                    if (j % SHARED_INTERVAL == 0) {  // multi-account transfer contending with other writers
+                        transaction = TransactionFactory.generateDoubleEntryTransaction(savings, checking,
+                                BigDecimal.ONE, start.plusDays(j), "transfer", "", "");
+                    } else {
+                        transaction = TransactionFactory.generateDoubleEntryTransaction(expense, checking,
+                                BigDecimal.ONE, start.plusDays(j), "memo", "payee", "");
+                    }
+
+                    assertTrue(e.addTransaction(transaction));
+                }
+                return ITERATIONS;
+            });
+        }
+
+        // security price updates
+        tasks.add(() -> {
+            final LocalDate start = LocalDate.now().minusDays(ITERATIONS);
+
+            for (int j = 0; j < ITERATIONS; j++) {
+                final BigDecimal price = BigDecimal.valueOf(100 + j);
+
+                assertTrue(e.addSecurityHistory(securityNode, new SecurityHistoryNode(start.plusDays(j), price, 1000,
+                        price, price)));
+            }
+            return ITERATIONS;
+        });
+
+        // budget, account and preference reads
+        tasks.add(() -> {
+            for (int j = 0; j < ITERATIONS; j++) {
+                assertNotNull(e.getBudgetList());
+                assertNotNull(e.getAccountList());
+                assertNotNull(e.getDefaultCurrency());
+                e.getPreference("stress");
+            }
+            return ITERATIONS * 4;
+        });
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(tasks.size());
+
+        try {
+            final long start = System.nanoTime();
+
+            int operations = 0;
+
+            for (final Future<Integer> future : executorService.invokeAll(tasks)) {
+                operations += future.get();
+            }
+
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            for (final Account checking : checkingAccounts) {
+                assertEquals(ITERATIONS, checking.getTransactionCount());
+            }
+
+            assertEquals(WRITERS * ITERATIONS / SHARED_INTERVAL, savings.getTransactionCount());
+            assertEquals(WRITERS * ITERATIONS, e.getTransactions().size());
+            assertEquals(ITERATIONS, securityNode.getHistoryNodes().size());
+
+            return operations / seconds;
+        } finally {
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+
+    private static Engine createEngine(final TemporaryFolder testFolder, final String fileName) throws IOException {
+        final String database = testFolder.createFile(fileName).getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        return e;
+    }
+
+    private static Account addAccount(final Engine e, final AccountType type, final String name) {
+        final Account account = new Account(type, e.getDefaultCurrency());
+        account.setName(name);
+        assertTrue(e.addAccount(e.getRootAccount(), account));
+
+        return account;
+    }
+}
@@ -345,6 +345,52 @@ public abstract class EngineTest {
         EngineFactory.closeEngine(EngineFactory.DEFAULT);
     }
 
+    @Test
+    void exchangeRateHistoryTest() {
+
+        CurrencyNode usdNode = new CurrencyNode();
+        usdNode.setSymbol("USD");
+        usdNode.setPrefix("$");
+        usdNode.setDescription("US Dollar");
+        e.addCurrency(usdNode);
+
+        CurrencyNode cadNode = new CurrencyNode();
+        cadNode.setSymbol("CAD");
+        cadNode.setPrefix("$");
+        cadNode.setDescription("CAD Dollar");
+        e.addCurrency(cadNode);
+
+        final LocalDate date = LocalDate.of(2018, Month.JANUARY, 15);
+
+        e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.100"), date);
+        e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.200"), date.plusMonths(1));
+        e.setExchangeRate(usdNode, cadNode, new BigDecimal("1.300"), date.plusMonths(2));
+
+        // latest rate
+        assertEquals(new BigDecimal("1.300"), usdNode.getExchangeRate(cadNode));
+
+        // rate in effect on or before the date
+        assertEquals(new BigDecimal("1.100"), usdNode.getExchangeRate(cadNode, date.minusDays(1)));
+        assertEquals(new BigDecimal("1.100"), usdNode.getExchangeRate(cadNode, date));
+        assertEquals(new BigDecimal("1.100"), usdNode.getExchangeRate(cadNode, date.plusDays(20)));
+        assertEquals(new BigDecimal("1.200"), usdNode.getExchangeRate(cadNode, date.plusMonths(1)));
+        assertEquals(new BigDecimal("1.300"), usdNode.getExchangeRate(cadNode, date.plusYears(1)));
+
+        assertEquals(new BigDecimal("0.833"), cadNode.getExchangeRate(usdNode, date.plusMonths(1))
+                .setScale(3, RoundingMode.DOWN));
+
+        final ExchangeRate rate = e.getExchangeRate(usdNode, cadNode);
+
+        assertTrue(rate.contains(date.plusMonths(1)));
+        assertFalse(rate.contains(date.plusDays(1)));
+        assertEquals(3, rate.getHistory().size());
+
+        e.removeExchangeRateHistory(rate, rate.getHistory().get(2));
+
+        assertEquals(new BigDecimal("1.200"), usdNode.getExchangeRate(cadNode));
+        assertEquals(new BigDecimal("1.200"), usdNode.getExchangeRate(cadNode, date.plusYears(1)));
+    }
+
     @Test
     void commodityNodeStoreTest() {
         CurrencyNode node = new CurrencyNode();
@@ -558,6 +604,60 @@ public abstract class EngineTest {
         assertEquals(0, securityNode1.getHistoryEvents().size());
     }
 
+    @Test
+    void testSecurityHistoryLookup() {
+        final SecurityNode securityNode = new SecurityNode(e.getDefaultCurrency());
+        securityNode.setSymbol("LOOKUP");
+        assertTrue(e.addSecurity(securityNode));
+
+        final LocalDate start = LocalDate.of(2010, Month.JANUARY, 1);
+
+        // add out of order, every other day
+        for (int i = 100; i >= 0; i -= 2) {
+            assertTrue(e.addSecurityHistory(securityNode, new SecurityHistoryNode(start.plusDays(i),
+                    BigDecimal.valueOf(i + 1), 0, null, null)));
+        }
+
+        assertEquals(51, securityNode.getHistoryNodes().size());
+        assertEquals(start, securityNode.getHistoryNodes().get(0).getLocalDate());
+
+        assertTrue(securityNode.contains(start.plusDays(50)));
+        assertFalse(securityNode.contains(start.plusDays(51)));
+
+        assertTrue(securityNode.getHistoryNode(start.plusDays(50)).isPresent());
+        assertFalse(securityNode.getHistoryNode(start.plusDays(51)).isPresent());
+
+        assertFalse(securityNode.getClosestHistoryNode(start.minusDays(1)).isPresent());
+        assertEquals(start.plusDays(50), securityNode.getClosestHistoryNode(start.plusDays(51)).get().getLocalDate());
+        assertEquals(start.plusDays(100), securityNode.getClosestHistoryNode(start.plusDays(500)).get().getLocalDate());
+
+        assertEquals(0, BigDecimal.valueOf(51).compareTo(Engine.getMarketPrice(Collections.emptyList(), securityNode,
+                e.getDefaultCurrency(), start.plusDays(51))));
+
+        assertTrue(e.removeSecurityHistory(securityNode, start.plusDays(50)));
+        assertFalse(securityNode.contains(start.plusDays(50)));
+        assertEquals(start.plusDays(48), securityNode.getClosestHistoryNode(start.plusDays(50)).get().getLocalDate());
+
+        // 2:1 split, adjustments must be applied and then cleared when the split is removed
+        final SecurityHistoryEvent splitEvent = new SecurityHistoryEvent(SecurityHistoryEventType.SPLIT,
+                start.plusDays(60), new BigDecimal("2"));
+
+        assertTrue(e.addSecurityHistoryEvent(securityNode, splitEvent));
+
+        SecurityHistoryNode node = securityNode.getHistoryNodes().get(0);
+        assertEquals(0, new BigDecimal("0.5").compareTo(node.getAdjustedPrice()));
+
+        node = securityNode.getHistoryNodes().get(securityNode.getHistoryNodes().size() - 1);
+        assertEquals(0, node.getPrice().compareTo(node.getAdjustedPrice()));
+
+        assertEquals(2, securityNode.getHistoryNodeGroupsBySplits().size());
+
+        assertTrue(e.removeSecurityHistoryEvent(securityNode, splitEvent));
+
+        node = securityNode.getHistoryNodes().get(0);
+        assertEquals(0, node.getPrice().compareTo(node.getAdjustedPrice()));
+    }
+
     @Test
     void testGetExchangeRate() {
 
@@ -0,0 +1,83 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import jgnash.engine.message.ChannelEvent;
+import jgnash.engine.message.Message;
+import jgnash.engine.message.MessageBus;
+import jgnash.engine.message.MessageChannel;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Shared fixtures for tests that need a file based engine.
+ *
+ * @author Craig Cavanaugh
+ */
+public final class EngineTestUtils {
+
+    private EngineTestUtils() {
+        // utility class
+    }
+
+    /**
+     * Creates the path of an empty XML database in a temporary folder.
+     *
+     * @param testFolder temporary folder
+     * @param fileName   name of the database file
+     * @return path of the database
+     * @throws IOException if the file could not be created
+     */
+    public static String createXMLDatabase(final TemporaryFolder testFolder, final String fileName)
+            throws IOException {
+        final String database = testFolder.createFile(fileName).getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        return database;
+    }
+
+    /**
+     * Boots an engine for an XML database.
+     *
+     * @param database   path of the database
+     * @param engineName name of the engine
+     * @return the engine
+     */
+    public static Engine bootXMLEngine(final String database, final String engineName) {
+        final Engine engine = EngineFactory.bootLocalEngine(database, engineName, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(engine);
+
+        return engine;
+    }
+
+    /**
+     * Messages are delivered in order on a single thread, wait for the pending messages to be delivered.
+     *
+     * @param engine engine the messages were posted for
+     */
+    public static void flushMessages(final Engine engine) {
+        MessageBus.getInstance().fireBlockingEvent(new Message(MessageChannel.SYSTEM,
+                ChannelEvent.BACKGROUND_PROCESS_STOPPED, engine));
+    }
+}
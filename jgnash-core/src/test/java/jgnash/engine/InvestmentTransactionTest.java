@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static jgnash.engine.TransactionFactory.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
@@ -550,4 +551,61 @@ public class InvestmentTransactionTest extends AbstractEngineTest {
 
         assertArrayEquals(expected, actual, "Account balances are not as expected!");
     }
+
+    @Test
+    void SecurityTransactionIndex() {
+        final LocalDate start = LocalDate.of(2009, Month.DECEMBER, 1);
+
+        final InvestmentTransaction buy1 = generateBuyXTransaction(usdBankAccount, investAccount, securityNode1,
+                new BigDecimal("2.00"), new BigDecimal("100"), BigDecimal.ONE, start, "Buy shares",
+                new ArrayList<>());
+        assertTrue(e.addTransaction(buy1));
+
+        final InvestmentTransaction buy2 = generateBuyXTransaction(usdBankAccount, investAccount, securityNode1,
+                new BigDecimal("3.00"), new BigDecimal("50"), BigDecimal.ONE, start.plusDays(4), "Buy shares",
+                new ArrayList<>());
+        assertTrue(e.addTransaction(buy2));
+
+        final InvestmentTransaction sell = generateSellXTransaction(usdBankAccount, investAccount, securityNode1,
+                new BigDecimal("4.00"), new BigDecimal("30"), BigDecimal.ONE, start.plusDays(9), "Selling shares",
+                new ArrayList<>(), new ArrayList<>());
+        assertTrue(e.addTransaction(sell));
+
+        final SecurityHistoryNode history = new SecurityHistoryNode();
+        history.setDate(start.plusDays(6));
+        history.setPrice(new BigDecimal("3.50"));
+        assertTrue(e.addSecurityHistory(securityNode1, history));
+
+        final SecurityTransactionIndex index = investAccount.getSecurityTransactionIndex();
+
+        assertEquals(0, BigDecimal.ZERO.compareTo(index.getShares(securityNode1, start.minusDays(1))));
+        assertEquals(0, new BigDecimal("100").compareTo(index.getShares(securityNode1, start.plusDays(3))));
+        assertEquals(0, new BigDecimal("150").compareTo(index.getShares(securityNode1, start.plusDays(4))));
+        assertEquals(0, new BigDecimal("120").compareTo(index.getShares(securityNode1, start.plusDays(20))));
+        assertEquals(0, new BigDecimal("20").compareTo(index.getShares(securityNode1, start.plusDays(1),
+                start.plusDays(20))));
+        assertEquals(0, BigDecimal.ZERO.compareTo(index.getShares(new SecurityNode(e.getDefaultCurrency()),
+                start.plusDays(20))));
+
+        assertFalse(index.getLastPricedTransaction(securityNode1, start.minusDays(1)).isPresent());
+        assertEquals(buy2, index.getLastPricedTransaction(securityNode1, start.plusDays(8)).orElse(null));
+
+        // the index and a search of the transactions must agree
+        for (int i = -1; i < 12; i++) {
+            final LocalDate date = start.plusDays(i);
+
+            assertEquals(Engine.getMarketPrice(investAccount.getSortedTransactionList(), securityNode1,
+                    investAccount.getCurrencyNode(), date),
+                    Engine.getMarketPrice(investAccount, securityNode1, investAccount.getCurrencyNode(), date));
+        }
+
+        assertEquals(new BigDecimal("480.00"), investAccount.getMarketValue());
+
+        // removal must update the index
+        assertTrue(e.removeTransaction(sell));
+
+        assertEquals(0, new BigDecimal("150").compareTo(index.getShares(securityNode1, start.plusDays(20))));
+        assertEquals(buy2, index.getLastPricedTransaction(securityNode1, start.plusDays(20)).orElse(null));
+        assertEquals(new BigDecimal("525.00"), investAccount.getMarketValue());
+    }
 }
@@ -0,0 +1,216 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies the entities returned by concurrent report queries and compares their throughput using the shared
+ * entity manager against pooled entity managers.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class JpaConcurrentReadTest {
+
+    private static final String CONCURRENT_READS = "jgnash.jpa.concurrentReads";
+
+    private static final int TRANSACTION_COUNT = 2000;
+
+    private static final int THREADS = 4;
+
+    private static final int ITERATIONS = 25;
+
+    @ParameterizedTest
+    @EnumSource(value = DataStoreType.class, names = {"H2_DATABASE", "HSQL_DATABASE"})
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testConcurrentReads(final DataStoreType type, final TemporaryFolder testFolder) throws Exception {
+        final String database = testFolder.createFile("concurrent-read-test" + type.getDataStore().getFileExt())
+                .getAbsolutePath();
+
+        createDatabase(database, type);
+
+        final double single = measure(database, type, false);
+        final double pooled = measure(database, type, true);
+
+        System.out.printf("%s: shared entity manager %.1f queries/s, pooled entity managers %.1f queries/s%n",
+                type, single, pooled);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = DataStoreType.class, names = {"H2_DATABASE", "HSQL_DATABASE"})
+    void testConcurrentReadEntities(final DataStoreType type, final TemporaryFolder testFolder) throws Exception {
+        final String database = testFolder.createFile("concurrent-entity-test" + type.getDataStore().getFileExt())
+                .getAbsolutePath();
+
+        final Set<UUID> expected = createDatabase(database, type);
+
+        final Engine shared = bootEngine(database, type, false);
+        final Set<UUID> accounts = getUuids(shared.getAccountList());
+        final Set<UUID> currencies = getUuids(shared.getCurrencies());
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        final Engine e = bootEngine(database, type, true);
+
+        try {
+            final List<Transaction> transactions = e.getTransactions();
+
+            assertEquals(TRANSACTION_COUNT, transactions.size());
+            assertEquals(expected, getUuids(transactions));
+
+            for (final Transaction transaction : transactions) {
+                assertFalse(transaction.isMarkedForRemoval());
+
+                // the instances held by the shared entity manager are returned
+                assertSame(transaction, e.getStoredObjectByUuid(Transaction.class, transaction.getUuid()));
+            }
+
+            assertEquals(accounts, getUuids(e.getAccountList()));
+            assertEquals(currencies, getUuids(e.getCurrencies()));
+
+            for (final Account account : e.getAccountList()) {
+                assertSame(account, e.getAccountByUuid(account.getUuid()));
+            }
+        } finally {
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+            System.clearProperty(CONCURRENT_READS);
+        }
+    }
+
+    private static Engine bootEngine(final String database, final DataStoreType type, final boolean concurrentReads) {
+        System.setProperty(CONCURRENT_READS, Boolean.toString(concurrentReads));
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                type);
+
+        assertNotNull(e);
+
+        return e;
+    }
+
+    private static Set<UUID> getUuids(final Collection<? extends StoredObject> objects) {
+        return objects.stream().map(StoredObject::getUuid).collect(Collectors.toSet());
+    }
+
+    private static Set<UUID> createDatabase(final String database, final DataStoreType type) throws IOException {
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                type);
+
+        assertNotNull(e);
+
+        final CurrencyNode node = e.getDefaultCurrency();
+
+        final Account checking = new Account(AccountType.CHECKING, node);
+        checking.setName("Checking");
+        e.addAccount(e.getRootAccount(), checking);
+
+        final Account expense = new Account(AccountType.EXPENSE, node);
+        expense.setName("Expense");
+        e.addAccount(e.getRootAccount(), expense);
+
+        final List<Transaction> transactions = new ArrayList<>();
+        final LocalDate start = LocalDate.now().minusDays(TRANSACTION_COUNT);
+
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            transactions.add(TransactionFactory.generateDoubleEntryTransaction(expense, checking, BigDecimal.ONE,
+                    start.plusDays(i), "memo", "payee", ""));
+        }
+
+        assertTrue(e.addTransactions(transactions));
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+        return getUuids(transactions);
+    }
+
+    private static double measure(final String database, final DataStoreType type, final boolean concurrentReads)
+            throws Exception {
+
+        System.setProperty(CONCURRENT_READS, Boolean.toString(concurrentReads));
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT,
+                    EngineFactory.EMPTY_PASSWORD, type);
+
+            assertNotNull(e);
+
+            final int accountCount = e.getAccountList().size();
+
+            final Callable<Integer> report = () -> {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    assertEquals(TRANSACTION_COUNT, e.getTransactions().size());
+                    assertEquals(accountCount, e.getAccountList().size());
+                    assertNotNull(e.getSecurities());
+                }
+                return ITERATIONS * 3;
+            };
+
+            final List<Callable<Integer>> tasks = new ArrayList<>();
+
+            for (int i = 0; i < THREADS; i++) {
+                tasks.add(report);
+            }
+
+            final long start = System.nanoTime();
+
+            int queries = 0;
+
+            for (final Future<Integer> future : executorService.invokeAll(tasks)) {
+                queries += future.get();
+            }
+
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+
+            return queries / seconds;
+        } finally {
+            executorService.shutdown();
+            System.clearProperty(CONCURRENT_READS);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for {@code SortedTransactionList}.  Each change is checked against a fully sorted list.
+ *
+ * @author Craig Cavanaugh
+ */
+class SortedTransactionListTest {
+
+    private static final int COUNT = 500;
+
+    private static final LocalDate START = LocalDate.of(2019, 1, 1);
+
+    private final Account account = createAccount();
+
+    @Test
+    void testInsertOrder() {
+        final Random random = new Random(42);
+        final List<Transaction> transactions = new ArrayList<>();
+
+        // a few dates so most transactions share a date with another
+        for (int i = 0; i < COUNT; i++) {
+            transactions.add(createTransaction(START.plusDays(random.nextInt(30)),
+                    new BigDecimal(random.nextInt(1000)), Integer.toString(random.nextInt(3))));
+        }
+
+        final SortedTransactionList sortedList = new SortedTransactionList(Collections.emptyList());
+        final List<Transaction> expected = new ArrayList<>();
+
+        for (final Transaction transaction : transactions) {
+            expected.add(transaction);
+            Collections.sort(expected);
+
+            assertEquals(expected.indexOf(transaction), sortedList.insert(transaction));
+            assertEquals(expected, sortedList);
+        }
+
+        // built from a collection in any order
+        Collections.reverse(transactions);
+        assertEquals(expected, new SortedTransactionList(transactions));
+
+        Collections.shuffle(transactions, random);
+        assertEquals(expected, new SortedTransactionList(transactions));
+    }
+
+    @Test
+    void testEqualDates() {
+        final List<Transaction> transactions = new ArrayList<>();
+
+        for (int i = 0; i < COUNT; i++) {
+            transactions.add(createTransaction(START, BigDecimal.TEN, ""));
+        }
+
+        final List<Transaction> expected = new ArrayList<>(transactions);
+        Collections.sort(expected);
+
+        final SortedTransactionList sortedList = new SortedTransactionList(Collections.emptyList());
+
+        Collections.shuffle(transactions, new Random(42));
+
+        for (final Transaction transaction : transactions) {
+            assertTrue(sortedList.add(transaction));
+        }
+
+        assertEquals(expected, sortedList);
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(i, sortedList.indexOf(expected.get(i)));
+            assertEquals(i, sortedList.lastIndexOf(expected.get(i)));
+        }
+
+        // a transaction is only held once
+        for (final Transaction transaction : transactions) {
+            assertFalse(sortedList.add(transaction));
+            assertEquals(-1, sortedList.insert(transaction));
+        }
+
+        assertEquals(expected, sortedList);
+    }
+
+    @Test
+    void testRemoval() {
+        final Random random = new Random(42);
+        final List<Transaction> expected = new ArrayList<>();
+
+        for (int i = 0; i < COUNT; i++) {
+            expected.add(createTransaction(START.plusDays(random.nextInt(30)),
+                    new BigDecimal(random.nextInt(1000)), ""));
+        }
+
+        final SortedTransactionList sortedList = new SortedTransactionList(expected);
+        Collections.sort(expected);
+
+        assertEquals(expected, sortedList);
+
+        while (!expected.isEmpty()) {
+            final int index = random.nextInt(expected.size());
+            final Transaction transaction = expected.get(index);
+
+            if (random.nextBoolean()) {
+                assertTrue(sortedList.remove(transaction));
+                expected.remove(index);
+            } else {
+                assertEquals(transaction, sortedList.remove(index));
+                expected.remove(index);
+            }
+
+            assertEquals(expected, sortedList);
+            assertFalse(sortedList.contains(transaction));
+            assertEquals(-1, sortedList.indexOf(transaction));
+            assertFalse(sortedList.remove(transaction));
+        }
+
+        assertTrue(sortedList.isEmpty());
+    }
+
+    private Transaction createTransaction(final LocalDate date, final BigDecimal amount, final String number) {
+        return TransactionFactory.generateSingleEntryTransaction(account, amount, date, "memo", "payee", number);
+    }
+
+    private static Account createAccount() {
+        final Account account = new Account(AccountType.BANK, DefaultCurrencies.buildCustomNode("USD"));
+        account.setName("Bank");
+
+        return account;
+    }
+}
@@ -4,12 +4,17 @@ import io.github.glytching.junit.extension.folder.TemporaryFolder;
 import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -112,4 +117,286 @@ class TransactionTest {
         }
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testRunningBalance(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("running-balance-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        try {
+            Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.XML);
+
+            CurrencyNode defaultCurrency = DefaultCurrencies.buildCustomNode("USD");
+
+            e.addCurrency(defaultCurrency);
+            e.setDefaultCurrency(defaultCurrency);
+
+            Account usdBankAccount = new Account(AccountType.BANK, defaultCurrency);
+            usdBankAccount.setName("USD Bank Account");
+            e.addAccount(e.getRootAccount(), usdBankAccount);
+
+            final LocalDate today = LocalDate.now();
+
+            // add out of order to force inserts ahead of the calculated running balance
+            e.addTransaction(TransactionFactory.generateSingleEntryTransaction(usdBankAccount,
+                    new BigDecimal("100.00"), today, "", "", ""));
+            e.addTransaction(TransactionFactory.generateSingleEntryTransaction(usdBankAccount,
+                    new BigDecimal("50.00"), today.minusDays(10), "", "", ""));
+
+            assertEquals(new BigDecimal("150.00"), usdBankAccount.getBalance());
+
+            final Transaction middle = TransactionFactory.generateSingleEntryTransaction(usdBankAccount,
+                    new BigDecimal("-25.00"), today.minusDays(5), "", "", "");
+            e.addTransaction(middle);
+
+            assertEquals(new BigDecimal("50.00"), usdBankAccount.getBalanceAt(usdBankAccount.getTransactionAt(0)));
+            assertEquals(new BigDecimal("25.00"), usdBankAccount.getBalanceAt(middle));
+            assertEquals(new BigDecimal("125.00"), usdBankAccount.getBalance());
+
+            assertEquals(BigDecimal.ZERO, usdBankAccount.getBalance(today.minusDays(11)));
+            assertEquals(new BigDecimal("25.00"), usdBankAccount.getBalance(today.minusDays(1)));
+            assertEquals(new BigDecimal("75.00"), usdBankAccount.getBalance(today.minusDays(5), today));
+            assertEquals(BigDecimal.ZERO, usdBankAccount.getBalance(today.minusDays(4), today.minusDays(1)));
+
+            e.removeTransaction(middle);
+
+            assertEquals(new BigDecimal("150.00"), usdBankAccount.getBalanceAt(usdBankAccount.getTransactionAt(1)));
+            assertEquals(new BigDecimal("50.00"), usdBankAccount.getBalance(today.minusDays(1)));
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testBatchTransactions(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("batch-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        try {
+            Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                    DataStoreType.XML);
+
+            CurrencyNode defaultCurrency = DefaultCurrencies.buildCustomNode("USD");
+
+            e.addCurrency(defaultCurrency);
+            e.setDefaultCurrency(defaultCurrency);
+
+            Account incomeAccount = new Account(AccountType.INCOME, defaultCurrency);
+            incomeAccount.setName("Income Account");
+            e.addAccount(e.getRootAccount(), incomeAccount);
+
+            Account usdBankAccount = new Account(AccountType.BANK, defaultCurrency);
+            usdBankAccount.setName("USD Bank Account");
+            e.addAccount(e.getRootAccount(), usdBankAccount);
+
+            final List<Transaction> batch = new ArrayList<>();
+
+            for (int i = 0; i < 10; i++) {
+                batch.add(TransactionFactory.generateDoubleEntryTransaction(usdBankAccount, incomeAccount,
+                        new BigDecimal("10.00"), LocalDate.now().minusDays(i), "", "", ""));
+            }
+
+            assertTrue(e.addTransactions(batch));
+
+            assertEquals(10, usdBankAccount.getTransactionCount());
+            assertEquals(10, incomeAccount.getTransactionCount());
+            assertEquals(new BigDecimal("100.00"), usdBankAccount.getBalance());
+
+            // the whole batch is rejected if any transaction is invalid
+            final Transaction duplicate = batch.get(0);
+            final Transaction valid = TransactionFactory.generateDoubleEntryTransaction(usdBankAccount, incomeAccount,
+                    new BigDecimal("10.00"), LocalDate.now(), "", "", "");
+
+            assertFalse(e.addTransactions(Arrays.asList(valid, duplicate)));
+            assertEquals(10, usdBankAccount.getTransactionCount());
+
+            // a duplicate or a transaction the engine does not hold rejects the whole batch
+            assertFalse(e.removeTransactions(Arrays.asList(batch.get(0), batch.get(1), batch.get(0))));
+            assertFalse(e.removeTransactions(Arrays.asList(batch.get(0), valid)));
+            assertEquals(10, usdBankAccount.getTransactionCount());
+            assertEquals(10, incomeAccount.getTransactionCount());
+            assertEquals(new BigDecimal("100.00"), usdBankAccount.getBalance());
+
+            assertTrue(e.removeTransactions(batch.subList(0, 5)));
+
+            assertEquals(5, usdBankAccount.getTransactionCount());
+            assertEquals(new BigDecimal("50.00"), usdBankAccount.getBalance());
+
+            EngineFactory.closeEngine(EngineFactory.DEFAULT);
+        } catch (final Exception e) {
+            fail(e.getMessage());
+        }
+    }
+
+    @Test
+    void testEntryChanges() throws CloneNotSupportedException {
+        final CurrencyNode currency = DefaultCurrencies.buildCustomNode("USD");
+
+        final Account bank = new Account(AccountType.BANK, currency);
+        bank.setName("Bank");
+
+        final Account expense = new Account(AccountType.EXPENSE, currency);
+        expense.setName("Expense");
+
+        final Account other = new Account(AccountType.EXPENSE, currency);
+        other.setName("Other");
+
+        final Transaction transaction = TransactionFactory.generateDoubleEntryTransaction(expense, bank,
+                new BigDecimal("10.00"), LocalDate.now(), "", "", "");
+
+        assertEquals(new BigDecimal("10.00"), transaction.getAmount(expense));
+        assertEquals(new BigDecimal("-10.00"), transaction.getAmount(bank));
+        assertEquals(BigDecimal.ZERO, transaction.getAmount(other));
+        assertEquals(Arrays.asList(bank, expense), new ArrayList<>(transaction.getAccounts()));
+        assertThrows(UnsupportedOperationException.class, () -> transaction.getAccounts().remove(bank));
+
+        // cached amounts and accounts follow the entries
+        final TransactionEntry entry = new TransactionEntry();
+        entry.setCreditAccount(other);
+        entry.setDebitAccount(bank);
+        entry.setAmount(new BigDecimal("5.00"));
+
+        transaction.addTransactionEntry(entry);
+
+        assertEquals(new BigDecimal("-15.00"), transaction.getAmount(bank));
+        assertEquals(new BigDecimal("5.00"), transaction.getAmount(other));
+        assertEquals(3, transaction.getAccounts().size());
+
+        final Transaction clone = (Transaction) transaction.clone();
+
+        transaction.removeTransactionEntry(entry);
+
+        assertEquals(new BigDecimal("-10.00"), transaction.getAmount(bank));
+        assertEquals(BigDecimal.ZERO, transaction.getAmount(other));
+        assertFalse(transaction.getAccounts().contains(other));
+
+        assertEquals(new BigDecimal("-15.00"), clone.getAmount(bank));
+
+        clone.clearTransactionEntries();
+
+        assertTrue(clone.getAccounts().isEmpty());
+        assertEquals(BigDecimal.ZERO, clone.getAmount(bank));
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testGetAmountAllocation(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("amount-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        final Account bank = new Account(AccountType.BANK, e.getDefaultCurrency());
+        bank.setName("Bank");
+        e.addAccount(e.getRootAccount(), bank);
+
+        final Account expense = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        expense.setName("Expense");
+        e.addAccount(e.getRootAccount(), expense);
+
+        final Random random = new Random(42);
+        final LocalDate startDate = LocalDate.now().minusYears(10);
+        final List<Transaction> batch = new ArrayList<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            batch.add(TransactionFactory.generateDoubleEntryTransaction(expense, bank,
+                    BigDecimal.valueOf(random.nextInt(10000), 2), startDate.plusDays(random.nextInt(3650)),
+                    "", "", ""));
+        }
+
+        assertTrue(e.addTransactions(batch));
+
+        final List<Transaction> transactions = new ArrayList<>(bank.getSortedTransactionList());
+        final AccountProxy proxy = bank.getAccountType().getProxy(bank);
+
+        // warm up
+        for (int i = 0; i < 5; i++) {
+            sumStreamAmounts(transactions, bank);
+            sumAmounts(transactions, bank);
+
+            bank.getRunningBalanceIndex().clear();
+            proxy.getBalance();
+        }
+
+        long bytes = getAllocatedBytes();
+        long start = System.nanoTime();
+
+        final BigDecimal streamed = sumStreamAmounts(transactions, bank);
+
+        final double streamTime = (System.nanoTime() - start) / 1_000_000.0;
+        final double streamBytes = (getAllocatedBytes() - bytes) / (double) transactions.size();
+
+        bytes = getAllocatedBytes();
+        start = System.nanoTime();
+
+        int zeroCount = 0;
+
+        for (int i = 0; i < transactions.size(); i++) {
+            if (transactions.get(i).getAmount(bank).signum() == 0) {
+                zeroCount++;
+            }
+        }
+
+        final double cachedTime = (System.nanoTime() - start) / 1_000_000.0;
+        final double cachedBytes = (getAllocatedBytes() - bytes) / (double) transactions.size();
+
+        bank.getRunningBalanceIndex().clear();
+
+        start = System.nanoTime();
+
+        final BigDecimal balance = proxy.getBalance();
+
+        final double balanceTime = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf("%d transactions, getAmount: stream %.1f ms %.0f B/op, cached %.1f ms %.1f B/op%n",
+                transactions.size(), streamTime, streamBytes, cachedTime, cachedBytes);
+        System.out.printf("AccountProxy.getBalance() from an empty index: %.1f ms%n", balanceTime);
+
+        assertEquals(streamed, balance);
+        assertEquals(streamed, sumAmounts(transactions, bank));
+        assertTrue(zeroCount < transactions.size());
+        assertTrue(cachedBytes < 1, "getAmount should not allocate once cached");
+
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    /**
+     * The stream summation used before the amounts were cached.
+     */
+    private static BigDecimal sumStreamAmounts(final List<Transaction> transactions, final Account account) {
+        BigDecimal sum = BigDecimal.ZERO;
+
+        for (final Transaction transaction : transactions) {
+            sum = sum.add(transaction.transactionEntries.stream().map(transactionEntry
+                    -> transactionEntry.getAmount(account)).reduce(BigDecimal.ZERO, BigDecimal::add));
+        }
+
+        return sum;
+    }
+
+    private static BigDecimal sumAmounts(final List<Transaction> transactions, final Account account) {
+        BigDecimal sum = BigDecimal.ZERO;
+
+        for (final Transaction transaction : transactions) {
+            sum = sum.add(transaction.getAmount(account));
+        }
+
+        return sum;
+    }
+
+    private static long getAllocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
 }
@@ -18,18 +18,32 @@
 package jgnash.engine;
 
 import jgnash.engine.xstream.UUIDConverter;
+import jgnash.engine.xstream.XStreamJournal;
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JUnit test for XML storage with the Engine API.
@@ -40,6 +54,14 @@ public class XMLEngineTest extends EngineTest {
 
     private static String tempFile;
 
+    private static boolean journalEnabled;
+
+    @BeforeAll
+    static void enableJournal() {
+        journalEnabled = XStreamJournal.isEnabled();
+        XStreamJournal.setEnabled(true);
+    }
+
     @Override
     public Engine createEngine() {
         try {
@@ -58,6 +80,7 @@ public class XMLEngineTest extends EngineTest {
 
     @AfterAll
     static void cleanup() throws IOException {
+        XStreamJournal.setEnabled(journalEnabled);
         Files.deleteIfExists(Paths.get(tempFile));
     }
 
@@ -73,4 +96,146 @@ public class XMLEngineTest extends EngineTest {
 
         assertNotNull(UUID.fromString(goodUUID));
     }
+
+    /**
+     * Simulates a crash by copying the file and journal of an open engine and appending a partially written
+     * record to the journal copy.
+     */
+    @Test
+    void testJournalRecovery() throws IOException {
+        final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
+        assertNotNull(engine);
+
+        final Account account = new Account(AccountType.BANK, engine.getDefaultCurrency());
+        account.setName("Journal Account");
+        engine.addAccount(engine.getRootAccount(), account);
+
+        engine.addTransaction(TransactionFactory.generateSingleEntryTransaction(account, BigDecimal.TEN,
+                LocalDate.now(), "memo", "payee", ""));
+
+        // only the transaction is journaled, the account membership is rebuilt when replayed
+        final Transaction removed = TransactionFactory.generateSingleEntryTransaction(account, BigDecimal.ONE,
+                LocalDate.now(), "memo", "payee", "");
+
+        engine.addTransaction(removed);
+        engine.removeTransaction(removed);
+
+        // only the history node is journaled
+        final SecurityNode securityNode = new SecurityNode(engine.getDefaultCurrency());
+        securityNode.setSymbol("JRNL");
+        securityNode.setScale((byte) 2);
+        engine.addSecurity(securityNode);
+
+        engine.addSecurityHistory(securityNode, new SecurityHistoryNode(LocalDate.now().minusDays(1),
+                BigDecimal.ONE, 100, BigDecimal.ONE, BigDecimal.ONE));
+        engine.addSecurityHistory(securityNode, new SecurityHistoryNode(LocalDate.now(), BigDecimal.TEN, 100,
+                BigDecimal.TEN, BigDecimal.TEN));
+        engine.removeSecurityHistory(securityNode, LocalDate.now().minusDays(1));
+
+        final CurrencyNode cadCurrency = engine.getCurrency("CAD");
+        assertNotNull(cadCurrency);
+
+        engine.setExchangeRate(engine.getDefaultCurrency(), cadCurrency, new BigDecimal("1.25"),
+                LocalDate.now().minusDays(1));
+        engine.setExchangeRate(engine.getDefaultCurrency(), cadCurrency, new BigDecimal("1.5"), LocalDate.now());
+
+        final ExchangeRate exchangeRate = engine.getExchangeRate(engine.getDefaultCurrency(), cadCurrency);
+        assertNotNull(exchangeRate);
+
+        final Path path = Paths.get(testFile);
+        final Path journal = XStreamJournal.getJournalPath(path);
+
+        final Path copy = Paths.get(testFile + "-crash.xml");
+        final Path copyJournal = XStreamJournal.getJournalPath(copy);
+
+        Files.copy(path, copy);
+        Files.copy(journal, copyJournal);
+
+        final long journalSize = Files.size(copyJournal);
+
+        // partial upsert record
+        Files.write(copyJournal, new byte[]{'U', 0, 0, 1, 0, 1, 2, 3, 4, '<', 'A'}, StandardOpenOption.APPEND);
+
+        try {
+            final Engine recovered = EngineFactory.bootLocalEngine(copy.toString(), "recovery",
+                    EngineFactory.EMPTY_PASSWORD, DataStoreType.XML);
+
+            assertNotNull(recovered);
+            assertEquals(journalSize, Files.size(copyJournal));
+
+            final Account recoveredAccount = recovered.getAccountByUuid(account.getUuid());
+
+            assertNotNull(recoveredAccount);
+            assertEquals("Journal Account", recoveredAccount.getName());
+            assertEquals(recovered.getRootAccount(), recoveredAccount.getParent());
+            assertEquals(1, recoveredAccount.getTransactionCount());
+            assertEquals(0, BigDecimal.TEN.compareTo(recoveredAccount.getBalance()));
+
+            final SecurityNode recoveredSecurity = recovered.getSecurityNodeByUuid(securityNode.getUuid());
+
+            assertNotNull(recoveredSecurity);
+            assertEquals(1, recoveredSecurity.getHistoryNodes().size());
+            assertEquals(0, BigDecimal.TEN.compareTo(recoveredSecurity.getHistoryNodes().get(0).getPrice()));
+            assertTrue(recoveredSecurity.getHistoryNode(LocalDate.now()).isPresent());
+            assertFalse(recoveredSecurity.getHistoryNode(LocalDate.now().minusDays(1)).isPresent());
+
+            // the caches of the replayed exchange rate are rebuilt
+            final ExchangeRate recoveredRate = recovered.getExchangeRateByUuid(exchangeRate.getUuid());
+
+            assertNotNull(recoveredRate);
+            assertEquals(2, recoveredRate.getHistory().size());
+            assertEquals(0, exchangeRate.getRateInEffect(LocalDate.now().minusDays(1))
+                    .compareTo(recoveredRate.getRateInEffect(LocalDate.now().minusDays(1))));
+            assertEquals(0, exchangeRate.getRate().compareTo(recoveredRate.getRate()));
+
+            EngineFactory.closeEngine("recovery");
+        } finally {
+            EngineFactory.deleteDatabase(copy.toString());
+        }
+    }
+
+    @Test
+    void testCompressedBackup() throws IOException {
+        final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
+        assertNotNull(engine);
+
+        final Path path = Paths.get(testFile);
+        final String fileExt = DataStoreType.XML.getDataStore().getFileExt();
+        final String baseName = path.getFileName().toString().replace(fileExt, "");
+
+        EngineFactory.exportCompressedXML(testFile, engine);
+
+        final List<Path> backups;
+
+        try (final Stream<Path> stream = Files.list(path.getParent())) {
+            backups = stream.filter(p -> p.getFileName().toString().matches(baseName + "-\\d{8}-\\d{4}.zip"))
+                    .collect(Collectors.toList());
+        }
+
+        assertEquals(1, backups.size());
+
+        final Path restored = Paths.get(testFile + "-restored.xml");
+
+        try (final ZipFile zipFile = new ZipFile(backups.get(0).toFile())) {
+            final List<? extends ZipEntry> entries = Collections.list(zipFile.entries());
+
+            assertEquals(1, entries.size());
+            assertTrue(entries.get(0).getName().startsWith(baseName + "-"));
+            assertTrue(entries.get(0).getName().endsWith(fileExt));
+
+            Files.copy(zipFile.getInputStream(entries.get(0)), restored);
+
+            final Engine restoredEngine = EngineFactory.bootLocalEngine(restored.toString(), "restored",
+                    EngineFactory.EMPTY_PASSWORD, DataStoreType.XML);
+
+            assertNotNull(restoredEngine);
+            assertEquals(engine.getAccountList().size(), restoredEngine.getAccountList().size());
+            assertEquals(engine.getTransactions().size(), restoredEngine.getTransactions().size());
+
+            EngineFactory.closeEngine("restored");
+        } finally {
+            EngineFactory.deleteDatabase(restored.toString());
+            Files.deleteIfExists(backups.get(0));
+        }
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.attachment;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.jpa.JpaNetworkServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the loopback throughput of the binary and text attachment transfer protocols.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class AttachmentTransferBenchmarkTest {
+
+    private static final int PORT = JpaNetworkServer.DEFAULT_PORT + 200;
+
+    private static final int FILE_SIZE = 16 * 1024 * 1024;
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testTransferThroughput(final TemporaryFolder testFolder) throws Exception {
+        final Path serverPath = testFolder.createDirectory("server").toPath();
+        final Path clientPath = testFolder.createDirectory("client").toPath();
+
+        final Path source = clientPath.resolve("attachment.bin");
+
+        final byte[] bytes = new byte[FILE_SIZE];
+        new Random(42).nextBytes(bytes);
+        Files.write(source, bytes);
+
+        for (final char[] password : new char[][]{null, "password".toCharArray()}) {
+            for (final boolean binary : new boolean[]{false, true}) {
+                final double rate = measure(serverPath, source, password, binary);
+
+                System.out.printf("%s protocol, %s: %.1f MB/s%n", binary ? "binary" : "text",
+                        password == null ? "unencrypted" : "encrypted", rate);
+            }
+        }
+    }
+
+    private static double measure(final Path serverPath, final Path source, final char[] password,
+                                  final boolean binary) throws Exception {
+
+        final Path target = serverPath.resolve(source.getFileName());
+        Files.deleteIfExists(target);
+
+        System.setProperty(AttachmentTransferClient.BINARY_TRANSFER, Boolean.toString(binary));
+
+        final AttachmentTransferServer server = new AttachmentTransferServer(PORT, serverPath);
+        final AttachmentTransferClient client = new AttachmentTransferClient(source.getParent());
+
+        try {
+            assertTrue(server.startServer(password));
+            assertTrue(client.connectToServer("localhost", PORT, password));
+
+            final long start = System.nanoTime();
+
+            final Future<Void> future = client.sendFile(source);
+            assertNotNull(future);
+            future.get();
+
+            // the text protocol writes the target file as data arrives
+            await().atMost(120, TimeUnit.SECONDS).until(() -> size(target) == FILE_SIZE);
+
+            final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+
+            return FILE_SIZE / (1024.0 * 1024.0) / seconds;
+        } finally {
+            client.disconnectFromServer();
+            server.stopServer();
+            System.clearProperty(AttachmentTransferClient.BINARY_TRANSFER);
+        }
+    }
+
+    private static long size(final Path path) throws IOException {
+        return Files.exists(path) ? Files.size(path) : -1;
+    }
+}
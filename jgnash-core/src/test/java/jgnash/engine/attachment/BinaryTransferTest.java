@@ -0,0 +1,236 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.attachment;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import jgnash.engine.jpa.JpaNetworkServer;
+import jgnash.util.EncryptionManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JUnit tests for the binary attachment transfer protocol.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class BinaryTransferTest {
+
+    private static final int PORT = JpaNetworkServer.DEFAULT_PORT + 201;
+
+    private static final String FILE_NAME = "attachment.bin";
+
+    // spans several encrypted chunks and ends with a partial chunk
+    private static final int FILE_SIZE = 3 * BinaryTransferCodec.CHUNK_SIZE + 1234;
+
+    private static final long LAST_MODIFIED = 1_500_000_000_000L;
+
+    @Test
+    void testBinaryRoundTrip(final TemporaryFolder testFolder) throws Exception {
+        assertRoundTrip(testFolder, null);
+    }
+
+    @Test
+    void testEncryptedRoundTrip(final TemporaryFolder testFolder) throws Exception {
+        assertRoundTrip(testFolder, "password".toCharArray());
+    }
+
+    @Test
+    void testSealedFrames() {
+        final EncryptionManager encryptionManager = new EncryptionManager("password".toCharArray());
+
+        final EmbeddedChannel sender = new EmbeddedChannel(new BinaryTransferCodec(encryptionManager));
+
+        assertTrue(sender.writeOutbound(TransferMessage.offer(FILE_NAME, FILE_SIZE, LAST_MODIFIED)));
+
+        final ByteBuf frame = sender.readOutbound();
+
+        // the frame is a length followed by the sealed message
+        assertEquals(frame.readableBytes() - Integer.BYTES, frame.getInt(frame.readerIndex()));
+        assertFalse(frame.toString(StandardCharsets.UTF_8).contains(FILE_NAME));
+
+        final EmbeddedChannel receiver = new EmbeddedChannel(new BinaryTransferCodec(encryptionManager));
+
+        assertTrue(receiver.writeInbound(frame.copy()));
+
+        final TransferMessage message = receiver.readInbound();
+
+        assertEquals(TransferMessage.OFFER, message.getType());
+        assertEquals(FILE_NAME, message.getFileName());
+        assertEquals(FILE_SIZE, message.getLength());
+        assertEquals(LAST_MODIFIED, message.getPosition());
+
+        message.release();
+
+        // an altered frame fails authentication
+        final ByteBuf altered = frame.copy();
+        final int last = altered.writerIndex() - 1;
+        altered.setByte(last, altered.getByte(last) ^ 1);
+
+        final EmbeddedChannel alteredReceiver = new EmbeddedChannel(new BinaryTransferCodec(encryptionManager));
+
+        assertThrows(DecoderException.class, () -> alteredReceiver.writeInbound(altered));
+
+        // a frame sealed with a different password fails authentication
+        final EmbeddedChannel wrongReceiver = new EmbeddedChannel(
+                new BinaryTransferCodec(new EncryptionManager("wrong".toCharArray())));
+
+        assertThrows(DecoderException.class, () -> wrongReceiver.writeInbound(frame));
+
+        sender.finishAndReleaseAll();
+        receiver.finishAndReleaseAll();
+    }
+
+    @Test
+    void testResumeFromPartFile(final TemporaryFolder testFolder) throws Exception {
+        final Path attachmentPath = testFolder.createDirectory("attachments").toPath();
+        final Path part = attachmentPath.resolve(FILE_NAME + BinaryTransferHandler.PART_SUFFIX);
+        final Path target = attachmentPath.resolve(FILE_NAME);
+
+        final byte[] bytes = createBytes();
+        final int half = bytes.length / 2;
+
+        EmbeddedChannel channel = new EmbeddedChannel(new BinaryTransferHandler(attachmentPath, false, false));
+
+        channel.writeInbound(TransferMessage.offer(FILE_NAME, bytes.length, LAST_MODIFIED));
+        assertAccept(channel, 0);
+
+        channel.writeInbound(TransferMessage.chunk(FILE_NAME, 0, Unpooled.wrappedBuffer(bytes, 0, half)));
+
+        // the connection is lost, the partial file is kept for a later offer
+        channel.close();
+
+        assertEquals(half, Files.size(part));
+        assertEquals(LAST_MODIFIED, Files.getLastModifiedTime(part).toMillis());
+        assertFalse(Files.exists(target));
+
+        channel = new EmbeddedChannel(new BinaryTransferHandler(attachmentPath, false, false));
+
+        channel.writeInbound(TransferMessage.offer(FILE_NAME, bytes.length, LAST_MODIFIED));
+        assertAccept(channel, half);
+
+        channel.writeInbound(TransferMessage.chunk(FILE_NAME, half,
+                Unpooled.wrappedBuffer(bytes, half, bytes.length - half)));
+        channel.writeInbound(TransferMessage.end(FILE_NAME, bytes.length));
+
+        assertArrayEquals(bytes, Files.readAllBytes(target));
+        assertFalse(Files.exists(part));
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    void testChangedFileIsNotResumed(final TemporaryFolder testFolder) throws Exception {
+        final Path attachmentPath = testFolder.createDirectory("attachments").toPath();
+        final Path part = attachmentPath.resolve(FILE_NAME + BinaryTransferHandler.PART_SUFFIX);
+
+        final byte[] bytes = createBytes();
+
+        EmbeddedChannel channel = new EmbeddedChannel(new BinaryTransferHandler(attachmentPath, false, false));
+
+        channel.writeInbound(TransferMessage.offer(FILE_NAME, bytes.length, LAST_MODIFIED));
+        assertAccept(channel, 0);
+
+        channel.writeInbound(TransferMessage.chunk(FILE_NAME, 0, Unpooled.wrappedBuffer(bytes, 0, 1024)));
+        channel.close();
+
+        assertEquals(1024, Files.size(part));
+
+        // the file was modified since the partial transfer, start over
+        channel = new EmbeddedChannel(new BinaryTransferHandler(attachmentPath, false, false));
+
+        channel.writeInbound(TransferMessage.offer(FILE_NAME, bytes.length, LAST_MODIFIED + 1000));
+        assertAccept(channel, 0);
+
+        assertEquals(0, Files.size(part));
+
+        channel.finishAndReleaseAll();
+    }
+
+    private static void assertRoundTrip(final TemporaryFolder testFolder, final char[] password) throws Exception {
+        final Path serverPath = testFolder.createDirectory("server").toPath();
+        final Path clientPath = testFolder.createDirectory("client").toPath();
+
+        final Path source = clientPath.resolve(FILE_NAME);
+        final Path target = serverPath.resolve(FILE_NAME);
+
+        Files.write(source, createBytes());
+
+        System.setProperty(AttachmentTransferClient.BINARY_TRANSFER, Boolean.TRUE.toString());
+
+        final AttachmentTransferServer server = new AttachmentTransferServer(PORT, serverPath);
+        final AttachmentTransferClient client = new AttachmentTransferClient(clientPath);
+
+        try {
+            assertTrue(server.startServer(password));
+            assertTrue(client.connectToServer("localhost", PORT, password));
+
+            final Future<Void> future = client.sendFile(source);
+            assertNotNull(future);
+            future.get(30, TimeUnit.SECONDS);
+
+            // the file is renamed once it has been received in full
+            await().atMost(30, TimeUnit.SECONDS).until(() -> Files.exists(target));
+
+            assertArrayEquals(Files.readAllBytes(source), Files.readAllBytes(target));
+            assertFalse(Files.exists(serverPath.resolve(FILE_NAME + BinaryTransferHandler.PART_SUFFIX)));
+        } finally {
+            client.disconnectFromServer();
+            server.stopServer();
+            System.clearProperty(AttachmentTransferClient.BINARY_TRANSFER);
+        }
+    }
+
+    private static void assertAccept(final EmbeddedChannel channel, final long offset) {
+        final TransferMessage accept = channel.readOutbound();
+
+        assertNotNull(accept);
+        assertEquals(TransferMessage.ACCEPT, accept.getType());
+        assertEquals(FILE_NAME, accept.getFileName());
+        assertEquals(offset, accept.getPosition());
+
+        accept.release();
+    }
+
+    private static byte[] createBytes() {
+        final byte[] bytes = new byte[FILE_SIZE];
+        new Random(42).nextBytes(bytes);
+
+        return bytes;
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.budget;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.Account;
+import jgnash.engine.AccountGroup;
+import jgnash.engine.AccountType;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.time.Period;
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compares the indexed budget goal sums with summing the daily goals.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class BudgetGoalTest {
+
+    private static final int BUDGET_COUNT = 8;
+
+    private static final int ACCOUNT_COUNT = 400;
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void testGetGoal() {
+        final Random random = new Random(42);
+
+        for (final Period period : new Period[]{Period.DAILY, Period.WEEKLY, Period.MONTHLY, Period.YEARLY}) {
+            final BudgetGoal goal = createGoal(random, period);
+
+            for (final boolean leapYear : new boolean[]{true, false}) {
+                for (int start = 0; start < BudgetGoal.PERIODS + 2; start += 3) {
+                    for (int end = 0; end < BudgetGoal.PERIODS + 2; end += 5) {
+                        assertGoal(sum(goal.getGoals(), start, end, leapYear), goal.getGoal(start, end, leapYear));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testChangedGoals() throws CloneNotSupportedException {
+        final BudgetGoal goal = new BudgetGoal();
+
+        assertGoal(BigDecimal.ZERO, goal.getGoal(0, BudgetGoal.PERIODS - 1, true));
+
+        goal.setGoal(0, 30, new BigDecimal("31"), false);
+        assertGoal(new BigDecimal("31"), goal.getGoal(0, BudgetGoal.PERIODS - 1, true));
+
+        final BudgetGoal clone = (BudgetGoal) goal.clone();
+
+        final BigDecimal[] goals = goal.getGoals();
+        goals[100] = BigDecimal.TEN;
+        goal.setGoals(goals);
+
+        assertGoal(new BigDecimal("41"), goal.getGoal(0, BudgetGoal.PERIODS - 1, true));
+        assertGoal(new BigDecimal("31"), clone.getGoal(0, BudgetGoal.PERIODS - 1, true));
+        assertEquals(goals[100], goal.getGoals()[100]);
+    }
+
+    @Test
+    void testLoadedGoalsShareValues() {
+        final BudgetGoal goal = createGoal(new Random(42), Period.MONTHLY);
+        final BudgetGoal loaded = createLoadedGoal(goal);
+
+        assertEquals(goal, loaded);
+
+        final BigDecimal[] values = loaded.getGoals();
+
+        for (int i = 1; i < values.length; i++) {
+            if (values[i].equals(values[i - 1])) {
+                assertSame(values[i - 1], values[i]);
+            }
+        }
+
+        // reading the goals does not change them
+        loaded.getGoal(0, BudgetGoal.PERIODS - 1, false);
+        assertArrayEquals(values, loaded.getGoals());
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testBenchmark(final TemporaryFolder testFolder) throws IOException {
+        final Random random = new Random(42);
+        final List<BudgetGoal> goals = new ArrayList<>();
+        final List<BigDecimal[]> days = new ArrayList<>();
+
+        long emptyHeap = getUsedHeap();
+
+        for (int i = 0; i < BUDGET_COUNT * ACCOUNT_COUNT; i++) {
+            goals.add(createLoadedGoal(createGoal(random, Period.MONTHLY)));
+        }
+
+        final long loadedHeap = getUsedHeap() - emptyHeap;
+
+        emptyHeap = getUsedHeap();
+
+        // a separate instance for every day, as held before equal values were shared
+        for (final BudgetGoal goal : goals) {
+            final BigDecimal[] values = goal.getGoals();
+
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new BigDecimal(values[i].toString());
+            }
+
+            days.add(values);
+        }
+
+        final long separateHeap = getUsedHeap() - emptyHeap;
+
+        final List<BudgetPeriodDescriptor> descriptors = BudgetPeriodDescriptorFactory.getDescriptors(2019,
+                Month.JANUARY, Period.WEEKLY);
+
+        long start = System.nanoTime();
+
+        for (final BudgetGoal goal : goals) {
+            final BigDecimal[] values = goal.getGoals();
+
+            for (final BudgetPeriodDescriptor descriptor : descriptors) {
+                sum(values, descriptor.getStartPeriod(), descriptor.getEndPeriod(), false);
+            }
+        }
+
+        final double summed = (System.nanoTime() - start) / 1_000_000.0;
+
+        start = System.nanoTime();
+
+        for (final BudgetGoal goal : goals) {
+            for (final BudgetPeriodDescriptor descriptor : descriptors) {
+                goal.getGoal(descriptor.getStartPeriod(), descriptor.getEndPeriod(), false);
+            }
+        }
+
+        final double indexed = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf("%d goals: loaded %d KB, a BigDecimal per day %d KB%n", goals.size(),
+                loadedHeap / 1024, separateHeap / 1024);
+        System.out.printf("%d weekly periods: summing days %.1f ms, prefix sums %.1f ms%n", descriptors.size(),
+                summed, indexed);
+
+        assertEquals(goals.size(), days.size());
+
+        // results model build time for a single budget
+        final String database = testFolder.createFile("budget-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        final Budget budget = new Budget();
+        budget.setName("Benchmark");
+        budget.setBudgetPeriod(Period.WEEKLY);
+
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            final Account account = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+            account.setName("Expense " + i);
+            e.addAccount(e.getRootAccount(), account);
+
+            budget.setBudgetGoal(account, createLoadedGoal(createGoal(random, Period.MONTHLY)));
+        }
+
+        e.addBudget(budget);
+
+        start = System.nanoTime();
+
+        final BudgetResultsModel model = new BudgetResultsModel(budget, 2019, e.getDefaultCurrency(), false);
+
+        for (final BudgetPeriodDescriptor descriptor : model.getDescriptorList()) {
+            for (final Account account : model.getAccounts()) {
+                model.getResults(descriptor, account);
+            }
+
+            for (final AccountGroup group : model.getAccountGroupList()) {
+                model.getResults(descriptor, group);
+            }
+        }
+
+        System.out.printf("results model for %d accounts: %.1f ms%n", ACCOUNT_COUNT,
+                (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private static BudgetGoal createGoal(final Random random, final Period period) {
+        final BudgetGoal goal = new BudgetGoal();
+        goal.setBudgetPeriod(period);
+
+        final List<BudgetPeriodDescriptor> descriptors = BudgetPeriodDescriptorFactory.getDescriptors(2019,
+                Month.JANUARY, period);
+
+        for (final BudgetPeriodDescriptor descriptor : descriptors) {
+            goal.setGoal(descriptor.getStartPeriod(), descriptor.getEndPeriod(),
+                    BigDecimal.valueOf(random.nextInt(100000), 2), false);
+        }
+
+        return goal;
+    }
+
+    /**
+     * Writes and reads a goal with XStream.  {@code BigDecimal} is immutable to XStream, so every day is read as a
+     * separate instance.
+     */
+    private static BudgetGoal createLoadedGoal(final BudgetGoal goal) {
+        final XStream xstream = new XStream(new StaxDriver());
+
+        XStream.setupDefaultSecurity(xstream);
+        xstream.allowTypesByWildcard(new String[]{"jgnash.**"});
+
+        return (BudgetGoal) xstream.fromXML(xstream.toXML(goal));
+    }
+
+    /**
+     * The daily summation the goal used before it was indexed.
+     */
+    private static BigDecimal sum(final BigDecimal[] goals, final int startPeriod, final int endPeriod,
+                                  final boolean leapYear) {
+        BigDecimal amount = BigDecimal.ZERO;
+
+        if (startPeriod <= endPeriod) {
+            for (int i = startPeriod; i <= endPeriod && i < BudgetGoal.PERIODS; i++) {
+                amount = amount.add(goals[i]);
+            }
+        } else {
+            for (int i = startPeriod; i < BudgetGoal.PERIODS - (leapYear ? 0 : 1); i++) {
+                amount = amount.add(goals[i]);
+            }
+
+            for (int i = 0; i <= endPeriod && i < BudgetGoal.PERIODS; i++) {
+                amount = amount.add(goals[i]);
+            }
+        }
+
+        return amount;
+    }
+
+    private static long getUsedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+    }
+
+    private static void assertGoal(final BigDecimal expected, final BigDecimal actual) {
+        // the scale may differ from summing the days
+        assertEquals(0, expected.compareTo(actual), () -> "expected: " + expected + " but was: " + actual);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.budget;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.Account;
+import jgnash.engine.AccountGroup;
+import jgnash.engine.AccountType;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.Transaction;
+import jgnash.engine.TransactionFactory;
+import jgnash.engine.message.ChannelEvent;
+import jgnash.engine.message.Message;
+import jgnash.engine.message.MessageBus;
+import jgnash.engine.message.MessageChannel;
+import jgnash.time.Period;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compares incrementally invalidated budget results with a new results model.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class BudgetResultsModelTest {
+
+    private static final int YEAR = 2019;
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void testTransactionInvalidation(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("budget-model-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        final Account bank = new Account(AccountType.BANK, e.getDefaultCurrency());
+        bank.setName("Bank");
+        e.addAccount(e.getRootAccount(), bank);
+
+        final Account parent = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        parent.setName("Parent");
+        e.addAccount(e.getRootAccount(), parent);
+
+        final Account child = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        child.setName("Child");
+        e.addAccount(parent, child);
+
+        final Account other = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        other.setName("Other");
+        e.addAccount(e.getRootAccount(), other);
+
+        final Budget budget = new Budget();
+        budget.setName("Test");
+        budget.setBudgetPeriod(Period.MONTHLY);
+
+        for (final Account account : new Account[]{parent, child, other}) {
+            final BudgetGoal goal = new BudgetGoal();
+            goal.setGoal(0, BudgetGoal.PERIODS - 1, new BigDecimal("1200.00"), false);
+            budget.setBudgetGoal(account, goal);
+        }
+
+        e.addBudget(budget);
+
+        for (int month = 1; month <= 12; month++) {
+            e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(child, bank, new BigDecimal("75.25"),
+                    LocalDate.of(YEAR, month, 10), "memo", "payee", ""));
+        }
+
+        for (final boolean runningTotals : new boolean[]{false, true}) {
+            flushMessages(e);
+
+            final BudgetResultsModel model = new BudgetResultsModel(budget, YEAR, e.getDefaultCurrency(),
+                    runningTotals);
+
+            model.calculateResults();
+
+            final List<BudgetPeriodDescriptor> descriptors = model.getDescriptorList();
+
+            final BudgetPeriodResults january = model.getResults(descriptors.get(0), parent);
+            final BudgetPeriodResults marchOther = model.getResults(descriptors.get(2), other);
+            final BudgetPeriodResults april = model.getResults(descriptors.get(3), parent);
+
+            final Transaction transaction = TransactionFactory.generateDoubleEntryTransaction(child, bank,
+                    new BigDecimal("10.00"), LocalDate.of(YEAR, Month.MARCH, 15), "memo", "payee", "");
+
+            e.addTransaction(transaction);
+            flushMessages(e);
+
+            // earlier periods and unrelated accounts are retained
+            assertSame(january, model.getResults(descriptors.get(0), parent));
+            assertSame(marchOther, model.getResults(descriptors.get(2), other));
+
+            // later periods depend on the transaction only if totals are running
+            if (runningTotals) {
+                assertNotSame(april, model.getResults(descriptors.get(3), parent));
+            } else {
+                assertSame(april, model.getResults(descriptors.get(3), parent));
+            }
+
+            assertResults(new BudgetResultsModel(budget, YEAR, e.getDefaultCurrency(), runningTotals), model);
+        }
+    }
+
+    /**
+     * Messages are delivered in order on a single thread, wait for the pending messages to be delivered.
+     */
+    private static void flushMessages(final Engine engine) {
+        MessageBus.getInstance().fireBlockingEvent(new Message(MessageChannel.SYSTEM,
+                ChannelEvent.BACKGROUND_PROCESS_STOPPED, engine));
+    }
+
+    private static void assertResults(final BudgetResultsModel expected, final BudgetResultsModel actual) {
+        assertEquals(expected.getAccounts(), actual.getAccounts());
+        assertEquals(expected.getAccountGroupList(), actual.getAccountGroupList());
+
+        for (final BudgetPeriodDescriptor descriptor : expected.getDescriptorList()) {
+            for (final Account account : expected.getAccounts()) {
+                assertResults(expected.getResults(descriptor, account), actual.getResults(descriptor, account));
+            }
+
+            for (final AccountGroup group : expected.getAccountGroupList()) {
+                assertResults(expected.getResults(descriptor, group), actual.getResults(descriptor, group));
+            }
+        }
+
+        for (final Account account : expected.getAccounts()) {
+            assertResults(expected.getResults(account), actual.getResults(account));
+        }
+
+        for (final AccountGroup group : expected.getAccountGroupList()) {
+            assertResults(expected.getResults(group), actual.getResults(group));
+        }
+    }
+
+    private static void assertResults(final BudgetPeriodResults expected, final BudgetPeriodResults actual) {
+        assertEquals(expected.getBudgeted(), actual.getBudgeted());
+        assertEquals(expected.getChange(), actual.getChange());
+        assertEquals(expected.getRemaining(), actual.getRemaining());
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.message;
+
+import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.CompactWriter;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DelimiterBasedFrameDecoder;
+import io.netty.handler.codec.Delimiters;
+import io.netty.handler.codec.string.StringDecoder;
+import io.netty.util.CharsetUtil;
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.StoredObject;
+import jgnash.engine.Transaction;
+import jgnash.engine.TransactionFactory;
+import jgnash.util.EncryptionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the number of messages per second the text and binary message bus protocols can encode and decode.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class MessageCodecBenchmarkTest {
+
+    private static final int MESSAGE_COUNT = 20000;
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void testBinaryRoundTrip(final TemporaryFolder testFolder) throws IOException {
+        final Engine e = createEngine(testFolder);
+        final Message message = createMessage(e);
+
+        for (final EncryptionManager encryptionManager
+                : new EncryptionManager[]{null, new EncryptionManager("password".toCharArray())}) {
+
+            final EmbeddedChannel channel = new EmbeddedChannel(new MessageFrameDecoder(encryptionManager));
+
+            channel.writeInbound(BinaryMessage.of(message).encode(ByteBufAllocator.DEFAULT, encryptionManager));
+
+            final BinaryMessage binaryMessage = channel.readInbound();
+            assertNotNull(binaryMessage);
+
+            assertMessageEquals(message, binaryMessage.toMessage(reference -> resolve(e, reference)));
+
+            channel.finishAndReleaseAll();
+        }
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testMessageThroughput(final TemporaryFolder testFolder) throws IOException {
+        final Engine e = createEngine(testFolder);
+        final Message message = createMessage(e);
+
+        for (final EncryptionManager encryptionManager
+                : new EncryptionManager[]{null, new EncryptionManager("password".toCharArray())}) {
+
+            final String mode = encryptionManager == null ? "unencrypted" : "encrypted";
+
+            System.out.printf("text protocol, %s: %.0f messages/s%n", mode, measureText(message, encryptionManager));
+            System.out.printf("binary protocol, %s: %.0f messages/s%n", mode,
+                    measureBinary(e, message, encryptionManager));
+        }
+    }
+
+    private static double measureText(final Message message, final EncryptionManager encryptionManager) {
+        final XStream xstream = XStreamFactory.getInstance();
+        final EmbeddedChannel channel = new EmbeddedChannel(
+                new DelimiterBasedFrameDecoder(8192, true, Delimiters.lineDelimiter()),
+                new StringDecoder(CharsetUtil.UTF_8));
+
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            final CharArrayWriter writer = new CharArrayWriter();
+            xstream.marshal(message, new CompactWriter(writer));
+
+            final String line = encryptionManager != null ? encryptionManager.encrypt(writer.toString())
+                    : writer.toString();
+
+            channel.writeInbound(Unpooled.wrappedBuffer((line + MessageBusServer.EOL_DELIMITER)
+                    .getBytes(StandardCharsets.UTF_8)));
+
+            final String received = channel.readInbound();
+            final String plain = encryptionManager != null ? encryptionManager.decrypt(received) : received;
+
+            assertMessageEquals(message, (Message) xstream.fromXML(plain));
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        channel.finishAndReleaseAll();
+
+        return MESSAGE_COUNT / seconds;
+    }
+
+    private static double measureBinary(final Engine engine, final Message message,
+                                        final EncryptionManager encryptionManager) {
+        final EmbeddedChannel channel = new EmbeddedChannel(new MessageFrameDecoder(encryptionManager));
+
+        final long start = System.nanoTime();
+
+        for (int i = 0; i < MESSAGE_COUNT; i++) {
+            final ByteBuf frame = BinaryMessage.of(message).encode(ByteBufAllocator.DEFAULT, encryptionManager);
+
+            channel.writeInbound(frame);
+
+            final BinaryMessage received = channel.readInbound();
+
+            assertMessageEquals(message, received.toMessage(reference -> resolve(engine, reference)));
+        }
+
+        final double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        channel.finishAndReleaseAll();
+
+        return MESSAGE_COUNT / seconds;
+    }
+
+    private static Engine createEngine(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("message-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        return e;
+    }
+
+    private static Message createMessage(final Engine e) {
+        final Account checking = new Account(AccountType.CHECKING, e.getDefaultCurrency());
+        checking.setName("Checking");
+        e.addAccount(e.getRootAccount(), checking);
+
+        final Account expense = new Account(AccountType.EXPENSE, e.getDefaultCurrency());
+        expense.setName("Expense");
+        e.addAccount(e.getRootAccount(), expense);
+
+        final Transaction transaction = TransactionFactory.generateDoubleEntryTransaction(expense, checking,
+                BigDecimal.TEN, LocalDate.now(), "memo", "payee", "");
+        e.addTransaction(transaction);
+
+        final Message message = new Message(MessageChannel.TRANSACTION, ChannelEvent.TRANSACTION_ADD, e);
+        message.setObject(MessageProperty.ACCOUNT, checking);
+        message.setObject(MessageProperty.TRANSACTION, transaction);
+
+        return message;
+    }
+
+    private static StoredObject resolve(final Engine engine, final BinaryMessage.Reference reference) {
+        try {
+            return engine.getStoredObjectByUuid(reference.getType(), reference.getUuid());
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void assertMessageEquals(final Message expected, final Message actual) {
+        assertEquals(expected.getChannel(), actual.getChannel());
+        assertEquals(expected.getEvent(), actual.getEvent());
+        assertEquals(expected.getSource(), actual.getSource());
+
+        for (final MessageProperty property : MessageProperty.values()) {
+            assertEquals((Object) expected.getObject(property), actual.getObject(property));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.engine.recurring;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for the reminder scheduler and iterator jumps.
+ *
+ * @author Craig Cavanaugh
+ */
+class ReminderSchedulerTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2015, Month.JANUARY, 31);
+
+    @Test
+    void nextOnOrAfterTest() {
+        for (final Reminder reminder : createReminders()) {
+            for (LocalDate date = START_DATE.minusDays(10); date.isBefore(START_DATE.plusYears(6));
+                 date = date.plusDays(17)) {
+
+                // stepping is the reference
+                final RecurringIterator iterator = reminder.getIterator();
+                LocalDate expected = iterator.next();
+
+                while (expected != null && expected.isBefore(date)) {
+                    expected = iterator.next();
+                }
+
+                assertEquals(expected, reminder.getIterator().nextOnOrAfter(date),
+                        reminder.getReminderType() + " " + reminder.getIncrement() + " " + date);
+            }
+        }
+    }
+
+    @Test
+    void pendingRemindersTest() {
+        final List<Reminder> reminders = createReminders();
+        final ReminderScheduler scheduler = new ReminderScheduler(() -> reminders);
+
+        // extend the cached dates one day at a time and compare with a fresh scan
+        for (LocalDate today = START_DATE.minusDays(5); today.isBefore(START_DATE.plusYears(3));
+             today = today.plusDays(11)) {
+            assertEquals(getPendingDates(reminders, today), toStrings(scheduler.getPendingReminders(today)));
+        }
+
+        // the clock is set back
+        assertEquals(getPendingDates(reminders, START_DATE.plusYears(1)),
+                toStrings(scheduler.getPendingReminders(START_DATE.plusYears(1))));
+    }
+
+    @Test
+    void invalidateTest() {
+        final DailyReminder reminder = new DailyReminder();
+        reminder.setDescription("daily");
+        reminder.setStartDate(START_DATE);
+
+        final List<Reminder> reminders = new ArrayList<>(Collections.singletonList(reminder));
+        final ReminderScheduler scheduler = new ReminderScheduler(() -> reminders);
+
+        final LocalDate today = START_DATE.plusDays(9);
+
+        assertEquals(10, scheduler.getPendingReminders(today).size());
+
+        reminder.setLastDate();
+        scheduler.invalidate();
+        assertEquals(9, scheduler.getPendingReminders(today).size());
+
+        reminder.setEnabled(false);
+        scheduler.invalidate();
+        assertTrue(scheduler.getPendingReminders(today).isEmpty());
+    }
+
+    private static List<Reminder> createReminders() {
+        final List<Reminder> reminders = new ArrayList<>();
+
+        for (int increment = 1; increment <= 3; increment++) {
+            for (final Reminder reminder : new Reminder[]{new DailyReminder(), new WeeklyReminder(),
+                    new MonthlyReminder(), new MonthlyReminder(), new YearlyReminder()}) {
+                reminder.setIncrement(increment);
+                reminder.setStartDate(START_DATE.plusDays(increment));
+                reminder.setDescription(reminder.getReminderType() + " " + increment + " " + reminders.size());
+                reminders.add(reminder);
+            }
+        }
+
+        // by day of the week, an end date and a fired reminder created automatically in advance
+        ((MonthlyReminder) reminders.get(3)).setType(MonthlyReminder.DAY);
+        reminders.get(5).setEndDate(START_DATE.plusYears(1));
+        reminders.get(6).setLastDate();
+        reminders.get(6).setAutoCreate(true);
+        reminders.get(6).setDaysAdvance(5);
+
+        return reminders;
+    }
+
+    private static List<String> getPendingDates(final List<Reminder> reminders, final LocalDate today) {
+        final List<PendingReminder> pendingList = new ArrayList<>();
+
+        for (final Reminder reminder : reminders) {
+            final RecurringIterator iterator = reminder.getIterator();
+
+            for (LocalDate next = iterator.next(); next != null; next = iterator.next()) {
+                final LocalDate date = reminder.isAutoCreate() ? next.minusDays(reminder.getDaysAdvance()) : next;
+
+                if (date.isAfter(today)) {
+                    break;
+                }
+
+                pendingList.add(new PendingReminder(reminder, next));
+            }
+        }
+
+        return toStrings(pendingList);
+    }
+
+    private static List<String> toStrings(final List<PendingReminder> pendingReminders) {
+        final List<String> list = new ArrayList<>();
+
+        for (final PendingReminder pendingReminder : pendingReminders) {
+            list.add(pendingReminder.getReminder().getDescription() + " " + pendingReminder.getCommitDate());
+        }
+
+        Collections.sort(list);
+
+        return list;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.report;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.DefaultCurrencies;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.TransactionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Compares the aggregated period balances with the {@code Account} balance methods.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class PeriodBalanceAggregatorTest {
+
+    private static final LocalDate START_DATE = LocalDate.of(2017, 1, 15);
+
+    private static final LocalDate END_DATE = LocalDate.of(2019, 6, 30);
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void testBalances(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("aggregator-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        final CurrencyNode usd = e.getDefaultCurrency();
+
+        final CurrencyNode cad = DefaultCurrencies.buildCustomNode("CAD");
+        e.addCurrency(cad);
+        e.setExchangeRate(cad, usd, new BigDecimal("0.75"));
+
+        // balances are converted at the rate in effect at the end of each period
+        e.setExchangeRate(cad, usd, new BigDecimal("0.70"), START_DATE.minusMonths(6));
+        e.setExchangeRate(cad, usd, new BigDecimal("0.80"), START_DATE.plusYears(1));
+
+        final Account bank = new Account(AccountType.BANK, usd);
+        bank.setName("Bank");
+        e.addAccount(e.getRootAccount(), bank);
+
+        final Account savings = new Account(AccountType.BANK, cad);
+        savings.setName("Savings");
+        e.addAccount(bank, savings);
+
+        final Account expense = new Account(AccountType.EXPENSE, usd);
+        expense.setName("Expense");
+        e.addAccount(e.getRootAccount(), expense);
+
+        final Account cadExpense = new Account(AccountType.EXPENSE, cad);
+        cadExpense.setName("CAD Expense");
+        e.addAccount(expense, cadExpense);
+
+        final Random random = new Random(42);
+
+        // include transactions before and after the report range
+        for (LocalDate date = START_DATE.minusMonths(3); date.isBefore(END_DATE.plusMonths(3));
+             date = date.plusDays(1 + random.nextInt(5))) {
+
+            final boolean usdTransaction = random.nextBoolean();
+
+            e.addTransaction(TransactionFactory.generateDoubleEntryTransaction(usdTransaction ? expense : cadExpense,
+                    usdTransaction ? bank : savings,
+                    BigDecimal.valueOf(random.nextInt(10000), 2), date, "memo", "payee", ""));
+        }
+
+        for (final ReportPeriod reportPeriod : ReportPeriod.values()) {
+            final List<ReportPeriodUtils.Descriptor> descriptors
+                    = ReportPeriodUtils.getDescriptors(reportPeriod, START_DATE, END_DATE);
+
+            final PeriodBalanceAggregator aggregator
+                    = new PeriodBalanceAggregator(Collections.singleton(e.getRootAccount()), descriptors);
+
+            assertEquals(descriptors.size(), aggregator.getPeriodCount());
+
+            for (int i = 0; i < descriptors.size(); i++) {
+                final LocalDate start = descriptors.get(i).getStartDate();
+                final LocalDate end = descriptors.get(i).getEndDate();
+
+                for (final Account account : new Account[]{bank, savings, expense, cadExpense}) {
+                    assertBalance(account.getBalance(start, end), aggregator.getBalance(account, i));
+                    assertBalance(account.getBalance(end), aggregator.getEndingBalance(account, i));
+                    assertBalance(account.getBalance(start, end, usd), aggregator.getBalance(account, i, usd));
+                    assertBalance(account.getBalance(end, usd), aggregator.getEndingBalance(account, i, usd));
+                }
+
+                assertBalance(savings.getBalance(end).multiply(cad.getExchangeRate(usd, end)),
+                        aggregator.getEndingBalance(savings, i, usd));
+
+                assertBalance(bank.getTreeBalance(start, end, usd), aggregator.getTreeBalance(bank, i, usd));
+                assertBalance(bank.getTreeBalance(end, usd), aggregator.getTreeEndingBalance(bank, i, usd));
+                assertBalance(bank.getTreeBalance(end, cad), aggregator.getTreeEndingBalance(bank, i, cad));
+                assertBalance(expense.getTreeBalance(start, end, usd), aggregator.getTreeBalance(expense, i, usd));
+            }
+        }
+    }
+
+    private static void assertBalance(final BigDecimal expected, final BigDecimal actual) {
+        // the scale may differ when a period is empty
+        assertEquals(0, expected.compareTo(actual), () -> "expected: " + expected + " but was: " + actual);
+    }
+}
@@ -19,8 +19,25 @@ package jgnash.util;
 
 import org.apache.commons.text.RandomStringGenerator;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * EncryptionManager test.
@@ -47,4 +64,127 @@ class EncryptionManagerTest {
             assertEquals(testString, decrypted);
         }
     }
+
+    @Test
+    void testSeal() throws GeneralSecurityException {
+        final EncryptionManager encryptionManager = new EncryptionManager(PASSWORD.toCharArray());
+
+        final byte[] bytes = generator.generate(1000).getBytes(StandardCharsets.UTF_8);
+
+        final ByteBuffer sealed = ByteBuffer.allocate(bytes.length + EncryptionManager.AEAD_OVERHEAD);
+
+        encryptionManager.seal(ByteBuffer.wrap(bytes), sealed);
+        sealed.flip();
+
+        final ByteBuffer plain = ByteBuffer.allocate(bytes.length);
+        encryptionManager.open(sealed.duplicate(), plain);
+
+        assertArrayEquals(bytes, plain.array());
+
+        // an altered message is rejected
+        sealed.put(sealed.limit() / 2, (byte) (sealed.get(sealed.limit() / 2) ^ 1));
+
+        assertThrows(GeneralSecurityException.class, () -> encryptionManager.open(sealed.duplicate(),
+                ByteBuffer.allocate(bytes.length)));
+
+        // a different password is rejected
+        sealed.put(sealed.limit() / 2, (byte) (sealed.get(sealed.limit() / 2) ^ 1));
+
+        assertThrows(GeneralSecurityException.class, () -> new EncryptionManager("other".toCharArray())
+                .open(sealed.duplicate(), ByteBuffer.allocate(bytes.length)));
+
+        // the cipher is still usable after a failure
+        plain.clear();
+        encryptionManager.open(sealed.duplicate(), plain);
+
+        assertArrayEquals(bytes, plain.array());
+    }
+
+    @Test
+    void testThreads() throws Exception {
+        final EncryptionManager encryptionManager = new EncryptionManager(PASSWORD.toCharArray());
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 8; i++) {
+                futures.add(executorService.submit(() -> {
+                    for (int j = 1; j < 1000; j++) {
+                        final String testString = generator.generate(j);
+
+                        assertEquals(testString, encryptionManager.decrypt(encryptionManager.encrypt(testString)));
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testMessageOverhead() throws GeneralSecurityException {
+        final EncryptionManager encryptionManager = new EncryptionManager(PASSWORD.toCharArray());
+
+        // a lock message, a typical message bus message and attachment frames
+        for (final int size : new int[]{64, 1024, 8192, 65536}) {
+            final String message = generator.generate(size);
+            final byte[] bytes = message.getBytes(StandardCharsets.UTF_8);
+            final int count = 20_000_000 / (size + 1000);
+
+            final SecretKeySpec key = new SecretKeySpec(MessageDigest.getInstance("SHA-256")
+                    .digest(PASSWORD.getBytes(StandardCharsets.UTF_8)), "AES");
+
+            final ByteBuffer plain = ByteBuffer.allocate(bytes.length);
+            final ByteBuffer sealed = ByteBuffer.allocate(bytes.length + EncryptionManager.AEAD_OVERHEAD);
+
+            for (int pass = 0; pass < 2; pass++) {  // the first pass warms up
+                long start = System.nanoTime();
+
+                // a new cipher for every message
+                for (int i = 0; i < count; i++) {
+                    final Cipher encrypt = Cipher.getInstance("AES");
+                    encrypt.init(Cipher.ENCRYPT_MODE, key);
+                    final String line = Base64.getEncoder().encodeToString(encrypt.doFinal(message.getBytes(
+                            StandardCharsets.UTF_8)));
+
+                    final Cipher decrypt = Cipher.getInstance("AES");
+                    decrypt.init(Cipher.DECRYPT_MODE, key);
+                    new String(decrypt.doFinal(Base64.getDecoder().decode(line)), StandardCharsets.UTF_8);
+                }
+
+                final double uncached = (System.nanoTime() - start) / 1000.0 / count;
+
+                start = System.nanoTime();
+
+                for (int i = 0; i < count; i++) {
+                    encryptionManager.decrypt(encryptionManager.encrypt(message));
+                }
+
+                final double strings = (System.nanoTime() - start) / 1000.0 / count;
+
+                start = System.nanoTime();
+
+                for (int i = 0; i < count; i++) {
+                    sealed.clear();
+                    plain.clear();
+                    encryptionManager.seal(ByteBuffer.wrap(bytes), sealed);
+                    sealed.flip();
+                    encryptionManager.open(sealed, plain);
+                }
+
+                final double authenticated = (System.nanoTime() - start) / 1000.0 / count;
+
+                if (pass > 0) {
+                    System.out.printf("%d bytes: new cipher %.2f us, strings %.2f us, authenticated %.2f us per "
+                            + "round trip%n", size, uncached, strings, authenticated);
+                }
+            }
+        }
+    }
 }
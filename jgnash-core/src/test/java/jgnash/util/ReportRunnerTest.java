@@ -0,0 +1,190 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.util;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import jgnash.engine.Account;
+import jgnash.engine.AccountType;
+import jgnash.engine.CurrencyNode;
+import jgnash.engine.DataStoreType;
+import jgnash.engine.Engine;
+import jgnash.engine.EngineFactory;
+import jgnash.engine.Transaction;
+import jgnash.engine.TransactionFactory;
+import jgnash.report.PeriodBalanceAggregator;
+import jgnash.report.ReportPeriod;
+import jgnash.report.ReportPeriodUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the parallel report runner.
+ *
+ * @author Craig Cavanaugh
+ */
+@ExtendWith(TemporaryFolderExtension.class)
+class ReportRunnerTest {
+
+    private static final int ACCOUNT_COUNT = 300;
+
+    private static final int TRANSACTION_COUNT = 100_000;
+
+    @AfterEach
+    void tearDown() {
+        EngineFactory.closeEngine(EngineFactory.DEFAULT);
+    }
+
+    @Test
+    void testResultOrder() {
+        final List<Integer> items = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+        final AtomicLong lastCompleted = new AtomicLong();
+
+        final ReportRunner runner = new ReportRunner();
+        runner.setProgressListener((completed, total) -> {
+            assertEquals(items.size(), total);
+            lastCompleted.accumulateAndGet(completed, Math::max);
+        });
+
+        final List<String> results = runner.run(items, String::valueOf);
+
+        assertEquals(items.size(), results.size());
+        assertEquals(items.size(), lastCompleted.get());
+
+        for (int i = 0; i < items.size(); i++) {
+            assertEquals(String.valueOf(i), results.get(i));
+        }
+    }
+
+    @Test
+    void testCancel() {
+        final List<Integer> items = IntStream.range(0, 10_000).boxed().collect(Collectors.toList());
+
+        final ReportRunner runner = new ReportRunner();
+        final AtomicLong calculated = new AtomicLong();
+
+        assertThrows(CancellationException.class, () -> runner.run(items, item -> {
+            if (calculated.incrementAndGet() == 100) {
+                runner.cancel();
+            }
+            return item;
+        }));
+
+        assertTrue(runner.isCancelled());
+        assertTrue(calculated.get() < items.size());
+
+        // a cancelled runner does not start new work
+        assertThrows(CancellationException.class, () -> runner.run(items, item -> item));
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testParallelSpeedUp(final TemporaryFolder testFolder) throws IOException {
+        final String database = testFolder.createFile("runner-test.xml").getAbsolutePath();
+
+        EngineFactory.deleteDatabase(database);
+
+        final Engine e = EngineFactory.bootLocalEngine(database, EngineFactory.DEFAULT, EngineFactory.EMPTY_PASSWORD,
+                DataStoreType.XML);
+
+        assertNotNull(e);
+
+        final CurrencyNode currency = e.getDefaultCurrency();
+
+        final Account expense = new Account(AccountType.EXPENSE, currency);
+        expense.setName("Expense");
+        e.addAccount(e.getRootAccount(), expense);
+
+        final List<Account> accounts = new ArrayList<>();
+
+        for (int i = 0; i < ACCOUNT_COUNT; i++) {
+            final Account account = new Account(AccountType.BANK, currency);
+            account.setName("Bank " + i);
+            e.addAccount(e.getRootAccount(), account);
+            accounts.add(account);
+        }
+
+        // ten years of synthetic history
+        final LocalDate startDate = LocalDate.now().minusYears(10);
+        final Random random = new Random(42);
+
+        final List<Transaction> transactions = new ArrayList<>();
+
+        for (int i = 0; i < TRANSACTION_COUNT; i++) {
+            transactions.add(TransactionFactory.generateDoubleEntryTransaction(expense,
+                    accounts.get(random.nextInt(ACCOUNT_COUNT)), BigDecimal.valueOf(random.nextInt(10000), 2),
+                    startDate.plusDays(random.nextInt(3650)), "memo", "payee", ""));
+        }
+
+        e.addTransactions(transactions);
+
+        final List<ReportPeriodUtils.Descriptor> descriptors = ReportPeriodUtils.getDescriptors(ReportPeriod.MONTHLY,
+                startDate, LocalDate.now());
+
+        final ForkJoinPool serialPool = new ForkJoinPool(1);
+        final ForkJoinPool parallelPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+        try {
+            // warm up
+            measure(accounts, descriptors, serialPool);
+            measure(accounts, descriptors, parallelPool);
+
+            final double serial = measure(accounts, descriptors, serialPool);
+            final double parallel = measure(accounts, descriptors, parallelPool);
+
+            System.out.printf("%d accounts, %d periods: 1 thread %.1f ms, %d threads %.1f ms, speed-up %.2fx%n",
+                    ACCOUNT_COUNT, descriptors.size(), serial, parallelPool.getParallelism(), parallel,
+                    serial / parallel);
+        } finally {
+            serialPool.shutdown();
+            parallelPool.shutdown();
+        }
+    }
+
+    private static double measure(final List<Account> accounts, final List<ReportPeriodUtils.Descriptor> descriptors,
+                                  final ForkJoinPool pool) {
+        final long start = System.nanoTime();
+
+        final PeriodBalanceAggregator aggregator = new PeriodBalanceAggregator(accounts, descriptors,
+                new ReportRunner(pool));
+
+        assertEquals(descriptors.size(), aggregator.getPeriodCount());
+
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -18,7 +18,12 @@
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.net.Authenticator;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.Arrays;
 import java.util.logging.Handler;
 import java.util.logging.Level;
@@ -30,10 +35,12 @@ import javax.swing.JOptionPane;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import jgnash.engine.DifferentialBackup;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
 import jgnash.engine.jpa.JpaNetworkServer;
 import jgnash.engine.message.MessageBus;
+import jgnash.engine.xstream.XMLDataStore;
 import jgnash.resource.util.OS;
 import jgnash.resource.util.ResourceUtils;
 import jgnash.resource.util.Version;
@@ -132,6 +139,19 @@ public class jGnashFx extends Application {
                 System.exit(0);
             }
 
+            if (options.restoreFile != null) {
+                try {
+                    final LocalDateTime restoreTime = options.restoreTime != null
+                            ? LocalDateTime.parse(options.restoreTime) : LocalDateTime.now();
+
+                    System.exit(restore(options.restoreFile, restoreTime) ? 0 : 1);
+                } catch (final DateTimeParseException e) {
+                    logSevere(jGnashFx.class, e);
+                    commandLine.usage(System.err, Help.Ansi.AUTO);
+                    System.exit(1);
+                }
+            }
+
             if (options.verbose) {
                 System.setProperty("javafx.verbose", "true");
             }
@@ -214,6 +234,29 @@ public class jGnashFx extends Application {
         }
     }
 
+    /**
+     * Rebuilds a file from its differential backups as it was at a point in time.
+     *
+     * @param file        file the backups were made for
+     * @param restoreTime local date and time to restore
+     * @return {@code true} if the file was restored
+     * @throws IOException if a backup could not be read or the file could not be written
+     */
+    private static boolean restore(final File file, final LocalDateTime restoreTime) throws IOException {
+        final Logger logger = Logger.getLogger(jGnashFx.class.getName());
+
+        final Path target = Paths.get(FileUtils.stripFileExtension(file.getAbsolutePath()) + "-restored"
+                + XMLDataStore.FILE_EXT);
+
+        if (DifferentialBackup.restore(file.getAbsolutePath(), restoreTime, target)) {
+            logger.log(Level.INFO, "Restored {0} to {1}", new Object[]{restoreTime, target});
+            return true;
+        }
+
+        logger.log(Level.SEVERE, "A backup made before {0} was not found", restoreTime);
+        return false;
+    }
+
     private static void configureLogging() {
         LogUtil.configureLogging();
 
@@ -243,6 +286,8 @@ public class jGnashFx extends Application {
         private static final String SERVER_OPTION = "--server";
         private static final String SHUTDOWN_OPTION = "--shutdown";
         private static final String BYPASS_BOOTLOADER = "--bypassBootloader";
+        private static final String RESTORE_OPTION = "--restore";
+        private static final String RESTORE_TIME_OPTION = "--restoreTime";
         //private static final String SSL_OPTION = "--ssl";
 
         @CommandLine.Parameters(index = "0", arity = "0")
@@ -275,6 +320,12 @@ public class jGnashFx extends Application {
         @Option(names = {SHUTDOWN_OPTION}, description = "Issues a shutdown request to a server")
         private boolean shutdown = false;
 
+        @Option(names = {RESTORE_OPTION}, paramLabel = "<File>", description = "Restores the file from its differential backups")
+        private File restoreFile = null;
+
+        @Option(names = {RESTORE_TIME_OPTION}, paramLabel = "<yyyy-MM-ddTHH:mm>", description = "Point in time to restore (default: latest)")
+        private String restoreTime = null;
+
         @Option(names = {UNINSTALL_OPTION_SHORT, UNINSTALL_OPTION_LONG}, description = "Remove registry settings (uninstall)")
         private boolean uninstall = false;
 
@@ -117,6 +117,9 @@ public class AutoCompleteFactory {
                     Transaction t = event.getObject(MessageProperty.TRANSACTION);
                     load(t);
                     return;
+                case TRANSACTIONS_ADD:
+                    event.<Transaction>getObjects(MessageProperty.TRANSACTION).forEach(this::load);
+                    return;
                 case FILE_LOAD_SUCCESS:
                     reload();
                     return;
@@ -210,6 +213,11 @@ public class AutoCompleteFactory {
                         load(t);
                     }
                     return;
+                case TRANSACTIONS_ADD:
+                    if (a.equals(account)) {
+                        event.<Transaction>getObjects(MessageProperty.TRANSACTION).forEach(this::load);
+                    }
+                    return;
                 case FILE_LOAD_SUCCESS:
                     reload();
                     return;
@@ -218,6 +226,11 @@ public class AutoCompleteFactory {
                         removeExtraInfo(t);
                     }
                     return;
+                case TRANSACTIONS_REMOVE:
+                    if (a.equals(account)) {
+                        event.<Transaction>getObjects(MessageProperty.TRANSACTION).forEach(this::removeExtraInfo);
+                    }
+                    return;
                 default:
             }
         }
@@ -282,6 +295,8 @@ public class AutoCompleteFactory {
 
             if (event.getEvent() == ChannelEvent.TRANSACTION_REMOVE) {
                 removeExtraInfo(event.getObject(MessageProperty.TRANSACTION));
+            } else if (event.getEvent() == ChannelEvent.TRANSACTIONS_REMOVE) {
+                event.<Transaction>getObjects(MessageProperty.TRANSACTION).forEach(this::removeExtraInfo);
             }
         }
     }
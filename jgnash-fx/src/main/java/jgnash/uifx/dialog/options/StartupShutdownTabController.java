@@ -38,6 +38,9 @@ public class StartupShutdownTabController {
     @FXML
     private CheckBox createBackupsCheckBox;
 
+    @FXML
+    private CheckBox differentialBackupsCheckBox;
+
     @FXML
     private CheckBox removeOldBackupsCheckBox;
 
@@ -75,14 +78,22 @@ public class StartupShutdownTabController {
 
             removeOldBackupsCheckBox.selectedProperty().addListener((observable, oldValue, newValue)
                     -> engine.setRemoveOldBackups(newValue));
+
+            differentialBackupsCheckBox.disableProperty().bind(createBackupsCheckBox.selectedProperty().not());
         } else {
             backupCountSpinner.setDisable(true);
             createBackupsCheckBox.setDisable(true);
             removeOldBackupsCheckBox.setDisable(true);
+            differentialBackupsCheckBox.setDisable(true);
             updateCurrencies.setDisable(true);
             updateSecurities.setDisable(true);
         }
 
+        differentialBackupsCheckBox.setSelected(EngineFactory.isDifferentialBackupEnabled());
+
+        differentialBackupsCheckBox.selectedProperty().addListener((observable, oldValue, newValue)
+                -> EngineFactory.setDifferentialBackupEnabled(newValue));
+
         updateSecurities.setSelected(UpdateFactory.getUpdateOnStartup());
         updateCurrencies.setSelected(CurrencyUpdateFactory.getUpdateOnStartup());
 
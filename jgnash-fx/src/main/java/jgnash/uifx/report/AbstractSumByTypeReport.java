@@ -40,6 +40,7 @@ import jgnash.engine.CurrencyNode;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
 import jgnash.engine.MathConstants;
+import jgnash.report.PeriodBalanceAggregator;
 import jgnash.report.pdf.Report;
 import jgnash.report.table.AbstractReportTableModel;
 import jgnash.report.table.ColumnStyle;
@@ -49,6 +50,7 @@ import jgnash.resource.util.ResourceUtils;
 import jgnash.time.DateUtils;
 import jgnash.time.Period;
 import jgnash.util.NotNull;
+import jgnash.util.ReportRunner;
 
 /**
  * Abstract Report that groups and sums by {@code AccountGroup} and has a line for a global sum. and cross tabulates
@@ -73,6 +75,8 @@ public abstract class AbstractSumByTypeReport extends Report {
 
     private final Map<Account, BigDecimal> percentileMap = new HashMap<>();
 
+    private PeriodBalanceAggregator aggregator;
+
     private boolean addCrossTabColumn = false;
 
     private boolean addPercentileColumn = false;
@@ -116,8 +120,18 @@ public abstract class AbstractSumByTypeReport extends Report {
         this.title = title;
     }
 
+    /**
+     * Creates the report model.  Account balances are calculated in parallel by the runner.
+     *
+     * @param startDate               report start date
+     * @param endDate                 report end date
+     * @param hideZeroBalanceAccounts {@code true} to remove accounts with a zero balance for all periods
+     * @param runner                  runner used to calculate the account balances
+     * @return the report model
+     * @throws java.util.concurrent.CancellationException if the runner is cancelled
+     */
     ReportModel createReportModel(final LocalDate startDate, final LocalDate endDate,
-                                  final boolean hideZeroBalanceAccounts) {
+                                  final boolean hideZeroBalanceAccounts, final ReportRunner runner) {
 
         percentileMap.clear();
 
@@ -139,6 +153,9 @@ public abstract class AbstractSumByTypeReport extends Report {
             accounts.addAll(getAccountList(AccountType.getAccountTypes(group)));
         }
 
+        // walk the transactions of each account once for all of the report periods
+        aggregator = new PeriodBalanceAggregator(accounts, startDates, endDates, runner);
+
         // remove any account that will report a zero balance for all periods
         if (hideZeroBalanceAccounts) {
             final Iterator<Account> i = accounts.iterator();
@@ -155,8 +172,8 @@ public abstract class AbstractSumByTypeReport extends Report {
                         }
                     }
 
-                    for (final LocalDate date : endDates) {
-                        if (account.getBalance(date).compareTo(BigDecimal.ZERO) != 0) {
+                    for (int j = 0; j < endDates.size(); j++) {
+                        if (aggregator.getEndingBalance(account, j).compareTo(BigDecimal.ZERO) != 0) {
                             remove = false;
                             break;
                         }
@@ -165,7 +182,7 @@ public abstract class AbstractSumByTypeReport extends Report {
 
                 } else {
                     for (int j = 0; j < startDates.size(); j++) {
-                        if (account.getBalance(startDates.get(j), endDates.get(j)).compareTo(BigDecimal.ZERO) != 0) {
+                        if (aggregator.getBalance(account, j).compareTo(BigDecimal.ZERO) != 0) {
                             remove = false;
                             break;
                         }
@@ -496,11 +513,10 @@ public abstract class AbstractSumByTypeReport extends Report {
                     return getValue().getAccountType().getAccountGroup().toString();
                 } else if (columnIndex > 0 && columnIndex <= startDates.size()) {
                     if (runningTotal) {
-                        return getValue().getBalance(endDates.get(columnIndex - 1), getCurrencyNode());
+                        return aggregator.getEndingBalance(getValue(), columnIndex - 1, getCurrencyNode());
                     }
 
-                    return getValue().getBalance(startDates.get(columnIndex - 1), endDates.get(columnIndex - 1),
-                            getCurrencyNode()).negate();
+                    return aggregator.getBalance(getValue(), columnIndex - 1, getCurrencyNode()).negate();
                 }
 
                 return null;
@@ -50,6 +50,7 @@ import jgnash.engine.AccountType;
 import jgnash.engine.CurrencyNode;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
+import jgnash.report.PeriodBalanceAggregator;
 import jgnash.report.ReportPeriod;
 import jgnash.report.ReportPeriodUtils;
 import jgnash.text.NumericFormats;
@@ -331,28 +332,30 @@ public class AccountBalanceChartController {
 
         barChart.setLegendVisible(selectedAccounts.size() > 1);
 
+        final PeriodBalanceAggregator aggregator = new PeriodBalanceAggregator(selectedAccounts, descriptors);
+
         for (final Account account : selectedAccounts) {
 
             final XYChart.Series<String, Number> series = new XYChart.Series<>();
             series.setName(account.getName());
             barChart.getData().add(series);
 
-            for (final ReportPeriodUtils.Descriptor descriptor : descriptors) {
+            for (int i = 0; i < descriptors.size(); i++) {
+                final ReportPeriodUtils.Descriptor descriptor = descriptors.get(i);
                 final BigDecimal income;
 
                 if (!includeSubAccounts.isSelected()) {
 
                     if (runningBalanceRadioButton.isSelected()) {
-                        income = account.getBalance(descriptor.getEndDate());
+                        income = aggregator.getEndingBalance(account, i);
                     } else {    // ending balance
-                        income = account.getBalance(descriptor.getStartDate(), descriptor.getEndDate());
+                        income = aggregator.getBalance(account, i);
                     }
                 } else {
                     if (runningBalanceRadioButton.isSelected()) {
-                        income = account.getTreeBalance(descriptor.getEndDate(), account.getCurrencyNode());
+                        income = aggregator.getTreeEndingBalance(account, i, account.getCurrencyNode());
                     } else {    // ending balance
-                        income = account.getTreeBalance(descriptor.getStartDate(), descriptor.getEndDate(),
-                                account.getCurrencyNode());
+                        income = aggregator.getTreeBalance(account, i, account.getCurrencyNode());
                     }
                 }
 
@@ -24,6 +24,7 @@ import jgnash.engine.CurrencyNode;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
 import jgnash.report.table.Row;
+import jgnash.util.ReportRunner;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -47,8 +48,9 @@ public class BalanceSheetReport extends AbstractSumByTypeReport {
     }
 
     @Override
-    protected ReportModel createReportModel(final LocalDate startDate, final LocalDate endDate, final boolean hideZeroBalanceAccounts) {
-        ReportModel model = super.createReportModel(startDate, endDate, hideZeroBalanceAccounts);
+    protected ReportModel createReportModel(final LocalDate startDate, final LocalDate endDate,
+                                            final boolean hideZeroBalanceAccounts, final ReportRunner runner) {
+        ReportModel model = super.createReportModel(startDate, endDate, hideZeroBalanceAccounts, runner);
 
 
         // load retained profit and loss row
@@ -20,6 +20,7 @@ package jgnash.uifx.report;
 import java.math.BigDecimal;
 import java.text.NumberFormat;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.ResourceBundle;
@@ -43,6 +44,7 @@ import jgnash.engine.AccountType;
 import jgnash.engine.CurrencyNode;
 import jgnash.engine.Engine;
 import jgnash.engine.EngineFactory;
+import jgnash.report.PeriodBalanceAggregator;
 import jgnash.report.ReportPeriod;
 import jgnash.report.ReportPeriodUtils;
 import jgnash.uifx.resource.cursor.CustomCursor;
@@ -165,9 +167,16 @@ public class IncomeExpenseBarChartDialogController {
         profitSeries.setName(resources.getString("Word.NetIncome"));
         barChart.getData().add(profitSeries);
 
-        for (final ReportPeriodUtils.Descriptor descriptor : descriptors) {
-            final BigDecimal income = getSum(incomeAccounts, descriptor.getStartDate(), descriptor.getEndDate());
-            final BigDecimal expense = getSum(expenseAccounts, descriptor.getStartDate(), descriptor.getEndDate());
+        final List<Account> accounts = new ArrayList<>(incomeAccounts);
+        accounts.addAll(expenseAccounts);
+
+        final PeriodBalanceAggregator aggregator = new PeriodBalanceAggregator(accounts, descriptors);
+
+        for (int i = 0; i < descriptors.size(); i++) {
+            final ReportPeriodUtils.Descriptor descriptor = descriptors.get(i);
+
+            final BigDecimal income = getSum(aggregator, incomeAccounts, i);
+            final BigDecimal expense = getSum(aggregator, expenseAccounts, i);
 
             incomeSeries.getData().add(new XYChart.Data<>(descriptor.getLabel(), income));
             expenseSeries.getData().add(new XYChart.Data<>(descriptor.getLabel(), expense));
@@ -214,11 +223,12 @@ public class IncomeExpenseBarChartDialogController {
         data.getNode().setOnMouseEntered(event -> data.getNode().setCursor(CustomCursor.getZoomInCursor()) );
     }
 
-    private BigDecimal getSum(final List<Account> accounts, final LocalDate statDate, final LocalDate endDate) {
+    private BigDecimal getSum(final PeriodBalanceAggregator aggregator, final List<Account> accounts,
+                              final int period) {
         BigDecimal sum = BigDecimal.ZERO;
 
         for (final Account account : accounts) {
-            sum = sum.add(account.getBalance(statDate, endDate, defaultCurrency));
+            sum = sum.add(aggregator.getBalance(account, period, defaultCurrency));
         }
 
         return sum.negate();
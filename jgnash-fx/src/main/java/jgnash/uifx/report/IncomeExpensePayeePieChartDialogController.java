@@ -65,6 +65,7 @@ import jgnash.uifx.util.InjectFXML;
 import jgnash.util.CollectionUtils;
 import jgnash.util.EncodeDecode;
 import jgnash.util.NotNull;
+import jgnash.util.ReportRunner;
 import jgnash.util.function.PayeePredicate;
 
 /**
@@ -319,10 +320,8 @@ public class IncomeExpensePayeePieChartDialogController {
         chartData[CREDIT] = FXCollections.observableArrayList();
         chartData[DEBIT] = FXCollections.observableArrayList();
 
-        final Map<String, BigDecimal> names = new HashMap<>();
-
-        final List<TranTuple> list = getTransactions(account, new ArrayList<>(), startDatePicker.getValue(),
-                endDatePicker.getValue());
+        final LocalDate startDate = startDatePicker.getValue();
+        final LocalDate endDate = endDatePicker.getValue();
 
         final CurrencyNode currency = account.getCurrencyNode();
 
@@ -332,33 +331,14 @@ public class IncomeExpensePayeePieChartDialogController {
                 .map(textField -> new PayeePredicate(textField.getText(), Options.regexForFiltersProperty().get()))
                 .collect(Collectors.toList());
 
-        // Iterate through the list and add up filtered payees
-        for (final TranTuple tranTuple : list) {
-            final String payee = tranTuple.transaction.getPayee();
-            BigDecimal sum = tranTuple.transaction.getAmount(tranTuple.account);
-
-            sum = sum.multiply(tranTuple.account.getCurrencyNode().getExchangeRate(currency));
-
-            boolean keep = false;
+        // Add up the filtered payees of each account in parallel and merge the results in account order
+        final List<Map<String, BigDecimal>> accountNames = new ReportRunner().run(
+                getAccounts(account, new ArrayList<>()), a -> sumPayees(a, currency, predicates, startDate, endDate));
 
-            if (predicates.isEmpty()) {
-                keep = true;
-            } else {
-                for (final Predicate<Transaction> predicate : predicates) {
-                    if (predicate.test(tranTuple.transaction)) {
-                        keep = true;
-                        break;
-                    }
-                }
-            }
-
-            if (keep) {
-                if (names.containsKey(payee)) {
-                    sum = sum.add(names.get(payee));
-                }
+        final Map<String, BigDecimal> names = new HashMap<>();
 
-                names.put(payee, sum);
-            }
+        for (final Map<String, BigDecimal> map : accountNames) {
+            map.forEach((payee, sum) -> names.merge(payee, sum, BigDecimal::add));
         }
 
         final Map<String, BigDecimal> sortedNames = CollectionUtils.sortMapByValue(names);
@@ -388,31 +368,44 @@ public class IncomeExpensePayeePieChartDialogController {
 		return string.substring(0, MAX_NAME_LENGTH - 1) + ELLIPSIS;
     }
 
-    private static class TranTuple {
+    private static Map<String, BigDecimal> sumPayees(final Account account, final CurrencyNode currency,
+                                                     final List<Predicate<Transaction>> predicates,
+                                                     final LocalDate startDate, final LocalDate endDate) {
+        final Map<String, BigDecimal> names = new HashMap<>();
 
-        final Account account;
+        final BigDecimal exchangeRate = account.getCurrencyNode().getExchangeRate(currency);
 
-        final Transaction transaction;
+        for (final Transaction transaction : account.getTransactions(startDate, endDate)) {
+            boolean keep = false;
 
-        TranTuple(Account account, Transaction transaction) {
-            this.account = account;
-            this.transaction = transaction;
+            if (predicates.isEmpty()) {
+                keep = true;
+            } else {
+                for (final Predicate<Transaction> predicate : predicates) {
+                    if (predicate.test(transaction)) {
+                        keep = true;
+                        break;
+                    }
+                }
+            }
+
+            if (keep) {
+                names.merge(transaction.getPayee(), transaction.getAmount(account).multiply(exchangeRate),
+                        BigDecimal::add);
+            }
         }
-    }
 
-    private List<TranTuple> getTransactions(final Account account, final List<TranTuple> transactions,
-                                            final LocalDate startDate, final LocalDate endDate) {
+        return names;
+    }
 
-        for (final Transaction transaction : account.getTransactions(startDate, endDate)) {
-            TranTuple tuple = new TranTuple(account, transaction);
-            transactions.add(tuple);
-        }
+    private static List<Account> getAccounts(final Account account, final List<Account> accounts) {
+        accounts.add(account);
 
         for (final Account child : account.getChildren(Comparators.getAccountByCode())) {
-            getTransactions(child, transactions, startDate, endDate);
+            getAccounts(child, accounts);
         }
 
-        return transactions;
+        return accounts;
     }
 
 
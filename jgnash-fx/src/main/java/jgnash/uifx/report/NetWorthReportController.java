@@ -23,12 +23,14 @@ import jgnash.resource.util.ResourceUtils;
 import jgnash.time.DateUtils;
 import jgnash.time.Period;
 import jgnash.uifx.control.DatePickerEx;
-import jgnash.uifx.report.pdf.ReportController;
+import jgnash.uifx.report.pdf.AbstractReportModelController;
 import jgnash.uifx.util.JavaFXUtils;
+import jgnash.util.ReportRunner;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.prefs.Preferences;
 
 import javafx.fxml.FXML;
@@ -40,7 +42,7 @@ import javafx.scene.control.ComboBox;
  *
  * @author Craig Cavanaugh
  */
-public class NetWorthReportController implements ReportController {
+public class NetWorthReportController extends AbstractReportModelController {
 
     @FXML
     private ComboBox<Period> resolutionComboBox;
@@ -62,8 +64,6 @@ public class NetWorthReportController implements ReportController {
 
     private final NetWorthReport report = new NetWorthReport();
 
-    private Runnable refreshRunnable = null;
-
     public NetWorthReportController() {
         super();
     }
@@ -87,11 +87,6 @@ public class NetWorthReportController implements ReportController {
         JavaFXUtils.runLater(this::refreshReport);
     }
 
-    @Override
-    public void setRefreshRunnable(final Runnable runnable) {
-        refreshRunnable = runnable;
-    }
-
     @Override
     public void getReport(final Consumer<Report> reportConsumer) {
         reportConsumer.accept(report);
@@ -111,17 +106,11 @@ public class NetWorthReportController implements ReportController {
                 endDatePicker.getValue()).size());
         preferences.putInt(PERIOD, resolutionComboBox.getValue().ordinal());
 
-        addTable();
-
-        // send notification the report has been updated
-        if (refreshRunnable != null) {
-            refreshRunnable.run();
-        }
+        startModelTask();
     }
 
-    private void addTable() {
-        final AbstractReportTableModel model = createReportModel();
-
+    @Override
+    protected void addTable(final AbstractReportTableModel model) {
         report.clearReport();
         report.setTitle(ResourceUtils.getString("Word.NetWorth"));
 
@@ -134,10 +123,13 @@ public class NetWorthReportController implements ReportController {
     }
 
     @Override
-    public AbstractReportTableModel createReportModel() {
+    protected Function<ReportRunner, AbstractReportTableModel> getModelFactory() {
         report.setReportPeriod(resolutionComboBox.getValue());
 
-        return report.createReportModel(startDatePicker.getValue(), endDatePicker.getValue(),
-                hideZeroBalanceAccounts.isSelected());
+        final LocalDate startDate = startDatePicker.getValue();
+        final LocalDate endDate = endDatePicker.getValue();
+        final boolean hideZeroBalance = hideZeroBalanceAccounts.isSelected();
+
+        return runner -> report.createReportModel(startDate, endDate, hideZeroBalance, runner);
     }
 }
@@ -27,12 +27,14 @@ import jgnash.report.pdf.Report;
 import jgnash.report.table.AbstractReportTableModel;
 import jgnash.report.table.ColumnStyle;
 import jgnash.util.NotNull;
+import jgnash.util.ReportRunner;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -49,12 +51,13 @@ public class PortfolioReport extends Report {
         setForceGroupPagination(false);
     }
 
-    static AbstractReportTableModel createReportModel(final Account account, final boolean recursive, final boolean longNames) {
+    static AbstractReportTableModel createReportModel(final Account account, final boolean recursive,
+                                                      final boolean longNames, final ReportRunner runner) {
 
         final Engine engine = EngineFactory.getEngine(EngineFactory.DEFAULT);
         Objects.requireNonNull(engine);
 
-        return new PortfolioReportTableModel(account, engine.getDefaultCurrency(), recursive, longNames);
+        return new PortfolioReportTableModel(account, engine.getDefaultCurrency(), recursive, longNames, runner);
     }
 
     @Override
@@ -72,7 +75,8 @@ public class PortfolioReport extends Report {
 
         private final boolean longNames;
 
-        PortfolioReportTableModel(@NotNull final Account account, @NotNull final CurrencyNode baseCurrency, final boolean recursive, final boolean longNames) {
+        PortfolioReportTableModel(@NotNull final Account account, @NotNull final CurrencyNode baseCurrency,
+                                  final boolean recursive, final boolean longNames, final ReportRunner runner) {
             Objects.requireNonNull(account);
             Objects.requireNonNull(baseCurrency);
 
@@ -81,9 +85,11 @@ public class PortfolioReport extends Report {
             this.longNames = longNames;
 
             try {
-                performanceSummary = new InvestmentPerformanceSummary(account, recursive);
+                performanceSummary = new InvestmentPerformanceSummary(account, recursive, runner);
 
                 Logger.getLogger(PortfolioReport.class.getName()).info(performanceSummary.toString());
+            } catch (final CancellationException e) {
+                throw e;    // a newer report has replaced this one
             } catch (final Exception e) {
                 Logger.getLogger(PortfolioReport.class.getName()).log(Level.SEVERE, null, e);
             }
@@ -20,6 +20,7 @@ package jgnash.uifx.report;
 import java.io.IOException;
 import java.util.ResourceBundle;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.prefs.Preferences;
 
 import javafx.beans.value.ChangeListener;
@@ -27,20 +28,22 @@ import javafx.beans.value.WeakChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.CheckBox;
 
+import jgnash.engine.Account;
 import jgnash.engine.AccountType;
 import jgnash.engine.EngineFactory;
 import jgnash.report.pdf.Report;
 import jgnash.report.table.AbstractReportTableModel;
 import jgnash.uifx.control.AccountComboBox;
-import jgnash.uifx.report.pdf.ReportController;
+import jgnash.uifx.report.pdf.AbstractReportModelController;
 import jgnash.uifx.util.JavaFXUtils;
+import jgnash.util.ReportRunner;
 
 /**
  * Portfolio report controller.
  *
  * @author Craig Cavanaugh
  */
-public class PortfolioReportController implements ReportController {
+public class PortfolioReportController extends AbstractReportModelController {
 
     private static final String RECURSIVE = "recursive";
 
@@ -58,8 +61,6 @@ public class PortfolioReportController implements ReportController {
     @FXML
     private ResourceBundle resources;
 
-    private Runnable refreshRunnable = null;
-
     private final Report report = new PortfolioReport();
 
     @SuppressWarnings("FieldCanBeLocal")
@@ -89,12 +90,6 @@ public class PortfolioReportController implements ReportController {
         JavaFXUtils.runLater(this::refreshReport);
     }
 
-    @Override
-    public void setRefreshRunnable(final Runnable runnable) {
-        refreshRunnable = runnable;
-    }
-
-
     @Override
     public void getReport(Consumer<Report> reportConsumer) {
         reportConsumer.accept(report);
@@ -113,18 +108,12 @@ public class PortfolioReportController implements ReportController {
         preferences.putBoolean(VERBOSE, longNameCheckBox.isSelected());
 
         if (!accountComboBox.isDisabled()) {   // make sure an account is available
-            addTable();
-
-            // send notification the report has been updated
-            if (refreshRunnable != null) {
-                refreshRunnable.run();
-            }
+            startModelTask();
         }
     }
 
-    private void addTable() {
-        AbstractReportTableModel model = createReportModel();
-
+    @Override
+    protected void addTable(final AbstractReportTableModel model) {
         report.clearReport();
 
         try {
@@ -136,8 +125,11 @@ public class PortfolioReportController implements ReportController {
     }
 
     @Override
-    public AbstractReportTableModel createReportModel() {
-        return PortfolioReport.createReportModel(accountComboBox.getValue(), subAccountCheckBox.isSelected(),
-                longNameCheckBox.isSelected());
+    protected Function<ReportRunner, AbstractReportTableModel> getModelFactory() {
+        final Account account = accountComboBox.getValue();
+        final boolean recursive = subAccountCheckBox.isSelected();
+        final boolean longNames = longNameCheckBox.isSelected();
+
+        return runner -> PortfolioReport.createReportModel(account, recursive, longNames, runner);
     }
 }
@@ -24,12 +24,14 @@ import jgnash.resource.util.ResourceUtils;
 import jgnash.time.DateUtils;
 import jgnash.time.Period;
 import jgnash.uifx.control.DatePickerEx;
-import jgnash.uifx.report.pdf.ReportController;
+import jgnash.uifx.report.pdf.AbstractReportModelController;
 import jgnash.uifx.util.JavaFXUtils;
+import jgnash.util.ReportRunner;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.prefs.Preferences;
 
 import javafx.beans.value.ChangeListener;
@@ -43,7 +45,7 @@ import javafx.scene.control.ComboBox;
  *
  * @author Craig Cavanaugh
  */
-public class ProfitLossReportController implements ReportController {
+public class ProfitLossReportController extends AbstractReportModelController {
 
     @FXML
     private ComboBox<Period> resolutionComboBox;
@@ -80,8 +82,6 @@ public class ProfitLossReportController implements ReportController {
 
     private final ProfitLossReport report = new ProfitLossReport();
 
-    private Runnable refreshRunnable = null;
-
     @SuppressWarnings("FieldCanBeLocal")
     private ChangeListener<Object> changeListener;  // need to hold a reference to prevent premature collection
 
@@ -121,11 +121,6 @@ public class ProfitLossReportController implements ReportController {
         JavaFXUtils.runLater(this::refreshReport);
     }
 
-    @Override
-    public void setRefreshRunnable(final Runnable runnable) {
-        refreshRunnable = runnable;
-    }
-
     @Override
     public void getReport(final Consumer<Report> reportConsumer) {
         reportConsumer.accept(report);
@@ -148,17 +143,11 @@ public class ProfitLossReportController implements ReportController {
         preferences.putBoolean(SHOW_FULL_ACCOUNT_PATH, showLongNamesCheckBox.isSelected());
         preferences.getBoolean(SHOW_PERCENTAGES, showAccountPercentages.isSelected());
 
-        addTable();
-
-        // send notification the report has been updated
-        if (refreshRunnable != null) {
-            refreshRunnable.run();
-        }
+        startModelTask();
     }
 
-    private void addTable() {
-        AbstractReportTableModel model = createReportModel();
-
+    @Override
+    protected void addTable(final AbstractReportTableModel model) {
         report.clearReport();
         report.setTitle(ResourceUtils.getString("Title.ProfitLoss"));
 
@@ -172,7 +161,7 @@ public class ProfitLossReportController implements ReportController {
     }
 
     @Override
-    public AbstractReportTableModel createReportModel() {
+    protected Function<ReportRunner, AbstractReportTableModel> getModelFactory() {
         report.setAddPercentileColumn(showAccountPercentages.isSelected());
 
         report.setSortOrder(sortOrderComboBox.getValue());
@@ -180,8 +169,11 @@ public class ProfitLossReportController implements ReportController {
 
         report.setShowFullAccountPath(showLongNamesCheckBox.isSelected());
 
-        return report.createReportModel(startDatePicker.getValue(), endDatePicker.getValue(),
-                hideZeroBalanceAccounts.isSelected());
+        final LocalDate startDate = startDatePicker.getValue();
+        final LocalDate endDate = endDatePicker.getValue();
+        final boolean hideZeroBalance = hideZeroBalanceAccounts.isSelected();
+
+        return runner -> report.createReportModel(startDate, endDate, hideZeroBalance, runner);
     }
 
     @FXML
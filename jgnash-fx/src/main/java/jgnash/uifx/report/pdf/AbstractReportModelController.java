@@ -0,0 +1,103 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.report.pdf;
+
+import jgnash.report.table.AbstractReportTableModel;
+import jgnash.uifx.StaticUIMethods;
+import jgnash.util.ReportRunner;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import javafx.concurrent.Task;
+
+/**
+ * Report controller that generates the report model in the background with a {@code ReportModelTask}.
+ *
+ * @author Craig Cavanaugh
+ */
+public abstract class AbstractReportModelController implements ReportController {
+
+    private Runnable refreshRunnable = null;
+
+    /**
+     * Report model being generated in the background.
+     */
+    private ReportModelTask modelTask;
+
+    private Consumer<Task<?>> taskHandler = null;
+
+    @Override
+    public void setRefreshRunnable(final Runnable runnable) {
+        refreshRunnable = runnable;
+    }
+
+    @Override
+    public void setTaskHandler(final Consumer<Task<?>> handler) {
+        taskHandler = handler;
+    }
+
+    /**
+     * Captures the report options so the model can be generated off the application thread.
+     *
+     * @return report model factory
+     */
+    protected abstract Function<ReportRunner, AbstractReportTableModel> getModelFactory();
+
+    /**
+     * Replaces the report content with a generated model.  Called on the application thread.
+     *
+     * @param model generated report model
+     */
+    protected abstract void addTable(final AbstractReportTableModel model);
+
+    /**
+     * Starts generating the report model, a newer report replaces the one being generated.
+     */
+    protected void startModelTask() {
+        if (modelTask != null) {
+            modelTask.cancel();
+        }
+
+        final ReportModelTask task = new ReportModelTask(getModelFactory());
+
+        task.setOnSucceeded(event -> {
+            addTable(task.getValue());
+
+            // send notification the report has been updated
+            if (refreshRunnable != null) {
+                refreshRunnable.run();
+            }
+        });
+
+        task.setOnFailed(event -> StaticUIMethods.displayException(task.getException()));
+
+        modelTask = task;
+
+        if (taskHandler != null) {
+            taskHandler.accept(task);
+        }
+
+        task.start();
+    }
+
+    @Override
+    public AbstractReportTableModel createReportModel() {
+        return getModelFactory().apply(new ReportRunner());
+    }
+}
@@ -23,6 +23,8 @@ import jgnash.report.table.AbstractReportTableModel;
 import java.util.function.Consumer;
 import java.util.prefs.Preferences;
 
+import javafx.concurrent.Task;
+
 /**
  * Required UI interface for a report controller
  *
@@ -56,6 +58,16 @@ public interface ReportController {
      */
     AbstractReportTableModel createReportModel();
 
+    /**
+     * Installs a handler that is notified when the report model is generated in the background.  The handler may
+     * display the progress of the task and cancel it.
+     *
+     * @param handler task handler
+     */
+    default void setTaskHandler(final Consumer<Task<?>> handler) {
+        // reports generated on the application thread do not use the handler
+    }
+
     /**
      * Returns the default Preference node for the implementing class
      *
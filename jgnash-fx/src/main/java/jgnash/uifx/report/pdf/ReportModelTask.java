@@ -0,0 +1,76 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.report.pdf;
+
+import jgnash.report.table.AbstractReportTableModel;
+import jgnash.resource.util.ResourceUtils;
+import jgnash.util.DefaultDaemonThreadFactory;
+import jgnash.util.ReportRunner;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import javafx.concurrent.Task;
+
+/**
+ * Background task for generating a report model with a {@code ReportRunner}.
+ * <p>
+ * Cancelling the task cancels the runner so the row calculations stop promptly.  Runner progress is published
+ * through the task progress.  Tasks are started one at a time so a cancelled task has finished with the report
+ * before the next one uses it.
+ *
+ * @author Craig Cavanaugh
+ */
+public class ReportModelTask extends Task<AbstractReportTableModel> {
+
+    private static final ExecutorService executor =
+            Executors.newSingleThreadExecutor(new DefaultDaemonThreadFactory());
+
+    private final ReportRunner runner = new ReportRunner();
+
+    private final Function<ReportRunner, AbstractReportTableModel> modelFactory;
+
+    public ReportModelTask(final Function<ReportRunner, AbstractReportTableModel> modelFactory) {
+        this.modelFactory = modelFactory;
+    }
+
+    /**
+     * Queues the task for execution.
+     */
+    public void start() {
+        executor.execute(this);
+    }
+
+    @Override
+    protected AbstractReportTableModel call() {
+        updateMessage(ResourceUtils.getString("Message.CompilingReport"));
+        updateProgress(-1, Long.MAX_VALUE);
+
+        runner.setProgressListener(this::updateProgress);
+
+        return modelFactory.apply(runner);
+    }
+
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        runner.cancel();
+
+        return super.cancel(mayInterruptIfRunning);
+    }
+}
@@ -186,6 +186,11 @@ public class ReportViewerDialogController {
 
     private ReportController reportController;
 
+    /**
+     * Background generation of the report model, cancelled if the dialog is closed.
+     */
+    private Task<?> reportModelTask;
+
     /**
      * Used to limit report update rates.
      */
@@ -312,6 +317,10 @@ public class ReportViewerDialogController {
         parent.addListener((observable, oldValue, newValue) -> {
             if (newValue != null) {
                 parent.get().getWindow().setOnCloseRequest(event -> {
+                    if (reportModelTask != null) {
+                        reportModelTask.cancel();
+                    }
+
                     try {
                         report.get().close();
                     } catch (IOException e) {
@@ -339,6 +348,12 @@ public class ReportViewerDialogController {
             // install handler for refreshing a report
             reportController.setRefreshRunnable(this::refreshReport);
 
+            // display the progress of background report generation
+            reportController.setTaskHandler(task -> {
+                reportModelTask = task;
+                busyPane.setTask(task);
+            });
+
             // save the reference to the report
             reportController.getReport(report::set);
 
@@ -0,0 +1,182 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.util;
+
+import java.text.Format;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import javafx.scene.control.TableColumnBase;
+
+import jgnash.uifx.skin.ThemeManager;
+import jgnash.util.Nullable;
+
+/**
+ * Calculates the width required to display the contents of table columns.
+ * <p>
+ * Measuring text requires a trip to the Platform thread and is far more expensive than formatting a value, so the
+ * measured width of each displayed value is cached per column and reused by later calculations.  Repacking after
+ * rows are added only measures values that have not been seen before.
+ * <p>
+ * Columns of tables with more than {@link #SAMPLE_THRESHOLD} rows are sampled.  Every value is formatted, but only
+ * the longest formatted values, the visible rows and an evenly spaced sample of rows are measured.
+ *
+ * @param <S> The type of the objects contained within the TableView items list.
+ * @author Craig Cavanaugh
+ */
+final class ColumnWidthCalculator<S> {
+
+    /**
+     * Row count above which columns are sampled.
+     */
+    static final int SAMPLE_THRESHOLD = 2000;
+
+    /**
+     * Number of the longest formatted values measured when sampling.  Width is not strictly proportional to length
+     * with proportional fonts, so more than one is measured.
+     */
+    private static final int LONGEST_SAMPLE_SIZE = 64;
+
+    /**
+     * Number of evenly spaced rows measured when sampling.
+     */
+    private static final int SPACED_SAMPLE_SIZE = 256;
+
+    private static final int MAX_CACHED_WIDTHS = 8192;
+
+    private final Map<TableColumnBase<S, ?>, Map<String, Double>> widthCache = new HashMap<>();
+
+    private double fontScale;
+
+    /**
+     * Returns the width required to display the contents of a column.
+     *
+     * @param column          column to measure
+     * @param format          format for the cell values, may be null
+     * @param rowCount        number of rows in the table
+     * @param firstVisibleRow index of the first visible row
+     * @param lastVisibleRow  index of the last visible row, less than {@code firstVisibleRow} if unknown
+     * @return maximum width of the displayed values
+     */
+    synchronized double getContentWidth(final TableColumnBase<S, ?> column, @Nullable final Format format,
+                                        final int rowCount, final int firstVisibleRow, final int lastVisibleRow) {
+
+        // cached widths are only valid for the current font scale
+        final double scale = ThemeManager.fontScaleProperty().get();
+
+        if (scale != fontScale) {
+            widthCache.clear();
+            fontScale = scale;
+        }
+
+        final Set<String> values = new HashSet<>();
+
+        if (rowCount <= SAMPLE_THRESHOLD) {
+            for (int i = 0; i < rowCount; i++) {
+                addValue(values, column.getCellData(i), format);
+            }
+        } else {
+            values.addAll(getLongestValues(column, format, rowCount));
+
+            for (int i = Math.max(0, firstVisibleRow); i <= Math.min(lastVisibleRow, rowCount - 1); i++) {
+                addValue(values, column.getCellData(i), format);
+            }
+
+            final int step = Math.max(1, rowCount / SPACED_SAMPLE_SIZE);
+
+            for (int i = 0; i < rowCount; i += step) {
+                addValue(values, column.getCellData(i), format);
+            }
+        }
+
+        final Map<String, Double> widths = widthCache.computeIfAbsent(column, k -> new LinkedHashMap<>(16, 0.75f,
+                true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Double> eldest) {
+                return size() > MAX_CACHED_WIDTHS;
+            }
+        });
+
+        // measure new values in a single trip to the Platform thread
+        final List<String> unmeasured = new ArrayList<>();
+
+        for (final String value : values) {
+            if (!widths.containsKey(value)) {
+                unmeasured.add(value);
+            }
+        }
+
+        final double[] measured = JavaFXUtils.getDisplayedTextWidths(unmeasured, column.getStyle());
+
+        for (int i = 0; i < measured.length; i++) {
+            widths.put(unmeasured.get(i), measured[i]);
+        }
+
+        double maxWidth = 0;
+
+        for (final String value : values) {
+            final Double width = widths.get(value);
+
+            if (width != null) {
+                maxWidth = Math.max(maxWidth, width);
+            }
+        }
+
+        return maxWidth;
+    }
+
+    private static <S> Set<String> getLongestValues(final TableColumnBase<S, ?> column, final Format format,
+                                                    final int rowCount) {
+        final PriorityQueue<String> longest = new PriorityQueue<>(Comparator.comparingInt(String::length));
+        final Set<String> longestSet = new HashSet<>();
+
+        for (int i = 0; i < rowCount; i++) {
+            final Object data = column.getCellData(i);
+
+            if (data != null) {
+                final String value = format != null ? format.format(data) : data.toString();
+
+                if (!longestSet.contains(value)) {
+                    if (longest.size() < LONGEST_SAMPLE_SIZE) {
+                        longest.add(value);
+                        longestSet.add(value);
+                    } else if (value.length() > longest.peek().length()) {
+                        longestSet.remove(longest.poll());
+                        longest.add(value);
+                        longestSet.add(value);
+                    }
+                }
+            }
+        }
+
+        return longestSet;
+    }
+
+    private static void addValue(final Set<String> values, final Object data, final Format format) {
+        if (data != null) {
+            values.add(format != null ? format.format(data) : data.toString());
+        }
+    }
+}
@@ -19,6 +19,7 @@ package jgnash.uifx.util;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -257,6 +258,61 @@ public class JavaFXUtils {
         return width;
     }
 
+    /**
+     * Calculates the displayed widths of several text strings with a single trip to the Platform thread.
+     *
+     * @param displayStrings displayed text
+     * @param style          text style, may be null
+     * @return widths of the displayed strings in the same order
+     */
+    public static double[] getDisplayedTextWidths(@NotNull final List<String> displayStrings,
+                                                  @Nullable final String style) {
+        double[] widths = new double[displayStrings.size()];
+
+        if (!displayStrings.isEmpty()) {
+            if (Platform.isFxApplicationThread()) {
+                widths = _getDisplayedTextWidths(displayStrings, style);
+            } else {
+                final FutureTask<double[]> futureTask =
+                        new FutureTask<>(() -> _getDisplayedTextWidths(displayStrings, style));
+                Platform.runLater(futureTask);
+
+                try {
+                    widths = futureTask.get();
+                } catch (final InterruptedException | ExecutionException e) {
+                    logSevere(JavaFXUtils.class, e);
+                }
+            }
+        }
+
+        return widths;
+    }
+
+    private static double[] _getDisplayedTextWidths(@NotNull final List<String> displayStrings,
+                                                    @Nullable final String style) {
+        final double[] widths = new double[displayStrings.size()];
+        final double fontScale = ThemeManager.fontScaleProperty().doubleValue();
+
+        // a single Text and Scene is reused, the style only needs to be applied once
+        final Text text = new Text();
+
+        new Scene(new Group(text));
+
+        text.setStyle(style);
+        text.applyCss();
+
+        for (int i = 0; i < widths.length; i++) {
+            final String displayString = displayStrings.get(i);
+
+            if (!displayString.isEmpty()) {    // ignore empty strings
+                text.setText(displayString);
+                widths[i] = Math.ceil(text.getLayoutBounds().getWidth()) * fontScale;
+            }
+        }
+
+        return widths;
+    }
+
 	private static double _getDisplayedTextWidth(@NotNull final String displayString, @Nullable final String style) {
         final Text text = new Text(displayString);
         
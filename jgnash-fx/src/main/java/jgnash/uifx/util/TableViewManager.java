@@ -19,11 +19,7 @@ package jgnash.uifx.util;
 
 import java.text.Format;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
-import java.util.OptionalDouble;
-import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -39,9 +35,12 @@ import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import javafx.scene.Node;
+import javafx.scene.control.IndexedCell;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableColumnBase;
 import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
 import javafx.util.Callback;
 
 import jgnash.util.EncodeDecode;
@@ -97,6 +96,11 @@ public class TableViewManager<S> {
 
     private final ColumnWidthListener columnWidthListener = new ColumnWidthListener();
 
+    /**
+     * Caches measured column contents between packs.
+     */
+    private final ColumnWidthCalculator<S> columnWidthCalculator = new ColumnWidthCalculator<>();
+
     /**
      * If true, manual packing for the table should be allowed
      */
@@ -183,29 +187,13 @@ public class TableViewManager<S> {
     /**
      * Determines the preferred width of the column including contents.
      *
-     * @param column {@code TableColumn} to measure content
+     * @param column      {@code TableColumn} to measure content
+     * @param visibleRows index of the first and last visible rows
      * @return preferred width
      */
-    private double getCalculatedColumnWidth(final TableColumnBase<S, ?> column) {
-        double maxWidth = 0;
-
-        /* Collect all the unique cell items and remove null*/
-        final Set<Object> cellItems = new HashSet<>();
-
-        for (int i = 0; i < tableView.getItems().size(); i++) {
-            cellItems.add(column.getCellData(i));
-        }
-        cellItems.remove(null);
-
-        if (cellItems.size() > 0) { // don't try if there is no data or the stream function will throw an error
-
-            final OptionalDouble max = cellItems.parallelStream().filter(Objects::nonNull).mapToDouble(o -> {
-                final Format format = columnFormatFactory.get().call(column);   // thread local format per thread
-                return JavaFXUtils.getDisplayedTextWidth(format != null ? format.format(o) : o.toString(), column.getStyle());
-            }).max();
-
-            maxWidth = max.isPresent() ? max.getAsDouble() : 0;
-        }
+    private double getCalculatedColumnWidth(final TableColumnBase<S, ?> column, final int[] visibleRows) {
+        double maxWidth = columnWidthCalculator.getContentWidth(column, columnFormatFactory.get().call(column),
+                tableView.getItems().size(), visibleRows[0], visibleRows[1]);
 
         //noinspection SuspiciousMethodCalls
         maxWidth = Math.max(maxWidth, Math.max(column.getMinWidth(), minimumColumnWidthFactory
@@ -331,6 +319,33 @@ public class TableViewManager<S> {
         return columnWidths;
     }
 
+    /**
+     * Returns the index of the first and last visible rows.
+     *
+     * @return the first and last index, the last is less than the first if the rows are not known
+     */
+    private int[] getVisibleRows() {
+        final int[] visibleRows = {0, -1};
+
+        if (tableView.getItems().size() > ColumnWidthCalculator.SAMPLE_THRESHOLD) {
+            JavaFXUtils.runAndWait(() -> {
+                final Node node = tableView.lookup(".virtual-flow");
+
+                if (node instanceof VirtualFlow) {
+                    final IndexedCell<?> first = ((VirtualFlow<?>) node).getFirstVisibleCell();
+                    final IndexedCell<?> last = ((VirtualFlow<?>) node).getLastVisibleCell();
+
+                    if (first != null && last != null) {
+                        visibleRows[0] = first.getIndex();
+                        visibleRows[1] = last.getIndex();
+                    }
+                }
+            });
+        }
+
+        return visibleRows;
+    }
+
     /**
      * Called when the table columns need to be repacked because of content change
      */
@@ -396,13 +411,15 @@ public class TableViewManager<S> {
                 final boolean doExpensiveCalculations = oldWidths.length != visibleColumns.size()
                         || packCounter.get() > 1 || forceCalculations;
 
+                final int[] visibleRows = doExpensiveCalculations ? getVisibleRows() : new int[]{0, -1};
+
                 for (int i = 0; i < calculatedWidths.length; i++) {
                     if (visibleColumnWeights.get(i) == 0) {
 
                         /* expensive operation, don't calculate if we are reusing older values */
                         if (doExpensiveCalculations) {
                             clearTimeStamp();
-                            calculatedWidths[i] = getCalculatedColumnWidth(visibleColumns.get(i));
+                            calculatedWidths[i] = getCalculatedColumnWidth(visibleColumns.get(i), visibleRows);
                             saveTimeStamp();    // indicate recalculation is complete
                         }
                         sumFixedColumns += calculatedWidths[i];
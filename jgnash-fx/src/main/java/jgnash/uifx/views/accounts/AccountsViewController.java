@@ -376,6 +376,8 @@ public class AccountsViewController implements MessageListener {
                 break;
             case TRANSACTION_ADD:
             case TRANSACTION_REMOVE:
+            case TRANSACTIONS_ADD:
+            case TRANSACTIONS_REMOVE:
                 JavaFXUtils.runLater(() -> treeTableView.refresh());
                 break;
             case FILE_CLOSING:
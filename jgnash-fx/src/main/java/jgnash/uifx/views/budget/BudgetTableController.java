@@ -47,6 +47,7 @@ import javafx.beans.value.ChangeListener;
 import javafx.beans.value.WeakChangeListener;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
 import javafx.fxml.FXML;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
@@ -548,6 +549,9 @@ public class BudgetTableController implements MessageListener {
 
                 // load the model
                 loadModel();
+
+                // fill the result cache in the background, cells calculate missing results on demand
+                calculateResults(budgetResultsModel);
             } else {
                 Platform.runLater(() -> {
                     accountTreeView.setRoot(null);
@@ -560,6 +564,32 @@ public class BudgetTableController implements MessageListener {
         }
     }
 
+    /**
+     * Fills the result cache of a new model off the application thread and refreshes the tables when done.
+     *
+     * @param model new budget results model
+     */
+    private void calculateResults(final BudgetResultsModel model) {
+        final Task<Void> task = new Task<>() {
+            @Override
+            protected Void call() {
+                model.calculateResults();
+                return null;
+            }
+        };
+
+        task.setOnSucceeded(event -> {
+            if (model == budgetResultsModel) {  // ignore if the model has been replaced
+                handleTransactionUpdate();
+            }
+        });
+
+        task.setOnFailed(event -> Logger.getLogger(BudgetTableController.class.getName())
+                .log(Level.SEVERE, task.getException().getLocalizedMessage(), task.getException()));
+
+        new DefaultDaemonThreadFactory().newThread(task).start();
+    }
+
     /**
      * Maintains the list of expanded accounts.
      */
@@ -1242,6 +1272,8 @@ public class BudgetTableController implements MessageListener {
                 break;
             case TRANSACTION_ADD:
             case TRANSACTION_REMOVE:
+            case TRANSACTIONS_ADD:
+            case TRANSACTIONS_REMOVE:
                 handleTransactionUpdate();
                 break;
             default:
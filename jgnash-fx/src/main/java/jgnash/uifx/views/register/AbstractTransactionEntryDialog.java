@@ -80,6 +80,9 @@ abstract class AbstractTransactionEntryDialog extends Stage {
 
     private final SortedList<TransactionEntry> sortedList = new SortedList<>(transactionEntries);
 
+    private final RunningBalanceModel<TransactionEntry> runningBalance = new RunningBalanceModel<>(sortedList,
+            this::getAmount);
+
     abstract String getPrefNode();
 
     /**
@@ -98,6 +101,7 @@ abstract class AbstractTransactionEntryDialog extends Stage {
     @FXML
     private void initialize() {
         accountProperty().addListener((observable, oldValue, newValue) -> {
+            runningBalance.invalidate();    // amounts are relative to the account
             initForm();
             loadTable();
         });
@@ -222,18 +226,13 @@ abstract class AbstractTransactionEntryDialog extends Stage {
     }
 
     private BigDecimal getBalanceAt(final TransactionEntry transactionEntry) {
-        BigDecimal balance = BigDecimal.ZERO;
+        return runningBalance.getBalanceAt(transactionEntry);
+    }
 
+    private BigDecimal getAmount(final TransactionEntry transactionEntry) {
         final Account account = this.account.get();
 
-        if (account != null) {
-            final int index = sortedList.indexOf(transactionEntry);
-
-            for (int i = 0; i <= index; i++) {
-                balance = balance.add(sortedList.get(i).getAmount(account));
-            }
-        }
-        return balance;
+        return account != null ? transactionEntry.getAmount(account) : BigDecimal.ZERO;
     }
 
     private void closeAction() {
@@ -260,11 +259,7 @@ abstract class AbstractTransactionEntryDialog extends Stage {
     }
 
     BigDecimal getBalance() {
-        if (sortedList.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        return getBalanceAt(sortedList.get(sortedList.size() - 1));
+        return runningBalance.getBalance();
     }
 
     void show(final Runnable runnable) {
@@ -88,6 +88,8 @@ class AccountPropertyWrapper implements MessageListener {
             case ACCOUNT_MODIFY:
             case TRANSACTION_ADD:
             case TRANSACTION_REMOVE:
+            case TRANSACTIONS_ADD:
+            case TRANSACTIONS_REMOVE:
                 if (event.getObject(MessageProperty.ACCOUNT).equals(account.get())) {
                     updateProperties();
                 }
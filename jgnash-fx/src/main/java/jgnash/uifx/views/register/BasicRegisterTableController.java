@@ -52,6 +52,12 @@ public class BasicRegisterTableController extends RegisterTableController {
 
     private static final boolean[] DEFAULT_COLUMN_VISIBILITY = {true, false, true, true, true, true, true, true, true, true};
 
+    /**
+     * Running balance of the sorted and filtered transactions.
+     */
+    private final RunningBalanceModel<Transaction> runningBalance = new RunningBalanceModel<>(sortedList,
+            this::getAmount);
+
     @FXML
     @Override
     void initialize() {
@@ -158,18 +164,13 @@ public class BasicRegisterTableController extends RegisterTableController {
     }
 
     private BigDecimal getBalanceAt(final Transaction transaction) {
-        BigDecimal balance = BigDecimal.ZERO;
+        return runningBalance.getBalanceAt(transaction);
+    }
 
+    private BigDecimal getAmount(final Transaction transaction) {
         final Account account = this.account.get();
 
-        if (account != null) {
-            final int index = sortedList.indexOf(transaction);
-
-            for (int i = 0; i <= index; i++) {
-                balance = balance.add(sortedList.get(i).getAmount(account));
-            }
-        }
-        return balance;
+        return account != null ? transaction.getAmount(account) : BigDecimal.ZERO;
     }
 
     private class AccountNameWrapper extends SimpleStringProperty {
@@ -707,6 +707,34 @@ abstract class RegisterTableController {
                             refreshTable();
                         });
 
+                        break;
+                    case TRANSACTIONS_REMOVE:
+                        final List<Transaction> removedTransactions = event.getObjects(MessageProperty.TRANSACTION);
+
+                        JavaFXUtils.runLater(RegisterTableController.this::clearTableSelection);
+                        JavaFXUtils.runLater(() -> observableTransactions.removeAll(removedTransactions));
+
+                        // this will force the running balance to recalculate once for the batch
+                        refreshTable();
+
+                        break;
+                    case TRANSACTIONS_ADD:
+                        final List<Transaction> addedTransactions = event.getObjects(MessageProperty.TRANSACTION);
+
+                        JavaFXUtils.runLater(() -> {
+                            for (final Transaction transaction : addedTransactions) {
+                                final int index = Collections.binarySearch(observableTransactions, transaction,
+                                        tableView.getComparator());
+
+                                if (index < 0) {
+                                    observableTransactions.add(-index - 1, transaction);
+                                }
+                            }
+
+                            // this will force the running balance to recalculate once for the batch
+                            refreshTable();
+                        });
+
                         break;
                     default:
                 }
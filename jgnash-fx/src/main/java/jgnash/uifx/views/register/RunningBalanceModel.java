@@ -0,0 +1,159 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.views.register;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+/**
+ * Running balance of the rows of a register table.
+ * <p>
+ * Balances are computed in a single pass when first requested and cached with the row index of each item.  Changes
+ * to the list, including sorting and filtering, invalidate only the rows at and after the first changed row, so
+ * appending a transaction is cheap and the balance of a visible row is a constant time lookup.
+ * <p>
+ * Items are tracked by identity because split entries may be equal to each other.  Must be used from the JavaFX
+ * application thread.
+ *
+ * @param <T> type of the table rows
+ * @author Craig Cavanaugh
+ */
+final class RunningBalanceModel<T> {
+
+    private final ObservableList<T> list;
+
+    private final Function<T, BigDecimal> amountFunction;
+
+    /**
+     * Running balance of each row, valid for rows less than {@code validCount}.
+     */
+    private final List<BigDecimal> balances = new ArrayList<>();
+
+    /**
+     * Row index of each item, valid for indexes less than {@code validCount}.
+     */
+    private final Map<T, Integer> indexMap = new IdentityHashMap<>();
+
+    private int validCount = 0;
+
+    @SuppressWarnings("FieldCanBeLocal")
+    private final ListChangeListener<T> listChangeListener;
+
+    /**
+     * Creates a running balance for a list.
+     *
+     * @param list           the sorted and filtered list displayed by the table
+     * @param amountFunction returns the amount of a row, must not return {@code null}
+     */
+    RunningBalanceModel(final ObservableList<T> list, final Function<T, BigDecimal> amountFunction) {
+        this.list = Objects.requireNonNull(list);
+        this.amountFunction = Objects.requireNonNull(amountFunction);
+
+        listChangeListener = change -> {
+            while (change.next()) {
+                invalidateFrom(change.getFrom());
+
+                if (change.wasRemoved()) {
+                    for (final T item : change.getRemoved()) {
+                        indexMap.remove(item);
+                    }
+                }
+            }
+        };
+
+        list.addListener(listChangeListener);
+    }
+
+    /**
+     * Forces a full recalculation, used when the amounts of the rows change without a change to the list.
+     */
+    void invalidate() {
+        invalidateFrom(0);
+    }
+
+    private void invalidateFrom(final int index) {
+        validCount = Math.min(validCount, index);
+    }
+
+    /**
+     * Returns the running balance at a row.
+     *
+     * @param item the row
+     * @return the balance, or zero if the item is not in the list
+     */
+    BigDecimal getBalanceAt(final T item) {
+        Integer index = indexMap.get(item);
+
+        if (index == null || index >= validCount) {
+            update();
+
+            index = indexMap.get(item);
+
+            if (index == null) {
+                return BigDecimal.ZERO;
+            }
+        }
+
+        return balances.get(index);
+    }
+
+    /**
+     * Returns the running balance of the last row.
+     *
+     * @return the balance, or zero if the list is empty
+     */
+    BigDecimal getBalance() {
+        update();
+
+        return validCount > 0 ? balances.get(validCount - 1) : BigDecimal.ZERO;
+    }
+
+    private void update() {
+        final int size = list.size();
+
+        BigDecimal balance = validCount > 0 ? balances.get(validCount - 1) : BigDecimal.ZERO;
+
+        for (int i = validCount; i < size; i++) {
+            final T item = list.get(i);
+
+            balance = balance.add(amountFunction.apply(item));
+
+            if (i < balances.size()) {
+                balances.set(i, balance);
+            } else {
+                balances.add(balance);
+            }
+
+            indexMap.put(item, i);
+        }
+
+        if (balances.size() > size) {
+            balances.subList(size, balances.size()).clear();
+        }
+
+        validCount = size;
+    }
+}
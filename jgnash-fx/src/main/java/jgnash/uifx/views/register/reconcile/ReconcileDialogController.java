@@ -425,6 +425,17 @@ public class ReconcileDialogController implements MessageListener {
     @Override
     public void messagePosted(final Message message) {
         if (account != null && account.equals(message.getObject(MessageProperty.ACCOUNT))) {
+            switch (message.getEvent()) {
+                case TRANSACTIONS_REMOVE:
+                    processTransactionsRemove(message.getObjects(MessageProperty.TRANSACTION));
+                    return;
+                case TRANSACTIONS_ADD:
+                    processTransactionsAdd(message.getObjects(MessageProperty.TRANSACTION));
+                    return;
+                default:
+                    break;
+            }
+
             final Transaction transaction = message.getObject(MessageProperty.TRANSACTION);
 
             if (transaction != null) {
@@ -461,6 +472,37 @@ public class ReconcileDialogController implements MessageListener {
         }
     }
 
+    private void processTransactionsRemove(final List<Transaction> removed) {
+        readWriteLock.writeLock().lock();
+        try {
+            for (final Transaction transaction : removed) {
+                final RecTransaction trans = findTransaction(transaction);
+
+                if (trans != null) {
+                    transactions.removeAll(trans);
+                }
+            }
+            updateCalculatedValues();
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
+    private void processTransactionsAdd(final List<Transaction> added) {
+        readWriteLock.writeLock().lock();
+        try {
+            for (final Transaction transaction : added) {
+                if (reconcilable(transaction)) {
+                    transactions.add(new RecTransaction(transaction, transaction.getReconciled(account)));
+                }
+            }
+            FXCollections.sort(transactions);
+            updateCalculatedValues();
+        } finally {
+            readWriteLock.writeLock().unlock();
+        }
+    }
+
     private static class NumberChangeListener implements ChangeListener<Number> {
         private final TableViewManager<RecTransaction> tableViewManager;
         private final TableView<RecTransaction> tableView;
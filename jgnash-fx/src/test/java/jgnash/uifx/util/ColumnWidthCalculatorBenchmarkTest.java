@@ -0,0 +1,123 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.util;
+
+import java.math.BigDecimal;
+import java.text.Format;
+import java.text.NumberFormat;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javafx.application.Platform;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIfEnvironmentVariable;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares measuring every distinct value of a column with the cached and sampled column width calculation.
+ *
+ * @author Craig Cavanaugh
+ */
+class ColumnWidthCalculatorBenchmarkTest {
+
+    private static final int ROW_COUNT = 100_000;
+
+    @BeforeAll
+    static void beforeAll() {
+        try {
+            Platform.startup(() -> {});
+        } catch (final IllegalStateException e) {
+            // toolkit is already running
+        }
+    }
+
+    @Test
+    @DisabledIfEnvironmentVariable(named = "CI", matches = "true")  // disable on Travis-CI
+    void testPackThroughput() {
+        final TableView<BigDecimal> tableView = new TableView<>();
+
+        BigDecimal balance = BigDecimal.ZERO;
+
+        for (int i = 0; i < ROW_COUNT; i++) {
+            balance = balance.add(BigDecimal.valueOf(i % 1000 - 480, 2));
+            tableView.getItems().add(balance);
+        }
+
+        final TableColumn<BigDecimal, BigDecimal> balanceColumn = new TableColumn<>("Balance");
+        balanceColumn.setCellValueFactory(param -> new SimpleObjectProperty<>(param.getValue()));
+        tableView.getColumns().add(balanceColumn);
+
+        final Format format = NumberFormat.getCurrencyInstance();
+
+        long start = System.nanoTime();
+
+        final double fullWidth = measureEveryValue(balanceColumn, format, ROW_COUNT);
+
+        final double fullSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        final ColumnWidthCalculator<BigDecimal> calculator = new ColumnWidthCalculator<>();
+
+        start = System.nanoTime();
+
+        final double sampledWidth = calculator.getContentWidth(balanceColumn, format, ROW_COUNT, 0, 40);
+
+        final double sampledSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        // a repack after a row is added only measures new values
+        tableView.getItems().add(balance.add(BigDecimal.ONE));
+
+        start = System.nanoTime();
+
+        calculator.getContentWidth(balanceColumn, format, ROW_COUNT + 1, 0, 40);
+
+        final double repackSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d rows: every value %.3f s (%.1f px), sampled %.3f s (%.1f px), repack %.3f s%n",
+                ROW_COUNT, fullSeconds, fullWidth, sampledSeconds, sampledWidth, repackSeconds);
+
+        assertTrue(sampledWidth >= fullWidth * 0.95);
+    }
+
+    /**
+     * The prior calculation, every distinct value is measured.
+     */
+    private static double measureEveryValue(final TableColumn<BigDecimal, ?> column, final Format format,
+                                            final int rowCount) {
+        final Set<Object> cellItems = new HashSet<>();
+
+        for (int i = 0; i < rowCount; i++) {
+            cellItems.add(column.getCellData(i));
+        }
+
+        // formatted up front because the format is not thread safe
+        final List<String> values = cellItems.stream().filter(Objects::nonNull).map(format::format)
+                .collect(Collectors.toList());
+
+        return values.parallelStream().mapToDouble(value -> JavaFXUtils.getDisplayedTextWidth(value,
+                column.getStyle())).max().orElse(0);
+    }
+}
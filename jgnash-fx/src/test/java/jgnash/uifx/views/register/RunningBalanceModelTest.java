@@ -0,0 +1,105 @@
+/*
+ * jGnash, a personal finance application
+ * Copyright (C) 2001-2019 Craig Cavanaugh
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package jgnash.uifx.views.register;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Random;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Validates the running balance against a full summation while the list is modified, sorted and filtered.
+ *
+ * @author Craig Cavanaugh
+ */
+class RunningBalanceModelTest {
+
+    @Test
+    void testRunningBalance() {
+        final ObservableList<BigDecimal> items = FXCollections.observableArrayList();
+        final FilteredList<BigDecimal> filteredList = new FilteredList<>(items, amount -> true);
+        final SortedList<BigDecimal> sortedList = new SortedList<>(filteredList);
+
+        final RunningBalanceModel<BigDecimal> model = new RunningBalanceModel<>(sortedList, amount -> amount);
+
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 200; i++) {
+            items.add(new BigDecimal(random.nextInt(1000) - 500));   // distinct instances
+        }
+
+        // equal but distinct rows, as occurs with split entries
+        items.add(new BigDecimal("10"));
+        items.add(new BigDecimal("10"));
+
+        assertBalances(sortedList, model);
+
+        for (int i = 0; i < 50; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    items.add(random.nextInt(items.size()), new BigDecimal(random.nextInt(1000)));
+                    break;
+                case 1:
+                    items.remove(random.nextInt(items.size()));
+                    break;
+                case 2:
+                    sortedList.setComparator(random.nextBoolean() ? Comparator.naturalOrder()
+                            : Comparator.reverseOrder());
+                    break;
+                case 3:
+                    final int limit = random.nextInt(500);
+                    filteredList.setPredicate(amount -> amount.intValue() < limit);
+                    break;
+                default:
+                    filteredList.setPredicate(amount -> true);
+            }
+
+            assertBalances(sortedList, model);
+        }
+    }
+
+    private static void assertBalances(final ObservableList<BigDecimal> list,
+                                       final RunningBalanceModel<BigDecimal> model) {
+        // request in reverse order so each lookup does not rely on a prior lookup
+        for (int i = list.size() - 1; i >= 0; i--) {
+            BigDecimal balance = BigDecimal.ZERO;
+
+            for (int j = 0; j <= i; j++) {
+                balance = balance.add(list.get(j));
+            }
+
+            assertEquals(balance, model.getBalanceAt(list.get(i)));
+        }
+
+        BigDecimal total = BigDecimal.ZERO;
+
+        for (final BigDecimal amount : list) {
+            total = total.add(amount);
+        }
+
+        assertEquals(total, model.getBalance());
+    }
+}